@@ -0,0 +1,29 @@
+package org.naviqore.app.config;
+
+import org.naviqore.app.controller.RequestCancellation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Binds a cancellation token with the configured request timeout to each routing request. Routing queries stop at the
+ * timeout and return the best-effort results found so far instead of keeping a CPU busy after the client has given up.
+ */
+@Configuration
+public class RequestCancellationConfig implements WebMvcConfigurer {
+
+    private final Duration requestTimeout;
+
+    public RequestCancellationConfig(@Value("${routing.request.timeout}") int requestTimeout) {
+        this.requestTimeout = Duration.ofSeconds(requestTimeout);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(RequestCancellation.interceptor(requestTimeout)).addPathPatterns("/routing/**");
+    }
+
+}
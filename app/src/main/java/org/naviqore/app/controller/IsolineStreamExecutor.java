@@ -0,0 +1,60 @@
+package org.naviqore.app.controller;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.utils.concurrent.CancellationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs streamed isoline queries off the request thread, which is released while the events are sent. Each stream runs
+ * on its own virtual thread. When the application shuts down, the tokens of the running streams are cancelled, so that
+ * their routing stops at the next safe point.
+ */
+@Slf4j
+@Component
+class IsolineStreamExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<CancellationToken> runningTokens = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Runs the stream.
+     *
+     * @param token the token of the stream, cancelled on shutdown.
+     * @param task  the task routing and sending the isolines.
+     * @throws RejectedExecutionException if the executor is shut down.
+     */
+    void execute(CancellationToken token, Runnable task) {
+        // the never cancelled token cannot be cancelled on shutdown
+        if (token != CancellationToken.NONE) {
+            runningTokens.add(token);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    runningTokens.remove(token);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runningTokens.remove(token);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        log.info("Stopping {} running isoline streams", runningTokens.size());
+        runningTokens.forEach(CancellationToken::cancel);
+        executor.shutdown();
+    }
+
+}
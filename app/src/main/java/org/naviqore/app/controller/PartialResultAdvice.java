@@ -0,0 +1,36 @@
+package org.naviqore.app.controller;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Flags routing responses with the {@value RequestCancellation#PARTIAL_RESULT_HEADER} header if routing was stopped
+ * early by the request timeout and the response contains best-effort results only.
+ */
+@RestControllerAdvice(assignableTypes = RoutingController.class)
+public class PartialResultAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public @Nullable Object beforeBodyWrite(@Nullable Object body, MethodParameter returnType,
+                                            MediaType selectedContentType,
+                                            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                            ServerHttpRequest request, ServerHttpResponse response) {
+        if (RequestCancellation.current().hasPartialResults()) {
+            response.getHeaders().set(RequestCancellation.PARTIAL_RESULT_HEADER, "true");
+        }
+
+        return body;
+    }
+
+}
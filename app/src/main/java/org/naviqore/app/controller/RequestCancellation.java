@@ -0,0 +1,82 @@
+package org.naviqore.app.controller;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.utils.concurrent.CancellationToken;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Binds a {@link CancellationToken} to each routing request, so that routing stops at the request timeout and returns
+ * the best-effort results found so far. Responses with partial results are flagged with the
+ * {@value #PARTIAL_RESULT_HEADER} header.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RequestCancellation {
+
+    public static final String PARTIAL_RESULT_HEADER = "X-Partial-Result";
+
+    private static final String TOKEN_ATTRIBUTE = RequestCancellation.class.getName() + ".token";
+
+    /**
+     * Creates an interceptor which binds a new token to each request.
+     *
+     * @param timeout the request timeout, zero or negative values disable the timeout.
+     */
+    public static HandlerInterceptor interceptor(Duration timeout) {
+        return new Interceptor(timeout);
+    }
+
+    /**
+     * Gets the token of the current request. Returns the never cancelled token if no request is bound to the current
+     * thread or no token was bound to the request.
+     */
+    static CancellationToken current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return CancellationToken.NONE;
+        }
+
+        Object token = attributes.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return token instanceof CancellationToken cancellationToken ? cancellationToken : CancellationToken.NONE;
+    }
+
+    @RequiredArgsConstructor
+    private static class Interceptor implements HandlerInterceptor {
+
+        private final Duration timeout;
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            // the async dispatch of a streamed response keeps the token of the initial dispatch, which the streaming
+            // task is still using
+            if (request.getDispatcherType() == DispatcherType.ASYNC) {
+                return true;
+            }
+
+            CancellationToken token = timeout.isPositive() ? CancellationToken.withTimeout(
+                    timeout) : CancellationToken.create();
+            request.setAttribute(TOKEN_ATTRIBUTE, token);
+
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                    @Nullable Exception ex) {
+            // stop any computation still bound to the request, e.g. segments of a failed isoline query
+            if (request.getAttribute(TOKEN_ATTRIBUTE) instanceof CancellationToken token) {
+                token.cancel();
+            }
+        }
+    }
+
+}
@@ -5,26 +5,31 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
 import org.naviqore.app.dto.*;
+import org.naviqore.service.ConnectionQuery;
 import org.naviqore.service.PublicTransitService;
 import org.naviqore.service.RoutingFeatures;
 import org.naviqore.service.Stop;
 import org.naviqore.service.config.ConnectionQueryConfig;
 import org.naviqore.service.exception.ConnectionRoutingException;
+import org.naviqore.utils.concurrent.CancellationToken;
 import org.naviqore.utils.spatial.GeoCoordinate;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.naviqore.app.dto.DtoMapper.map;
 
@@ -37,8 +42,12 @@ import static org.naviqore.app.dto.DtoMapper.map;
 public class RoutingController {
 
     private static final String DEFAULT_TIME_TYPE = "DEPARTURE";
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String ISOLINE_EVENT = "isoline";
+    private static final String COMPLETE_EVENT = "complete";
 
     private final PublicTransitService service;
+    private final IsolineStreamExecutor streamExecutor;
 
     @Operation(summary = "Get information about the routing", description = "Get all relevant information about the routing features supported by the service.")
     @ApiResponse(responseCode = "200", description = "A list of routing features supported by the service.")
@@ -72,34 +81,31 @@ public class RoutingController {
                                            @RequestParam(required = false, defaultValue = "false") boolean wheelchairAccessible,
                                            @RequestParam(required = false, defaultValue = "false") boolean bikeAllowed,
                                            @RequestParam(required = false) EnumSet<TravelMode> travelModes) throws ConnectionRoutingException {
-        // get coordinates if available
-        GeoCoordinate sourceCoordinate = RequestValidator.getCoordinateIfAvailable(sourceStopId, sourceLatitude,
-                sourceLongitude, StopType.SOURCE);
-        GeoCoordinate targetCoordinate = RequestValidator.getCoordinateIfAvailable(targetStopId, targetLatitude,
-                targetLongitude, StopType.TARGET);
+        ConnectionQuery query = createConnectionQuery(sourceStopId, sourceLatitude, sourceLongitude, targetStopId,
+                targetLatitude, targetLongitude, dateTime, timeType, timeWindowDuration, maxWalkDuration,
+                maxTransfers, maxTravelDuration, minTransferDuration, wheelchairAccessible, bikeAllowed, travelModes);
 
-        // get stops if available
-        Stop sourceStop = RequestValidator.getStopIfAvailable(sourceStopId, service, StopType.SOURCE);
-        Stop targetStop = RequestValidator.getStopIfAvailable(targetStopId, service, StopType.TARGET);
+        return map(service.getConnections(query));
+    }
 
-        // configure routing request
-        dateTime = RequestValidator.validateAndSetDefaultDateTime(dateTime, service);
-        ConnectionQueryConfig config = Utils.createConfig(timeWindowDuration, maxWalkDuration, maxTransfers,
-                maxTravelDuration, minTransferDuration, wheelchairAccessible, bikeAllowed, travelModes, service);
+    @Operation(summary = "Request connections for a batch of queries", description = "Requests connections for a batch of queries in one request. Each query supports the same parameters as the connections endpoint. Queries on the same service day are routed together, which is considerably faster than issuing the queries one by one.")
+    @ApiResponse(responseCode = "200", description = "A result per query, in the order of the queries. Each result contains the connections of the query, is flagged as partial if routing the query was stopped early by the request timeout, and carries the error code (routing-error) if routing the query failed.")
+    @ApiResponse(responseCode = "400", description = "Invalid input parameters (invalid-parameters, invalid-coordinates, invalid-datetime, unsupported-routing-feature, constraint-violation, method-argument-not-valid, malformed-request-body)", content = @Content(schema = @Schema()))
+    @ApiResponse(responseCode = "404", description = "Stop not found (stop-not-found)", content = @Content(schema = @Schema()))
+    @ApiResponse(responseCode = "500", description = "Internal server error (internal-server-error)", content = @Content(schema = @Schema()))
+    @PostMapping("/connections/batch")
+    public List<ConnectionBatchResult> getConnectionsBatch(
+            @RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid ConnectionRequest> requests) {
+        List<ConnectionQuery> queries = requests.stream()
+                .map(request -> createConnectionQuery(request.getSourceStopId(), request.getSourceLatitude(),
+                        request.getSourceLongitude(), request.getTargetStopId(), request.getTargetLatitude(),
+                        request.getTargetLongitude(), request.getDateTime(), request.getTimeType(),
+                        request.getTimeWindowDuration(), request.getMaxWalkDuration(), request.getMaxTransfers(),
+                        request.getMaxTravelDuration(), request.getMinTransferDuration(),
+                        request.isWheelchairAccessible(), request.isBikeAllowed(), request.getTravelModes()))
+                .toList();
 
-        // determine routing case and get connections
-        if (sourceStop != null && targetStop != null) {
-            RequestValidator.validateStopsAreDifferent(sourceStopId, targetStopId);
-            return map(service.getConnections(sourceStop, targetStop, dateTime, map(timeType), config));
-        } else if (sourceStop != null) {
-            return map(service.getConnections(sourceStop, targetCoordinate, dateTime, map(timeType), config));
-        } else if (targetStop != null) {
-            return map(service.getConnections(sourceCoordinate, targetStop, dateTime, map(timeType), config));
-        } else {
-            assert sourceCoordinate != null; // never happens
-            RequestValidator.validateCoordinatesAreDifferent(sourceCoordinate, targetCoordinate);
-            return map(service.getConnections(sourceCoordinate, targetCoordinate, dateTime, map(timeType), config));
-        }
+        return service.getConnections(queries).stream().map(DtoMapper::map).toList();
     }
 
     @Operation(summary = "Request a list of fastest connections to each reachable stop", description = "Request a list of fastest connections to each reachable stop from a specified stop or location at a given departure / arrival datetime.")
@@ -141,6 +147,152 @@ public class RoutingController {
         }
     }
 
+    @Operation(summary = "Stream the fastest connections to each reachable stop", description = "Streams the fastest connection to each reachable stop as server-sent events, using the same parameters as the isolines endpoint. Each stop is sent as an 'isoline' event as soon as its connection is final, which allows clients to render results progressively. A final 'complete' event reports whether the results are partial because the request timed out. With a time window, the connections are only known at the end and are sent after routing has finished.")
+    @ApiResponse(responseCode = "200", description = "A stream of stop and fastest connection pairs for each reachable stop.")
+    @ApiResponse(responseCode = "400", description = "Invalid input parameters (invalid-parameters, invalid-coordinates, invalid-datetime, unsupported-routing-feature, constraint-violation, type-mismatch, missing-request-parameter)", content = @Content(schema = @Schema()))
+    @ApiResponse(responseCode = "404", description = "Stop not found (stop-not-found)", content = @Content(schema = @Schema()))
+    @GetMapping(value = "/isolines/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIsolines(@RequestParam(required = false) String sourceStopId,
+                                     @RequestParam(required = false) Double sourceLatitude,
+                                     @RequestParam(required = false) Double sourceLongitude,
+                                     @RequestParam(required = false) OffsetDateTime dateTime,
+                                     @RequestParam(required = false, defaultValue = DEFAULT_TIME_TYPE) TimeType timeType,
+                                     @RequestParam(required = false, defaultValue = "0") @Min(0) Integer timeWindowDuration,
+                                     @RequestParam(required = false) @Min(0) Integer maxWalkDuration,
+                                     @RequestParam(required = false) @Min(0) Integer maxTransfers,
+                                     @RequestParam(required = false) @Min(1) Integer maxTravelDuration,
+                                     @RequestParam(required = false, defaultValue = "0") @Min(0) Integer minTransferDuration,
+                                     @RequestParam(required = false, defaultValue = "false") boolean wheelchairAccessible,
+                                     @RequestParam(required = false, defaultValue = "false") boolean bikeAllowed,
+                                     @RequestParam(required = false) EnumSet<TravelMode> travelModes,
+                                     @RequestParam(required = false, defaultValue = "false") boolean detailed) {
+
+        // validate the request on the request thread, so that invalid requests fail with a problem detail response
+        GeoCoordinate sourceCoordinate = RequestValidator.getCoordinateIfAvailable(sourceStopId, sourceLatitude,
+                sourceLongitude, StopType.SOURCE);
+        Stop sourceStop = RequestValidator.getStopIfAvailable(sourceStopId, service, StopType.SOURCE);
+        OffsetDateTime time = RequestValidator.validateAndSetDefaultDateTime(dateTime, service);
+        ConnectionQueryConfig config = Utils.createConfig(timeWindowDuration, maxWalkDuration, maxTransfers,
+                maxTravelDuration, minTransferDuration, wheelchairAccessible, bikeAllowed, travelModes, service);
+
+        // stop routing as soon as the stream completes, the client disconnects or the emitter times out, the request
+        // itself completes only after the stream
+        CancellationToken token = config.getCancellationToken();
+        SseEmitter emitter = new SseEmitter();
+        if (token != CancellationToken.NONE) {
+            emitter.onCompletion(token::cancel);
+            emitter.onTimeout(token::cancel);
+            emitter.onError(_ -> token.cancel());
+        }
+
+        streamExecutor.execute(token, () -> {
+            IsolineEventSender sender = new IsolineEventSender(emitter, token, timeType, detailed);
+            try {
+                if (sourceStop != null) {
+                    service.streamIsolines(sourceStop, time, map(timeType), config, sender::send);
+                } else {
+                    service.streamIsolines(sourceCoordinate, time, map(timeType), config, sender::send);
+                }
+                sender.complete();
+            } catch (ConnectionRoutingException | RuntimeException e) {
+                log.error("Streaming isolines failed", e);
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    private ConnectionQuery createConnectionQuery(@Nullable String sourceStopId, @Nullable Double sourceLatitude,
+                                                  @Nullable Double sourceLongitude, @Nullable String targetStopId,
+                                                  @Nullable Double targetLatitude, @Nullable Double targetLongitude,
+                                                  @Nullable OffsetDateTime dateTime, TimeType timeType,
+                                                  Integer timeWindowDuration, @Nullable Integer maxWalkDuration,
+                                                  @Nullable Integer maxTransfers, @Nullable Integer maxTravelDuration,
+                                                  Integer minTransferDuration, boolean wheelchairAccessible,
+                                                  boolean bikeAllowed, @Nullable EnumSet<TravelMode> travelModes) {
+        // get coordinates if available
+        GeoCoordinate sourceCoordinate = RequestValidator.getCoordinateIfAvailable(sourceStopId, sourceLatitude,
+                sourceLongitude, StopType.SOURCE);
+        GeoCoordinate targetCoordinate = RequestValidator.getCoordinateIfAvailable(targetStopId, targetLatitude,
+                targetLongitude, StopType.TARGET);
+
+        // get stops if available
+        Stop sourceStop = RequestValidator.getStopIfAvailable(sourceStopId, service, StopType.SOURCE);
+        Stop targetStop = RequestValidator.getStopIfAvailable(targetStopId, service, StopType.TARGET);
+
+        // configure routing request
+        dateTime = RequestValidator.validateAndSetDefaultDateTime(dateTime, service);
+        ConnectionQueryConfig config = Utils.createConfig(timeWindowDuration, maxWalkDuration, maxTransfers,
+                maxTravelDuration, minTransferDuration, wheelchairAccessible, bikeAllowed, travelModes, service);
+
+        // determine routing case
+        if (sourceStop != null && targetStop != null) {
+            RequestValidator.validateStopsAreDifferent(sourceStopId, targetStopId);
+            return ConnectionQuery.of(sourceStop, targetStop, dateTime, map(timeType), config);
+        } else if (sourceStop != null) {
+            return ConnectionQuery.of(sourceStop, targetCoordinate, dateTime, map(timeType), config);
+        } else if (targetStop != null) {
+            return ConnectionQuery.of(sourceCoordinate, targetStop, dateTime, map(timeType), config);
+        } else {
+            assert sourceCoordinate != null; // never happens
+            RequestValidator.validateCoordinatesAreDifferent(sourceCoordinate, targetCoordinate);
+            return ConnectionQuery.of(sourceCoordinate, targetCoordinate, dateTime, map(timeType), config);
+        }
+    }
+
+    /**
+     * Sends isolines as server-sent events. If sending fails, e.g. because the client disconnected, the routing is
+     * cancelled and no further events are sent.
+     */
+    @RequiredArgsConstructor
+    private static class IsolineEventSender {
+
+        private final SseEmitter emitter;
+        private final CancellationToken token;
+        private final TimeType timeType;
+        private final boolean detailed;
+
+        private volatile boolean failed;
+
+        void send(Stop stop, org.naviqore.service.Connection connection) {
+            if (failed) {
+                return;
+            }
+
+            try {
+                StopConnection stopConnection = map(stop, connection, map(timeType), detailed);
+                emitter.send(SseEmitter.event().name(ISOLINE_EVENT).data(stopConnection));
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+        }
+
+        void complete() {
+            if (failed) {
+                return;
+            }
+
+            try {
+                emitter.send(
+                        SseEmitter.event().name(COMPLETE_EVENT).data(Map.of("partial", token.hasPartialResults())));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+        }
+
+        // the emitter fails on client disconnects and after it has timed out
+        private void fail(Exception e) {
+            log.debug("Sending isolines failed: {}", e.getMessage());
+            failed = true;
+            if (token != CancellationToken.NONE) {
+                token.cancel();
+            }
+            emitter.completeWithError(e);
+        }
+    }
+
     private static class Utils {
 
         private static ConnectionQueryConfig createConfig(Integer timeWindowDuration, @Nullable Integer maxWalkDuration,
@@ -174,6 +326,7 @@ public class RoutingController {
                     .wheelchairAccessible(wheelchairAccessible)
                     .bikeAllowed(bikeAllowed)
                     .travelModes(map(travelModes))
+                    .cancellationToken(RequestCancellation.current())
                     .build();
         }
     }
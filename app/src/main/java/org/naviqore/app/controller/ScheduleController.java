@@ -56,7 +56,7 @@ public class ScheduleController {
                                            @RequestParam(defaultValue = DEFAULT_SORT_BY) StopSortStrategy sortBy,
                                            @RequestParam(defaultValue = DEFAULT_LIMIT) @Min(1) int limit) {
 
-        return service.getStops(query, map(searchType), map(sortBy)).stream().map(DtoMapper::map).limit(limit).toList();
+        return service.getStops(query, map(searchType), map(sortBy), limit).stream().map(DtoMapper::map).toList();
     }
 
     @Operation(summary = "Get nearest stops", description = "Retrieves a list of stops within a specified distance from a given location.")
@@ -0,0 +1,25 @@
+package org.naviqore.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The result of a single query of a connection batch. Holds the connections of the query, whether routing the query was
+ * stopped early by the request timeout, and the error code if routing the query failed.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+@EqualsAndHashCode
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConnectionBatchResult {
+
+    private final List<Connection> connections;
+    private final boolean partial;
+    @Nullable
+    private final String error;
+
+}
@@ -0,0 +1,55 @@
+package org.naviqore.app.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.*;
+import org.jspecify.annotations.Nullable;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+
+/**
+ * A single connection request of a batch. Supports the same parameters and defaults as the query parameters of the
+ * connections endpoint.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class ConnectionRequest {
+
+    @Nullable
+    private String sourceStopId;
+    @Nullable
+    private Double sourceLatitude;
+    @Nullable
+    private Double sourceLongitude;
+    @Nullable
+    private String targetStopId;
+    @Nullable
+    private Double targetLatitude;
+    @Nullable
+    private Double targetLongitude;
+    @Nullable
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime dateTime;
+    private TimeType timeType = TimeType.DEPARTURE;
+    @Min(0)
+    private int timeWindowDuration = 0;
+    @Nullable
+    @Min(0)
+    private Integer maxWalkDuration;
+    @Nullable
+    @Min(0)
+    private Integer maxTransfers;
+    @Nullable
+    @Min(1)
+    private Integer maxTravelDuration;
+    @Min(0)
+    private int minTransferDuration = 0;
+    private boolean wheelchairAccessible = false;
+    private boolean bikeAllowed = false;
+    @Nullable
+    private EnumSet<TravelMode> travelModes;
+
+}
@@ -91,6 +91,12 @@ public class DtoMapper {
         return connections.stream().map(DtoMapper::map).toList();
     }
 
+    public static ConnectionBatchResult map(org.naviqore.service.ConnectionBatchResult result) {
+        // same error code as a failing single connection query
+        return new ConnectionBatchResult(map(result.connections()), result.partial(),
+                result.error() == null ? null : "routing-error");
+    }
+
     public static StopConnection map(org.naviqore.service.Stop serviceStop,
                                      org.naviqore.service.Connection serviceConnection,
                                      org.naviqore.service.TimeType timeType, boolean detailed) {
@@ -11,7 +11,8 @@ public enum SearchType {
     STARTS_WITH("STARTS_WITH"),
     ENDS_WITH("ENDS_WITH"),
     CONTAINS("CONTAINS"),
-    EXACT("EXACT");
+    EXACT("EXACT"),
+    FUZZY("FUZZY");
 
     private final String value;
 
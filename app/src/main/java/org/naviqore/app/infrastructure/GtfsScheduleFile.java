@@ -1,20 +1,42 @@
 package org.naviqore.app.infrastructure;
 
 import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.gtfs.schedule.GtfsScheduleCache;
 import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.ServiceDateWindow;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.service.repo.GtfsScheduleRepository;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 @RequiredArgsConstructor
 public class GtfsScheduleFile implements GtfsScheduleRepository {
 
     private final String filePath;
+    @Nullable
+    private final Path cacheDirectory;
+
+    public GtfsScheduleFile(String filePath) {
+        this(filePath, null);
+    }
 
     @Override
     public GtfsSchedule get() throws IOException {
-        return new GtfsScheduleReader().read(filePath);
+        return read(null);
+    }
+
+    @Override
+    public GtfsSchedule get(ServiceDateWindow serviceDateWindow) throws IOException {
+        return read(serviceDateWindow);
+    }
+
+    private GtfsSchedule read(@Nullable ServiceDateWindow serviceDateWindow) throws IOException {
+        GtfsScheduleReader reader = new GtfsScheduleReader(Runtime.getRuntime().availableProcessors(),
+                serviceDateWindow);
+        return cacheDirectory == null ? reader.read(filePath) : new GtfsScheduleCache(cacheDirectory, reader).read(
+                filePath);
     }
 
 }
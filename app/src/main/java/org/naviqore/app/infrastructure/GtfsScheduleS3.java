@@ -2,7 +2,10 @@ package org.naviqore.app.infrastructure;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.gtfs.schedule.GtfsScheduleCache;
 import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.ServiceDateWindow;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.service.repo.GtfsScheduleRepository;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
@@ -36,9 +39,24 @@ public class GtfsScheduleS3 implements GtfsScheduleRepository {
     private static final String FILE_NAME = "gtfs.zip";
 
     private final String s3Uri;
+    @Nullable
+    private final Path cacheDirectory;
+
+    public GtfsScheduleS3(String s3Uri) {
+        this(s3Uri, null);
+    }
 
     @Override
     public GtfsSchedule get() throws IOException, InterruptedException {
+        return read(null);
+    }
+
+    @Override
+    public GtfsSchedule get(ServiceDateWindow serviceDateWindow) throws IOException, InterruptedException {
+        return read(serviceDateWindow);
+    }
+
+    private GtfsSchedule read(@Nullable ServiceDateWindow serviceDateWindow) throws IOException, InterruptedException {
         URI uri = URI.create(s3Uri);
         String bucket = uri.getHost();
         String key = uri.getPath().startsWith("/") ? uri.getPath().substring(1) : uri.getPath();
@@ -78,7 +96,10 @@ public class GtfsScheduleS3 implements GtfsScheduleRepository {
             s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build(),
                     ResponseTransformer.toFile(filePath));
 
-            return new GtfsScheduleReader().read(filePath.toString());
+            GtfsScheduleReader reader = new GtfsScheduleReader(Runtime.getRuntime().availableProcessors(),
+                    serviceDateWindow);
+            return cacheDirectory == null ? reader.read(filePath.toString()) : new GtfsScheduleCache(cacheDirectory,
+                    reader).read(filePath.toString());
 
         } finally {
             Files.deleteIfExists(filePath);
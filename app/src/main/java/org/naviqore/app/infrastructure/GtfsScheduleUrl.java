@@ -1,7 +1,10 @@
 package org.naviqore.app.infrastructure;
 
 import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.gtfs.schedule.GtfsScheduleCache;
 import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.ServiceDateWindow;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.service.repo.GtfsScheduleRepository;
 import org.naviqore.utils.network.FileDownloader;
@@ -17,14 +20,32 @@ public class GtfsScheduleUrl implements GtfsScheduleRepository {
     private static final String FILE_NAME = "gtfs.zip";
 
     private final String url;
+    @Nullable
+    private final Path cacheDirectory;
+
+    public GtfsScheduleUrl(String url) {
+        this(url, null);
+    }
 
     @Override
     public GtfsSchedule get() throws IOException, InterruptedException {
+        return read(null);
+    }
+
+    @Override
+    public GtfsSchedule get(ServiceDateWindow serviceDateWindow) throws IOException, InterruptedException {
+        return read(serviceDateWindow);
+    }
+
+    private GtfsSchedule read(@Nullable ServiceDateWindow serviceDateWindow) throws IOException, InterruptedException {
         Path tempDir = Files.createTempDirectory(TMP_DIRECTORY_PREFIX);
         Path filePath = tempDir.resolve(FILE_NAME);
         try {
             new FileDownloader(url).downloadTo(tempDir, FILE_NAME, true);
-            return new GtfsScheduleReader().read(filePath.toString());
+            GtfsScheduleReader reader = new GtfsScheduleReader(Runtime.getRuntime().availableProcessors(),
+                    serviceDateWindow);
+            return cacheDirectory == null ? reader.read(filePath.toString()) : new GtfsScheduleCache(cacheDirectory,
+                    reader).read(filePath.toString());
         } finally {
             Files.deleteIfExists(filePath);
             Files.deleteIfExists(tempDir);
@@ -1,10 +1,16 @@
 package org.naviqore.app.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.naviqore.service.*;
 import org.naviqore.service.config.ConnectionQueryConfig;
 import org.naviqore.service.config.ServiceConfig;
 import org.naviqore.service.exception.*;
+import org.naviqore.service.gtfs.raptor.GtfsRaptorService;
+import org.naviqore.utils.concurrent.BatchProcessor;
+import org.naviqore.utils.concurrent.TaskMetrics;
 import org.naviqore.utils.spatial.GeoCoordinate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -16,18 +22,36 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 
 @Service
 @Slf4j
 public class PublicTransitSpringService implements PublicTransitService {
 
+    private static final String STARTUP_TASK_DURATION_METRIC = "naviqore.startup.task.duration";
+    private static final String STARTUP_TASK_ALLOCATED_METRIC = "naviqore.startup.task.allocated";
+
+    // queries of batches waiting for a routing thread, further queries are routed on the threads submitting them
+    private static final int BATCH_QUEUE_CAPACITY = 1000;
+
     private final ServiceConfig config;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Bounded pool routing the queries of all batches, one thread per processor. Shared by all delegates, so that it
+     * outlives schedule updates.
+     */
+    private final ExecutorService batchExecutor = BatchProcessor.newExecutor(Runtime.getRuntime().availableProcessors(),
+            BATCH_QUEUE_CAPACITY, "batch-routing-");
+
     private PublicTransitService delegate;
 
     @Autowired
-    public PublicTransitSpringService(ServiceConfigParser parser) {
+    public PublicTransitSpringService(ServiceConfigParser parser, MeterRegistry meterRegistry) {
         log.info("Initializing public transit spring service");
         this.config = parser.getServiceConfig();
+        this.meterRegistry = meterRegistry;
         this.delegate = createDelegate();
     }
 
@@ -43,12 +67,41 @@ public class PublicTransitSpringService implements PublicTransitService {
         }
     }
 
+    /**
+     * Shuts down the batch routing pool, batches still running route their remaining queries on the request threads.
+     */
+    @PreDestroy
+    public void close() {
+        batchExecutor.shutdown();
+    }
+
     private PublicTransitService createDelegate() {
+        PublicTransitService service;
         try {
-            return new PublicTransitServiceFactory(config).create();
+            service = new PublicTransitServiceFactory(config).create(batchExecutor);
         } catch (IOException | InterruptedException e) {
             throw new IllegalStateException("Failed to create public transit service", e);
         }
+
+        if (service instanceof GtfsRaptorService gtfsRaptorService) {
+            recordStartupMetrics(gtfsRaptorService.getStartupMetrics());
+        }
+
+        return service;
+    }
+
+    // each initialization, on startup and on every schedule update, records one sample per task
+    private void recordStartupMetrics(List<TaskMetrics> startupMetrics) {
+        for (TaskMetrics task : startupMetrics) {
+            meterRegistry.timer(STARTUP_TASK_DURATION_METRIC, "task", task.name()).record(task.wallTime());
+            if (task.allocatedBytes() >= 0) {
+                DistributionSummary.builder(STARTUP_TASK_ALLOCATED_METRIC)
+                        .baseUnit("bytes")
+                        .tag("task", task.name())
+                        .register(meterRegistry)
+                        .record(task.allocatedBytes());
+            }
+        }
     }
 
     @Override
@@ -72,8 +125,8 @@ public class PublicTransitSpringService implements PublicTransitService {
     }
 
     @Override
-    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy) {
-        return delegate.getStops(like, searchType, stopSortStrategy);
+    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy, int limit) {
+        return delegate.getStops(like, searchType, stopSortStrategy, limit);
     }
 
     @Override
@@ -122,6 +175,11 @@ public class PublicTransitSpringService implements PublicTransitService {
         return delegate.getConnections(source, target, time, timeType, config);
     }
 
+    @Override
+    public List<ConnectionBatchResult> getConnections(List<ConnectionQuery> queries) {
+        return delegate.getConnections(queries);
+    }
+
     @Override
     public Map<Stop, Connection> getIsolines(GeoCoordinate source, OffsetDateTime time, TimeType timeType,
                                              ConnectionQueryConfig config) throws ConnectionRoutingException {
@@ -134,6 +192,19 @@ public class PublicTransitSpringService implements PublicTransitService {
         return delegate.getIsolines(source, time, timeType, config);
     }
 
+    @Override
+    public void streamIsolines(GeoCoordinate source, OffsetDateTime time, TimeType timeType,
+                               ConnectionQueryConfig config,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        delegate.streamIsolines(source, time, timeType, config, consumer);
+    }
+
+    @Override
+    public void streamIsolines(Stop source, OffsetDateTime time, TimeType timeType, ConnectionQueryConfig config,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        delegate.streamIsolines(source, time, timeType, config, consumer);
+    }
+
     @Override
     public Stop getStopById(String stopId) throws StopNotFoundException {
         return delegate.getStopById(stopId);
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 
 @Component
 @Getter
@@ -23,45 +24,59 @@ public class ServiceConfigParser {
 
     public ServiceConfigParser(@Value("${gtfs.static.uri}") String gtfsStaticUri,
                                @Value("${gtfs.static.update.cron}") String gtfsStaticUpdateCron,
+                               @Value("${gtfs.static.days.past}") int gtfsStaticDaysPast,
+                               @Value("${gtfs.static.days.ahead}") int gtfsStaticDaysAhead,
+                               @Value("${gtfs.static.cache.directory}") String gtfsStaticCacheDirectory,
                                @Value("${transfer.duration.same.stop.default}") int transferDurationSameStopDefault,
                                @Value("${transfer.duration.between.stops.minimum}") int transferDurationBetweenStopsMinimum,
                                @Value("${transfer.duration.access.egress}") int transferDurationAccessEgress,
                                @Value("${walk.search.radius}") int walkSearchRadius,
                                @Value("${walk.calculator.type}") String walkCalculatorType,
+                               @Value("${walk.network.file}") String walkNetworkFile,
                                @Value("${walk.speed}") double walkSpeed,
                                @Value("${walk.duration.minimum}") int walkDurationMinimum,
                                @Value("${raptor.days.to.scan}") int raptorDaysToScan,
                                @Value("${raptor.range}") int raptorRange,
                                @Value("${cache.service.day.size}") int cacheServiceDaySize,
-                               @Value("${cache.eviction.strategy}") String cacheEvictionStrategy) {
+                               @Value("${cache.eviction.strategy}") String cacheEvictionStrategy,
+                               @Value("${cache.label.size}") int cacheLabelSize,
+                               @Value("${cache.access.egress.size}") int cacheAccessEgressSize) {
 
         this.serviceConfig = ServiceConfig.builder()
-                .gtfsScheduleRepository(getRepository(gtfsStaticUri))
+                .gtfsScheduleRepository(getRepository(gtfsStaticUri, gtfsStaticCacheDirectory))
                 .gtfsStaticUpdateCron(gtfsStaticUpdateCron)
+                .gtfsStaticDaysPast(gtfsStaticDaysPast)
+                .gtfsStaticDaysAhead(gtfsStaticDaysAhead)
                 .transferDurationSameStopDefault(transferDurationSameStopDefault)
                 .transferDurationBetweenStopsMinimum(transferDurationBetweenStopsMinimum)
                 .transferDurationAccessEgress(transferDurationAccessEgress)
                 .walkSearchRadius(walkSearchRadius)
                 .walkCalculatorType(ServiceConfig.WalkCalculatorType.valueOf(walkCalculatorType.toUpperCase()))
+                .walkNetworkFile(walkNetworkFile)
                 .walkSpeed(walkSpeed)
                 .walkDurationMinimum(walkDurationMinimum)
                 .raptorDaysToScan(raptorDaysToScan)
                 .raptorRange(raptorRange)
                 .cacheServiceDaySize(cacheServiceDaySize)
                 .cacheEvictionStrategy(ServiceConfig.CacheEvictionStrategy.valueOf(cacheEvictionStrategy.toUpperCase()))
+                .cacheLabelSize(cacheLabelSize)
+                .cacheAccessEgressSize(cacheAccessEgressSize)
                 .build();
     }
 
-    private static GtfsScheduleRepository getRepository(String gtfsStaticUri) {
+    private static GtfsScheduleRepository getRepository(String gtfsStaticUri, String gtfsStaticCacheDirectory) {
+        // an empty directory disables the cache of parsed schedules
+        Path cacheDirectory = gtfsStaticCacheDirectory.isBlank() ? null : Path.of(gtfsStaticCacheDirectory);
+
         if (isLocalFile(gtfsStaticUri)) {
-            return new GtfsScheduleFile(gtfsStaticUri);
+            return new GtfsScheduleFile(gtfsStaticUri, cacheDirectory);
         }
 
         UriScheme scheme = getUriScheme(gtfsStaticUri);
 
         return switch (scheme) {
-            case HTTP, HTTPS -> new GtfsScheduleUrl(gtfsStaticUri);
-            case S3 -> new GtfsScheduleS3(gtfsStaticUri);
+            case HTTP, HTTPS -> new GtfsScheduleUrl(gtfsStaticUri, cacheDirectory);
+            case S3 -> new GtfsScheduleS3(gtfsStaticUri, cacheDirectory);
         };
     }
 
@@ -170,8 +170,8 @@ class FakePublicTransitService implements PublicTransitService {
     }
 
     @Override
-    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy) {
-        return STOPS.stream().map(x -> (Stop) x).toList();
+    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy, int limit) {
+        return STOPS.stream().map(x -> (Stop) x).limit(limit).toList();
     }
 
     @Override
@@ -0,0 +1,45 @@
+package org.naviqore.app.controller;
+
+import org.junit.jupiter.api.Test;
+import org.naviqore.utils.concurrent.CancellationToken;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsolineStreamExecutorTest {
+
+    private final IsolineStreamExecutor executor = new IsolineStreamExecutor();
+
+    @Test
+    void shouldCancelRunningStreamsOnShutdown() throws InterruptedException {
+        CancellationToken token = CancellationToken.create();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        executor.execute(token, () -> {
+            started.countDown();
+            // stands in for the routing, which polls the token between rounds
+            while (!token.shouldStop()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.shutdown();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(token.hasPartialResults());
+    }
+
+    @Test
+    void shouldRejectStreamsAfterShutdown() {
+        executor.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(CancellationToken.create(), () -> {
+        }));
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.naviqore.app.controller;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.naviqore.utils.concurrent.CancellationToken;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCancellationTest {
+
+    private final HandlerInterceptor interceptor = RequestCancellation.interceptor(Duration.ofSeconds(30));
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldBindTokenToRequestAndCancelItOnCompletion() throws Exception {
+        interceptor.preHandle(request, response, new Object());
+        CancellationToken token = RequestCancellation.current();
+
+        assertNotSame(CancellationToken.NONE, token);
+        assertFalse(token.isCancelled());
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    void shouldKeepTokenOfInitialDispatchOnAsyncDispatch() throws Exception {
+        interceptor.preHandle(request, response, new Object());
+        CancellationToken token = RequestCancellation.current();
+
+        // a streamed response is completed in an async dispatch of the same request
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, new Object());
+
+        assertSame(token, RequestCancellation.current());
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertTrue(token.isCancelled());
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.naviqore.app.controller;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -11,11 +12,13 @@ import org.naviqore.app.exception.InvalidParametersException;
 import org.naviqore.app.exception.StopNotFoundException;
 import org.naviqore.app.exception.ValidationException;
 import org.naviqore.utils.spatial.GeoCoordinate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -25,7 +28,14 @@ public class RoutingControllerTest {
 
     private final FakePublicTransitService fakeService = new FakePublicTransitService();
 
-    private final RoutingController routingController = new RoutingController(fakeService);
+    private final IsolineStreamExecutor streamExecutor = new IsolineStreamExecutor();
+
+    private final RoutingController routingController = new RoutingController(fakeService, streamExecutor);
+
+    @AfterEach
+    void tearDown() {
+        streamExecutor.shutdown();
+    }
 
     static Stream<Arguments> provideQueryConfigTestCombinations() {
         int validTimeWindowDuration = 0;
@@ -257,6 +267,81 @@ public class RoutingControllerTest {
         }
     }
 
+    @Nested
+    class ConnectionsBatch {
+
+        private static ConnectionRequest createRequest(String sourceStopId, String targetStopId) {
+            ConnectionRequest request = new ConnectionRequest();
+            request.setSourceStopId(sourceStopId);
+            request.setTargetStopId(targetStopId);
+            request.setDateTime(OffsetDateTime.now());
+            return request;
+        }
+
+        @Test
+        void testWithValidRequests() throws org.naviqore.service.exception.ConnectionRoutingException {
+            ConnectionRequest geoRequest = createRequest(null, "G");
+            geoRequest.setSourceLatitude(46.2044);
+            geoRequest.setSourceLongitude(6.1432);
+            List<ConnectionRequest> requests = List.of(createRequest("A", "G"), geoRequest, createRequest("A", "G"));
+
+            List<ConnectionBatchResult> results = routingController.getConnectionsBatch(requests);
+
+            assertEquals(requests.size(), results.size());
+            for (int i = 0; i < requests.size(); i++) {
+                ConnectionRequest request = requests.get(i);
+                List<Connection> expected = getConnections(request.getSourceStopId(), request.getSourceLatitude(),
+                        request.getSourceLongitude(), request.getTargetStopId(), null, null, request.getDateTime());
+                assertEquals(expected.size(), results.get(i).getConnections().size());
+                assertFalse(results.get(i).isPartial());
+                assertNull(results.get(i).getError());
+            }
+        }
+
+        @Test
+        void testFailedQueryInBatch() {
+            FakePublicTransitService failingService = new FakePublicTransitService() {
+                @Override
+                public List<org.naviqore.service.Connection> getConnections(
+                        org.naviqore.service.ConnectionQuery query) throws org.naviqore.service.exception.ConnectionRoutingException {
+                    if (Objects.requireNonNull(query.sourceStop()).getId().equals("B")) {
+                        throw new org.naviqore.service.exception.ConnectionRoutingException(
+                                new IllegalStateException("routing failed"));
+                    }
+                    return super.getConnections(query);
+                }
+            };
+            RoutingController controller = new RoutingController(failingService, streamExecutor);
+            List<ConnectionRequest> requests = List.of(createRequest("A", "G"), createRequest("B", "G"));
+
+            List<ConnectionBatchResult> results = controller.getConnectionsBatch(requests);
+
+            // the failed query does not fail the batch
+            assertEquals(2, results.size());
+            assertFalse(results.getFirst().getConnections().isEmpty());
+            assertNull(results.getFirst().getError());
+            assertTrue(results.get(1).getConnections().isEmpty());
+            assertEquals("routing-error", results.get(1).getError());
+        }
+
+        @Test
+        void testInvalidStopIdInBatch() {
+            List<ConnectionRequest> requests = List.of(createRequest("A", "G"), createRequest("invalidStopId", "G"));
+
+            StopNotFoundException exception = assertThrows(StopNotFoundException.class,
+                    () -> routingController.getConnectionsBatch(requests));
+            assertEquals("invalidStopId", exception.getStopId());
+        }
+
+        @Test
+        void testRoutingBetweenSameStopsInBatch() {
+            List<ConnectionRequest> requests = List.of(createRequest("A", "A"));
+
+            assertThrows(InvalidParametersException.class, () -> routingController.getConnectionsBatch(requests));
+        }
+
+    }
+
     @Nested
     class Isolines {
 
@@ -562,6 +647,23 @@ public class RoutingControllerTest {
                 assertEquals(errorMessage, exception.getMessage());
             }
         }
+
+        @Test
+        void testStreamFromStop() {
+            SseEmitter emitter = routingController.streamIsolines("A", null, null, OffsetDateTime.now(),
+                    TimeType.DEPARTURE, 0, 30, 2, 120, 5, false, false, null, false);
+
+            assertNotNull(emitter);
+        }
+
+        @Test
+        void testStreamInvalidSourceStopId() {
+            StopNotFoundException exception = assertThrows(StopNotFoundException.class,
+                    () -> routingController.streamIsolines("invalidStopId", null, null, OffsetDateTime.now(),
+                            TimeType.DEPARTURE, 0, null, null, null, 0, false, false, null, false));
+
+            assertEquals("invalidStopId", exception.getStopId());
+        }
     }
 
     @Nested
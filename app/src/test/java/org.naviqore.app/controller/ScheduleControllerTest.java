@@ -90,7 +90,7 @@ public class ScheduleControllerTest {
         void shouldSucceedWithValidQuery() {
             String query = "query";
             when(scheduleInformationService.getStops(query, map(SearchType.STARTS_WITH),
-                    map(StopSortStrategy.ALPHABETICAL))).thenReturn(List.of());
+                    map(StopSortStrategy.ALPHABETICAL), 10)).thenReturn(List.of());
             List<Stop> stops = scheduleController.getAutoCompleteStops(query, SearchType.STARTS_WITH,
                     StopSortStrategy.ALPHABETICAL, 10);
 
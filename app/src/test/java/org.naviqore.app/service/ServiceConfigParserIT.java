@@ -10,6 +10,7 @@ import org.naviqore.service.config.ServiceConfig;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.stream.Stream;
 
@@ -18,6 +19,8 @@ import static org.naviqore.service.config.ServiceConfig.*;
 
 public class ServiceConfigParserIT {
 
+    private static final String NO_CACHE_DIRECTORY = "";
+
     static Stream<Arguments> provideTestCombinations() {
         return Stream.of(Arguments.of(-1, DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM, DEFAULT_WALK_SEARCH_RADIUS,
                         DEFAULT_WALK_SPEED, "BEE_LINE_DISTANCE", "Same Stop Transfer Duration cannot be smaller than zero."),
@@ -32,17 +35,22 @@ public class ServiceConfigParserIT {
                         "BEE_LINE_DISTANCE", "Walk speed cannot be zero."),
                 Arguments.of(DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT,
                         DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM, DEFAULT_WALK_SEARCH_RADIUS, DEFAULT_WALK_SPEED,
-                        "INVALID", "Can't process invalid Walk Calculator Type."));
+                        "INVALID", "Can't process invalid Walk Calculator Type."),
+                Arguments.of(DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT,
+                        DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM, DEFAULT_WALK_SEARCH_RADIUS, DEFAULT_WALK_SPEED,
+                        "PEDESTRIAN_NETWORK", "Pedestrian network requires a network file."));
     }
 
     private static ServiceConfig getServiceConfig(Path gtfsPath) throws IOException {
         File gtfs = GtfsScheduleDataset.SAMPLE_FEED_1.getZip(gtfsPath);
         ServiceConfigParser parser = new ServiceConfigParser(gtfs.getAbsolutePath(), DEFAULT_GTFS_STATIC_UPDATE_CRON,
+                DEFAULT_GTFS_STATIC_DAYS_PAST, DEFAULT_GTFS_STATIC_DAYS_AHEAD, NO_CACHE_DIRECTORY,
                 DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT, DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM,
                 DEFAULT_TRANSFER_DURATION_ACCESS_EGRESS, DEFAULT_WALK_SEARCH_RADIUS,
-                DEFAULT_WALK_CALCULATOR_TYPE.name(), DEFAULT_WALK_SPEED, DEFAULT_WALK_DURATION_MINIMUM,
-                DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE,
-                DEFAULT_CACHE_EVICTION_STRATEGY.name());
+                DEFAULT_WALK_CALCULATOR_TYPE.name(), DEFAULT_WALK_NETWORK_FILE, DEFAULT_WALK_SPEED,
+                DEFAULT_WALK_DURATION_MINIMUM, DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE,
+                DEFAULT_CACHE_EVICTION_STRATEGY.name(), DEFAULT_CACHE_LABEL_SIZE,
+                DEFAULT_CACHE_ACCESS_EGRESS_SIZE);
         return parser.getServiceConfig();
     }
 
@@ -51,6 +59,8 @@ public class ServiceConfigParserIT {
         ServiceConfig config = getServiceConfig(tempDir);
         assertNotNull(config.getGtfsScheduleRepository());
         assertEquals(DEFAULT_GTFS_STATIC_UPDATE_CRON, config.getGtfsStaticUpdateCron());
+        assertEquals(DEFAULT_GTFS_STATIC_DAYS_PAST, config.getGtfsStaticDaysPast());
+        assertEquals(DEFAULT_GTFS_STATIC_DAYS_AHEAD, config.getGtfsStaticDaysAhead());
         assertEquals(DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT, config.getTransferDurationSameStopDefault());
         assertEquals(DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM, config.getTransferDurationBetweenStopsMinimum());
         assertEquals(WalkCalculatorType.BEE_LINE_DISTANCE, config.getWalkCalculatorType());
@@ -60,6 +70,28 @@ public class ServiceConfigParserIT {
         assertEquals(DEFAULT_RAPTOR_DAYS_TO_SCAN, config.getRaptorDaysToScan());
         assertEquals(DEFAULT_CACHE_SIZE, config.getCacheServiceDaySize());
         assertEquals(CacheEvictionStrategy.LRU, config.getCacheEvictionStrategy());
+        assertEquals(DEFAULT_CACHE_LABEL_SIZE, config.getCacheLabelSize());
+        assertEquals(DEFAULT_CACHE_ACCESS_EGRESS_SIZE, config.getCacheAccessEgressSize());
+    }
+
+    @Test
+    void testServiceConfigParser_withCacheDirectory(@TempDir Path tempDir) throws IOException, InterruptedException {
+        File gtfs = GtfsScheduleDataset.SAMPLE_FEED_1.getZip(tempDir);
+        Path cacheDirectory = tempDir.resolve("cache");
+        ServiceConfig config = new ServiceConfigParser(gtfs.getAbsolutePath(), DEFAULT_GTFS_STATIC_UPDATE_CRON,
+                DEFAULT_GTFS_STATIC_DAYS_PAST, DEFAULT_GTFS_STATIC_DAYS_AHEAD, cacheDirectory.toString(),
+                DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT, DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM,
+                DEFAULT_TRANSFER_DURATION_ACCESS_EGRESS, DEFAULT_WALK_SEARCH_RADIUS,
+                DEFAULT_WALK_CALCULATOR_TYPE.name(), DEFAULT_WALK_NETWORK_FILE, DEFAULT_WALK_SPEED,
+                DEFAULT_WALK_DURATION_MINIMUM, DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE,
+                DEFAULT_CACHE_EVICTION_STRATEGY.name(), DEFAULT_CACHE_LABEL_SIZE,
+                DEFAULT_CACHE_ACCESS_EGRESS_SIZE).getServiceConfig();
+
+        assertEquals(11, config.getGtfsScheduleRepository().get().getTrips().size());
+        try (Stream<Path> images = Files.list(cacheDirectory)) {
+            assertEquals(1, images.count());
+        }
+        assertEquals(11, config.getGtfsScheduleRepository().get().getTrips().size());
     }
 
     @Test
@@ -67,10 +99,13 @@ public class ServiceConfigParserIT {
         File gtfs = GtfsScheduleDataset.SAMPLE_FEED_1.getZip(tempDir);
         assertThrows(IllegalArgumentException.class,
                 () -> new ServiceConfigParser(gtfs.getAbsolutePath(), DEFAULT_GTFS_STATIC_UPDATE_CRON,
+                        DEFAULT_GTFS_STATIC_DAYS_PAST, DEFAULT_GTFS_STATIC_DAYS_AHEAD, NO_CACHE_DIRECTORY,
                         DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM, DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT,
                         DEFAULT_TRANSFER_DURATION_ACCESS_EGRESS, DEFAULT_WALK_SEARCH_RADIUS, "INVALID",
-                        DEFAULT_WALK_SPEED, DEFAULT_WALK_DURATION_MINIMUM, DEFAULT_RAPTOR_DAYS_TO_SCAN,
-                        DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EVICTION_STRATEGY.name()));
+                        DEFAULT_WALK_NETWORK_FILE, DEFAULT_WALK_SPEED, DEFAULT_WALK_DURATION_MINIMUM,
+                        DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE,
+                        DEFAULT_CACHE_EVICTION_STRATEGY.name(), DEFAULT_CACHE_LABEL_SIZE,
+                        DEFAULT_CACHE_ACCESS_EGRESS_SIZE));
     }
 
     @ParameterizedTest(name = "{5}")
@@ -82,10 +117,13 @@ public class ServiceConfigParserIT {
         File gtfs = GtfsScheduleDataset.SAMPLE_FEED_1.getZip(tempDir);
         assertThrows(IllegalArgumentException.class,
                 () -> new ServiceConfigParser(gtfs.getAbsolutePath(), DEFAULT_GTFS_STATIC_UPDATE_CRON,
+                        DEFAULT_GTFS_STATIC_DAYS_PAST, DEFAULT_GTFS_STATIC_DAYS_AHEAD, NO_CACHE_DIRECTORY,
                         transferDurationSameStopDefault, transferDurationBetweenStopsMinimum,
                         DEFAULT_TRANSFER_DURATION_ACCESS_EGRESS, walkSearchRadius, walkCalculatorType.toUpperCase(),
-                        walkSpeed, DEFAULT_WALK_DURATION_MINIMUM, DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE,
-                        DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EVICTION_STRATEGY.name()), message);
+                        DEFAULT_WALK_NETWORK_FILE, walkSpeed, DEFAULT_WALK_DURATION_MINIMUM,
+                        DEFAULT_RAPTOR_DAYS_TO_SCAN, DEFAULT_RAPTOR_RANGE, DEFAULT_CACHE_SIZE,
+                        DEFAULT_CACHE_EVICTION_STRATEGY.name(), DEFAULT_CACHE_LABEL_SIZE,
+                        DEFAULT_CACHE_ACCESS_EGRESS_SIZE), message);
     }
 
 }
@@ -0,0 +1,139 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.ByteOrderMark;
+import org.apache.commons.io.input.BOMInputStream;
+import org.naviqore.gtfs.schedule.type.ServiceDayTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.ZipFile;
+
+/**
+ * Benchmark for reading the GTFS stop times file.
+ * <p>
+ * Compares the record-based commons-csv path (header map lookups and string splitting of the times) as baseline with
+ * the chunked byte-level path of {@link GtfsScheduleReader}: The {@link LineChunker} splits the file into chunks, which
+ * are parsed into {@link StopTimesChunk}s, the input of {@link GtfsScheduleParser#parseStopTimes}. The chunked path is
+ * measured on the ZIP stream and on the memory-mapped extracted file. Each variant reads all rows, accesses the ids and
+ * parses the times on a single thread, but does not build a schedule, so only the parsing cost is measured.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class StopTimesReaderBenchmark {
+
+    private static final Path INPUT_DATA_DIRECTORY = Path.of("benchmark/input");
+    private static final GtfsScheduleDataset DATASET = GtfsScheduleDataset.SWITZERLAND;
+    private static final String STOP_TIMES = GtfsScheduleFile.STOP_TIMES.getFileName();
+
+    // same chunk size as the schedule reader
+    private static final int CHUNK_SIZE = 8 << 20;
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int NS_TO_MS_CONVERSION_FACTOR = 1_000_000;
+
+    static void main() throws IOException {
+        File zip = DATASET.getZip(INPUT_DATA_DIRECTORY);
+        Path extracted = DATASET.getUnzipped(INPUT_DATA_DIRECTORY).toPath().resolve(STOP_TIMES);
+
+        run("commons-csv (ZIP, baseline)", () -> readRecords(zip));
+        run("chunked byte-level (ZIP)", () -> readChunksFromZip(zip));
+        run("chunked byte-level (memory-mapped)", () -> readChunksFromFile(extracted));
+    }
+
+    private static void run(String name, Variant variant) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            variant.read();
+        }
+
+        long minTime = Long.MAX_VALUE;
+        long totalTime = 0;
+        Result result = null;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+            result = variant.read();
+            long time = System.nanoTime() - startTime;
+            minTime = Math.min(minTime, time);
+            totalTime += time;
+        }
+
+        long minTimeMs = minTime / NS_TO_MS_CONVERSION_FACTOR;
+        log.info("{}: {} rows (checksum {}), min {} ms, avg {} ms, {} rows/s", name, result.rows(), result.checksum(),
+                minTimeMs, totalTime / MEASUREMENT_ITERATIONS / NS_TO_MS_CONVERSION_FACTOR,
+                result.rows() * 1000 / Math.max(1, minTimeMs));
+    }
+
+    private static Result readRecords(File zip) throws IOException {
+        long rows = 0;
+        long checksum = 0;
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setIgnoreHeaderCase(true).setTrim(true).get();
+
+        try (ZipFile zf = new ZipFile(zip, StandardCharsets.UTF_8); InputStreamReader reader = new InputStreamReader(
+                BOMInputStream.builder()
+                        .setInputStream(zf.getInputStream(zf.getEntry(STOP_TIMES)))
+                        .setByteOrderMarks(ByteOrderMark.UTF_8)
+                        .setInclude(false)
+                        .get(), StandardCharsets.UTF_8); CSVParser parser = format.parse(reader)) {
+            for (CSVRecord record : parser) {
+                checksum += record.get("trip_id").length() + record.get("stop_id").length();
+                checksum += ServiceDayTime.parse(record.get("arrival_time")).getTotalSeconds();
+                checksum += ServiceDayTime.parse(record.get("departure_time")).getTotalSeconds();
+                rows++;
+            }
+        }
+
+        return new Result(rows, checksum);
+    }
+
+    private static Result readChunksFromZip(File zip) throws IOException {
+        try (ZipFile zf = new ZipFile(zip, StandardCharsets.UTF_8); LineChunker chunker = new LineChunker(
+                ByteSource.of(zf.getInputStream(zf.getEntry(STOP_TIMES))), CHUNK_SIZE)) {
+            return readChunks(chunker);
+        }
+    }
+
+    private static Result readChunksFromFile(Path file) throws IOException {
+        try (LineChunker chunker = new LineChunker(ByteSource.of(file), CHUNK_SIZE)) {
+            return readChunks(chunker);
+        }
+    }
+
+    private static Result readChunks(LineChunker chunker) throws IOException {
+        long rows = 0;
+        long checksum = 0;
+        byte[] header = chunker.getHeader();
+        byte[] lines;
+        while ((lines = chunker.next()) != null) {
+            StopTimesChunk chunk = StopTimesChunk.parse(header, lines);
+            for (int i = 0; i < chunk.getSize(); i++) {
+                checksum += chunk.getTripId(i).length() + chunk.getStopId(i).length();
+                checksum += chunk.getArrivalTime(i);
+                checksum += chunk.getDepartureTime(i);
+            }
+            rows += chunk.getSize();
+        }
+
+        return new Result(rows, checksum);
+    }
+
+    @FunctionalInterface
+    private interface Variant {
+        Result read() throws IOException;
+    }
+
+    /**
+     * The checksum over ids and times ensures the fields are actually accessed and allows comparing the variants.
+     */
+    private record Result(long rows, long checksum) {
+    }
+
+}
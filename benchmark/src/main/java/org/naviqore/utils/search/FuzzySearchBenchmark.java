@@ -0,0 +1,113 @@
+package org.naviqore.utils.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.gtfs.schedule.GtfsScheduleDataset;
+import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.model.Stop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for the latency of the typo tolerant stop search.
+ * <p>
+ * Builds the index over the lower case names of all parent stops, as the service does, and runs autocomplete queries
+ * with typos: prefixes of stop names with umlauts spelled out, a substituted character or two swapped characters. Each
+ * query is a ranked {@link SearchIndex.SearchStrategy#FUZZY} search for the 10 most relevant stops. Reports the
+ * percentiles of the single query latencies, the target is a p99 below one millisecond.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class FuzzySearchBenchmark {
+
+    private static final Path INPUT_DATA_DIRECTORY = Path.of("benchmark/input");
+    private static final GtfsScheduleDataset DATASET = GtfsScheduleDataset.SWITZERLAND;
+
+    private static final long RANDOM_SEED = 1234;
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final int MIN_QUERY_LENGTH = 4;
+    private static final int MAX_QUERY_LENGTH = 12;
+    private static final int LIMIT = 10;
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final double NS_TO_MS_CONVERSION_FACTOR = 1_000_000.0;
+
+    static void main() throws IOException {
+        File zip = DATASET.getZip(INPUT_DATA_DIRECTORY);
+        List<String> names = new ArrayList<>();
+        for (Stop stop : new GtfsScheduleReader().read(zip.getPath()).getStops().values()) {
+            if (stop.getParent().isEmpty()) {
+                names.add(stop.getName().toLowerCase());
+            }
+        }
+
+        SearchIndexBuilder<String> builder = SearchIndex.builder();
+        names.forEach(name -> builder.add(name, name));
+        SearchIndex<String> index = builder.build();
+        List<String> queries = createQueries(names, new Random(RANDOM_SEED));
+        log.info("Benchmarking fuzzy search with {} stop names and {} queries", names.size(), queries.size());
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            measure(index, queries);
+        }
+
+        long[] times = measure(index, queries);
+        Arrays.sort(times);
+        log.info("Latency p50 {} ms, p90 {} ms, p99 {} ms, max {} ms", toMs(percentile(times, 0.5)),
+                toMs(percentile(times, 0.9)), toMs(percentile(times, 0.99)), toMs(times[times.length - 1]));
+    }
+
+    private static long[] measure(SearchIndex<String> index, List<String> queries) {
+        long[] times = new long[queries.size()];
+        long results = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long startTime = System.nanoTime();
+            results += index.search(queries.get(i), SearchIndex.SearchStrategy.FUZZY, SearchIndex.Ranking.RELEVANCE,
+                    LIMIT).size();
+            times[i] = System.nanoTime() - startTime;
+        }
+        log.info("Found {} results", results);
+
+        return times;
+    }
+
+    private static List<String> createQueries(List<String> names, Random random) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            int length = MIN_QUERY_LENGTH + random.nextInt(MAX_QUERY_LENGTH - MIN_QUERY_LENGTH + 1);
+            StringBuilder query = new StringBuilder(name.substring(0, Math.min(length, name.length())));
+
+            String spelledOut = query.toString().replace("ä", "ae").replace("ö", "oe").replace("ü", "ue");
+            if (!spelledOut.contentEquals(query)) {
+                query = new StringBuilder(spelledOut);
+            } else if (query.length() > 1 && random.nextBoolean()) {
+                int position = random.nextInt(query.length() - 1);
+                char c = query.charAt(position);
+                query.setCharAt(position, query.charAt(position + 1));
+                query.setCharAt(position + 1, c);
+            } else {
+                query.setCharAt(random.nextInt(query.length()), (char) ('a' + random.nextInt(26)));
+            }
+            queries.add(query.toString());
+        }
+
+        return queries;
+    }
+
+    private static long percentile(long[] sortedTimes, double percentile) {
+        return sortedTimes[(int) Math.ceil(percentile * sortedTimes.length) - 1];
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / NS_TO_MS_CONVERSION_FACTOR;
+    }
+
+}
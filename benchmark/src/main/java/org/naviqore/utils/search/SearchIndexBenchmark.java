@@ -0,0 +1,136 @@
+package org.naviqore.utils.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.gtfs.schedule.GtfsScheduleDataset;
+import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.model.Stop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for the stop search index.
+ * <p>
+ * Builds the index over the lower case names of all parent stops, as the service does, once for each
+ * {@link SearchIndex.IndexType}. Measures the build time, the retained heap of the index and the latency of queries
+ * sampled from the stop names: prefixes for STARTS_WITH, substrings for CONTAINS and ENDS_WITH and whole names for
+ * EXACT. The ranked searches return the 10 most relevant prefix and substring matches, as the stop autocomplete
+ * does. The retained heap is the difference of the used heap after garbage collection before and after building, so
+ * it is only an estimate.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class SearchIndexBenchmark {
+
+    private static final Path INPUT_DATA_DIRECTORY = Path.of("benchmark/input");
+    private static final GtfsScheduleDataset DATASET = GtfsScheduleDataset.SWITZERLAND;
+
+    private static final long RANDOM_SEED = 1234;
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final int QUERY_LENGTH = 4;
+    private static final int RANKED_QUERY_LENGTH = 1;
+    private static final int LIMIT = 10;
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int NS_TO_MS_CONVERSION_FACTOR = 1_000_000;
+    private static final int BYTES_TO_MB_CONVERSION_FACTOR = 1024 * 1024;
+
+    static void main() throws IOException {
+        File zip = DATASET.getZip(INPUT_DATA_DIRECTORY);
+        List<String> names = new ArrayList<>();
+        for (Stop stop : new GtfsScheduleReader().read(zip.getPath()).getStops().values()) {
+            if (stop.getParent().isEmpty()) {
+                names.add(stop.getName().toLowerCase());
+            }
+        }
+        log.info("Benchmarking search index with {} stop names ({} characters)", names.size(),
+                names.stream().mapToInt(String::length).sum());
+
+        Random random = new Random(RANDOM_SEED);
+        List<String> fullNames = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        List<String> substrings = new ArrayList<>();
+        List<String> rankedQueries = new ArrayList<>();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            fullNames.add(name);
+            prefixes.add(name.substring(0, Math.min(QUERY_LENGTH, name.length())));
+            int start = random.nextInt(Math.max(1, name.length() - QUERY_LENGTH + 1));
+            substrings.add(name.substring(start, Math.min(start + QUERY_LENGTH, name.length())));
+            rankedQueries.add(name.substring(0, RANKED_QUERY_LENGTH));
+        }
+
+        for (SearchIndex.IndexType indexType : SearchIndex.IndexType.values()) {
+            SearchIndex<String> index = build(indexType, names);
+            run(indexType + ": STARTS_WITH", index, prefixes, SearchIndex.SearchStrategy.STARTS_WITH);
+            run(indexType + ": CONTAINS", index, substrings, SearchIndex.SearchStrategy.CONTAINS);
+            run(indexType + ": ENDS_WITH", index, substrings, SearchIndex.SearchStrategy.ENDS_WITH);
+            run(indexType + ": EXACT", index, fullNames, SearchIndex.SearchStrategy.EXACT);
+            run(indexType + ": CONTAINS, top " + LIMIT, index, rankedQueries, SearchIndex.SearchStrategy.CONTAINS,
+                    LIMIT);
+        }
+    }
+
+    private static SearchIndex<String> build(SearchIndex.IndexType indexType, List<String> names) {
+        long usedMemory = getUsedMemory();
+        long startTime = System.nanoTime();
+        SearchIndexBuilder<String> builder = SearchIndex.<String>builder().indexType(indexType);
+        names.forEach(name -> builder.add(name, name));
+        SearchIndex<String> index = builder.build();
+        long time = System.nanoTime() - startTime;
+
+        log.info("{}: build {} ms, retained heap {} MB", indexType, time / NS_TO_MS_CONVERSION_FACTOR,
+                (getUsedMemory() - usedMemory) / BYTES_TO_MB_CONVERSION_FACTOR);
+        return index;
+    }
+
+    private static void run(String name, SearchIndex<String> index, List<String> queries,
+                            SearchIndex.SearchStrategy strategy) {
+        run(name, index, queries, strategy, 0);
+    }
+
+    /**
+     * Runs the queries, ranked by relevance if the limit is positive.
+     */
+    private static void run(String name, SearchIndex<String> index, List<String> queries,
+                            SearchIndex.SearchStrategy strategy, int limit) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            search(index, queries, strategy, limit);
+        }
+
+        long minTime = Long.MAX_VALUE;
+        long results = 0;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+            results = search(index, queries, strategy, limit);
+            minTime = Math.min(minTime, System.nanoTime() - startTime);
+        }
+
+        log.info("{}: {} results, min {} ms, {} µs/query", name, results, minTime / NS_TO_MS_CONVERSION_FACTOR,
+                minTime / 1000.0 / queries.size());
+    }
+
+    private static long search(SearchIndex<String> index, List<String> queries, SearchIndex.SearchStrategy strategy,
+                               int limit) {
+        long results = 0;
+        for (String query : queries) {
+            results += limit > 0 ? index.search(query, strategy, SearchIndex.Ranking.RELEVANCE, limit)
+                    .size() : index.search(query, strategy).size();
+        }
+        return results;
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,240 @@
+package org.naviqore.utils.spatial.index;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.gtfs.schedule.GtfsScheduleDataset;
+import org.naviqore.gtfs.schedule.GtfsScheduleReader;
+import org.naviqore.gtfs.schedule.model.Stop;
+import org.naviqore.utils.spatial.Coordinate;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark for the spatial stop index.
+ * <p>
+ * Compares the array-backed {@link KDTree} with the previous pointer tree, which was built by inserting the stops one by
+ * one and pruned its range searches by comparing degrees with a radius in meters. Both trees are queried with a range
+ * search around every stop, as the walk transfer generator did before the parallel range join, and with a nearest
+ * neighbor search next to every stop. The checksums count the found stops, so that the results can be compared; the
+ * range join does not contain the stop itself.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class KDTreeBenchmark {
+
+    private static final Path INPUT_DATA_DIRECTORY = Path.of("benchmark/input");
+    private static final GtfsScheduleDataset DATASET = GtfsScheduleDataset.SWITZERLAND;
+
+    private static final int SEARCH_RADIUS = 500;
+    private static final int NEAREST_NEIGHBORS = 10;
+    private static final double QUERY_OFFSET = 0.001;
+
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int NS_TO_MS_CONVERSION_FACTOR = 1_000_000;
+
+    static void main() throws IOException {
+        File zip = DATASET.getZip(INPUT_DATA_DIRECTORY);
+        List<Stop> stops = List.copyOf(new GtfsScheduleReader().read(zip.getPath()).getStops().values());
+        log.info("Benchmarking spatial index with {} stops", stops.size());
+
+        PointerKDTree pointerTree = run("pointer tree: build", () -> {
+            PointerKDTree tree = PointerKDTree.build(stops);
+            return new Result<>(tree, stops.size());
+        });
+        KDTree<Stop> arrayTree = run("array tree: build", () -> {
+            KDTree<Stop> tree = new KDTreeBuilder<Stop>().addLocations(stops).build();
+            return new Result<>(tree, tree.size());
+        });
+
+        run("pointer tree: range search", () -> new Result<>(null, rangeSearch(stops, pointerTree::rangeSearch)));
+        run("array tree: range search", () -> new Result<>(null, rangeSearch(stops, arrayTree::rangeSearch)));
+        run("array tree: range join", () -> new Result<>(null, arrayTree.rangeJoin(SEARCH_RADIUS, stop -> true)
+                .values()
+                .stream()
+                .mapToLong(neighbors -> neighbors.size() + 1)
+                .sum()));
+
+        run("pointer tree: nearest neighbor",
+                () -> new Result<>(null, nearestNeighbor(stops, pointerTree::nearestNeighbor)));
+        run("array tree: nearest neighbor",
+                () -> new Result<>(null, nearestNeighbor(stops, arrayTree::nearestNeighbor)));
+
+        run("array tree: " + NEAREST_NEIGHBORS + " nearest neighbors", () -> {
+            long checksum = 0;
+            for (Stop stop : stops) {
+                checksum += arrayTree.nearestNeighbors(stop.getCoordinate(), NEAREST_NEIGHBORS).size();
+            }
+            return new Result<>(null, checksum);
+        });
+    }
+
+    private static long rangeSearch(List<Stop> stops, RangeSearch rangeSearch) {
+        long checksum = 0;
+        for (Stop stop : stops) {
+            checksum += rangeSearch.search(stop.getCoordinate(), SEARCH_RADIUS).size();
+        }
+        return checksum;
+    }
+
+    private static long nearestNeighbor(List<Stop> stops, NearestNeighbor nearestNeighbor) {
+        long checksum = 0;
+        for (Stop stop : stops) {
+            // query next to the stop, so that the stop itself is not always the answer
+            GeoCoordinate coordinate = stop.getCoordinate();
+            double latitude = Math.min(90, coordinate.latitude() + QUERY_OFFSET);
+            checksum += nearestNeighbor.search(new GeoCoordinate(latitude, coordinate.longitude()))
+                    .getId()
+                    .hashCode();
+        }
+        return checksum;
+    }
+
+    private static <T> T run(String name, Variant<T> variant) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            variant.run();
+        }
+
+        long minTime = Long.MAX_VALUE;
+        long totalTime = 0;
+        Result<T> result = null;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+            result = variant.run();
+            long time = System.nanoTime() - startTime;
+            minTime = Math.min(minTime, time);
+            totalTime += time;
+        }
+
+        log.info("{}: checksum {}, min {} ms, avg {} ms", name, result.checksum(), minTime / NS_TO_MS_CONVERSION_FACTOR,
+                totalTime / MEASUREMENT_ITERATIONS / NS_TO_MS_CONVERSION_FACTOR);
+        return result.value();
+    }
+
+    @FunctionalInterface
+    private interface Variant<T> {
+        Result<T> run();
+    }
+
+    @FunctionalInterface
+    private interface RangeSearch {
+        List<Stop> search(Coordinate center, double radius);
+    }
+
+    @FunctionalInterface
+    private interface NearestNeighbor {
+        Stop search(Coordinate coordinate);
+    }
+
+    private record Result<T>(T value, long checksum) {
+    }
+
+    /**
+     * The previous spatial index: an unbalanced pointer tree, built by inserting the stops one by one, with recursive
+     * searches. The range search compares the coordinate components in degrees with the radius in meters.
+     */
+    private static final class PointerKDTree {
+
+        private Node root;
+
+        private static PointerKDTree build(List<Stop> stops) {
+            PointerKDTree tree = new PointerKDTree();
+            stops.forEach(tree::insert);
+            return tree;
+        }
+
+        private static Coordinate.Axis getAxis(int depth) {
+            return depth % 2 == 0 ? Coordinate.Axis.FIRST : Coordinate.Axis.SECOND;
+        }
+
+        private static Node closer(Node node1, Node node2, Coordinate coordinate) {
+            if (node1 == null) {
+                return node2;
+            }
+            if (node2 == null) {
+                return node1;
+            }
+            return node1.stop.getCoordinate().distanceTo(coordinate) < node2.stop.getCoordinate()
+                    .distanceTo(coordinate) ? node1 : node2;
+        }
+
+        private void insert(Stop stop) {
+            root = insert(root, stop, 0);
+        }
+
+        private Node insert(Node node, Stop stop, int depth) {
+            if (node == null) {
+                return new Node(stop);
+            }
+            Coordinate.Axis axis = getAxis(depth);
+            if (stop.getCoordinate().getComponent(axis) < node.stop.getCoordinate().getComponent(axis)) {
+                node.left = insert(node.left, stop, depth + 1);
+            } else {
+                node.right = insert(node.right, stop, depth + 1);
+            }
+            return node;
+        }
+
+        private Stop nearestNeighbor(Coordinate coordinate) {
+            return nearestNeighbor(root, coordinate, 0).stop;
+        }
+
+        private Node nearestNeighbor(Node node, Coordinate coordinate, int depth) {
+            if (node == null) {
+                return null;
+            }
+            Coordinate.Axis axis = getAxis(depth);
+            Coordinate nodeCoordinate = node.stop.getCoordinate();
+            boolean left = coordinate.getComponent(axis) < nodeCoordinate.getComponent(axis);
+            Node next = left ? node.left : node.right;
+            Node other = left ? node.right : node.left;
+            Node best = closer(node, nearestNeighbor(next, coordinate, depth + 1), coordinate);
+            if (nodeCoordinate.distanceTo(coordinate) > Math.abs(
+                    coordinate.getComponent(axis) - nodeCoordinate.getComponent(axis))) {
+                best = closer(best, nearestNeighbor(other, coordinate, depth + 1), coordinate);
+            }
+            return best;
+        }
+
+        private List<Stop> rangeSearch(Coordinate center, double radius) {
+            List<Stop> result = new ArrayList<>();
+            rangeSearch(root, center, radius, 0, result);
+            return result;
+        }
+
+        private void rangeSearch(Node node, Coordinate center, double radius, int depth, List<Stop> result) {
+            if (node == null) {
+                return;
+            }
+            if (node.stop.getCoordinate().distanceTo(center) <= radius) {
+                result.add(node.stop);
+            }
+            Coordinate.Axis axis = getAxis(depth);
+            double centerComponent = center.getComponent(axis);
+            double nodeComponent = node.stop.getCoordinate().getComponent(axis);
+            if (centerComponent - radius < nodeComponent) {
+                rangeSearch(node.left, center, radius, depth + 1, result);
+            }
+            if (centerComponent + radius >= nodeComponent) {
+                rangeSearch(node.right, center, radius, depth + 1, result);
+            }
+        }
+
+        private static final class Node {
+            private final Stop stop;
+            private Node left;
+            private Node right;
+
+            private Node(Stop stop) {
+                this.stop = stop;
+            }
+        }
+    }
+
+}
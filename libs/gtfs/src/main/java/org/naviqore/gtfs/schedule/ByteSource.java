@@ -0,0 +1,145 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Source of the raw bytes of a GTFS file, used by the byte-level readers.
+ */
+interface ByteSource extends Closeable {
+
+    /**
+     * Creates a source on a stream, e.g. the stream of a ZIP entry. The stream is closed with the source.
+     */
+    static ByteSource of(InputStream inputStream) {
+        return new StreamSource(inputStream);
+    }
+
+    /**
+     * Creates a source on an extracted file, which is memory-mapped in windows of up to 1 GiB.
+     */
+    static ByteSource of(Path file) throws IOException {
+        return new MappedFileSource(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Creates a source on byte arrays, which are read one after another.
+     */
+    static ByteSource of(byte[]... arrays) {
+        return new ArraySource(arrays);
+    }
+
+    /**
+     * Reads up to length bytes into the buffer.
+     *
+     * @return the number of bytes read, or -1 at the end of the input.
+     */
+    int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Reads bytes into the buffer until the buffer is full or the end of the input is reached.
+     *
+     * @return the number of bytes read, or -1 if the end of the input was reached before any byte was read.
+     */
+    default int readFully(byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = read(buffer, offset + total, length - total);
+            if (read < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    @RequiredArgsConstructor
+    final class StreamSource implements ByteSource {
+
+        private final InputStream inputStream;
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return inputStream.read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Reads a file through memory-mapped windows, which avoids a system call and a kernel copy per read.
+     */
+    final class MappedFileSource implements ByteSource {
+
+        private static final int WINDOW_SIZE = 1 << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private long mappedUntil;
+        private MappedByteBuffer window;
+
+        private MappedFileSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (mappedUntil == size) {
+                    return -1;
+                }
+                long windowSize = Math.min(WINDOW_SIZE, size - mappedUntil);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, mappedUntil, windowSize);
+                mappedUntil += windowSize;
+            }
+            int read = Math.min(length, window.remaining());
+            window.get(buffer, offset, read);
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    @RequiredArgsConstructor
+    final class ArraySource implements ByteSource {
+
+        private final byte[][] arrays;
+        private int array;
+        private int position;
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            while (array < arrays.length && position == arrays[array].length) {
+                array++;
+                position = 0;
+            }
+            if (array == arrays.length) {
+                return -1;
+            }
+            int read = Math.min(length, arrays[array].length - position);
+            System.arraycopy(arrays[array], position, buffer, offset, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+
+}
@@ -13,40 +13,66 @@ import java.util.stream.Collectors;
  * Splits the routes of a GTFS schedule into sub-routes. In a GTFS schedule, a route can have multiple trips with
  * different stop sequences. This class groups trips with the same stop sequence into sub-routes and assigns them the
  * parent route.
+ * <p>
+ * The stop sequences are compared as sequences of interned stop indices with a precomputed hash, so no string keys are
+ * created per trip. The routes are partitioned in parallel, and the sub-route of each trip is recorded for lookup.
  *
  * @author munterfi
  */
 @Slf4j
 public class GtfsRoutePartitioner {
 
-    private final Map<Route, Map<String, SubRoute>> subRoutes = new HashMap<>();
+    private final Map<Route, List<SubRoute>> subRoutes = new HashMap<>();
+    private final Map<Trip, SubRoute> tripSubRoutes = new HashMap<>();
 
     public GtfsRoutePartitioner(GtfsSchedule schedule) {
         log.info("Partitioning GTFS schedule with {} routes into sub-routes", schedule.getRoutes().size());
-        schedule.getRoutes().values().forEach(this::processRoute);
-        log.debug("Got {} sub-routes in schedule", subRoutes.values().stream().mapToInt(Map::size).sum());
+
+        // intern the stops as indices, the map is only read while partitioning in parallel
+        Map<String, Integer> stopIndices = new HashMap<>();
+        for (String stopId : schedule.getStops().keySet()) {
+            stopIndices.put(stopId, stopIndices.size());
+        }
+
+        List<List<SubRoute>> partitions = schedule.getRoutes()
+                .values()
+                .parallelStream()
+                .map(route -> processRoute(route, stopIndices))
+                .toList();
+
+        for (List<SubRoute> partition : partitions) {
+            for (SubRoute subRoute : partition) {
+                subRoutes.computeIfAbsent(subRoute.getRoute(), route -> new ArrayList<>()).add(subRoute);
+                subRoute.getTrips().forEach(trip -> tripSubRoutes.put(trip, subRoute));
+            }
+        }
+
+        log.debug("Got {} sub-routes in schedule", subRoutes.values().stream().mapToInt(List::size).sum());
     }
 
-    private void processRoute(Route route) {
-        Map<String, SubRoute> sequenceKeyToSubRoute = new HashMap<>();
-        route.getTrips().forEach(trip -> {
-            String key = generateStopSequenceKey(trip);
-            SubRoute subRoute = sequenceKeyToSubRoute.computeIfAbsent(key,
-                    s -> new SubRoute(String.format("%s_sr%d", route.getId(), sequenceKeyToSubRoute.size() + 1), route,
-                            key, extractStopSequence(trip)));
+    private static List<SubRoute> processRoute(Route route, Map<String, Integer> stopIndices) {
+        // keep the sub-routes in the order of their first trip, so that the ids are deterministic
+        Map<StopSequence, SubRoute> sequenceToSubRoute = new LinkedHashMap<>();
+        for (Trip trip : route.getTrips()) {
+            List<StopTime> stopTimes = trip.getStopTimes();
+            int[] indices = new int[stopTimes.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = stopIndices.get(stopTimes.get(i).stop().getId());
+            }
+
+            SubRoute subRoute = sequenceToSubRoute.computeIfAbsent(new StopSequence(indices),
+                    s -> new SubRoute(String.format("%s_sr%d", route.getId(), sequenceToSubRoute.size() + 1), route,
+                            extractStopSequence(stopTimes)));
             subRoute.addTrip(trip);
-        });
-        subRoutes.put(route, sequenceKeyToSubRoute);
-        log.debug("Route {} split into {} sub-routes", route.getId(), sequenceKeyToSubRoute.size());
-    }
+        }
 
-    private String generateStopSequenceKey(Trip trip) {
-        return trip.getStopTimes().stream().map(t -> t.stop().getId()).collect(Collectors.joining("-"));
+        log.debug("Route {} split into {} sub-routes", route.getId(), sequenceToSubRoute.size());
+        return List.copyOf(sequenceToSubRoute.values());
     }
 
-    private List<Stop> extractStopSequence(Trip trip) {
+    private static List<Stop> extractStopSequence(List<StopTime> stopTimes) {
         List<Stop> sequence = new ArrayList<>();
-        for (StopTime stopTime : trip.getStopTimes()) {
+        for (StopTime stopTime : stopTimes) {
             sequence.add(stopTime.stop());
         }
 
@@ -54,34 +80,58 @@ public class GtfsRoutePartitioner {
     }
 
     public List<SubRoute> getSubRoutes(Route route) {
-        Map<String, SubRoute> currentSubRoutes = subRoutes.get(route);
+        List<SubRoute> currentSubRoutes = subRoutes.get(route);
         if (currentSubRoutes == null) {
             throw new IllegalArgumentException("Route " + route.getId() + " not found in schedule");
         }
 
-        return new ArrayList<>(currentSubRoutes.values());
+        return new ArrayList<>(currentSubRoutes);
     }
 
     public SubRoute getSubRoute(Trip trip) {
-        Map<String, SubRoute> currentSubRoutes = subRoutes.get(trip.getRoute());
-        if (currentSubRoutes == null) {
+        SubRoute subRoute = tripSubRoutes.get(trip);
+        if (subRoute == null) {
             throw new IllegalArgumentException("Trip " + trip.getId() + " not found in schedule");
         }
-        String key = generateStopSequenceKey(trip);
 
-        return currentSubRoutes.get(key);
+        return subRoute;
+    }
+
+    /**
+     * Stop sequence of a trip as interned stop indices, the hash is computed once and equality compares the indices.
+     */
+    private static final class StopSequence {
+
+        private final int[] stopIndices;
+        private final int hash;
+
+        private StopSequence(int[] stopIndices) {
+            this.stopIndices = stopIndices;
+            this.hash = Arrays.hashCode(stopIndices);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null || obj.getClass() != this.getClass()) return false;
+            var that = (StopSequence) obj;
+            return hash == that.hash && Arrays.equals(stopIndices, that.stopIndices);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 
     /**
      * A sub-route belongs to a route, but has a unique stop sequence.
      */
-    @RequiredArgsConstructor
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     @Getter
     public static class SubRoute {
         private final String id;
         private final Route route;
-        @Getter(AccessLevel.NONE)
-        private final String stopSequenceKey;
         private final List<Stop> stopsSequence;
         private final List<Trip> trips = new ArrayList<>();
 
@@ -103,7 +153,8 @@ public class GtfsRoutePartitioner {
         }
 
         public String toString() {
-            return "SubRoute[" + "id=" + id + ", " + "route=" + route + ", " + "stopSequence=" + stopSequenceKey + ']';
+            return "SubRoute[" + "id=" + id + ", " + "route=" + route + ", " + "stopSequence=" +
+                    stopsSequence.stream().map(Stop::getId).collect(Collectors.joining("-")) + ']';
         }
     }
 }
@@ -0,0 +1,112 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.gtfs.schedule.model.GtfsSchedule;
+import org.naviqore.utils.io.BinaryFiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Caches parsed GTFS schedules as binary images in a directory.
+ * <p>
+ * The image of a feed is keyed by the SHA-256 hash of the feed file and the service date window of the reader. If an
+ * image for the key exists, the schedule is read from the image instead of parsing the feed. Otherwise, the feed is
+ * parsed with the reader and the image is written for the next time, replacing the images of previous feeds. Images
+ * that cannot be read, e.g. because they were written in another {@link GtfsScheduleImage#FORMAT_VERSION}, are rebuilt
+ * from the feed.
+ * <p>
+ * Only feeds in ZIP files are cached, extracted feed directories are always parsed.
+ */
+@Slf4j
+public class GtfsScheduleCache {
+
+    private static final String IMAGE_PREFIX = "gtfs-";
+    private static final String IMAGE_EXTENSION = ".bin";
+    private static final String TMP_EXTENSION = ".tmp";
+
+    private final Path directory;
+    private final GtfsScheduleReader reader;
+
+    /**
+     * @param directory the directory of the images, is created if it does not exist.
+     * @param reader    the reader used to parse feeds without an image.
+     */
+    public GtfsScheduleCache(Path directory, GtfsScheduleReader reader) {
+        this.directory = directory;
+        this.reader = reader;
+    }
+
+    private static boolean isImage(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.startsWith(IMAGE_PREFIX) && (fileName.endsWith(IMAGE_EXTENSION) || fileName.endsWith(
+                TMP_EXTENSION));
+    }
+
+    /**
+     * Reads the schedule of a feed from its image, or parses the feed and writes its image.
+     *
+     * @param path the path to the GTFS ZIP file or directory.
+     * @return the schedule of the feed.
+     */
+    public GtfsSchedule read(String path) throws IOException {
+        Path feed = Path.of(path);
+        if (!Files.isRegularFile(feed)) {
+            log.debug("Not caching GTFS feed, {} is not a file", path);
+            return reader.read(path);
+        }
+
+        Path image = directory.resolve(getImageName(BinaryFiles.sha256(feed)));
+        if (Files.isRegularFile(image)) {
+            log.info("Reading GTFS schedule from cached image: {}", image);
+            try (InputStream inputStream = Files.newInputStream(image)) {
+                return GtfsScheduleImage.read(inputStream);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Rebuilding unreadable GTFS schedule image {}: {}", image, e.getMessage());
+            }
+        }
+
+        GtfsSchedule schedule = reader.read(path);
+        try {
+            write(schedule, image);
+        } catch (IOException e) {
+            // the schedule is complete without its image, the feed is parsed again on the next start
+            log.warn("Could not write GTFS schedule image {}: {}", image, e.getMessage());
+        }
+
+        return schedule;
+    }
+
+    private String getImageName(String hash) {
+        ServiceDateWindow window = reader.getServiceDateWindow();
+        String key = window == null ? hash : hash + "_" + window.from() + "_" + window.to();
+        return IMAGE_PREFIX + key + IMAGE_EXTENSION;
+    }
+
+    private void write(GtfsSchedule schedule, Path image) throws IOException {
+        Files.createDirectories(directory);
+        removeImages(image);
+
+        BinaryFiles.writeAtomically(image, out -> GtfsScheduleImage.write(schedule, out));
+        log.info("Wrote GTFS schedule image: {} ({} bytes)", image, Files.size(image));
+    }
+
+    /**
+     * Removes the images of previous feeds or windows, except the given image.
+     */
+    private void removeImages(Path except) throws IOException {
+        List<Path> images;
+        try (Stream<Path> files = Files.list(directory)) {
+            images = files.filter(GtfsScheduleCache::isImage).filter(file -> !file.equals(except)).toList();
+        }
+        for (Path image : images) {
+            log.debug("Removing previous GTFS schedule image: {}", image);
+            Files.deleteIfExists(image);
+        }
+    }
+
+}
@@ -16,12 +16,13 @@ enum GtfsScheduleFile {
     CALENDAR_DATES("calendar_dates.txt", Presence.CONDITIONALLY_REQUIRED),
     // FARE_ATTRIBUTES("fare_attributes.txt", Presence.OPTIONAL),
     // FARE_RULES("fare_rules.txt", Presence.OPTIONAL),
-    // FREQUENCIES("frequencies.txt", Presence.OPTIONAL),
     STOPS("stops.txt", Presence.REQUIRED),
     ROUTES("routes.txt", Presence.REQUIRED),
     // SHAPES("shapes.txt", Presence.OPTIONAL),
     TRIPS("trips.txt", Presence.REQUIRED),
     STOP_TIMES("stop_times.txt", Presence.REQUIRED),
+    // after the trips, since the frequencies reference their template trip
+    FREQUENCIES("frequencies.txt", Presence.OPTIONAL),
     TRANSFERS("transfers.txt", Presence.OPTIONAL);
 
     private final String fileName;
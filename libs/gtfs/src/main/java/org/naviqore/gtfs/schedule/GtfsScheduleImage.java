@@ -0,0 +1,374 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.naviqore.gtfs.schedule.model.*;
+import org.naviqore.gtfs.schedule.type.*;
+import org.naviqore.utils.io.BinaryFiles;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary image of a parsed GTFS schedule.
+ * <p>
+ * The image stores the entities of the schedule in the order the {@link GtfsScheduleBuilder} needs them, referencing
+ * previously written entities by their index instead of their id. Strings are pooled, so repeated values like head
+ * signs are written once, and the stop times are written as variable length deltas, which are mostly one or two bytes.
+ * Reading an image replays the entities into a builder, which is much faster than parsing the CSV files of the feed.
+ * <p>
+ * The image starts with a format version. Images of another version are rejected, so that they are rebuilt from the
+ * feed after the format changed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GtfsScheduleImage {
+
+    /**
+     * Version of the image format, must be increased whenever the written data changes.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x4E51_4753;
+    private static final int END_MARKER = 0x454E_4421;
+    private static final int NO_VALUE = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes the schedule as binary image.
+     *
+     * @param schedule     the schedule to write.
+     * @param outputStream the stream to write to, is not closed.
+     */
+    public static void write(GtfsSchedule schedule, OutputStream outputStream) throws IOException {
+        Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE)));
+        writer.write(schedule);
+        writer.out.flush();
+    }
+
+    /**
+     * Reads a schedule from a binary image.
+     *
+     * @param inputStream the stream to read from, is not closed.
+     * @return the schedule built from the image.
+     * @throws IOException if the image is incomplete or has another format version.
+     */
+    public static GtfsSchedule read(InputStream inputStream) throws IOException {
+        return new Reader(new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE))).read();
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<String, Integer> stopIndices = new HashMap<>();
+        private final Map<String, Integer> agencyIndices = new HashMap<>();
+        private final Map<String, Integer> routeIndices = new HashMap<>();
+        private final Map<String, Integer> calendarIndices = new HashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(GtfsSchedule schedule) throws IOException {
+            BinaryFiles.writeHeader(out, MAGIC, FORMAT_VERSION);
+
+            writeVarInt(schedule.getAgencies().size());
+            for (Agency agency : schedule.getAgencies().values()) {
+                agencyIndices.put(agency.agency(), agencyIndices.size());
+                writeString(agency.agency());
+                writeString(agency.name());
+                writeString(agency.url());
+                writeString(agency.timezone().getId());
+            }
+
+            writeVarInt(schedule.getStops().size());
+            for (Stop stop : schedule.getStops().values()) {
+                stopIndices.put(stop.getId(), stopIndices.size());
+                writeString(stop.getId());
+                writeString(stop.getName());
+                out.writeDouble(stop.getCoordinate().latitude());
+                out.writeDouble(stop.getCoordinate().longitude());
+                // the effective value, so that a child inheriting from its parent reads the same after replay
+                out.writeByte(stop.getWheelchairBoarding().ordinal());
+            }
+            for (Stop stop : schedule.getStops().values()) {
+                writeVarInt(stop.getParent().map(parent -> stopIndices.get(parent.getId())).orElse(NO_VALUE) + 1);
+            }
+
+            writeVarInt(schedule.getRoutes().size());
+            for (Route route : schedule.getRoutes().values()) {
+                routeIndices.put(route.getId(), routeIndices.size());
+                writeString(route.getId());
+                writeVarInt(agencyIndices.get(route.getAgency().agency()));
+                writeString(route.getShortName());
+                writeString(route.getLongName());
+                writeVarInt(route.getType().getCode());
+            }
+
+            List<Calendar> calendars = schedule.getCalendars()
+                    .values()
+                    .stream()
+                    .sorted(Comparator.comparing(Calendar::getId))
+                    .toList();
+            writeVarInt(calendars.size());
+            for (Calendar calendar : calendars) {
+                calendarIndices.put(calendar.getId(), calendarIndices.size());
+                writeString(calendar.getId());
+                // calendars only defined by calendar dates have no service days and no date range
+                boolean hasRange = calendar.getStartDate() != null && calendar.getEndDate() != null;
+                out.writeBoolean(hasRange);
+                if (hasRange) {
+                    int serviceDays = 0;
+                    for (DayOfWeek day : calendar.getServiceDays()) {
+                        serviceDays |= 1 << day.ordinal();
+                    }
+                    out.writeByte(serviceDays);
+                    out.writeLong(calendar.getStartDate().toEpochDay());
+                    out.writeLong(calendar.getEndDate().toEpochDay());
+                }
+                List<CalendarDate> calendarDates = calendar.getCalendarDates().values().stream().sorted().toList();
+                writeVarInt(calendarDates.size());
+                for (CalendarDate calendarDate : calendarDates) {
+                    out.writeLong(calendarDate.date().toEpochDay());
+                    out.writeByte(calendarDate.type().ordinal());
+                }
+            }
+
+            // trips in the order of their route, so that trips with the same departure keep their order in the route
+            List<Trip> trips = schedule.getRoutes()
+                    .values()
+                    .stream()
+                    .flatMap(route -> route.getTrips().stream())
+                    .toList();
+            writeVarInt(trips.size());
+            for (Trip trip : trips) {
+                writeString(trip.getId());
+                writeVarInt(routeIndices.get(trip.getRoute().getId()));
+                writeVarInt(calendarIndices.get(trip.getCalendar().getId()));
+                writeString(trip.getHeadSign());
+                out.writeByte(trip.getWheelchairAccessible().ordinal());
+                out.writeByte(trip.getBikesAllowed().ordinal());
+
+                // stop times are sorted by departure, the deltas to the previous departure are small and usually
+                // positive
+                List<StopTime> stopTimes = trip.getStopTimes();
+                writeVarInt(stopTimes.size());
+                int previous = 0;
+                for (StopTime stopTime : stopTimes) {
+                    int arrival = stopTime.arrival().getTotalSeconds();
+                    int departure = stopTime.departure().getTotalSeconds();
+                    writeVarInt(stopIndices.get(stopTime.stop().getId()));
+                    writeSignedVarInt(arrival - previous);
+                    writeVarInt(departure - arrival);
+                    previous = departure;
+                }
+
+                writeVarInt(trip.getFrequencies().size());
+                for (Frequency frequency : trip.getFrequencies()) {
+                    int start = frequency.startTime().getTotalSeconds();
+                    writeVarInt(start);
+                    writeVarInt(frequency.endTime().getTotalSeconds() - start);
+                    writeVarInt(frequency.headwaySecs());
+                    out.writeByte(frequency.type().ordinal());
+                }
+            }
+
+            for (Stop stop : schedule.getStops().values()) {
+                writeVarInt(stop.getTransfers().size());
+                for (Transfer transfer : stop.getTransfers()) {
+                    writeVarInt(stopIndices.get(transfer.getToStop().getId()));
+                    out.writeByte(transfer.getTransferType().ordinal());
+                    writeVarInt(transfer.getMinTransferTime().orElse(NO_VALUE) + 1);
+                }
+            }
+
+            out.writeInt(END_MARKER);
+        }
+
+        private void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(index);
+                return;
+            }
+
+            // a new string is written with the next index of the pool, followed by its bytes
+            writeVarInt(strings.size());
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeSignedVarInt(int value) throws IOException {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private static <T extends Enum<T>> T valueOf(T[] values, int ordinal) throws IOException {
+            if (ordinal < 0 || ordinal >= values.length) {
+                throw new IOException("Invalid value " + ordinal + " in schedule image");
+            }
+            return values[ordinal];
+        }
+
+        private GtfsSchedule read() throws IOException {
+            BinaryFiles.readHeader(in, MAGIC, FORMAT_VERSION, "schedule image");
+
+            GtfsScheduleBuilder builder = GtfsSchedule.builder();
+
+            String[] agencyIds = new String[readVarInt()];
+            for (int i = 0; i < agencyIds.length; i++) {
+                agencyIds[i] = readString();
+                builder.addAgency(agencyIds[i], readString(), readString(), ZoneId.of(readString()));
+            }
+
+            String[] stopIds = new String[readVarInt()];
+            String[] stopNames = new String[stopIds.length];
+            double[] coordinates = new double[stopIds.length * 2];
+            AccessibilityInformation[] wheelchairBoardings = new AccessibilityInformation[stopIds.length];
+            for (int i = 0; i < stopIds.length; i++) {
+                stopIds[i] = readString();
+                stopNames[i] = readString();
+                coordinates[i * 2] = in.readDouble();
+                coordinates[i * 2 + 1] = in.readDouble();
+                wheelchairBoardings[i] = valueOf(AccessibilityInformation.values(), in.readByte());
+            }
+            for (int i = 0; i < stopIds.length; i++) {
+                int parent = readVarInt() - 1;
+                builder.addStop(stopIds[i], stopNames[i], coordinates[i * 2], coordinates[i * 2 + 1],
+                        parent == NO_VALUE ? "" : stopIds[parent], wheelchairBoardings[i]);
+            }
+
+            String[] routeIds = new String[readVarInt()];
+            for (int i = 0; i < routeIds.length; i++) {
+                routeIds[i] = readString();
+                builder.addRoute(routeIds[i], agencyIds[readVarInt()], readString(), readString(),
+                        RouteType.parse(readVarInt()));
+            }
+
+            String[] calendarIds = new String[readVarInt()];
+            for (int i = 0; i < calendarIds.length; i++) {
+                calendarIds[i] = readString();
+                if (in.readBoolean()) {
+                    int serviceDays = in.readByte();
+                    EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                    for (DayOfWeek day : DayOfWeek.values()) {
+                        if ((serviceDays & (1 << day.ordinal())) != 0) {
+                            days.add(day);
+                        }
+                    }
+                    builder.addCalendar(calendarIds[i], days, LocalDate.ofEpochDay(in.readLong()),
+                            LocalDate.ofEpochDay(in.readLong()));
+                }
+                int calendarDates = readVarInt();
+                for (int j = 0; j < calendarDates; j++) {
+                    builder.addCalendarDate(calendarIds[i], LocalDate.ofEpochDay(in.readLong()),
+                            valueOf(ExceptionType.values(), in.readByte()));
+                }
+            }
+
+            int trips = readVarInt();
+            for (int i = 0; i < trips; i++) {
+                String tripId = readString();
+                builder.addTrip(tripId, routeIds[readVarInt()], calendarIds[readVarInt()], readString(),
+                        valueOf(AccessibilityInformation.values(), in.readByte()),
+                        valueOf(BikeInformation.values(), in.readByte()));
+
+                int stopTimes = readVarInt();
+                int previous = 0;
+                for (int j = 0; j < stopTimes; j++) {
+                    String stopId = stopIds[readVarInt()];
+                    int arrival = previous + readSignedVarInt();
+                    int departure = arrival + readVarInt();
+                    builder.addStopTime(tripId, stopId, new ServiceDayTime(arrival), new ServiceDayTime(departure));
+                    previous = departure;
+                }
+
+                int frequencies = readVarInt();
+                for (int j = 0; j < frequencies; j++) {
+                    int start = readVarInt();
+                    int end = start + readVarInt();
+                    builder.addFrequency(tripId, new ServiceDayTime(start), new ServiceDayTime(end), readVarInt(),
+                            valueOf(FrequencyType.values(), in.readByte()));
+                }
+            }
+
+            for (String stopId : stopIds) {
+                int transfers = readVarInt();
+                for (int j = 0; j < transfers; j++) {
+                    String toStopId = stopIds[readVarInt()];
+                    TransferType transferType = valueOf(TransferType.values(), in.readByte());
+                    int minTransferTime = readVarInt() - 1;
+                    builder.addTransfer(stopId, toStopId, transferType,
+                            minTransferTime == NO_VALUE ? null : minTransferTime);
+                }
+            }
+
+            if (in.readInt() != END_MARKER) {
+                throw new IOException("Schedule image is incomplete");
+            }
+
+            return builder.build();
+        }
+
+        private String readString() throws IOException {
+            int index = readVarInt();
+            if (index < strings.size()) {
+                return strings.get(index);
+            } else if (index > strings.size()) {
+                throw new IOException("Invalid string reference " + index + " in schedule image");
+            }
+
+            byte[] bytes = new byte[readVarInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private int readSignedVarInt() throws IOException {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                byte b = in.readByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length integer in schedule image");
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.naviqore.gtfs.schedule;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVRecord;
 import org.naviqore.gtfs.schedule.model.GtfsScheduleBuilder;
@@ -9,9 +10,7 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.EnumMap;
-import java.util.EnumSet;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Consumer;
 
 /**
@@ -30,6 +29,12 @@ class GtfsScheduleParser {
     private final EnumMap<GtfsScheduleFile, Consumer<CSVRecord>> parsers = new EnumMap<>(GtfsScheduleFile.class);
     private final GtfsScheduleBuilder builder;
 
+    // calendars outside the service date window and their trips, which are skipped without warnings
+    private Set<String> skippedServiceIds = Set.of();
+    private final Set<String> skippedTripIds = new HashSet<>();
+    @Getter
+    private long skippedStopTimes;
+
     public GtfsScheduleParser(GtfsScheduleBuilder builder) {
         this.builder = builder;
         initializeParsers();
@@ -41,6 +46,23 @@ class GtfsScheduleParser {
         }).accept(record);
     }
 
+    /**
+     * Removes the calendars which are not active in the service date window. Has to be called after the calendars and
+     * calendar dates are parsed and before the trips are parsed, the trips and stop times of the removed calendars are
+     * then skipped.
+     */
+    public void applyServiceDateWindow(ServiceDateWindow window) {
+        skippedServiceIds = builder.removeCalendarsInactiveBetween(window.from(), window.to());
+    }
+
+    public int getSkippedCalendars() {
+        return skippedServiceIds.size();
+    }
+
+    public int getSkippedTrips() {
+        return skippedTripIds.size();
+    }
+
     private void initializeParsers() {
         parsers.put(GtfsScheduleFile.AGENCY, this::parseAgency);
         parsers.put(GtfsScheduleFile.CALENDAR, this::parseCalendar);
@@ -48,7 +70,7 @@ class GtfsScheduleParser {
         parsers.put(GtfsScheduleFile.STOPS, this::parseStop);
         parsers.put(GtfsScheduleFile.ROUTES, this::parseRoute);
         parsers.put(GtfsScheduleFile.TRIPS, this::parseTrips);
-        parsers.put(GtfsScheduleFile.STOP_TIMES, this::parseStopTimes);
+        parsers.put(GtfsScheduleFile.FREQUENCIES, this::parseFrequency);
         parsers.put(GtfsScheduleFile.TRANSFERS, this::parseTransfers);
     }
 
@@ -90,6 +112,10 @@ class GtfsScheduleParser {
     }
 
     private void parseTrips(CSVRecord record) {
+        if (skippedServiceIds.contains(record.get("service_id"))) {
+            skippedTripIds.add(record.get("trip_id"));
+            return;
+        }
         try {
             builder.addTrip(record.get("trip_id"), record.get("route_id"), record.get("service_id"),
                     Utils.getStringFieldOrDefault(record, "trip_headsign", ""),
@@ -100,14 +126,43 @@ class GtfsScheduleParser {
         }
     }
 
-    private void parseStopTimes(CSVRecord record) {
+    /**
+     * Parses the stop times of a chunk. Stop times are not read as CSV records, see {@link StopTimesReader}.
+     *
+     * @param recordOffset the number of records in the file before the chunk, used to report invalid rows.
+     */
+    public void parseStopTimes(StopTimesChunk chunk, long recordOffset) {
+        for (int i = 0; i < chunk.getSize(); i++) {
+            String error = chunk.getError(i);
+            if (error == null && skippedTripIds.contains(chunk.getTripId(i))) {
+                skippedStopTimes++;
+                continue;
+            }
+            if (error != null) {
+                log.warn("Skipping invalid stop time in row {}: {}", recordOffset + i + 1, error);
+                continue;
+            }
+            try {
+                builder.addStopTime(chunk.getTripId(i), chunk.getStopId(i),
+                        new ServiceDayTime(chunk.getArrivalTime(i)), new ServiceDayTime(chunk.getDepartureTime(i)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping invalid stop time in row {}: {}", recordOffset + i + 1, e.getMessage());
+            }
+        }
+    }
+
+    private void parseFrequency(CSVRecord record) {
+        if (skippedTripIds.contains(record.get("trip_id"))) {
+            return;
+        }
+        // exact times is optional and may be empty, which means frequency-based service
+        String exactTimes = Utils.getStringFieldOrDefault(record, "exact_times", "");
         try {
-            builder.addStopTime(record.get("trip_id"), record.get("stop_id"),
-                    ServiceDayTime.parse(record.get("arrival_time")),
-                    ServiceDayTime.parse(record.get("departure_time")));
+            builder.addFrequency(record.get("trip_id"), ServiceDayTime.parse(record.get("start_time")),
+                    ServiceDayTime.parse(record.get("end_time")), Integer.parseInt(record.get("headway_secs")),
+                    FrequencyType.parse(exactTimes.isEmpty() ? 0 : Integer.parseInt(exactTimes)));
         } catch (IllegalArgumentException e) {
-            log.warn("Skipping invalid stop time {}-{}: {}", record.get("trip_id"), record.get("stop_id"),
-                    e.getMessage());
+            log.warn("Skipping invalid frequency of trip {}: {}", record.get("trip_id"), e.getMessage());
         }
     }
 
@@ -1,17 +1,22 @@
 package org.naviqore.gtfs.schedule;
 
-import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
+import org.jspecify.annotations.Nullable;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.gtfs.schedule.model.GtfsScheduleBuilder;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -22,62 +27,96 @@ import java.util.zip.ZipFile;
  * ZIP archive containing the GTFS dataset.
  * <p>
  * Supported GTFS files are enumerated in {@link GtfsScheduleFile}, and this reader will attempt to parse each specified
- * file into a list of {@link CSVRecord} objects.
+ * file into a list of {@link CSVRecord} objects. The exception is the stop times file, which is read by the byte-level
+ * {@link StopTimesReader}. The chunked files are read from the ZIP stream or, for directories, from the memory-mapped
+ * file.
+ * <p>
+ * Parsing is done in parallel: The small files are parsed concurrently, while the large trips and stop times files are
+ * split into chunks of complete lines, which are parsed by a pool of worker threads. The parsed records are added to
+ * the schedule builder on the calling thread in the order of the file dependencies and of the lines in each file, so
+ * the resulting schedule is the same as with sequential reading.
+ * <p>
+ * Optionally, reading can be restricted to a {@link ServiceDateWindow}: Calendars which are not active in the window are
+ * dropped after the calendar files are read, and the trips and stop times of these calendars are skipped.
  * <p>
  * Note: The GTFS data has to strictly follow the standard GTFS file naming and format. Non-standard files will not be
  * read.
  *
  * @author munterfi
  */
-@NoArgsConstructor
 @Slf4j
 public class GtfsScheduleReader {
 
     private static final String ZIP_FILE_EXTENSION = ".zip";
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final Set<GtfsScheduleFile> CHUNKED_FILES = EnumSet.of(GtfsScheduleFile.TRIPS,
+            GtfsScheduleFile.STOP_TIMES);
+    private static final byte[] LINE_BREAK = {'\n'};
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setIgnoreHeaderCase(true)
+            .setTrim(true)
+            .get();
 
-    private static void readFromDirectory(File directory, GtfsScheduleParser parser) throws IOException {
-        for (GtfsScheduleFile fileType : GtfsScheduleFile.values()) {
-            File csvFile = new File(directory, fileType.getFileName());
+    private final int parallelism;
+    private final int chunkSize;
+    @Nullable
+    private final ServiceDateWindow serviceDateWindow;
 
-            if (csvFile.exists()) {
-                log.info("Reading GTFS CSV file: {}", csvFile.getAbsolutePath());
-                readCsvFile(csvFile, parser, fileType);
-            } else if (fileType.getPresence() == GtfsScheduleFile.Presence.REQUIRED) {
-                throw new FileNotFoundException("Required GTFS CSV file" + csvFile.getAbsolutePath() + " not found");
-            } else if (fileType.getPresence() == GtfsScheduleFile.Presence.CONDITIONALLY_REQUIRED) {
-                GtfsScheduleFile alternativeRequiredFile = getAlternativeRequiredFile(fileType);
-                File alternativeCsvFile = new File(directory, alternativeRequiredFile.getFileName());
-                if (!alternativeCsvFile.exists()) {
-                    throw new FileNotFoundException(
-                            "Conditional requirement not met: either: " + csvFile.getAbsolutePath() + " or " + alternativeCsvFile.getAbsolutePath() + " must be present in the directory");
-                }
-            }
+    /**
+     * Creates a reader that uses all available processors and reads the complete schedule.
+     */
+    public GtfsScheduleReader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism the number of threads used to parse the files.
+     */
+    public GtfsScheduleReader(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * @param parallelism       the number of threads used to parse the files.
+     * @param serviceDateWindow the service dates to which the schedule is restricted, or null to read the complete
+     *                          schedule.
+     */
+    public GtfsScheduleReader(int parallelism, @Nullable ServiceDateWindow serviceDateWindow) {
+        this(parallelism, DEFAULT_CHUNK_SIZE, serviceDateWindow);
+    }
+
+    GtfsScheduleReader(int parallelism, int chunkSize) {
+        this(parallelism, chunkSize, null);
+    }
+
+    GtfsScheduleReader(int parallelism, int chunkSize, @Nullable ServiceDateWindow serviceDateWindow) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
         }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.serviceDateWindow = serviceDateWindow;
     }
 
-    private static void readFromZip(File zipFile, GtfsScheduleParser parser) throws IOException {
-        try (ZipFile zf = new ZipFile(zipFile, StandardCharsets.UTF_8)) {
-            for (GtfsScheduleFile fileType : GtfsScheduleFile.values()) {
-                ZipEntry entry = zf.getEntry(fileType.getFileName());
-
-                if (entry != null) {
-                    log.info("Reading GTFS file from ZIP: {}", entry.getName());
-                    try (InputStreamReader reader = new InputStreamReader(BOMInputStream.builder()
-                            .setInputStream(zf.getInputStream(entry))
-                            .setByteOrderMarks(ByteOrderMark.UTF_8)
-                            .setInclude(false)
-                            .get(), StandardCharsets.UTF_8)) {
-                        readCsvRecords(reader, parser, fileType);
-                    }
-                } else if (fileType.getPresence() == GtfsScheduleFile.Presence.REQUIRED) {
+    private static void validatePresence(Feed feed) throws FileNotFoundException {
+        for (GtfsScheduleFile fileType : GtfsScheduleFile.values()) {
+            if (feed.contains(fileType)) {
+                continue;
+            }
+            if (fileType.getPresence() == GtfsScheduleFile.Presence.REQUIRED) {
+                throw new FileNotFoundException(
+                        "Required GTFS CSV file " + feed.getLocation(fileType) + " not found in " + feed);
+            } else if (fileType.getPresence() == GtfsScheduleFile.Presence.CONDITIONALLY_REQUIRED) {
+                GtfsScheduleFile alternativeRequiredFile = getAlternativeRequiredFile(fileType);
+                if (!feed.contains(alternativeRequiredFile)) {
                     throw new FileNotFoundException(
-                            "Required GTFS CSV file" + fileType.getFileName() + " not found in ZIP");
-                } else if (fileType.getPresence() == GtfsScheduleFile.Presence.CONDITIONALLY_REQUIRED) {
-                    GtfsScheduleFile alternativeRequiredFile = getAlternativeRequiredFile(fileType);
-                    if (zf.getEntry(alternativeRequiredFile.getFileName()) == null) {
-                        throw new FileNotFoundException(
-                                "Conditional requirement not met: either: " + fileType.getFileName() + " or " + alternativeRequiredFile.getFileName() + " must be present in the ZIP");
-                    }
+                            "Conditional requirement not met: either: " + feed.getLocation(
+                                    fileType) + " or " + feed.getLocation(
+                                    alternativeRequiredFile) + " must be present in the " + feed);
                 }
             }
         }
@@ -91,26 +130,26 @@ public class GtfsScheduleReader {
         };
     }
 
-    private static void readCsvFile(File file, GtfsScheduleParser parser,
-                                    GtfsScheduleFile fileType) throws IOException {
-        try (FileInputStream fileInputStream = new FileInputStream(file);
-             BOMInputStream bomInputStream = BOMInputStream.builder()
-                     .setInputStream(fileInputStream)
-                     .setByteOrderMarks(ByteOrderMark.UTF_8)
-                     .get(); InputStreamReader reader = new InputStreamReader(bomInputStream, StandardCharsets.UTF_8)) {
-            readCsvRecords(reader, parser, fileType);
+    private static List<CSVRecord> readCsvRecords(Feed feed, GtfsScheduleFile fileType) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(BOMInputStream.builder()
+                .setInputStream(feed.openStream(fileType))
+                .setByteOrderMarks(ByteOrderMark.UTF_8)
+                .setInclude(false)
+                .get(), StandardCharsets.UTF_8); CSVParser csvParser = CSV_FORMAT.parse(reader)) {
+            log.debug("CSV Headers of {}: {}", fileType.getFileName(), csvParser.getHeaderMap().keySet());
+            return csvParser.getRecords();
         }
     }
 
-    private static void readCsvRecords(InputStreamReader reader, GtfsScheduleParser recordParser,
-                                       GtfsScheduleFile fileType) throws IOException {
-        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setIgnoreHeaderCase(true).setTrim(true).get();
-        try (CSVParser csvParser = format.parse(reader)) {
-            log.debug("CSV Headers: {}", csvParser.getHeaderMap().keySet());
-            csvParser.forEach(record -> recordParser.parse(record, fileType));
-
-            // record number is incremented while parsing; check has to be done after parsing
-            validateCsvFileIsNotEmpty(fileType, csvParser.getRecordNumber());
+    /**
+     * Parses a chunk of complete lines as CSV records, with the header line of the file.
+     */
+    private static List<CSVRecord> readCsvChunk(byte[] header, byte[] chunk) throws IOException {
+        InputStream inputStream = new SequenceInputStream(Collections.enumeration(
+                List.of(new ByteArrayInputStream(header), new ByteArrayInputStream(LINE_BREAK),
+                        new ByteArrayInputStream(chunk))));
+        try (CSVParser csvParser = CSV_FORMAT.parse(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return csvParser.getRecords();
         }
     }
 
@@ -126,22 +165,235 @@ public class GtfsScheduleReader {
         }
     }
 
+    /**
+     * Waits for the result of a task and rethrows its failure.
+     */
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading GTFS files");
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case IOException cause -> throw cause;
+                case RuntimeException cause -> throw cause;
+                case Error cause -> throw cause;
+                default -> throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * @return the service dates to which the schedule is restricted, or null if the complete schedule is read.
+     */
+    @Nullable ServiceDateWindow getServiceDateWindow() {
+        return serviceDateWindow;
+    }
+
     public GtfsSchedule read(String path) throws IOException {
         File file = new File(path);
-        GtfsScheduleBuilder builder = GtfsSchedule.builder();
-        GtfsScheduleParser parser = new GtfsScheduleParser(builder);
 
         if (file.isDirectory()) {
             log.info("Reading GTFS CSV files from directory: {}", path);
-            readFromDirectory(file, parser);
+            try (Feed feed = new DirectoryFeed(file)) {
+                return read(feed);
+            }
         } else if (file.isFile() && path.endsWith(ZIP_FILE_EXTENSION)) {
             log.info("Reading GTFS from ZIP file: {}", path);
-            readFromZip(file, parser);
+            try (Feed feed = new ZipFeed(new ZipFile(file, StandardCharsets.UTF_8))) {
+                return read(feed);
+            }
         } else {
             throw new IllegalArgumentException("Path must be a directory or a .zip file");
         }
+    }
+
+    private GtfsSchedule read(Feed feed) throws IOException {
+        validatePresence(feed);
+        GtfsScheduleBuilder builder = GtfsSchedule.builder();
+        GtfsScheduleParser parser = new GtfsScheduleParser(builder);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            // the small files do not depend on each other and are parsed concurrently
+            Map<GtfsScheduleFile, Future<List<CSVRecord>>> records = new EnumMap<>(GtfsScheduleFile.class);
+            for (GtfsScheduleFile fileType : GtfsScheduleFile.values()) {
+                if (feed.contains(fileType) && !CHUNKED_FILES.contains(fileType)) {
+                    records.put(fileType, executor.submit(() -> readCsvRecords(feed, fileType)));
+                }
+            }
+
+            // the builder resolves references to previously added entities, so the files are added in their order
+            for (GtfsScheduleFile fileType : GtfsScheduleFile.values()) {
+                // the calendars and calendar dates are complete before the first trip is added
+                if (fileType == GtfsScheduleFile.TRIPS && serviceDateWindow != null) {
+                    parser.applyServiceDateWindow(serviceDateWindow);
+                }
+                if (!feed.contains(fileType)) {
+                    continue;
+                }
+                log.info("Reading GTFS CSV file: {}", feed.getLocation(fileType));
+                long recordNumber = switch (fileType) {
+                    case TRIPS -> readChunks(feed, fileType, executor, GtfsScheduleReader::readCsvChunk, (chunk, _) -> {
+                        chunk.forEach(record -> parser.parse(record, fileType));
+                        return chunk.size();
+                    });
+                    case STOP_TIMES -> readChunks(feed, fileType, executor, StopTimesChunk::parse, (chunk, offset) -> {
+                        parser.parseStopTimes(chunk, offset);
+                        return chunk.getSize();
+                    });
+                    default -> {
+                        List<CSVRecord> fileRecords = await(records.get(fileType));
+                        fileRecords.forEach(record -> parser.parse(record, fileType));
+                        yield fileRecords.size();
+                    }
+                };
+
+                validateCsvFileIsNotEmpty(fileType, recordNumber);
+            }
+        }
+
+        if (serviceDateWindow != null) {
+            log.info("Skipped {} calendars, {} trips and {} stop times outside of the service dates {} to {}",
+                    parser.getSkippedCalendars(), parser.getSkippedTrips(), parser.getSkippedStopTimes(),
+                    serviceDateWindow.from(), serviceDateWindow.to());
+        }
 
         return builder.build();
     }
 
+    /**
+     * Splits a file into chunks of complete lines, which are parsed by the executor and merged on the calling thread in
+     * the order of the file. The number of chunks in flight is bounded, so the memory use does not depend on the file
+     * size.
+     *
+     * @return the number of records in the file.
+     */
+    private <T> long readChunks(Feed feed, GtfsScheduleFile fileType, ExecutorService executor,
+                                ChunkParser<T> chunkParser, ChunkMerger<T> chunkMerger) throws IOException {
+        int maxChunksInFlight = 2 * parallelism;
+        Deque<Future<T>> inFlight = new ArrayDeque<>(maxChunksInFlight);
+        long recordNumber = 0;
+
+        try (LineChunker chunker = new LineChunker(feed.openBytes(fileType), chunkSize)) {
+            byte[] header = chunker.getHeader();
+            byte[] chunk;
+            while ((chunk = chunker.next()) != null) {
+                if (inFlight.size() == maxChunksInFlight) {
+                    recordNumber += chunkMerger.merge(await(inFlight.removeFirst()), recordNumber);
+                }
+                byte[] lines = chunk;
+                inFlight.addLast(executor.submit(() -> chunkParser.parse(header, lines)));
+            }
+            while (!inFlight.isEmpty()) {
+                recordNumber += chunkMerger.merge(await(inFlight.removeFirst()), recordNumber);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        return recordNumber;
+    }
+
+    @FunctionalInterface
+    private interface ChunkParser<T> {
+        T parse(byte[] header, byte[] chunk) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ChunkMerger<T> {
+        /**
+         * @return the number of records in the chunk.
+         */
+        int merge(T chunk, long recordOffset);
+    }
+
+    /**
+     * A GTFS feed, either an extracted directory or a ZIP archive.
+     */
+    private interface Feed extends Closeable {
+
+        boolean contains(GtfsScheduleFile fileType);
+
+        String getLocation(GtfsScheduleFile fileType);
+
+        InputStream openStream(GtfsScheduleFile fileType) throws IOException;
+
+        ByteSource openBytes(GtfsScheduleFile fileType) throws IOException;
+
+    }
+
+    private record DirectoryFeed(File directory) implements Feed {
+
+        @Override
+        public boolean contains(GtfsScheduleFile fileType) {
+            return new File(directory, fileType.getFileName()).exists();
+        }
+
+        @Override
+        public String getLocation(GtfsScheduleFile fileType) {
+            return new File(directory, fileType.getFileName()).getAbsolutePath();
+        }
+
+        @Override
+        public InputStream openStream(GtfsScheduleFile fileType) throws IOException {
+            return new FileInputStream(new File(directory, fileType.getFileName()));
+        }
+
+        /**
+         * Extracted files are memory-mapped.
+         */
+        @Override
+        public ByteSource openBytes(GtfsScheduleFile fileType) throws IOException {
+            return ByteSource.of(new File(directory, fileType.getFileName()).toPath());
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+
+        @Override
+        public String toString() {
+            return "directory";
+        }
+    }
+
+    private record ZipFeed(ZipFile zipFile) implements Feed {
+
+        @Override
+        public boolean contains(GtfsScheduleFile fileType) {
+            return zipFile.getEntry(fileType.getFileName()) != null;
+        }
+
+        @Override
+        public String getLocation(GtfsScheduleFile fileType) {
+            return fileType.getFileName();
+        }
+
+        @Override
+        public InputStream openStream(GtfsScheduleFile fileType) throws IOException {
+            ZipEntry entry = zipFile.getEntry(fileType.getFileName());
+            if (entry == null) {
+                throw new FileNotFoundException(fileType.getFileName() + " not found in " + zipFile.getName());
+            }
+            return zipFile.getInputStream(entry);
+        }
+
+        @Override
+        public ByteSource openBytes(GtfsScheduleFile fileType) throws IOException {
+            return ByteSource.of(openStream(fileType));
+        }
+
+        @Override
+        public void close() throws IOException {
+            zipFile.close();
+        }
+
+        @Override
+        public String toString() {
+            return "ZIP";
+        }
+    }
+
 }
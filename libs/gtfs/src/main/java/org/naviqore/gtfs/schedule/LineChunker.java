@@ -0,0 +1,162 @@
+package org.naviqore.gtfs.schedule;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Splits a CSV file into its header line and chunks of complete lines, so that the chunks can be parsed independently
+ * of each other.
+ * <p>
+ * Chunks are cut after a line break outside of double quotes, so a quoted field containing a line break is never split.
+ * Each chunk has at least the configured size, except the last one, and is extended to the end of its last line. A
+ * UTF-8 byte order mark before the header is removed.
+ */
+final class LineChunker implements Closeable {
+
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteSource source;
+    private final byte[] header;
+
+    private byte[] buffer;
+    private int limit;
+    private boolean endOfInput;
+
+    // scan state of the buffered bytes, which always start at the beginning of a line
+    private int scanned;
+    private boolean inQuotes;
+    private int lastLineEnd;
+
+    LineChunker(ByteSource source, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        this.source = source;
+        this.buffer = new byte[Math.max(chunkSize, UTF_8_BOM.length)];
+        fill();
+        this.header = readHeader();
+    }
+
+    /**
+     * @return the header line without the line break, or an empty array if the input is empty.
+     */
+    byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Reads the next chunk of complete lines. The chunk includes the line breaks.
+     *
+     * @return the next chunk, or null if the end of the input is reached.
+     */
+    byte @Nullable [] next() throws IOException {
+        while (true) {
+            scan();
+
+            if (endOfInput) {
+                if (limit == 0) {
+                    return null;
+                }
+                return cut(limit);
+            }
+
+            if (limit == buffer.length) {
+                if (lastLineEnd > 0) {
+                    return cut(lastLineEnd);
+                }
+                // a single line does not fit into the chunk
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            fill();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private byte[] readHeader() throws IOException {
+        int start = limit >= UTF_8_BOM.length && Arrays.equals(buffer, 0, UTF_8_BOM.length, UTF_8_BOM, 0,
+                UTF_8_BOM.length) ? UTF_8_BOM.length : 0;
+
+        while (true) {
+            for (int i = start; i < limit; i++) {
+                if (buffer[i] == LF || buffer[i] == CR) {
+                    int end = i + 1;
+                    // consume the LF of a CRLF line break, if it is already buffered
+                    if (buffer[i] == CR && end < limit && buffer[end] == LF) {
+                        end++;
+                    }
+                    byte[] line = Arrays.copyOfRange(buffer, start, i);
+                    discard(end);
+                    return line;
+                }
+            }
+
+            if (endOfInput) {
+                byte[] line = Arrays.copyOfRange(buffer, start, limit);
+                discard(limit);
+                return line;
+            }
+
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Scans the newly buffered bytes for line breaks outside of quotes. A doubled quote toggles the state twice, so
+     * escaped quotes need no special handling. A CR is only a line end if it is not followed by a LF, so a CRLF line
+     * break is never split.
+     */
+    private void scan() {
+        for (int i = scanned; i < limit; i++) {
+            byte b = buffer[i];
+            if (b == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && (b == LF || (b == CR && i + 1 < limit && buffer[i + 1] != LF))) {
+                lastLineEnd = i + 1;
+            }
+        }
+        scanned = limit;
+    }
+
+    private byte[] cut(int end) {
+        byte[] chunk = Arrays.copyOf(buffer, end);
+        discard(end);
+        return chunk;
+    }
+
+    /**
+     * Removes the bytes before the end position from the buffer. The end position is always at the beginning of a line,
+     * the remaining bytes are scanned again.
+     */
+    private void discard(int end) {
+        System.arraycopy(buffer, end, buffer, 0, limit - end);
+        limit -= end;
+        scanned = 0;
+        inQuotes = false;
+        lastLineEnd = 0;
+    }
+
+    private void fill() throws IOException {
+        int read = source.readFully(buffer, limit, buffer.length - limit);
+        if (read < 0 || limit + read < buffer.length) {
+            endOfInput = true;
+        }
+        if (read > 0) {
+            limit += read;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.naviqore.gtfs.schedule;
+
+import java.time.LocalDate;
+
+/**
+ * Inclusive range of service dates to which reading a GTFS schedule is restricted.
+ * <p>
+ * Calendars that are not active on any date of the window are dropped while reading, together with their trips and
+ * stop times. Routing outside the window finds no connections.
+ *
+ * @param from the first service date of the window.
+ * @param to   the last service date of the window.
+ */
+public record ServiceDateWindow(LocalDate from, LocalDate to) {
+
+    public ServiceDateWindow {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date of the service date window.");
+        }
+    }
+
+    /**
+     * Creates a window around a date, e.g. the day before today until a few days after today.
+     *
+     * @param date       the date the window is centered on, usually today.
+     * @param daysBefore number of days before the date included in the window.
+     * @param daysAfter  number of days after the date included in the window.
+     */
+    public static ServiceDateWindow around(LocalDate date, int daysBefore, int daysAfter) {
+        if (daysBefore < 0 || daysAfter < 0) {
+            throw new IllegalArgumentException("Days before and after must not be negative.");
+        }
+        return new ServiceDateWindow(date.minusDays(daysBefore), date.plusDays(daysAfter));
+    }
+
+}
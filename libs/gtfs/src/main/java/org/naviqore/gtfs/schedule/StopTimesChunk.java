@@ -0,0 +1,95 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The stop times of a chunk of the stop_times.txt file, parsed into columns.
+ * <p>
+ * Chunks are parsed in parallel and added to the schedule builder in the order of the file. Rows with invalid fields
+ * are kept with their error message, so they are reported in the order of the file as well.
+ */
+final class StopTimesChunk {
+
+    private static final byte[] LINE_BREAK = {'\n'};
+    private static final int ESTIMATED_BYTES_PER_ROW = 48;
+
+    private String[] tripIds;
+    private String[] stopIds;
+    private int[] arrivalTimes;
+    private int[] departureTimes;
+    private final Map<Integer, String> errors = new HashMap<>();
+
+    @Getter
+    private int size;
+
+    private StopTimesChunk(int capacity) {
+        tripIds = new String[capacity];
+        stopIds = new String[capacity];
+        arrivalTimes = new int[capacity];
+        departureTimes = new int[capacity];
+    }
+
+    /**
+     * Parses a chunk of complete lines with the header line of the file.
+     */
+    static StopTimesChunk parse(byte[] header, byte[] chunk) throws IOException {
+        StopTimesChunk result = new StopTimesChunk(Math.max(16, chunk.length / ESTIMATED_BYTES_PER_ROW));
+        try (StopTimesReader reader = new StopTimesReader(ByteSource.of(header, LINE_BREAK, chunk),
+                header.length + LINE_BREAK.length + chunk.length)) {
+            while (reader.next()) {
+                result.add(reader);
+            }
+        }
+        return result;
+    }
+
+    String getTripId(int index) {
+        return tripIds[index];
+    }
+
+    String getStopId(int index) {
+        return stopIds[index];
+    }
+
+    int getArrivalTime(int index) {
+        return arrivalTimes[index];
+    }
+
+    int getDepartureTime(int index) {
+        return departureTimes[index];
+    }
+
+    /**
+     * @return the reason why the row is invalid, or null if the row is valid.
+     */
+    @Nullable String getError(int index) {
+        return errors.get(index);
+    }
+
+    private void add(StopTimesReader reader) {
+        if (size == tripIds.length) {
+            int capacity = size + (size >> 1);
+            tripIds = Arrays.copyOf(tripIds, capacity);
+            stopIds = Arrays.copyOf(stopIds, capacity);
+            arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+            departureTimes = Arrays.copyOf(departureTimes, capacity);
+        }
+
+        try {
+            tripIds[size] = reader.getTripId();
+            stopIds[size] = reader.getStopId();
+            arrivalTimes[size] = reader.getArrivalTime();
+            departureTimes[size] = reader.getDepartureTime();
+        } catch (IllegalArgumentException e) {
+            errors.put(size, e.getMessage());
+        }
+        size++;
+    }
+
+}
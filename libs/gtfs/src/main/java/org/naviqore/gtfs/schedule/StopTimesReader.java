@@ -0,0 +1,457 @@
+package org.naviqore.gtfs.schedule;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.naviqore.gtfs.schedule.type.ServiceDayTime.*;
+
+/**
+ * Byte-level reader for the GTFS stop_times.txt file.
+ * <p>
+ * The stop times file is by far the largest file of a GTFS feed, with tens of millions of rows in country-wide feeds.
+ * Instead of creating a record with a header map and a string for each field, this reader resolves the positions of
+ * the required columns once from the header, scans the rows directly on a byte buffer, parses the times from the bytes
+ * and interns the trip and stop ids through a dictionary, so each distinct id is decoded only once per reader.
+ * <p>
+ * The file is split into chunks of complete lines by the {@link LineChunker}, each chunk is read by its own reader
+ * with the header line of the file, see {@link StopTimesChunk}.
+ * <p>
+ * The reader follows the CSV conventions of the record-based reader: fields are trimmed, fields may be enclosed in
+ * double quotes (with doubled quotes as escape), empty lines are skipped and lines end with LF, CR or CRLF.
+ * <p>
+ * Use {@link #next()} to advance to the next row and the getters to access the fields of the current row.
+ */
+final class StopTimesReader implements Closeable {
+
+    static final String TRIP_ID = "trip_id";
+    static final String STOP_ID = "stop_id";
+    static final String ARRIVAL_TIME = "arrival_time";
+    static final String DEPARTURE_TIME = "departure_time";
+
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte QUOTE = '"';
+    private static final byte DELIMITER = ',';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteSource source;
+    private final IdDictionary tripIds = new IdDictionary();
+    private final IdDictionary stopIds = new IdDictionary();
+
+    private final int tripIdColumn;
+    private final int stopIdColumn;
+    private final int arrivalTimeColumn;
+    private final int departureTimeColumn;
+
+    // field boundaries of the current row, only the columns up to the last required column are tracked
+    private final int maxFields;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int numFields;
+
+    private byte[] buffer;
+    private byte[] scratch = new byte[64];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    /**
+     * The number of data rows read so far, excluding the header and empty lines.
+     */
+    @Getter
+    private long recordNumber;
+
+    StopTimesReader(ByteSource source, int bufferSize) throws IOException {
+        this.source = source;
+        this.buffer = new byte[bufferSize];
+
+        if (!readRow(Integer.MAX_VALUE)) {
+            throw new IOException("Header of " + GtfsScheduleFile.STOP_TIMES.getFileName() + " is missing");
+        }
+        Map<String, Integer> header = readHeader();
+
+        tripIdColumn = getColumn(header, TRIP_ID);
+        stopIdColumn = getColumn(header, STOP_ID);
+        arrivalTimeColumn = getColumn(header, ARRIVAL_TIME);
+        departureTimeColumn = getColumn(header, DEPARTURE_TIME);
+
+        maxFields = 1 + Math.max(Math.max(tripIdColumn, stopIdColumn),
+                Math.max(arrivalTimeColumn, departureTimeColumn));
+    }
+
+    private static int getColumn(Map<String, Integer> header, String name) throws IOException {
+        Integer column = header.get(name);
+        if (column == null) {
+            throw new IOException(
+                    "Required column " + name + " not found in " + GtfsScheduleFile.STOP_TIMES.getFileName());
+        }
+        return column;
+    }
+
+    /**
+     * Advances to the next non-empty row.
+     *
+     * @return false if the end of the file is reached.
+     */
+    boolean next() throws IOException {
+        while (readRow(maxFields)) {
+            // skip empty lines, which includes the empty "line" between a CR and LF
+            if (numFields == 1 && fieldStarts[0] == fieldEnds[0]) {
+                continue;
+            }
+            recordNumber++;
+            return true;
+        }
+        return false;
+    }
+
+    String getTripId() {
+        return getId(tripIdColumn, tripIds);
+    }
+
+    String getStopId() {
+        return getId(stopIdColumn, stopIds);
+    }
+
+    /**
+     * @return the arrival time in seconds since the start of the service day.
+     * @throws IllegalArgumentException if the field is missing or not a valid GTFS time.
+     */
+    int getArrivalTime() {
+        return getTime(arrivalTimeColumn);
+    }
+
+    /**
+     * @return the departure time in seconds since the start of the service day.
+     * @throws IllegalArgumentException if the field is missing or not a valid GTFS time.
+     */
+    int getDepartureTime() {
+        return getTime(departureTimeColumn);
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private Map<String, Integer> readHeader() {
+        Map<String, Integer> header = new HashMap<>();
+        for (int column = 0; column < numFields; column++) {
+            int start = fieldStarts[column];
+            if (column == 0 && startsWithBom(start, fieldEnds[column])) {
+                start += UTF_8_BOM.length;
+            }
+            String name = new String(buffer, start, fieldEnds[column] - start, StandardCharsets.UTF_8);
+            header.putIfAbsent(unquote(name.trim()).toLowerCase(Locale.ROOT), column);
+        }
+        return header;
+    }
+
+    private boolean startsWithBom(int start, int end) {
+        return end - start >= UTF_8_BOM.length && Arrays.equals(buffer, start, start + UTF_8_BOM.length, UTF_8_BOM, 0,
+                UTF_8_BOM.length);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == QUOTE && value.charAt(value.length() - 1) == QUOTE) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    private String getId(int column, IdDictionary ids) {
+        checkColumn(column);
+        int start = trimStart(fieldStarts[column], fieldEnds[column]);
+        int end = trimEnd(start, fieldEnds[column]);
+
+        if (end - start >= 2 && buffer[start] == QUOTE && buffer[end - 1] == QUOTE) {
+            int length = unescape(start + 1, end - 1);
+            return ids.get(scratch, 0, length);
+        }
+
+        return ids.get(buffer, start, end - start);
+    }
+
+    private int getTime(int column) {
+        checkColumn(column);
+        int start = trimStart(fieldStarts[column], fieldEnds[column]);
+        int end = trimEnd(start, fieldEnds[column]);
+        if (end - start >= 2 && buffer[start] == QUOTE && buffer[end - 1] == QUOTE) {
+            start++;
+            end--;
+        }
+
+        int hours = 0;
+        int minutes = 0;
+        int seconds = 0;
+        int part = 0;
+        int digits = 0;
+
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                int value = b - '0';
+                switch (part) {
+                    case 0 -> hours = hours * 10 + value;
+                    case 1 -> minutes = minutes * 10 + value;
+                    default -> seconds = seconds * 10 + value;
+                }
+                // GTFS times have at most a few digits per part, this also guards the hours against overflows
+                if (++digits > 4) {
+                    throw invalidTime(start, end);
+                }
+            } else if (b == ':' && part < 2 && digits > 0) {
+                part++;
+                digits = 0;
+            } else {
+                throw invalidTime(start, end);
+            }
+        }
+
+        if (part != 2 || digits == 0 || minutes >= MINUTES_IN_HOUR || seconds >= SECONDS_IN_MINUTE) {
+            throw invalidTime(start, end);
+        }
+
+        return hours * SECONDS_IN_HOUR + minutes * SECONDS_IN_MINUTE + seconds;
+    }
+
+    private IllegalArgumentException invalidTime(int start, int end) {
+        return new IllegalArgumentException(
+                "Invalid time: '" + new String(buffer, start, end - start, StandardCharsets.UTF_8) + "'");
+    }
+
+    private void checkColumn(int column) {
+        if (column >= numFields) {
+            throw new IllegalArgumentException(
+                    "Row " + recordNumber + " has only " + numFields + " fields, expected at least " + (column + 1));
+        }
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && buffer[start] <= ' ' && buffer[start] >= 0) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && buffer[end - 1] <= ' ' && buffer[end - 1] >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Copies the content of a quoted field to the scratch buffer and replaces the doubled quotes.
+     *
+     * @return the length of the unescaped content.
+     */
+    private int unescape(int start, int end) {
+        if (scratch.length < end - start) {
+            scratch = new byte[end - start];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            scratch[length++] = buffer[i];
+            if (buffer[i] == QUOTE && i + 1 < end && buffer[i + 1] == QUOTE) {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Reads the next row into the field boundaries, refilling the buffer if the row is not completely buffered.
+     *
+     * @param maxFields the number of fields to track, further fields of the row are skipped.
+     * @return false if there is no further row.
+     */
+    private boolean readRow(int maxFields) throws IOException {
+        while (!scanRow(maxFields)) {
+            if (endOfInput) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    /**
+     * Scans the row starting at the current position. The row is complete if a line break outside of quotes is found
+     * or if the end of the input is reached. An incomplete row is scanned again from its start after refilling.
+     *
+     * @return true if the row was complete and the position was advanced past it.
+     */
+    private boolean scanRow(int maxFields) {
+        int fieldStart = position;
+        int fields = 0;
+        boolean inQuotes = false;
+
+        for (int i = position; i < limit; i++) {
+            byte b = buffer[i];
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    // a doubled quote inside quotes is an escaped quote, deciding this needs the next byte
+                    if (i + 1 == limit && !endOfInput) {
+                        return false;
+                    }
+                    if (i + 1 < limit && buffer[i + 1] == QUOTE) {
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                }
+            } else if (b == QUOTE) {
+                inQuotes = true;
+            } else if (b == DELIMITER) {
+                fields = addField(fields, maxFields, fieldStart, i);
+                fieldStart = i + 1;
+            } else if (b == LF || b == CR) {
+                numFields = addField(fields, maxFields, fieldStart, i);
+                position = i + 1;
+                return true;
+            }
+        }
+
+        // last row of the input without a line break
+        if (endOfInput && position < limit) {
+            numFields = addField(fields, maxFields, fieldStart, limit);
+            position = limit;
+            return true;
+        }
+
+        return false;
+    }
+
+    private int addField(int fields, int maxFields, int start, int end) {
+        if (fields < maxFields) {
+            if (fields == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, fields * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, fields * 2);
+            }
+            fieldStarts[fields] = start;
+            fieldEnds[fields] = end;
+        }
+        return fields + 1;
+    }
+
+    /**
+     * Moves the unread bytes to the beginning of the buffer and fills the remaining space. Grows the buffer if a single
+     * row does not fit.
+     *
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = 0;
+        limit = remaining;
+
+        int read = source.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * Open addressing hash table from the UTF-8 bytes of an id to the decoded string. GTFS ids often only differ in their
+     * last characters, so the polynomial hash is scrambled by a multiplicative (Fibonacci) hash before selecting the slot
+     * to avoid clusters of adjacent slots. The hashes are stored to skip most key comparisons.
+     * <p>
+     * Stop times are ordered by trip, so the last looked up id is checked first, which resolves the trip id of all but
+     * the first stop time of a trip without a table lookup.
+     */
+    private static final class IdDictionary {
+
+        private static final int INITIAL_BITS = 12;
+        private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+        private int bits = INITIAL_BITS;
+        private int[] hashes = new int[1 << INITIAL_BITS];
+        private byte[][] keys = new byte[1 << INITIAL_BITS][];
+        private String[] values = new String[1 << INITIAL_BITS];
+        private int size;
+
+        private byte[] lastKey = new byte[0];
+        private String lastValue = "";
+
+        String get(byte[] bytes, int offset, int length) {
+            if (Arrays.equals(lastKey, 0, lastKey.length, bytes, offset, offset + length)) {
+                return lastValue;
+            }
+
+            int hash = hash(bytes, offset, length);
+            int mask = keys.length - 1;
+            int slot = slot(hash);
+
+            byte[] key;
+            while ((key = keys[slot]) != null) {
+                if (hashes[slot] == hash && Arrays.equals(key, 0, key.length, bytes, offset, offset + length)) {
+                    lastKey = key;
+                    lastValue = values[slot];
+                    return lastValue;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            hashes[slot] = hash;
+            keys[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+            values[slot] = value;
+            lastKey = keys[slot];
+            lastValue = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private static int hash(byte[] bytes, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            return hash;
+        }
+
+        private int slot(int hash) {
+            return (hash * GOLDEN_RATIO) >>> (Integer.SIZE - bits);
+        }
+
+        private void grow() {
+            int[] oldHashes = hashes;
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            bits++;
+            hashes = new int[1 << bits];
+            keys = new byte[1 << bits][];
+            values = new String[1 << bits];
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = slot(oldHashes[i]);
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    hashes[slot] = oldHashes[i];
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+}
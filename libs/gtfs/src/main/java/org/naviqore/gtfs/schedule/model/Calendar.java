@@ -23,6 +23,13 @@ public final class Calendar implements Initializable {
     private Map<LocalDate, CalendarDate> calendarDates = new HashMap<>();
     private List<Trip> trips = new ArrayList<>();
 
+    // precomputed service days of the schedule, set when the schedule is built
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    private ServiceDayMatrix serviceDayMatrix;
+    @Getter(AccessLevel.PACKAGE)
+    private int serviceDayIndex = -1;
+
     /**
      * Determines if the service is operational on a specific day, considering both regular service days and
      * exceptions.
@@ -31,6 +38,13 @@ public final class Calendar implements Initializable {
      * @return true if the service is operational on the given date, false otherwise
      */
     public boolean isServiceAvailable(LocalDate date) {
+        if (serviceDayMatrix != null) {
+            return serviceDayMatrix.isActive(this, date);
+        }
+        return isServiceAvailableOnRules(date);
+    }
+
+    boolean isServiceAvailableOnRules(LocalDate date) {
         CalendarDate exception = calendarDates.get(date);
         if (exception != null) {
             return exception.type() == ExceptionType.ADDED;
@@ -61,4 +75,9 @@ public final class Calendar implements Initializable {
         trips.add(trip);
     }
 
+    void setServiceDayMatrix(ServiceDayMatrix serviceDayMatrix, int serviceDayIndex) {
+        this.serviceDayMatrix = serviceDayMatrix;
+        this.serviceDayIndex = serviceDayIndex;
+    }
+
 }
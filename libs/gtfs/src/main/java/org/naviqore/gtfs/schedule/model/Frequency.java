@@ -0,0 +1,35 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.naviqore.gtfs.schedule.type.FrequencyType;
+import org.naviqore.gtfs.schedule.type.ServiceDayTime;
+
+/**
+ * Headway-based service of a trip. The stop times of the trip are a template: The trip departs from its first stop at
+ * the start time and then every headway until before the end time, the stop times of each departure are shifted by the
+ * same amount, so the travel times between the stops stay the same.
+ */
+public record Frequency(Trip trip, ServiceDayTime startTime, ServiceDayTime endTime, int headwaySecs,
+                        FrequencyType type) implements Comparable<Frequency> {
+
+    public Frequency {
+        if (headwaySecs <= 0) {
+            throw new IllegalArgumentException("Headway must be positive.");
+        }
+        if (startTime.compareTo(endTime) >= 0) {
+            throw new IllegalArgumentException("Start time must be before end time.");
+        }
+    }
+
+    /**
+     * @return the departure time of the last trip from the first stop.
+     */
+    public ServiceDayTime getLastStartTime() {
+        int start = startTime.getTotalSeconds();
+        return new ServiceDayTime(start + (endTime.getTotalSeconds() - 1 - start) / headwaySecs * headwaySecs);
+    }
+
+    @Override
+    public int compareTo(Frequency o) {
+        return this.startTime.compareTo(o.startTime);
+    }
+}
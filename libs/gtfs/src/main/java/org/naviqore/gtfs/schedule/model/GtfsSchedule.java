@@ -1,18 +1,15 @@
 package org.naviqore.gtfs.schedule.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.naviqore.gtfs.schedule.type.AccessibilityInformation;
 import org.naviqore.gtfs.schedule.type.BikeInformation;
-import org.naviqore.gtfs.schedule.type.ServiceDayTime;
 import org.naviqore.gtfs.schedule.type.TimeType;
 
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +29,9 @@ public class GtfsSchedule {
     private final Map<String, Stop> stops;
     private final Map<String, Route> routes;
     private final Map<String, Trip> trips;
+    private final ServiceDayMatrix serviceDayMatrix;
+    @Getter(AccessLevel.NONE)
+    private final StopTimeBoard stopTimeBoard;
 
     @Accessors(fluent = true)
     private final boolean hasStopAccessibilityInformation;
@@ -49,12 +49,15 @@ public class GtfsSchedule {
      * enhance memory efficiency and thread-safety in a concurrent environment.
      */
     GtfsSchedule(Map<String, Agency> agencies, Map<String, Calendar> calendars, Map<String, Stop> stops,
-                 Map<String, Route> routes, Map<String, Trip> trips) {
+                 Map<String, Route> routes, Map<String, Trip> trips, ServiceDayMatrix serviceDayMatrix,
+                 StopTimeBoard stopTimeBoard) {
         this.agencies = Map.copyOf(agencies);
         this.calendars = Map.copyOf(calendars);
         this.stops = Map.copyOf(stops);
         this.routes = Map.copyOf(routes);
         this.trips = Map.copyOf(trips);
+        this.serviceDayMatrix = serviceDayMatrix;
+        this.stopTimeBoard = stopTimeBoard;
 
         // retrieve accessibility and bike information
         hasStopAccessibilityInformation = this.stops.values()
@@ -82,7 +85,9 @@ public class GtfsSchedule {
     /**
      * Retrieves all stop times for a specific stop within a physical time window [from, to).
      * <p>
-     * Handles arbitrary Trip durations (>24h) and varying agency timezones.
+     * Handles arbitrary Trip durations (>24h) and varying agency timezones. The stop times are looked up in a board
+     * index, which is grouped by service and sorted by service day seconds, so the query is a binary search per active
+     * service and date.
      *
      * @param stopId   unique identifier of the stop
      * @param from     inclusive start of the physical window
@@ -95,41 +100,7 @@ public class GtfsSchedule {
             throw new IllegalArgumentException("to must be after from");
         }
 
-        Stop stop = getStop(stopId);
-        List<ScheduledEvent> events = new ArrayList<>();
-        final Instant fromInstant = from.toInstant();
-        final Instant toInstant = to.toInstant();
-
-        for (StopTime st : stop.getStopTimes()) {
-            ServiceDayTime serviceDayTime = switch (timeType) {
-                case DEPARTURE -> st.departure();
-                case ARRIVAL -> st.arrival();
-            };
-            ZoneId zone = st.trip().getRoute().getAgency().timezone();
-
-            // calculate the range of service dates that could possibly contain this stop time:
-            // - look back from the 'from' instant by the trip's internal offset (total seconds)
-            // - an extra day is subtracted to account for the "noon minus 12h" anchor and dst shifts
-            // - latest possible service day (maxServiceDate) is simply the calendar date of 'to'
-            LocalDate minServiceDate = from.minusSeconds(serviceDayTime.getTotalSeconds()).toLocalDate().minusDays(1);
-            LocalDate maxServiceDate = to.toLocalDate();
-
-            for (LocalDate date = minServiceDate; !date.isAfter(maxServiceDate); date = date.plusDays(1)) {
-                if (st.trip().getCalendar().isServiceAvailable(date)) {
-                    Instant physicalInstant = serviceDayTime.toZonedDateTime(date, zone).toInstant();
-
-                    // logical interval: '[from, to)'
-                    if (!physicalInstant.isBefore(fromInstant) && physicalInstant.isBefore(toInstant)) {
-                        events.add(new ScheduledEvent(st, physicalInstant));
-                    }
-                }
-            }
-        }
-
-        return events.stream()
-                .sorted(Comparator.comparing(ScheduledEvent::physicalInstant))
-                .map(ScheduledEvent::stopTime)
-                .toList();
+        return stopTimeBoard.getStopTimes(getStop(stopId), from, to, timeType);
     }
 
     /**
@@ -139,9 +110,8 @@ public class GtfsSchedule {
      * @return A list containing only the active trips.
      */
     public List<Trip> getActiveTrips(LocalDate date) {
-        return calendars.values()
+        return serviceDayMatrix.getActiveCalendars(date)
                 .stream()
-                .filter(calendar -> calendar.isServiceAvailable(date))
                 .flatMap(calendar -> calendar.getTrips().stream())
                 .toList();
     }
@@ -177,10 +147,4 @@ public class GtfsSchedule {
         return stop;
     }
 
-    /**
-     * Bind a stop time to its physical instant to avoid redundant re-calculations during sorting
-     */
-    private record ScheduledEvent(StopTime stopTime, Instant physicalInstant) {
-    }
-
 }
@@ -27,7 +27,6 @@ import java.util.*;
 public class GtfsScheduleBuilder {
 
     private final ValueObjectCache<LocalDate> localDateCache = new ValueObjectCache<>();
-    private final ValueObjectCache<ServiceDayTime> serviceDayTimeCache = new ValueObjectCache<>();
     private final ValueObjectCache<String> stringCache = new ValueObjectCache<>();
     private final Map<String, Agency> agencies = new HashMap<>();
     private final Map<String, Calendar> calendars = new HashMap<>();
@@ -35,6 +34,14 @@ public class GtfsScheduleBuilder {
     private final Map<String, Route> routes = new HashMap<>();
     private final Map<String, Trip> trips = new HashMap<>();
     private final Map<String, List<Stop>> parents = new HashMap<>();
+    private final Map<Trip, List<Frequency>> frequencies = new HashMap<>();
+
+    // stop times are stored in columns and reference trips and stops by their index in the order they were added
+    private final Map<String, Integer> tripIndices = new HashMap<>();
+    private final Map<String, Integer> stopIndices = new HashMap<>();
+    private final List<Trip> tripsByIndex = new ArrayList<>();
+    private final List<Stop> stopsByIndex = new ArrayList<>();
+    private StopTimeTable.Builder stopTimes = new StopTimeTable.Builder();
 
     private boolean built = false;
 
@@ -68,6 +75,8 @@ public class GtfsScheduleBuilder {
         }
 
         stops.put(id, stop);
+        stopIndices.put(id, stopsByIndex.size());
+        stopsByIndex.add(stop);
         return this;
     }
 
@@ -118,6 +127,33 @@ public class GtfsScheduleBuilder {
         return this;
     }
 
+    /**
+     * Removes the calendars which are not active on any date of the inclusive range, considering their calendar dates.
+     * Must be called before the first trip is added, trips of removed calendars can then no longer be added.
+     *
+     * @return the ids of the removed calendars.
+     */
+    public Set<String> removeCalendarsInactiveBetween(LocalDate from, LocalDate to) {
+        checkNotBuilt();
+        if (!trips.isEmpty()) {
+            throw new IllegalStateException("Calendars cannot be removed after trips have been added.");
+        }
+
+        Set<String> removed = new HashSet<>();
+        calendars.values().removeIf(calendar -> {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (calendar.isServiceAvailable(date)) {
+                    return false;
+                }
+            }
+            removed.add(calendar.getId());
+            return true;
+        });
+
+        log.debug("Removed {} calendars inactive between {} and {}", removed.size(), from, to);
+        return removed;
+    }
+
     public GtfsScheduleBuilder addTrip(String id, String routeId, String serviceId, String headSign) {
         return addTrip(id, routeId, serviceId, headSign, AccessibilityInformation.UNKNOWN, BikeInformation.UNKNOWN);
     }
@@ -140,6 +176,8 @@ public class GtfsScheduleBuilder {
         Trip trip = new Trip(id, route, calendar, stringCache.getOrAdd(headSign), wheelchairAccessible, bikesAllowed);
         route.addTrip(trip);
         trips.put(id, trip);
+        tripIndices.put(id, tripsByIndex.size());
+        tripsByIndex.add(trip);
         calendar.addTrip(trip);
         return this;
     }
@@ -147,19 +185,32 @@ public class GtfsScheduleBuilder {
     public GtfsScheduleBuilder addStopTime(String tripId, String stopId, ServiceDayTime arrival,
                                            ServiceDayTime departure) {
         checkNotBuilt();
-        Trip trip = trips.get(tripId);
-        if (trip == null) {
+        Integer tripIndex = tripIndices.get(tripId);
+        if (tripIndex == null) {
             throw new IllegalArgumentException("Trip " + tripId + " does not exist");
         }
-        Stop stop = stops.get(stopId);
-        if (stop == null) {
+        Integer stopIndex = stopIndices.get(stopId);
+        if (stopIndex == null) {
             throw new IllegalArgumentException("Stop " + stopId + " does not exist");
         }
+        if (arrival.compareTo(departure) > 0) {
+            throw new IllegalArgumentException("Arrival time must be before departure time.");
+        }
         log.debug("Adding stop time at {} to trip {} ({}-{})", stopId, tripId, arrival, departure);
-        StopTime stopTime = new StopTime(stop, trip, serviceDayTimeCache.getOrAdd(arrival),
-                serviceDayTimeCache.getOrAdd(departure));
-        stop.addStopTime(stopTime);
-        trip.addStopTime(stopTime);
+        stopTimes.add(tripIndex, stopIndex, arrival.getTotalSeconds(), departure.getTotalSeconds());
+        return this;
+    }
+
+    public GtfsScheduleBuilder addFrequency(String tripId, ServiceDayTime startTime, ServiceDayTime endTime,
+                                            int headwaySecs, FrequencyType type) {
+        checkNotBuilt();
+        Trip trip = trips.get(tripId);
+        if (trip == null) {
+            throw new IllegalArgumentException("Trip " + tripId + " does not exist");
+        }
+        log.debug("Adding frequency {}-{} every {}s to trip {}", startTime, endTime, headwaySecs, tripId);
+        Frequency frequency = new Frequency(trip, startTime, endTime, headwaySecs, type);
+        frequencies.computeIfAbsent(trip, ignored -> new ArrayList<>()).add(frequency);
         return this;
     }
 
@@ -202,13 +253,24 @@ public class GtfsScheduleBuilder {
             throw new IllegalArgumentException("At least one calendar has to be set.");
         }
 
+        // store the stop times in columns, trips and stops get views on their stop times
+        StopTimeTable stopTimeTable = stopTimes.build(tripsByIndex, stopsByIndex);
+        frequencies.forEach((trip, tripFrequencies) -> {
+            Collections.sort(tripFrequencies);
+            trip.setFrequencies(List.copyOf(tripFrequencies));
+        });
+
         // initialize: make immutable and resize arrays to capacity
-        trips.values().parallelStream().forEach(Initializable::initialize);
         stops.values().parallelStream().forEach(Initializable::initialize);
         routes.values().parallelStream().forEach(Initializable::initialize);
         calendars.values().parallelStream().forEach(Initializable::initialize);
 
-        GtfsSchedule schedule = new GtfsSchedule(agencies, calendars, stops, routes, trips);
+        // precompute the service days of all calendars, after the calendar dates are complete
+        ServiceDayMatrix serviceDayMatrix = new ServiceDayMatrix(calendars.values());
+        StopTimeBoard stopTimeBoard = new StopTimeBoard(stopTimeTable);
+
+        GtfsSchedule schedule = new GtfsSchedule(agencies, calendars, stops, routes, trips, serviceDayMatrix,
+                stopTimeBoard);
         clear();
         built = true;
 
@@ -242,12 +304,17 @@ public class GtfsScheduleBuilder {
     private void clear() {
         log.debug("Clearing cache and maps of the builder");
         localDateCache.clear();
-        serviceDayTimeCache.clear();
         agencies.clear();
         calendars.clear();
         stops.clear();
         routes.clear();
         trips.clear();
+        frequencies.clear();
+        tripIndices.clear();
+        stopIndices.clear();
+        tripsByIndex.clear();
+        stopsByIndex.clear();
+        stopTimes = new StopTimeTable.Builder();
     }
 
     private void checkNotBuilt() {
@@ -0,0 +1,130 @@
+package org.naviqore.gtfs.schedule.model;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Precomputed service days of all calendars of a schedule.
+ * <p>
+ * Each calendar is assigned an index, and for each day of the feed validity period a row of bits marks the calendars
+ * that are active on that day, considering the regular service days and the exceptions. Checking if a calendar is
+ * active on a date is a bit test, and listing the active calendars of a date scans a single row.
+ * <p>
+ * To bound the memory of feeds with far away end dates, the rows cover at most {@link #MAX_DAYS} days from the start
+ * of the validity period. Later dates are evaluated on the calendar rules.
+ */
+public final class ServiceDayMatrix {
+
+    static final int MAX_DAYS = 2 * 366;
+
+    private static final int OUTSIDE = -1;
+    private static final int NOT_COVERED = -2;
+
+    private final Calendar[] calendars;
+    @Getter
+    private final LocalDate startDate;
+    @Getter
+    private final LocalDate endDate;
+    private final long startDay;
+    private final long endDay;
+    private final int days;
+    private final int wordsPerDay;
+    private final long[] bits;
+
+    ServiceDayMatrix(Collection<Calendar> calendars) {
+        this(calendars, MAX_DAYS);
+    }
+
+    ServiceDayMatrix(Collection<Calendar> calendars, int maxDays) {
+        // index calendars by id, so that the order of active calendars is deterministic
+        this.calendars = calendars.stream().sorted(Comparator.comparing(Calendar::getId)).toArray(Calendar[]::new);
+        this.startDate = Arrays.stream(this.calendars)
+                .flatMap(ServiceDayMatrix::getDates)
+                .min(Comparator.naturalOrder())
+                .orElseThrow(() -> new IllegalArgumentException("Calendars do not define any service date."));
+        this.endDate = Arrays.stream(this.calendars)
+                .flatMap(ServiceDayMatrix::getDates)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        this.startDay = startDate.toEpochDay();
+        this.endDay = endDate.toEpochDay();
+        this.days = (int) Math.min(endDay - startDay + 1, maxDays);
+        this.wordsPerDay = (this.calendars.length + Long.SIZE - 1) / Long.SIZE;
+        this.bits = new long[days * wordsPerDay];
+
+        for (int index = 0; index < this.calendars.length; index++) {
+            Calendar calendar = this.calendars[index];
+            for (int day = 0; day < days; day++) {
+                if (calendar.isServiceAvailableOnRules(startDate.plusDays(day))) {
+                    bits[day * wordsPerDay + (index >>> 6)] |= 1L << index;
+                }
+            }
+            calendar.setServiceDayMatrix(this, index);
+        }
+    }
+
+    private static Stream<LocalDate> getDates(Calendar calendar) {
+        return Stream.concat(Stream.of(calendar.getStartDate(), calendar.getEndDate()).filter(Objects::nonNull),
+                calendar.getCalendarDates().keySet().stream());
+    }
+
+    /**
+     * Checks if a calendar is active on a date.
+     *
+     * @param calendar a calendar of the schedule.
+     * @param date     the date to check.
+     * @return true if the service of the calendar is operational on the date.
+     */
+    public boolean isActive(Calendar calendar, LocalDate date) {
+        int day = getDay(date);
+        if (day == OUTSIDE) {
+            return false;
+        } else if (day == NOT_COVERED) {
+            return calendar.isServiceAvailableOnRules(date);
+        }
+
+        int index = calendar.getServiceDayIndex();
+        return (bits[day * wordsPerDay + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Retrieves the calendars active on a date.
+     *
+     * @param date the date of interest.
+     * @return the active calendars, ordered by their id.
+     */
+    public List<Calendar> getActiveCalendars(LocalDate date) {
+        int day = getDay(date);
+        if (day == OUTSIDE) {
+            return List.of();
+        } else if (day == NOT_COVERED) {
+            return Arrays.stream(calendars).filter(calendar -> calendar.isServiceAvailableOnRules(date)).toList();
+        }
+
+        List<Calendar> active = new ArrayList<>();
+        for (int word = 0; word < wordsPerDay; word++) {
+            long value = bits[day * wordsPerDay + word];
+            while (value != 0) {
+                active.add(calendars[word * Long.SIZE + Long.numberOfTrailingZeros(value)]);
+                // clear the lowest set bit
+                value &= value - 1;
+            }
+        }
+
+        return Collections.unmodifiableList(active);
+    }
+
+    private int getDay(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        if (epochDay < startDay || epochDay > endDay) {
+            return OUTSIDE;
+        }
+
+        long day = epochDay - startDay;
+        return day < days ? (int) day : NOT_COVERED;
+    }
+
+}
@@ -26,13 +26,14 @@ public final class Stop implements Initializable, Location<GeoCoordinate> {
     private Stop parent;
     @Setter(AccessLevel.PACKAGE)
     private List<Stop> children = new ArrayList<>();
-    private List<StopTime> stopTimes = new ArrayList<>();
+    /**
+     * View on the stop times in the {@link StopTimeTable} of the schedule, sorted by departure. Empty until the schedule
+     * is built.
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private List<StopTime> stopTimes = List.of();
     private List<Transfer> transfers = new ArrayList<>();
 
-    void addStopTime(StopTime stopTime) {
-        stopTimes.add(stopTime);
-    }
-
     void addTransfer(Transfer transfer) {
         transfers.add(transfer);
     }
@@ -53,9 +54,7 @@ public final class Stop implements Initializable, Location<GeoCoordinate> {
 
     @Override
     public void initialize() {
-        Collections.sort(stopTimes);
         children = List.copyOf(children);
-        stopTimes = List.copyOf(stopTimes);
         transfers = List.copyOf(transfers);
     }
 
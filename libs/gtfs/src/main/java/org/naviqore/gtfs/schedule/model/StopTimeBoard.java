@@ -0,0 +1,270 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.naviqore.gtfs.schedule.type.TimeType;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Departure and arrival board index on the stop times of each stop.
+ * <p>
+ * The stop times of a stop are grouped by the calendar and the timezone of their trip, and sorted by their departure or
+ * arrival seconds within each group. A query for a physical time window binary searches each group on every candidate
+ * service date its calendar is active, which yields runs of stop times already sorted by their physical time. The runs
+ * are merged, so no sorting is needed at query time.
+ */
+final class StopTimeBoard {
+
+    private final StopTimeTable table;
+    private final Map<String, Integer> stopIndices;
+    private final Index departures;
+    private final Index arrivals;
+
+    StopTimeBoard(StopTimeTable table) {
+        this.table = table;
+        Map<String, Integer> indices = new HashMap<>();
+        for (int stopIndex = 0; stopIndex < table.getNumberOfStops(); stopIndex++) {
+            indices.put(table.getStop(stopIndex).getId(), stopIndex);
+        }
+        this.stopIndices = Map.copyOf(indices);
+        this.departures = new Index(TimeType.DEPARTURE);
+        this.arrivals = new Index(TimeType.ARRIVAL);
+    }
+
+    /**
+     * Rounds up to the next full second, since stop times are at full seconds.
+     */
+    private static long ceilEpochSecond(OffsetDateTime dateTime) {
+        return dateTime.toEpochSecond() + (dateTime.getNano() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Epoch second of the "noon minus 12h" anchor of a service day, the same as in
+     * {@link org.naviqore.gtfs.schedule.type.ServiceDayTime#toZonedDateTime(LocalDate, ZoneId)}.
+     */
+    private static long anchorEpochSecond(LocalDate date, ZoneId zone) {
+        return date.atTime(12, 0).atZone(zone).minusHours(12).toEpochSecond();
+    }
+
+    /**
+     * Retrieves the stop times of a stop within a physical time window [from, to), sorted by their physical time. Stop
+     * times at the same time keep the order of the stop times of the stop.
+     */
+    List<StopTime> getStopTimes(Stop stop, OffsetDateTime from, OffsetDateTime to, TimeType timeType) {
+        Integer stopIndex = stopIndices.get(stop.getId());
+        if (stopIndex == null) {
+            return List.of();
+        }
+
+        return switch (timeType) {
+            case DEPARTURE -> departures.query(stopIndex, from, to);
+            case ARRIVAL -> arrivals.query(stopIndex, from, to);
+        };
+    }
+
+    private final class Index {
+
+        private final TimeType timeType;
+
+        // the groups of stop i are [stopGroups[i], stopGroups[i + 1])
+        private final int[] stopGroups;
+        private final Calendar[] groupCalendars;
+        private final ZoneId[] groupZones;
+
+        // the entries of group g are [groupEntries[g], groupEntries[g + 1]), an entry is the position of the stop time
+        // in the stop times of its stop
+        private final int[] groupEntries;
+        private final int[] entries;
+
+        private Index(TimeType timeType) {
+            this.timeType = timeType;
+
+            int numberOfStops = table.getNumberOfStops();
+            int[] stopGroups = new int[numberOfStops + 1];
+            List<Calendar> groupCalendars = new ArrayList<>();
+            List<ZoneId> groupZones = new ArrayList<>();
+            int[] groupEntries = new int[numberOfStops + 1];
+            int[] entries = new int[table.size()];
+
+            Map<GroupKey, Integer> groupIds = new HashMap<>();
+            for (int stopIndex = 0; stopIndex < numberOfStops; stopIndex++) {
+                int firstGroup = groupCalendars.size();
+                int offset = table.getStopRowOffset(stopIndex);
+                int size = table.getNumberOfStopRows(stopIndex);
+                stopGroups[stopIndex] = firstGroup;
+
+                // assign the stop times of the stop to groups
+                groupIds.clear();
+                int[] groupOf = new int[size];
+                for (int position = 0; position < size; position++) {
+                    Trip trip = table.getTrip(table.getStopRow(offset + position));
+                    GroupKey key = new GroupKey(trip.getCalendar(), trip.getRoute().getAgency().timezone());
+                    Integer group = groupIds.get(key);
+                    if (group == null) {
+                        group = groupIds.size();
+                        groupIds.put(key, group);
+                        groupCalendars.add(key.calendar());
+                        groupZones.add(key.zone());
+                    }
+                    groupOf[position] = group;
+                }
+
+                // place the positions by group, the entries of the stop start at the row offset of the stop
+                int numberOfGroups = groupIds.size();
+                int[] next = new int[numberOfGroups + 1];
+                for (int position = 0; position < size; position++) {
+                    next[groupOf[position] + 1]++;
+                }
+                for (int group = 0; group < numberOfGroups; group++) {
+                    next[group + 1] += next[group];
+                }
+                if (groupEntries.length < firstGroup + numberOfGroups + 1) {
+                    groupEntries = Arrays.copyOf(groupEntries,
+                            Math.max(groupEntries.length * 2, firstGroup + numberOfGroups + 1));
+                }
+                for (int group = 0; group < numberOfGroups; group++) {
+                    groupEntries[firstGroup + group] = offset + next[group];
+                }
+                for (int position = 0; position < size; position++) {
+                    entries[offset + next[groupOf[position]]++] = position;
+                }
+
+                // sort each group by seconds, ties keep the order of the stop times of the stop
+                for (int group = firstGroup; group < firstGroup + numberOfGroups; group++) {
+                    int end = group + 1 < firstGroup + numberOfGroups ? groupEntries[group + 1] : offset + size;
+                    sortBySeconds(entries, groupEntries[group], end, offset);
+                }
+            }
+
+            int numberOfGroups = groupCalendars.size();
+            stopGroups[numberOfStops] = numberOfGroups;
+            groupEntries = Arrays.copyOf(groupEntries, numberOfGroups + 1);
+            groupEntries[numberOfGroups] = entries.length;
+
+            this.stopGroups = stopGroups;
+            this.groupCalendars = groupCalendars.toArray(Calendar[]::new);
+            this.groupZones = groupZones.toArray(ZoneId[]::new);
+            this.groupEntries = groupEntries;
+            this.entries = entries;
+        }
+
+        private int getSeconds(int offset, int position) {
+            int row = table.getStopRow(offset + position);
+            return switch (timeType) {
+                case DEPARTURE -> table.getDeparture(row);
+                case ARRIVAL -> table.getArrival(row);
+            };
+        }
+
+        private void sortBySeconds(int[] entries, int from, int to, int offset) {
+            // seconds in the high bits and position in the low bits, both are non-negative
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; i++) {
+                keys[i - from] = ((long) getSeconds(offset, entries[i]) << Integer.SIZE) | entries[i];
+            }
+            Arrays.sort(keys);
+            for (int i = from; i < to; i++) {
+                entries[i] = (int) keys[i - from];
+            }
+        }
+
+        /**
+         * Finds the first entry in [from, to) of a group with at least the given seconds.
+         */
+        private int lowerBound(int from, int to, int offset, long seconds) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (getSeconds(offset, entries[mid]) < seconds) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private List<StopTime> query(int stopIndex, OffsetDateTime from, OffsetDateTime to) {
+            int offset = table.getStopRowOffset(stopIndex);
+            long fromSecond = ceilEpochSecond(from);
+            long toSecond = ceilEpochSecond(to);
+
+            PriorityQueue<Run> runs = new PriorityQueue<>();
+            for (int group = stopGroups[stopIndex]; group < stopGroups[stopIndex + 1]; group++) {
+                Calendar calendar = groupCalendars[group];
+                ZoneId zone = groupZones[group];
+                int start = groupEntries[group];
+                int end = groupEntries[group + 1];
+
+                // service dates that could contain a stop time of the group in the window: look back by the latest
+                // seconds of the group and an extra day for the "noon minus 12h" anchor, dst shifts and time zones
+                int maxSeconds = getSeconds(offset, entries[end - 1]);
+                LocalDate minServiceDate = from.minusSeconds(maxSeconds).toLocalDate().minusDays(1);
+                LocalDate maxServiceDate = to.toLocalDate().plusDays(1);
+
+                for (LocalDate date = minServiceDate; !date.isAfter(maxServiceDate); date = date.plusDays(1)) {
+                    if (!calendar.isServiceAvailable(date)) {
+                        continue;
+                    }
+                    long anchor = anchorEpochSecond(date, zone);
+                    int first = lowerBound(start, end, offset, fromSecond - anchor);
+                    int last = lowerBound(first, end, offset, toSecond - anchor);
+                    if (first < last) {
+                        runs.add(new Run(offset, anchor, first, last));
+                    }
+                }
+            }
+
+            // merge the runs by physical time, ties by position in the stop times of the stop
+            List<StopTime> stopTimes = new ArrayList<>();
+            while (!runs.isEmpty()) {
+                Run run = runs.poll();
+                stopTimes.add(table.getStopTime(table.getStopRow(offset + entries[run.current])));
+                if (run.advance()) {
+                    runs.add(run);
+                }
+            }
+
+            return stopTimes;
+        }
+
+        /**
+         * Consecutive entries of a group on one service date, sorted by their physical time.
+         */
+        private final class Run implements Comparable<Run> {
+
+            private final int offset;
+            private final long anchor;
+            private final int end;
+            private int current;
+            private long time;
+
+            private Run(int offset, long anchor, int from, int to) {
+                this.offset = offset;
+                this.anchor = anchor;
+                this.current = from;
+                this.end = to;
+                this.time = anchor + getSeconds(offset, entries[current]);
+            }
+
+            private boolean advance() {
+                if (++current == end) {
+                    return false;
+                }
+                time = anchor + getSeconds(offset, entries[current]);
+                return true;
+            }
+
+            @Override
+            public int compareTo(Run o) {
+                int result = Long.compare(time, o.time);
+                return result != 0 ? result : Integer.compare(entries[current], entries[o.current]);
+            }
+        }
+    }
+
+    private record GroupKey(Calendar calendar, ZoneId zone) {
+    }
+
+}
@@ -0,0 +1,258 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.naviqore.gtfs.schedule.type.ServiceDayTime;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Columnar storage of the stop times of a schedule.
+ * <p>
+ * Instead of a {@link StopTime} object per stop time, which is referenced from its trip and from its stop, the stop
+ * times are stored in parallel int arrays holding the trip index, stop index, arrival and departure seconds. The rows
+ * are grouped by trip and sorted by departure within each trip, so the stop times of a trip are a contiguous range. The
+ * stop times of a stop are referenced by an index array, sorted by departure.
+ * <p>
+ * The stop time lists of {@link Trip} and {@link Stop} are lightweight views on this table, which create the
+ * {@link StopTime} records on access.
+ */
+final class StopTimeTable {
+
+    private final Trip[] trips;
+    private final Stop[] stops;
+
+    private final int[] tripIndices;
+    private final int[] stopIndices;
+    private final int[] arrivals;
+    private final int[] departures;
+
+    // the rows of trip i are [tripOffsets[i], tripOffsets[i + 1])
+    private final int[] tripOffsets;
+    // the rows of stop i are stopRows[stopOffsets[i]] to stopRows[stopOffsets[i + 1] - 1]
+    private final int[] stopOffsets;
+    private final int[] stopRows;
+
+    private StopTimeTable(Trip[] trips, Stop[] stops, int[] tripIndices, int[] stopIndices, int[] arrivals,
+                          int[] departures, int[] tripOffsets, int[] stopOffsets, int[] stopRows) {
+        this.trips = trips;
+        this.stops = stops;
+        this.tripIndices = tripIndices;
+        this.stopIndices = stopIndices;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.tripOffsets = tripOffsets;
+        this.stopOffsets = stopOffsets;
+        this.stopRows = stopRows;
+    }
+
+    /**
+     * Counts the rows per group and returns the prefix sums, the rows of group i start at offset i.
+     */
+    private static int[] offsets(int[] groups, int size, int numGroups) {
+        int[] offsets = new int[numGroups + 1];
+        for (int row = 0; row < size; row++) {
+            offsets[groups[row] + 1]++;
+        }
+        for (int group = 0; group < numGroups; group++) {
+            offsets[group + 1] += offsets[group];
+        }
+        return offsets;
+    }
+
+    /**
+     * Orders the rows by group, keeping the order of insertion within each group, and sorts each group by departure.
+     * Ties in departure keep the order of insertion, as a stable sort would.
+     */
+    private static int[] orderRows(int[] groups, int[] departures, int size, int[] offsets) {
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        int[] order = new int[size];
+        for (int row = 0; row < size; row++) {
+            order[next[groups[row]]++] = row;
+        }
+
+        // departure in the high bits and row in the low bits, both are non-negative
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) departures[order[i]] << Integer.SIZE) | order[i];
+        }
+        for (int group = 0; group < offsets.length - 1; group++) {
+            Arrays.sort(keys, offsets[group], offsets[group + 1]);
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+
+        return order;
+    }
+
+    int size() {
+        return tripIndices.length;
+    }
+
+    List<StopTime> getStopTimesOfTrip(int tripIndex) {
+        return new TripStopTimes(tripOffsets[tripIndex], tripOffsets[tripIndex + 1]);
+    }
+
+    List<StopTime> getStopTimesOfStop(int stopIndex) {
+        return new StopStopTimes(stopOffsets[stopIndex], stopOffsets[stopIndex + 1]);
+    }
+
+    int getNumberOfStops() {
+        return stops.length;
+    }
+
+    Stop getStop(int stopIndex) {
+        return stops[stopIndex];
+    }
+
+    /**
+     * @return the position of the first row of the stop in the stop index, the rows of a stop are sorted by departure.
+     */
+    int getStopRowOffset(int stopIndex) {
+        return stopOffsets[stopIndex];
+    }
+
+    int getNumberOfStopRows(int stopIndex) {
+        return stopOffsets[stopIndex + 1] - stopOffsets[stopIndex];
+    }
+
+    int getStopRow(int position) {
+        return stopRows[position];
+    }
+
+    Trip getTrip(int row) {
+        return trips[tripIndices[row]];
+    }
+
+    int getArrival(int row) {
+        return arrivals[row];
+    }
+
+    int getDeparture(int row) {
+        return departures[row];
+    }
+
+    StopTime getStopTime(int row) {
+        return new StopTime(stops[stopIndices[row]], trips[tripIndices[row]], new ServiceDayTime(arrivals[row]),
+                new ServiceDayTime(departures[row]));
+    }
+
+    /**
+     * Collects the stop times while the schedule is built, in the order they are added.
+     */
+    static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int[] tripIndices = new int[INITIAL_CAPACITY];
+        private int[] stopIndices = new int[INITIAL_CAPACITY];
+        private int[] arrivals = new int[INITIAL_CAPACITY];
+        private int[] departures = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(int tripIndex, int stopIndex, int arrival, int departure) {
+            if (size == tripIndices.length) {
+                int capacity = size + (size >> 1);
+                tripIndices = Arrays.copyOf(tripIndices, capacity);
+                stopIndices = Arrays.copyOf(stopIndices, capacity);
+                arrivals = Arrays.copyOf(arrivals, capacity);
+                departures = Arrays.copyOf(departures, capacity);
+            }
+            tripIndices[size] = tripIndex;
+            stopIndices[size] = stopIndex;
+            arrivals[size] = arrival;
+            departures[size] = departure;
+            size++;
+        }
+
+        /**
+         * Builds the table and attaches the stop time views to the trips and stops.
+         *
+         * @param trips the trips by their index.
+         * @param stops the stops by their index.
+         */
+        StopTimeTable build(List<Trip> trips, List<Stop> stops) {
+            int[] tripOffsets = offsets(tripIndices, size, trips.size());
+            int[] order = orderRows(tripIndices, departures, size, tripOffsets);
+
+            int[] position = new int[size];
+            int[] sortedTripIndices = new int[size];
+            int[] sortedStopIndices = new int[size];
+            int[] sortedArrivals = new int[size];
+            int[] sortedDepartures = new int[size];
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                position[row] = i;
+                sortedTripIndices[i] = tripIndices[row];
+                sortedStopIndices[i] = stopIndices[row];
+                sortedArrivals[i] = arrivals[row];
+                sortedDepartures[i] = departures[row];
+            }
+
+            // the stop index references the rows by their position in the table sorted by trip
+            int[] stopOffsets = offsets(stopIndices, size, stops.size());
+            int[] stopRows = orderRows(stopIndices, departures, size, stopOffsets);
+            for (int i = 0; i < size; i++) {
+                stopRows[i] = position[stopRows[i]];
+            }
+
+            StopTimeTable table = new StopTimeTable(trips.toArray(Trip[]::new), stops.toArray(Stop[]::new),
+                    sortedTripIndices, sortedStopIndices, sortedArrivals, sortedDepartures, tripOffsets, stopOffsets,
+                    stopRows);
+            for (int i = 0; i < trips.size(); i++) {
+                trips.get(i).setStopTimes(table.getStopTimesOfTrip(i));
+            }
+            for (int i = 0; i < stops.size(); i++) {
+                stops.get(i).setStopTimes(table.getStopTimesOfStop(i));
+            }
+
+            return table;
+        }
+    }
+
+    private final class TripStopTimes extends AbstractList<StopTime> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        private TripStopTimes(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public StopTime get(int index) {
+            return getStopTime(from + Objects.checkIndex(index, to - from));
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private final class StopStopTimes extends AbstractList<StopTime> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        private StopStopTimes(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public StopTime get(int index) {
+            return getStopTime(stopRows[from + Objects.checkIndex(index, to - from)]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+}
@@ -1,18 +1,18 @@
 package org.naviqore.gtfs.schedule.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.naviqore.gtfs.schedule.type.AccessibilityInformation;
 import org.naviqore.gtfs.schedule.type.BikeInformation;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 @RequiredArgsConstructor
 @Getter
-public final class Trip implements Comparable<Trip>, Initializable {
+public final class Trip implements Comparable<Trip> {
 
     private final String id;
     private final Route route;
@@ -20,17 +20,18 @@ public final class Trip implements Comparable<Trip>, Initializable {
     private final String headSign;
     private final AccessibilityInformation wheelchairAccessible;
     private final BikeInformation bikesAllowed;
-    private List<StopTime> stopTimes = new ArrayList<>();
-
-    void addStopTime(StopTime stopTime) {
-        stopTimes.add(stopTime);
-    }
-
-    @Override
-    public void initialize() {
-        Collections.sort(stopTimes);
-        stopTimes = List.copyOf(stopTimes);
-    }
+    /**
+     * View on the stop times in the {@link StopTimeTable} of the schedule, sorted by departure. Empty until the schedule
+     * is built.
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private List<StopTime> stopTimes = List.of();
+    /**
+     * Headway-based service of the trip sorted by start time, the stop times are then the template of all departures.
+     * Empty for regular trips.
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private List<Frequency> frequencies = List.of();
 
     @Override
     public int compareTo(Trip o) {
@@ -0,0 +1,28 @@
+package org.naviqore.gtfs.schedule.type;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public enum FrequencyType {
+    FREQUENCY_BASED(0, "Frequency-based trips, the departures are not exactly scheduled."),
+    SCHEDULE_BASED(1, "Schedule-based trips with the exact same headway throughout the time window.");
+
+    private final int code;
+    private final String description;
+
+    public static FrequencyType parse(String code) {
+        return parse(Integer.parseInt(code));
+    }
+
+    public static FrequencyType parse(int code) {
+        for (FrequencyType type : FrequencyType.values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("No frequency type with code " + code + " found");
+    }
+}
@@ -42,4 +42,27 @@ class GtfsRoutePartitionerTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSubRouteOfTrip() {
+        for (Route route : schedule.getRoutes().values()) {
+            for (GtfsRoutePartitioner.SubRoute subRoute : partitioner.getSubRoutes(route)) {
+                for (Trip trip : subRoute.getTrips()) {
+                    assertThat(partitioner.getSubRoute(trip)).as("SubRoute for trip ID " + trip.getId())
+                            .isSameAs(subRoute);
+                    assertThat(trip.getStopTimes().stream().map(StopTime::stop).toList()).as(
+                            "Stop sequence of trip ID " + trip.getId()).isEqualTo(subRoute.getStopsSequence());
+                }
+            }
+        }
+    }
+
+    @Test
+    void getSubRoutesInOrderOfFirstTrip() {
+        Route route = schedule.getRoutes().get("route1");
+
+        assertThat(partitioner.getSubRoutes(route)).extracting(GtfsRoutePartitioner.SubRoute::getId)
+                .containsExactly("route1_sr1", "route1_sr2");
+        assertThat(partitioner.getSubRoutes(route).getFirst().getTrips()).contains(route.getTrips().getFirst());
+    }
+}
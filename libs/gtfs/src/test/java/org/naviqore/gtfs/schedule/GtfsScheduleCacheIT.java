@@ -0,0 +1,136 @@
+package org.naviqore.gtfs.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.naviqore.gtfs.schedule.model.GtfsSchedule;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for {@link GtfsScheduleCache}
+ * <p>
+ * Parse a GTFS ZIP file once and read it from its binary image afterward.
+ */
+class GtfsScheduleCacheIT {
+
+    private static final GtfsScheduleDataset GTFS_SCHEDULE_DATASET = GtfsScheduleDataset.SAMPLE_FEED_1;
+
+    @TempDir
+    private Path tempDir;
+    private Path cacheDir;
+    private String zipFile;
+
+    private static void assertSameSchedule(GtfsSchedule schedule, GtfsSchedule expected) {
+        assertThat(schedule.getStops().keySet()).containsExactlyInAnyOrderElementsOf(expected.getStops().keySet());
+        assertThat(schedule.getRoutes().keySet()).containsExactlyInAnyOrderElementsOf(expected.getRoutes().keySet());
+        assertThat(schedule.getTrips().keySet()).containsExactlyInAnyOrderElementsOf(expected.getTrips().keySet());
+        schedule.getTrips()
+                .values()
+                .forEach(trip -> assertThat(trip.getStopTimes()).as("Stop times of trip %s", trip.getId())
+                        .map(stopTime -> stopTime.stop().getId() + "@" + stopTime.arrival() + "-" +
+                                stopTime.departure())
+                        .containsExactlyElementsOf(expected.getTrips()
+                                .get(trip.getId())
+                                .getStopTimes()
+                                .stream()
+                                .map(stopTime -> stopTime.stop().getId() + "@" + stopTime.arrival() + "-" +
+                                        stopTime.departure())
+                                .toList()));
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cacheDir = tempDir.resolve("cache");
+        zipFile = GTFS_SCHEDULE_DATASET.getZip(tempDir).getAbsolutePath();
+    }
+
+    private List<Path> listCache() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void shouldWriteImageAndReadFromIt() throws IOException {
+        GtfsSchedule expected = new GtfsScheduleReader().read(zipFile);
+        GtfsScheduleCache cache = new GtfsScheduleCache(cacheDir, new GtfsScheduleReader());
+
+        GtfsSchedule parsed = cache.read(zipFile);
+        List<Path> images = listCache();
+        assertThat(images).singleElement().satisfies(image -> assertThat(image.getFileName().toString()).matches(
+                "gtfs-[0-9a-f]{64}\\.bin"));
+        FileTime written = Files.getLastModifiedTime(images.getFirst());
+
+        GtfsSchedule cached = cache.read(zipFile);
+
+        assertSameSchedule(parsed, expected);
+        assertSameSchedule(cached, expected);
+        assertThat(listCache()).containsExactlyElementsOf(images);
+        assertThat(Files.getLastModifiedTime(images.getFirst())).isEqualTo(written);
+    }
+
+    @Test
+    void shouldRebuildImageOfOtherVersion() throws IOException {
+        GtfsScheduleCache cache = new GtfsScheduleCache(cacheDir, new GtfsScheduleReader());
+        GtfsSchedule expected = cache.read(zipFile);
+        Path image = listCache().getFirst();
+        byte[] bytes = Files.readAllBytes(image);
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, GtfsScheduleImage.FORMAT_VERSION - 1);
+        Files.write(image, bytes);
+
+        GtfsSchedule schedule = cache.read(zipFile);
+
+        assertSameSchedule(schedule, expected);
+        assertThat(ByteBuffer.wrap(Files.readAllBytes(image)).getInt(Integer.BYTES)).isEqualTo(
+                GtfsScheduleImage.FORMAT_VERSION);
+    }
+
+    @Test
+    void shouldReplaceImagesOfPreviousFeeds() throws IOException {
+        Files.createDirectories(cacheDir);
+        Path previous = Files.writeString(cacheDir.resolve("gtfs-previous.bin"), "previous");
+        Path other = Files.writeString(cacheDir.resolve("other.txt"), "other");
+
+        new GtfsScheduleCache(cacheDir, new GtfsScheduleReader()).read(zipFile);
+
+        assertThat(listCache()).hasSize(2).contains(other).doesNotContain(previous);
+    }
+
+    @Test
+    void shouldKeyImageByServiceDateWindow() throws IOException {
+        ServiceDateWindow window = new ServiceDateWindow(LocalDate.of(2007, 6, 4), LocalDate.of(2007, 6, 5));
+        GtfsScheduleReader reader = new GtfsScheduleReader(2, window);
+        GtfsSchedule expected = reader.read(zipFile);
+
+        GtfsSchedule parsed = new GtfsScheduleCache(cacheDir, reader).read(zipFile);
+        GtfsSchedule cached = new GtfsScheduleCache(cacheDir, reader).read(zipFile);
+
+        assertSameSchedule(parsed, expected);
+        assertSameSchedule(cached, expected);
+        assertThat(cached.getCalendars()).containsOnlyKeys("FULLW");
+        assertThat(listCache()).singleElement()
+                .satisfies(image -> assertThat(image.getFileName().toString()).endsWith("_2007-06-04_2007-06-05.bin"));
+    }
+
+    @Test
+    void shouldNotCacheDirectory() throws IOException {
+        Path unzippedDir = GTFS_SCHEDULE_DATASET.getUnzipped(tempDir.resolve("unzipped")).toPath();
+
+        GtfsSchedule schedule = new GtfsScheduleCache(cacheDir, new GtfsScheduleReader()).read(
+                unzippedDir.toString());
+
+        assertThat(schedule.getTrips()).hasSize(11);
+        assertThat(cacheDir).doesNotExist();
+    }
+
+}
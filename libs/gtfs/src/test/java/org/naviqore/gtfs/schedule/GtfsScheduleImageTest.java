@@ -0,0 +1,184 @@
+package org.naviqore.gtfs.schedule;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.naviqore.gtfs.schedule.model.*;
+import org.naviqore.gtfs.schedule.type.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GtfsScheduleImageTest {
+
+    private static byte[] write(GtfsSchedule schedule) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        GtfsScheduleImage.write(schedule, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static GtfsSchedule read(byte[] image) throws IOException {
+        return GtfsScheduleImage.read(new ByteArrayInputStream(image));
+    }
+
+    /**
+     * Describes all entities of a schedule as sorted strings, so that two schedules can be compared.
+     */
+    private static List<String> describe(GtfsSchedule schedule) {
+        Stream<String> agencies = schedule.getAgencies().values().stream().map(Agency::toString);
+        Stream<String> stops = schedule.getStops()
+                .values()
+                .stream()
+                .map(stop -> String.join("|", stop.getId(), stop.getName(), stop.getCoordinate().toString(),
+                        stop.getParent().map(Stop::getId).orElse("-"),
+                        stop.getChildren().stream().map(Stop::getId).sorted().toList().toString(),
+                        stop.getWheelchairBoarding().name(), stop.getTransfers()
+                                .stream()
+                                .map(transfer -> transfer + "@" + transfer.getMinTransferTime())
+                                .toList()
+                                .toString()));
+        Stream<String> routes = schedule.getRoutes()
+                .values()
+                .stream()
+                .map(route -> String.join("|", route.getId(), route.getAgency().agency(), route.getShortName(),
+                        route.getLongName(), route.getType().toString(),
+                        route.getTrips().stream().map(Trip::getId).toList().toString()));
+        Stream<String> calendars = schedule.getCalendars()
+                .values()
+                .stream()
+                .map(calendar -> calendar + "|" + calendar.getCalendarDates()
+                        .values()
+                        .stream()
+                        .sorted()
+                        .map(calendarDate -> calendarDate.date() + ":" + calendarDate.type())
+                        .toList());
+        Stream<String> trips = schedule.getTrips()
+                .values()
+                .stream()
+                .map(trip -> String.join("|", trip.toString(), trip.getHeadSign(),
+                        trip.getWheelchairAccessible().name(), trip.getBikesAllowed().name(), trip.getStopTimes()
+                                .stream()
+                                .map(stopTime -> stopTime.stop().getId() + "@" + stopTime.arrival() + "-" +
+                                        stopTime.departure())
+                                .toList()
+                                .toString(), trip.getFrequencies()
+                                .stream()
+                                .map(frequency -> frequency.startTime() + "-" + frequency.endTime() + "/" +
+                                        frequency.headwaySecs() + ":" + frequency.type())
+                                .toList()
+                                .toString()));
+
+        return Stream.of(agencies, stops, routes, calendars, trips).flatMap(s -> s).sorted().toList();
+    }
+
+    @Nested
+    @ExtendWith(GtfsScheduleTestExtension.class)
+    class RoundTrip {
+
+        @Test
+        void shouldReadWrittenSchedule(GtfsScheduleTestBuilder builder) throws IOException {
+            GtfsSchedule schedule = builder.withAddAgency()
+                    .withAddCalendars()
+                    .withAddCalendarDates()
+                    .withAddInterCity()
+                    .withAddUnderground()
+                    .withAddBus()
+                    .withAddTransfers()
+                    .build();
+
+            GtfsSchedule image = read(write(schedule));
+
+            assertThat(describe(image)).containsExactlyElementsOf(describe(schedule));
+            assertThat(image.getServiceDayMatrix().getStartDate()).isEqualTo(
+                    schedule.getServiceDayMatrix().getStartDate());
+            assertThat(image.getServiceDayMatrix().getEndDate()).isEqualTo(
+                    schedule.getServiceDayMatrix().getEndDate());
+        }
+
+        @Test
+        void shouldReadParentStopsCalendarDatesAndAccessibility() throws IOException {
+            GtfsSchedule schedule = GtfsSchedule.builder()
+                    .addAgency("agency", "Agency", "https://example.com", ZoneId.of("America/New_York"))
+                    .addStop("parent", "Station", 40.7, -74.0, "", AccessibilityInformation.ACCESSIBLE)
+                    .addStop("child", "Platform ü", 40.7001, -74.0001, "parent", AccessibilityInformation.UNKNOWN)
+                    .addStop("other", "Other", -33.9, 151.2)
+                    .addRoute("route", "agency", "1", "One", HierarchicalVehicleType.REGIONAL_BUS_SERVICE)
+                    .addCalendar("weekdays", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))
+                    .addCalendarDate("weekdays", LocalDate.of(2024, 12, 25), ExceptionType.REMOVED)
+                    .addCalendarDate("special", LocalDate.of(2024, 12, 31), ExceptionType.ADDED)
+                    .addTrip("t1", "route", "weekdays", "Other", AccessibilityInformation.NOT_ACCESSIBLE,
+                            BikeInformation.ALLOWED)
+                    .addTrip("t2", "route", "special", "Other")
+                    .addStopTime("t1", "child", new ServiceDayTime(0), new ServiceDayTime(60))
+                    .addStopTime("t1", "other", new ServiceDayTime(90_000), new ServiceDayTime(90_000))
+                    .addStopTime("t2", "child", new ServiceDayTime(3600), new ServiceDayTime(3600))
+                    .addStopTime("t2", "other", new ServiceDayTime(7200), new ServiceDayTime(7300))
+                    .addFrequency("t1", new ServiceDayTime(21_600), new ServiceDayTime(36_000), 600,
+                            FrequencyType.FREQUENCY_BASED)
+                    .addFrequency("t1", new ServiceDayTime(36_000), new ServiceDayTime(90_000), 1800,
+                            FrequencyType.SCHEDULE_BASED)
+                    .addTransfer("child", "other", TransferType.MINIMUM_TIME, 300)
+                    .addTransfer("other", "child", TransferType.RECOMMENDED, null)
+                    .build();
+
+            GtfsSchedule image = read(write(schedule));
+
+            assertThat(describe(image)).containsExactlyElementsOf(describe(schedule));
+            assertThat(image.getStops().get("child").getWheelchairBoarding()).isEqualTo(
+                    AccessibilityInformation.ACCESSIBLE);
+            assertThat(image.getCalendars().get("special").isServiceAvailable(LocalDate.of(2024, 12, 31))).isTrue();
+            assertThat(image.getTrips().get("t1").getFrequencies()).hasSize(2);
+        }
+    }
+
+    @Nested
+    @ExtendWith(GtfsScheduleTestExtension.class)
+    class Invalid {
+
+        private byte[] image;
+
+        private void writeImage(GtfsScheduleTestBuilder builder) throws IOException {
+            image = write(builder.withAddAgency().withAddCalendars().withAddUnderground().build());
+        }
+
+        @Test
+        void shouldRejectOtherVersion(GtfsScheduleTestBuilder builder) throws IOException {
+            writeImage(builder);
+            ByteBuffer.wrap(image).putInt(Integer.BYTES, GtfsScheduleImage.FORMAT_VERSION + 1);
+
+            assertThatThrownBy(() -> read(image)).isInstanceOf(IOException.class)
+                    .hasMessageContaining("Unsupported schedule image version");
+        }
+
+        @Test
+        void shouldRejectOtherFile(GtfsScheduleTestBuilder builder) throws IOException {
+            writeImage(builder);
+            image[0] = 'P';
+
+            assertThatThrownBy(() -> read(image)).isInstanceOf(IOException.class)
+                    .hasMessageContaining("Not a schedule image");
+        }
+
+        @Test
+        void shouldRejectIncompleteImage(GtfsScheduleTestBuilder builder) throws IOException {
+            writeImage(builder);
+
+            assertThatThrownBy(() -> read(Arrays.copyOf(image, image.length / 2))).isInstanceOf(IOException.class);
+            assertThatThrownBy(() -> read(Arrays.copyOf(image, image.length - 1))).isInstanceOf(IOException.class);
+        }
+    }
+
+}
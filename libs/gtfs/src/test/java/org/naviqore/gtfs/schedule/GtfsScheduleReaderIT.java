@@ -7,6 +7,8 @@ import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
+import org.naviqore.gtfs.schedule.model.Stop;
+import org.naviqore.gtfs.schedule.model.Trip;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -15,6 +17,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -41,6 +44,9 @@ class GtfsScheduleReaderIT {
         Path zipFile = GTFS_SCHEDULE_DATASET.getZip(tempDir).toPath();
         GtfsSchedule schedule = gtfsScheduleReader.read(zipFile.toAbsolutePath().toString());
         assertScheduleSizes(schedule);
+        assertThat(schedule.getTrips().get("STBA").getFrequencies()).singleElement()
+                .satisfies(frequency -> assertThat(frequency.headwaySecs()).isEqualTo(1800));
+        assertThat(schedule.getTrips().get("CITY1").getFrequencies()).hasSize(5);
     }
 
     @Test
@@ -125,6 +131,53 @@ class GtfsScheduleReaderIT {
                 .hasMessageContaining("Required GTFS CSV file");
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 64, 1024})
+    void shouldReadSameSchedule_withParallelChunks(int chunkSize, @TempDir Path tempDir) throws IOException {
+        String zipFile = GTFS_SCHEDULE_DATASET.getZip(tempDir).getAbsolutePath();
+        GtfsSchedule expected = new GtfsScheduleReader(1).read(zipFile);
+        GtfsSchedule schedule = new GtfsScheduleReader(4, chunkSize).read(zipFile);
+
+        assertScheduleSizes(schedule);
+        assertThat(schedule.getTrips().keySet()).containsExactlyInAnyOrderElementsOf(expected.getTrips().keySet());
+        for (Trip trip : schedule.getTrips().values()) {
+            assertThat(trip.getStopTimes()).as("Stop times of trip %s", trip.getId())
+                    .map(stopTime -> stopTime.stop().getId() + "@" + stopTime.departure())
+                    .containsExactlyElementsOf(expected.getTrips()
+                            .get(trip.getId())
+                            .getStopTimes()
+                            .stream()
+                            .map(stopTime -> stopTime.stop().getId() + "@" + stopTime.departure())
+                            .toList());
+        }
+    }
+
+    @Test
+    void shouldSkipCalendarsOutsideOfServiceDateWindow(@TempDir Path tempDir) throws IOException {
+        String zipFile = GTFS_SCHEDULE_DATASET.getZip(tempDir).getAbsolutePath();
+        // monday and tuesday: the weekend calendar is never active
+        ServiceDateWindow window = new ServiceDateWindow(LocalDate.of(2007, 6, 4), LocalDate.of(2007, 6, 5));
+
+        GtfsSchedule schedule = new GtfsScheduleReader(2, window).read(zipFile);
+
+        assertThat(schedule.getCalendars()).containsOnlyKeys("FULLW");
+        assertThat(schedule.getTrips()).hasSize(7).doesNotContainKey("AAMV1");
+        assertThat(schedule.getStops().values()).flatMap(Stop::getStopTimes)
+                .allSatisfy(stopTime -> assertThat(stopTime.trip().getCalendar().getId()).isEqualTo("FULLW"));
+        assertThat(schedule.getStops()).hasSize(9);
+    }
+
+    @Test
+    void shouldKeepCalendarsActiveInServiceDateWindow(@TempDir Path tempDir) throws IOException {
+        String zipFile = GTFS_SCHEDULE_DATASET.getZip(tempDir).getAbsolutePath();
+        // saturday and sunday: both calendars are active
+        ServiceDateWindow window = ServiceDateWindow.around(LocalDate.of(2007, 6, 9), 0, 1);
+
+        GtfsSchedule schedule = new GtfsScheduleReader(2, window).read(zipFile);
+
+        assertScheduleSizes(schedule);
+    }
+
     private void assertScheduleSizes(GtfsSchedule schedule) {
         assertScheduleSizes(schedule, true);
     }
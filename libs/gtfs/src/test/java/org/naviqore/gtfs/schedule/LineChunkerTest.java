@@ -0,0 +1,75 @@
+package org.naviqore.gtfs.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LineChunkerTest {
+
+    private static List<String> readChunks(String content, int chunkSize, String expectedHeader) throws IOException {
+        try (LineChunker chunker = new LineChunker(ByteSource.of(content.getBytes(StandardCharsets.UTF_8)),
+                chunkSize)) {
+            assertThat(new String(chunker.getHeader(), StandardCharsets.UTF_8)).isEqualTo(expectedHeader);
+            List<String> chunks = new ArrayList<>();
+            byte[] chunk;
+            while ((chunk = chunker.next()) != null) {
+                chunks.add(new String(chunk, StandardCharsets.UTF_8));
+            }
+            return chunks;
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8, 64, 4096})
+    void shouldSplitIntoCompleteLines(int chunkSize) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            body.append("trip").append(i).append(",stop").append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+
+        List<String> chunks = readChunks("trip_id,stop_id\n" + body, chunkSize, "trip_id,stop_id");
+
+        assertThat(String.join("", chunks)).isEqualTo(body.toString());
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).endsWith("\n"));
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).startsWith("trip"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 16})
+    void shouldNotSplitQuotedLineBreaks(int chunkSize) throws IOException {
+        String body = "1,\"multi\nline \"\"quoted\"\"\r\nfield\"\n2,plain\n3,\"\"\"\n\"\"\"";
+
+        List<String> chunks = readChunks("id,value\n" + body, chunkSize, "id,value");
+
+        assertThat(String.join("", chunks)).isEqualTo(body);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).matches("(?s)[123],.*"));
+    }
+
+    @Test
+    void shouldRemoveByteOrderMarkAndLineBreakOfHeader() throws IOException {
+        List<String> chunks = readChunks("﻿id,value\r\n1,a\r\n", 1024, "id,value");
+
+        assertThat(chunks).containsExactly("1,a\r\n");
+    }
+
+    @Test
+    void shouldReadHeaderOnly() throws IOException {
+        assertThat(readChunks("id,value", 4, "id,value")).isEmpty();
+        assertThat(readChunks("", 4, "")).isEmpty();
+    }
+
+    @Test
+    void shouldNotAcceptInvalidChunkSize() {
+        assertThatThrownBy(() -> new LineChunker(ByteSource.of(new byte[0]), 0)).isInstanceOf(
+                IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.naviqore.gtfs.schedule;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StopTimesReaderTest {
+
+    private static final String HEADER = "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n";
+
+    private static StopTimesReader reader(String content, int bufferSize) throws IOException {
+        return new StopTimesReader(ByteSource.of(content.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    private static List<String> readAll(StopTimesReader reader) throws IOException {
+        List<String> rows = new ArrayList<>();
+        while (reader.next()) {
+            rows.add(String.join("|", reader.getTripId(), reader.getStopId(),
+                    String.valueOf(reader.getArrivalTime()), String.valueOf(reader.getDepartureTime())));
+        }
+        return rows;
+    }
+
+    @Nested
+    class Parsing {
+
+        @Test
+        void shouldReadRowsByColumnPosition() throws IOException {
+            String content = HEADER + "trip1,08:00:00,08:01:00,stop1,1\ntrip1,25:10:05,25:11:00,stop2,2\n";
+
+            try (StopTimesReader reader = reader(content, 1024)) {
+                assertThat(readAll(reader)).containsExactly("trip1|stop1|28800|28860", "trip1|stop2|90605|90660");
+                assertThat(reader.getRecordNumber()).isEqualTo(2);
+            }
+        }
+
+        @Test
+        void shouldFollowCsvConventions() throws IOException {
+            String content = "\uFEFF Trip_ID , STOP_ID,arrival_time,\"departure_time\"\r\n" +
+                    "\"trip,1\", \"stop \"\"A\"\"\" ,8:00:00, 08:00:30 \r\n" + "\r\n" + "trip2,stop2,09:00:00,09:00:00";
+
+            try (StopTimesReader reader = reader(content, 1024)) {
+                assertThat(readAll(reader)).containsExactly("trip,1|stop \"A\"|28800|28830", "trip2|stop2|32400|32400");
+            }
+        }
+
+        @Test
+        void shouldInternIds() throws IOException {
+            String content = HEADER + "trip1,08:00:00,08:00:00,stop1,1\ntrip1,08:05:00,08:05:00,stop1,2\n";
+
+            try (StopTimesReader reader = reader(content, 1024)) {
+                reader.next();
+                String tripId = reader.getTripId();
+                reader.next();
+                assertThat(reader.getTripId()).isSameAs(tripId);
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 2, 7, 16})
+        void shouldReadRowsAcrossBufferBoundaries(int bufferSize) throws IOException {
+            StringBuilder content = new StringBuilder(HEADER);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                content.append("\"trip").append(i % 7).append("\",10:00:").append(String.format("%02d", i % 60))
+                        .append(",10:01:00,stop").append(i).append(',').append(i).append("\r\n");
+                expected.add("trip" + i % 7 + "|stop" + i + "|" + (36000 + i % 60) + "|36060");
+            }
+
+            try (StopTimesReader reader = reader(content.toString(), bufferSize)) {
+                assertThat(readAll(reader)).isEqualTo(expected);
+            }
+        }
+
+    }
+
+    @Nested
+    class InvalidInput {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "08:00", "08:60:00", "08:00:60", "8h00:00", "08::00", "-1:00:00", "123456:00:00"})
+        void shouldThrowForInvalidTime(String time) throws IOException {
+            String content = HEADER + "trip1," + time + ",08:00:00,stop1,1\n";
+
+            try (StopTimesReader reader = reader(content, 1024)) {
+                assertThat(reader.next()).isTrue();
+                assertThatThrownBy(reader::getArrivalTime).isInstanceOf(IllegalArgumentException.class);
+                assertThat(reader.getDepartureTime()).isEqualTo(28800);
+            }
+        }
+
+        @Test
+        void shouldThrowForMissingFields() throws IOException {
+            try (StopTimesReader reader = reader(HEADER + "trip1,08:00:00\n", 1024)) {
+                assertThat(reader.next()).isTrue();
+                assertThat(reader.getTripId()).isEqualTo("trip1");
+                assertThatThrownBy(reader::getStopId).isInstanceOf(IllegalArgumentException.class);
+            }
+        }
+
+        @Test
+        void shouldThrowForMissingColumn() {
+            assertThatThrownBy(() -> reader("trip_id,arrival_time,departure_time\n", 1024)).isInstanceOf(
+                    IOException.class).hasMessageContaining("stop_id");
+        }
+
+        @Test
+        void shouldThrowForMissingHeader() {
+            assertThatThrownBy(() -> reader("", 1024)).isInstanceOf(IOException.class);
+        }
+
+    }
+
+}
@@ -64,6 +64,42 @@ class GtfsScheduleTest {
         assertThat(schedule.getTrips()).isNotEmpty();
     }
 
+    @Test
+    void shouldNotRemoveCalendarsAfterTripsAreAdded() {
+        LocalDate date = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM.toLocalDate();
+        assertThatThrownBy(() -> builder.removeCalendarsInactiveBetween(date, date)).isInstanceOf(
+                IllegalStateException.class);
+    }
+
+    @Nested
+    class RemoveCalendars {
+
+        @BeforeEach
+        void setUp() {
+            testBuilder.reset();
+            testBuilder.withAddAgency().withAddCalendars().withAddCalendarDates();
+        }
+
+        @Test
+        void shouldRemoveCalendarsInactiveInRange() {
+            LocalDate weekday = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM.toLocalDate();
+            assertThat(builder.removeCalendarsInactiveBetween(weekday, weekday)).containsExactly("weekends");
+        }
+
+        @Test
+        void shouldConsiderCalendarDates() {
+            LocalDate holiday = GtfsScheduleTestBuilder.Moments.HOLIDAY_8_AM.toLocalDate();
+            assertThat(builder.removeCalendarsInactiveBetween(holiday, holiday)).containsExactly("weekdays");
+        }
+
+        @Test
+        void shouldKeepCalendarsActiveOnAnyDateOfRange() {
+            LocalDate weekday = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM.toLocalDate();
+            LocalDate weekend = GtfsScheduleTestBuilder.Moments.WEEKEND_8_AM.toLocalDate();
+            assertThat(builder.removeCalendarsInactiveBetween(weekday, weekend)).isEmpty();
+        }
+    }
+
     @Nested
     class Builder {
 
@@ -152,14 +188,14 @@ class GtfsScheduleTest {
                 @Test
                 void shouldPreventModificationOfStopTimesOnStop() {
                     assertThatThrownBy(
-                            () -> schedule.getStops().values().iterator().next().addStopTime(null)).isInstanceOf(
+                            () -> schedule.getStops().values().iterator().next().getStopTimes().add(null)).isInstanceOf(
                             UnsupportedOperationException.class);
                 }
 
                 @Test
                 void shouldPreventModificationOfStopTimesOnTrip() {
                     assertThatThrownBy(
-                            () -> schedule.getTrips().values().iterator().next().addStopTime(null)).isInstanceOf(
+                            () -> schedule.getTrips().values().iterator().next().getStopTimes().add(null)).isInstanceOf(
                             UnsupportedOperationException.class);
                 }
 
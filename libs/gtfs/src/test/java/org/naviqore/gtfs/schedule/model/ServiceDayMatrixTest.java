@@ -0,0 +1,91 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.naviqore.gtfs.schedule.type.ExceptionType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceDayMatrixTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    private GtfsSchedule schedule;
+
+    private static void assertMatchesRules(ServiceDayMatrix matrix, Collection<Calendar> calendars) {
+        for (LocalDate date = START.minusDays(3); !date.isAfter(END.plusDays(3)); date = date.plusDays(1)) {
+            for (Calendar calendar : calendars) {
+                assertThat(matrix.isActive(calendar, date)).as("%s on %s", calendar.getId(), date)
+                        .isEqualTo(calendar.isServiceAvailableOnRules(date));
+            }
+            LocalDate current = date;
+            assertThat(matrix.getActiveCalendars(date)).as("active on %s", date)
+                    .containsExactlyElementsOf(calendars.stream()
+                            .filter(calendar -> calendar.isServiceAvailableOnRules(current))
+                            .sorted(Comparator.comparing(Calendar::getId))
+                            .toList());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        GtfsScheduleBuilder builder = GtfsSchedule.builder()
+                .addAgency("agency", "Agency", "https://example.com", ZoneId.of("Europe/Zurich"))
+                .addCalendar("weekdays", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), START, END)
+                .addCalendar("weekends", EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), START.plusDays(14), END)
+                .addCalendarDate("weekdays", LocalDate.of(2024, 1, 2), ExceptionType.REMOVED)
+                .addCalendarDate("weekdays", LocalDate.of(2024, 1, 6), ExceptionType.ADDED)
+                .addCalendarDate("special", LocalDate.of(2024, 2, 14), ExceptionType.ADDED);
+
+        // more calendars than bits in a word, each active on one day of the week in a different date range
+        for (int i = 0; i < 100; i++) {
+            builder.addCalendar(String.format("c%03d", i), EnumSet.of(DayOfWeek.of(i % 7 + 1)), START.plusDays(i % 20),
+                    END.minusDays(i % 30));
+        }
+
+        schedule = builder.build();
+    }
+
+    @Test
+    void shouldSpanAllCalendarsAndExceptions() {
+        ServiceDayMatrix matrix = schedule.getServiceDayMatrix();
+
+        assertThat(matrix.getStartDate()).isEqualTo(START);
+        assertThat(matrix.getEndDate()).isEqualTo(END);
+    }
+
+    @Test
+    void shouldMatchCalendarRules() {
+        assertMatchesRules(schedule.getServiceDayMatrix(), schedule.getCalendars().values());
+    }
+
+    @Test
+    void shouldEvaluateRulesAfterMaxDays() {
+        Collection<Calendar> calendars = schedule.getCalendars().values();
+
+        assertMatchesRules(new ServiceDayMatrix(calendars, 10), calendars);
+    }
+
+    @Test
+    void shouldDelegateServiceAvailabilityToMatrix() {
+        Calendar weekdays = schedule.getCalendars().get("weekdays");
+        Calendar special = schedule.getCalendars().get("special");
+
+        assertThat(weekdays.isServiceAvailable(LocalDate.of(2024, 1, 2))).isFalse();
+        assertThat(weekdays.isServiceAvailable(LocalDate.of(2024, 1, 3))).isTrue();
+        assertThat(weekdays.isServiceAvailable(LocalDate.of(2024, 1, 6))).isTrue();
+        assertThat(special.isServiceAvailable(LocalDate.of(2024, 2, 14))).isTrue();
+        assertThat(special.isServiceAvailable(LocalDate.of(2024, 2, 15))).isFalse();
+        assertThat(schedule.getServiceDayMatrix().getActiveCalendars(LocalDate.of(2024, 2, 14))).contains(special,
+                weekdays);
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.naviqore.gtfs.schedule.type.ServiceDayTime;
+import org.naviqore.gtfs.schedule.type.TimeType;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(GtfsScheduleTestExtension.class)
+class StopTimeBoardTest {
+
+    private GtfsSchedule schedule;
+
+    /**
+     * Evaluates every stop time of the stop on every candidate service date and sorts the matches.
+     */
+    private static List<StopTime> getStopTimesByScan(Stop stop, OffsetDateTime from, OffsetDateTime to,
+                                                     TimeType timeType) {
+        record Event(StopTime stopTime, Instant instant) {
+        }
+        List<Event> events = new ArrayList<>();
+        for (StopTime stopTime : stop.getStopTimes()) {
+            ServiceDayTime time = timeType == TimeType.DEPARTURE ? stopTime.departure() : stopTime.arrival();
+            ZoneId zone = stopTime.trip().getRoute().getAgency().timezone();
+            LocalDate minDate = from.minusSeconds(time.getTotalSeconds()).toLocalDate().minusDays(2);
+            for (LocalDate date = minDate; !date.isAfter(to.toLocalDate().plusDays(2)); date = date.plusDays(1)) {
+                if (stopTime.trip().getCalendar().isServiceAvailable(date)) {
+                    Instant instant = time.toZonedDateTime(date, zone).toInstant();
+                    if (!instant.isBefore(from.toInstant()) && instant.isBefore(to.toInstant())) {
+                        events.add(new Event(stopTime, instant));
+                    }
+                }
+            }
+        }
+
+        return events.stream().sorted(Comparator.comparing(Event::instant)).map(Event::stopTime).toList();
+    }
+
+    @BeforeEach
+    void setUp(GtfsScheduleTestBuilder testBuilder) {
+        schedule = testBuilder.withAddAgency()
+                .withAddCalendars()
+                .withAddCalendarDates()
+                .withAddInterCity()
+                .withAddUnderground()
+                .withAddBus()
+                .build();
+    }
+
+    private void assertMatchesScan(OffsetDateTime from, OffsetDateTime to) {
+        for (Stop stop : schedule.getStops().values()) {
+            for (TimeType timeType : TimeType.values()) {
+                assertThat(schedule.getStopTimes(stop.getId(), from, to, timeType)).as("%s %s from %s to %s",
+                        timeType, stop.getId(), from, to).containsExactlyElementsOf(getStopTimesByScan(stop, from, to,
+                        timeType));
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchScanOnWeekday() {
+        OffsetDateTime from = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM;
+
+        assertMatchesScan(from, from.plusMinutes(30));
+        assertMatchesScan(from.minusHours(9), from.plusHours(3));
+    }
+
+    @Test
+    void shouldMatchScanOverMidnight() {
+        OffsetDateTime midnight = GtfsScheduleTestBuilder.Moments.WEEKDAY_12_PM.plusSeconds(1);
+
+        assertMatchesScan(midnight.minusHours(1), midnight.plusHours(2));
+    }
+
+    @Test
+    void shouldMatchScanOnDaylightSavingTimeChanges() {
+        ZoneId zone = GtfsScheduleTestBuilder.ZONE_ID;
+
+        assertMatchesScan(LocalDateTime.of(2024, 3, 30, 22, 0).atZone(zone).toOffsetDateTime(),
+                LocalDateTime.of(2024, 3, 31, 6, 0).atZone(zone).toOffsetDateTime());
+        assertMatchesScan(LocalDateTime.of(2024, 10, 26, 22, 0).atZone(zone).toOffsetDateTime(),
+                LocalDateTime.of(2024, 10, 27, 6, 0).atZone(zone).toOffsetDateTime());
+    }
+
+    @Test
+    void shouldMatchScanInOtherOffsets() {
+        OffsetDateTime from = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM;
+
+        for (ZoneOffset offset : List.of(ZoneOffset.UTC, ZoneOffset.ofHours(14), ZoneOffset.ofHours(-10))) {
+            OffsetDateTime shifted = from.withOffsetSameInstant(offset);
+            assertMatchesScan(shifted, shifted.plusHours(1));
+        }
+    }
+
+    @Test
+    void shouldRespectFractionalSecondBoundaries() {
+        OffsetDateTime from = GtfsScheduleTestBuilder.Moments.WEEKDAY_8_AM;
+
+        assertMatchesScan(from.plusNanos(1), from.plusMinutes(9).plusNanos(1));
+        assertMatchesScan(from.minusNanos(1), from.plusMinutes(9).minusNanos(1));
+    }
+
+}
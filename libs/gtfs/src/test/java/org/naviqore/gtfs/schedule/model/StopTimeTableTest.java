@@ -0,0 +1,96 @@
+package org.naviqore.gtfs.schedule.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.naviqore.gtfs.schedule.type.DefaultRouteType;
+import org.naviqore.gtfs.schedule.type.ServiceDayTime;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StopTimeTableTest {
+
+    private GtfsScheduleBuilder builder;
+
+    private static String format(StopTime stopTime) {
+        return stopTime.trip().getId() + ":" + stopTime.stop().getId() + "@" + stopTime.arrival()
+                .getTotalSeconds() + "-" + stopTime.departure().getTotalSeconds();
+    }
+
+    @BeforeEach
+    void setUp() {
+        builder = GtfsSchedule.builder()
+                .addAgency("agency", "Agency", "https://example.com", ZoneId.of("Europe/Zurich"))
+                .addCalendar("weekdays", EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), LocalDate.of(2024, 1, 1),
+                        LocalDate.of(2024, 12, 31))
+                .addRoute("route", "agency", "R", "Route", DefaultRouteType.BUS)
+                .addStop("A", "A", 47.0, 8.0)
+                .addStop("B", "B", 47.1, 8.1)
+                .addStop("C", "C", 47.2, 8.2)
+                .addTrip("late", "route", "weekdays", "C")
+                .addTrip("early", "route", "weekdays", "C");
+    }
+
+    private void addStopTime(String tripId, String stopId, int arrival, int departure) {
+        builder.addStopTime(tripId, stopId, new ServiceDayTime(arrival), new ServiceDayTime(departure));
+    }
+
+    @Test
+    void shouldSortStopTimesOfTripsByDeparture() {
+        addStopTime("late", "C", 700, 700);
+        addStopTime("early", "A", 100, 110);
+        addStopTime("late", "A", 500, 510);
+        addStopTime("early", "B", 200, 210);
+        addStopTime("late", "B", 600, 610);
+
+        GtfsSchedule schedule = builder.build();
+
+        assertThat(schedule.getTrips().get("late").getStopTimes()).map(StopTimeTableTest::format)
+                .containsExactly("late:A@500-510", "late:B@600-610", "late:C@700-700");
+        assertThat(schedule.getTrips().get("early").getStopTimes()).map(StopTimeTableTest::format)
+                .containsExactly("early:A@100-110", "early:B@200-210");
+    }
+
+    @Test
+    void shouldSortStopTimesOfStopsByDepartureAndKeepInsertionOrderOfTies() {
+        addStopTime("late", "A", 500, 500);
+        addStopTime("early", "A", 100, 100);
+        addStopTime("early", "B", 300, 300);
+        addStopTime("late", "B", 290, 300);
+
+        GtfsSchedule schedule = builder.build();
+
+        assertThat(schedule.getStops().get("A").getStopTimes()).map(StopTimeTableTest::format)
+                .containsExactly("early:A@100-100", "late:A@500-500");
+        assertThat(schedule.getStops().get("B").getStopTimes()).map(StopTimeTableTest::format)
+                .containsExactly("early:B@300-300", "late:B@290-300");
+        assertThat(schedule.getStops().get("C").getStopTimes()).isEmpty();
+    }
+
+    @Test
+    void shouldServeEqualStopTimesFromTripAndStop() {
+        addStopTime("early", "A", 100, 110);
+        addStopTime("early", "B", 200, 210);
+        addStopTime("late", "C", 300, 300);
+
+        GtfsSchedule schedule = builder.build();
+        Trip trip = schedule.getTrips().get("early");
+        StopTime stopTime = schedule.getStops().get("B").getStopTimes().getFirst();
+
+        assertThat(stopTime.trip()).isSameAs(trip);
+        assertThat(stopTime.stop()).isSameAs(schedule.getStops().get("B"));
+        assertThat(trip.getStopTimes().get(1)).isEqualTo(stopTime);
+        assertThatThrownBy(() -> trip.getStopTimes().get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void shouldRejectArrivalAfterDeparture() {
+        assertThatThrownBy(() -> addStopTime("early", "A", 200, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
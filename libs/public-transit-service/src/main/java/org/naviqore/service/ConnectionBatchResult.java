@@ -0,0 +1,28 @@
+package org.naviqore.service;
+
+import org.jspecify.annotations.Nullable;
+import org.naviqore.service.exception.ConnectionRoutingException;
+
+import java.util.List;
+
+/**
+ * The result of a single query of a batch. Routing failures and early stops are reported per query, so that a single
+ * failing or late query neither fails nor silently truncates the whole batch.
+ *
+ * @param connections the possible connections of the query, empty if routing the query failed
+ * @param partial     true if routing the query was stopped early by its cancellation token and the connections are
+ *                    best-effort results only
+ * @param error       the routing error of the query, or null if routing the query succeeded
+ */
+public record ConnectionBatchResult(List<Connection> connections, boolean partial,
+                                    @Nullable ConnectionRoutingException error) {
+
+    public static ConnectionBatchResult of(List<Connection> connections, boolean partial) {
+        return new ConnectionBatchResult(connections, partial, null);
+    }
+
+    public static ConnectionBatchResult failed(ConnectionRoutingException error) {
+        return new ConnectionBatchResult(List.of(), false, error);
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.naviqore.service;
+
+import org.jspecify.annotations.Nullable;
+import org.naviqore.service.config.ConnectionQueryConfig;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A single connection query, used to route batches of connections. Source and target are either a stop or a
+ * coordinate; use the factory methods to create a query for one of the four combinations.
+ *
+ * @param sourceStop       the starting stop, or null if the source is a coordinate
+ * @param sourceCoordinate the starting coordinate, or null if the source is a stop
+ * @param targetStop       the destination stop, or null if the target is a coordinate
+ * @param targetCoordinate the destination coordinate, or null if the target is a stop
+ * @param time             the time of departure or arrival
+ * @param timeType         the type of time specified (departure or arrival)
+ * @param config           additional configuration for the query
+ */
+public record ConnectionQuery(@Nullable Stop sourceStop, @Nullable GeoCoordinate sourceCoordinate,
+                              @Nullable Stop targetStop, @Nullable GeoCoordinate targetCoordinate,
+                              OffsetDateTime time, TimeType timeType, ConnectionQueryConfig config) {
+
+    public ConnectionQuery {
+        if ((sourceStop == null) == (sourceCoordinate == null)) {
+            throw new IllegalArgumentException("Either a source stop or a source coordinate must be provided.");
+        }
+        if ((targetStop == null) == (targetCoordinate == null)) {
+            throw new IllegalArgumentException("Either a target stop or a target coordinate must be provided.");
+        }
+        if (time == null || timeType == null || config == null) {
+            throw new IllegalArgumentException("Time, time type and config must not be null.");
+        }
+    }
+
+    public static ConnectionQuery of(Stop source, Stop target, OffsetDateTime time, TimeType timeType,
+                                     ConnectionQueryConfig config) {
+        return new ConnectionQuery(source, null, target, null, time, timeType, config);
+    }
+
+    public static ConnectionQuery of(Stop source, GeoCoordinate target, OffsetDateTime time, TimeType timeType,
+                                     ConnectionQueryConfig config) {
+        return new ConnectionQuery(source, null, null, target, time, timeType, config);
+    }
+
+    public static ConnectionQuery of(GeoCoordinate source, Stop target, OffsetDateTime time, TimeType timeType,
+                                     ConnectionQueryConfig config) {
+        return new ConnectionQuery(null, source, target, null, time, timeType, config);
+    }
+
+    public static ConnectionQuery of(GeoCoordinate source, GeoCoordinate target, OffsetDateTime time,
+                                     TimeType timeType, ConnectionQueryConfig config) {
+        return new ConnectionQuery(null, source, null, target, time, timeType, config);
+    }
+
+}
@@ -2,11 +2,15 @@ package org.naviqore.service;
 
 import org.naviqore.service.config.ConnectionQueryConfig;
 import org.naviqore.service.exception.ConnectionRoutingException;
+import org.naviqore.utils.concurrent.CancellationToken;
 import org.naviqore.utils.spatial.GeoCoordinate;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 public interface ConnectionRoutingService {
 
@@ -69,6 +73,72 @@ public interface ConnectionRoutingService {
     List<Connection> getConnections(Stop source, GeoCoordinate target, OffsetDateTime time, TimeType timeType,
                                     ConnectionQueryConfig config) throws ConnectionRoutingException;
 
+    /**
+     * Retrieves possible connections for a single query, dispatching to the method matching the source and target types
+     * of the query.
+     *
+     * @param query the connection query
+     * @return a list of possible connections between the source and target of the query
+     */
+    default List<Connection> getConnections(ConnectionQuery query) throws ConnectionRoutingException {
+        if (query.sourceStop() != null && query.targetStop() != null) {
+            return getConnections(query.sourceStop(), query.targetStop(), query.time(), query.timeType(),
+                    query.config());
+        } else if (query.sourceStop() != null) {
+            return getConnections(query.sourceStop(), Objects.requireNonNull(query.targetCoordinate()), query.time(),
+                    query.timeType(), query.config());
+        } else if (query.targetStop() != null) {
+            return getConnections(Objects.requireNonNull(query.sourceCoordinate()), query.targetStop(), query.time(),
+                    query.timeType(), query.config());
+        } else {
+            return getConnections(Objects.requireNonNull(query.sourceCoordinate()),
+                    Objects.requireNonNull(query.targetCoordinate()), query.time(), query.timeType(), query.config());
+        }
+    }
+
+    /**
+     * Retrieves possible connections for a batch of queries. Implementations may share setup work between queries of
+     * the same service day and process them concurrently; the default implementation processes the queries one after
+     * another. Each query is routed as described in {@link #getConnectionBatchResult(ConnectionQuery)}, a failing query
+     * does not fail the batch.
+     *
+     * @param queries the connection queries
+     * @return the result per query, in the order of the queries
+     */
+    default List<ConnectionBatchResult> getConnections(List<ConnectionQuery> queries) {
+        List<ConnectionBatchResult> results = new ArrayList<>(queries.size());
+        for (ConnectionQuery query : queries) {
+            results.add(getConnectionBatchResult(query));
+        }
+
+        return results;
+    }
+
+    /**
+     * Routes a single query of a batch. The query is routed with a child of its cancellation token, so that the result
+     * tells whether this query was stopped early, also if all queries of the batch share the token of the request. A
+     * query whose token is already cancelled is not routed at all. A routing error is returned as part of the result.
+     *
+     * @param query the connection query
+     * @return the result of the query
+     */
+    default ConnectionBatchResult getConnectionBatchResult(ConnectionQuery query) {
+        CancellationToken token = query.config().getCancellationToken().child();
+        if (token.shouldStop()) {
+            return ConnectionBatchResult.of(List.of(), true);
+        }
+
+        ConnectionQueryConfig config = query.config().toBuilder().cancellationToken(token).build();
+        try {
+            List<Connection> connections = getConnections(
+                    new ConnectionQuery(query.sourceStop(), query.sourceCoordinate(), query.targetStop(),
+                            query.targetCoordinate(), query.time(), query.timeType(), config));
+            return ConnectionBatchResult.of(connections, token.hasPartialResults());
+        } catch (ConnectionRoutingException e) {
+            return ConnectionBatchResult.failed(e);
+        }
+    }
+
     /**
      * Retrieves the shortest possible connection to each stop from a given departure location and time  within a given
      * time budget or a maximum number of transfers.
@@ -94,4 +164,37 @@ public interface ConnectionRoutingService {
      */
     Map<Stop, Connection> getIsolines(Stop source, OffsetDateTime time, TimeType timeType,
                                       ConnectionQueryConfig config) throws ConnectionRoutingException;
+
+    /**
+     * Streams the shortest possible connection to each stop from a given departure location and time to the consumer.
+     * Implementations may pass the connection to a stop as soon as it is final, before the routing has finished; the
+     * default implementation retrieves all isolines first and passes them afterwards.
+     *
+     * @param source   the location to start the journey from
+     * @param time     the time of departure or arrival
+     * @param timeType the type of time specified (departure or arrival)
+     * @param config   additional configuration for the query
+     * @param consumer receives each reachable stop and the shortest possible connection to it, once per stop
+     */
+    default void streamIsolines(GeoCoordinate source, OffsetDateTime time, TimeType timeType,
+                                ConnectionQueryConfig config,
+                                BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        getIsolines(source, time, timeType, config).forEach(consumer);
+    }
+
+    /**
+     * Streams the shortest possible connection to each stop from a given departure stop and time to the consumer.
+     * Implementations may pass the connection to a stop as soon as it is final, before the routing has finished; the
+     * default implementation retrieves all isolines first and passes them afterwards.
+     *
+     * @param source   the stop to start the journey from
+     * @param time     the time of departure or arrival
+     * @param timeType the type of time specified (departure or arrival)
+     * @param config   additional configuration for the query
+     * @param consumer receives each reachable stop and the shortest possible connection to it, once per stop
+     */
+    default void streamIsolines(Stop source, OffsetDateTime time, TimeType timeType, ConnectionQueryConfig config,
+                                BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        getIsolines(source, time, timeType, config).forEach(consumer);
+    }
 }
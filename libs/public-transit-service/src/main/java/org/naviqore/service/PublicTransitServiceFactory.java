@@ -5,6 +5,7 @@ import org.naviqore.service.config.ServiceConfig;
 import org.naviqore.service.gtfs.raptor.GtfsRaptorServiceInitializer;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 @RequiredArgsConstructor
 public class PublicTransitServiceFactory {
@@ -15,4 +16,14 @@ public class PublicTransitServiceFactory {
         return new GtfsRaptorServiceInitializer(config).get();
     }
 
+    /**
+     * Creates the service, which routes the queries of batches concurrently on the given executor.
+     *
+     * @param batchExecutor the executor routing the queries of all batches, should be bounded, see
+     *                      {@link org.naviqore.utils.concurrent.BatchProcessor#newExecutor(int, int, String)}.
+     */
+    public PublicTransitService create(Executor batchExecutor) throws IOException, InterruptedException {
+        return new GtfsRaptorServiceInitializer(config).get(batchExecutor);
+    }
+
 }
\ No newline at end of file
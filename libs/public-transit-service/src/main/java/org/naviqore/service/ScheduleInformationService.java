@@ -49,7 +49,21 @@ public interface ScheduleInformationService {
      * @param stopSortStrategy the sorting strategy for the results (RELEVANCE, ALPHABETICAL)
      * @return a list of stops matching the search criteria
      */
-    List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy);
+    default List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy) {
+        return getStops(like, searchType, stopSortStrategy, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Searches for the best sorted stops by name, for example to autocomplete a stop name. Only the first stops of the
+     * sort order are returned, without sorting all matching stops.
+     *
+     * @param like             the search term to match against stop names
+     * @param searchType       the type of search to perform (STARTS_WITH, ENDS_WITH, CONTAINS, EXACT)
+     * @param stopSortStrategy the sorting strategy for the results (RELEVANCE, ALPHABETICAL)
+     * @param limit            the maximum number of stops to return, must be positive
+     * @return a list of at most limit stops matching the search criteria, in the order of the sorting strategy
+     */
+    List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy, int limit);
 
     /**
      * Retrieves the nearest stop to a given location.
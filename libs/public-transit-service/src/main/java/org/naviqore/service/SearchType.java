@@ -4,5 +4,6 @@ public enum SearchType {
     STARTS_WITH,
     ENDS_WITH,
     CONTAINS,
-    EXACT
+    EXACT,
+    FUZZY
 }
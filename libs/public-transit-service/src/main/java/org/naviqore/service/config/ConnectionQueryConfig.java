@@ -1,8 +1,11 @@
 package org.naviqore.service.config;
 
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.Value;
 import org.naviqore.service.TravelMode;
+import org.naviqore.utils.concurrent.CancellationToken;
 
 import java.util.EnumSet;
 
@@ -34,4 +37,14 @@ public class ConnectionQueryConfig {
     @Builder.Default
     EnumSet<TravelMode> travelModes = EnumSet.allOf(TravelMode.class);
 
+    /**
+     * Token to cancel the query. A cancelled query returns the best-effort results found so far and flags the token as
+     * having partial results. The token is a runtime handle of a single request and not part of the routing
+     * configuration, therefore it is excluded from the equality and the string representation.
+     */
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    CancellationToken cancellationToken = CancellationToken.NONE;
+
 }
@@ -13,6 +13,8 @@ public class ServiceConfig {
 
     // note: The defaults should match the default values in the application.properties file.
     public static final String DEFAULT_GTFS_STATIC_UPDATE_CRON = "0 0 4 * * *";
+    public static final int DEFAULT_GTFS_STATIC_DAYS_PAST = 1;
+    public static final int DEFAULT_GTFS_STATIC_DAYS_AHEAD = -1; // -1 means the complete schedule is loaded
 
     public static final int DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT = 120;
     public static final int DEFAULT_TRANSFER_DURATION_BETWEEN_STOPS_MINIMUM = 180;
@@ -20,6 +22,7 @@ public class ServiceConfig {
 
     public static final int DEFAULT_WALK_SEARCH_RADIUS = 500;
     public static final WalkCalculatorType DEFAULT_WALK_CALCULATOR_TYPE = WalkCalculatorType.BEE_LINE_DISTANCE;
+    public static final String DEFAULT_WALK_NETWORK_FILE = ""; // empty means no pedestrian network
     public static final double DEFAULT_WALK_SPEED = 1.4;
     public static final int DEFAULT_WALK_DURATION_MINIMUM = 120;
 
@@ -28,12 +31,20 @@ public class ServiceConfig {
 
     public static final int DEFAULT_CACHE_SIZE = 5;
     public static final CacheEvictionStrategy DEFAULT_CACHE_EVICTION_STRATEGY = CacheEvictionStrategy.LRU;
+    public static final int DEFAULT_CACHE_LABEL_SIZE = 0; // 0 means no label cache
+    public static final int DEFAULT_CACHE_ACCESS_EGRESS_SIZE = 0; // 0 means no access and egress cache
 
     GtfsScheduleRepository gtfsScheduleRepository;
 
     @Builder.Default
     String gtfsStaticUpdateCron = DEFAULT_GTFS_STATIC_UPDATE_CRON;
 
+    @Builder.Default
+    int gtfsStaticDaysPast = DEFAULT_GTFS_STATIC_DAYS_PAST;
+
+    @Builder.Default
+    int gtfsStaticDaysAhead = DEFAULT_GTFS_STATIC_DAYS_AHEAD;
+
     @Builder.Default
     int transferDurationSameStopDefault = DEFAULT_TRANSFER_DURATION_SAME_STOP_DEFAULT;
 
@@ -49,6 +60,9 @@ public class ServiceConfig {
     @Builder.Default
     WalkCalculatorType walkCalculatorType = DEFAULT_WALK_CALCULATOR_TYPE;
 
+    @Builder.Default
+    String walkNetworkFile = DEFAULT_WALK_NETWORK_FILE;
+
     @Builder.Default
     double walkSpeed = DEFAULT_WALK_SPEED;
 
@@ -67,13 +81,24 @@ public class ServiceConfig {
     @Builder.Default
     CacheEvictionStrategy cacheEvictionStrategy = DEFAULT_CACHE_EVICTION_STRATEGY;
 
+    @Builder.Default
+    int cacheLabelSize = DEFAULT_CACHE_LABEL_SIZE;
+
+    @Builder.Default
+    int cacheAccessEgressSize = DEFAULT_CACHE_ACCESS_EGRESS_SIZE;
+
     public ServiceConfig(GtfsScheduleRepository gtfsScheduleRepository, String gtfsStaticUpdateCron,
-                         int transferDurationSameStopDefault, int transferDurationBetweenStopsMinimum,
-                         int transferDurationAccessEgress, int walkSearchRadius, WalkCalculatorType walkCalculatorType,
+                         int gtfsStaticDaysPast, int gtfsStaticDaysAhead, int transferDurationSameStopDefault,
+                         int transferDurationBetweenStopsMinimum, int transferDurationAccessEgress,
+                         int walkSearchRadius, WalkCalculatorType walkCalculatorType, String walkNetworkFile,
                          double walkSpeed, int walkDurationMinimum, int raptorDaysToScan, int raptorRange,
-                         int cacheServiceDaySize, CacheEvictionStrategy cacheEvictionStrategy) {
+                         int cacheServiceDaySize, CacheEvictionStrategy cacheEvictionStrategy, int cacheLabelSize,
+                         int cacheAccessEgressSize) {
         this.gtfsScheduleRepository = validateNonNull(gtfsScheduleRepository, "gtfsScheduleRepository");
         this.gtfsStaticUpdateCron = validateNonNull(gtfsStaticUpdateCron, "gtfsStaticUpdateCron");
+        this.gtfsStaticDaysPast = validateNonNegative(gtfsStaticDaysPast, "gtfsStaticDaysPast");
+        // negative values imply that the complete schedule is loaded
+        this.gtfsStaticDaysAhead = gtfsStaticDaysAhead;
         this.transferDurationSameStopDefault = validateNonNegative(transferDurationSameStopDefault,
                 "transferDurationSameStopDefault");
         // negative values imply that transfers should not be generated
@@ -82,12 +107,18 @@ public class ServiceConfig {
                 "transferDurationAccessEgress");
         this.walkSearchRadius = validateNonNegative(walkSearchRadius, "walkSearchRadius");
         this.walkCalculatorType = validateNonNull(walkCalculatorType, "walkCalculatorType");
+        this.walkNetworkFile = validateNonNull(walkNetworkFile, "walkNetworkFile");
+        if (walkCalculatorType == WalkCalculatorType.PEDESTRIAN_NETWORK && walkNetworkFile.isBlank()) {
+            throw new IllegalArgumentException("walkNetworkFile must be set for the pedestrian network.");
+        }
         this.walkSpeed = validatePositive(walkSpeed, "walkSpeed");
         this.walkDurationMinimum = validateNonNegative(walkDurationMinimum, "walkDurationMinimum");
         this.raptorDaysToScan = validatePositive(raptorDaysToScan, "raptorDaysToScan");
         this.raptorRange = raptorRange;
         this.cacheServiceDaySize = validatePositive(cacheServiceDaySize, "cacheServiceDaySize");
         this.cacheEvictionStrategy = validateNonNull(cacheEvictionStrategy, "cacheEvictionStrategy");
+        this.cacheLabelSize = validateNonNegative(cacheLabelSize, "cacheLabelSize");
+        this.cacheAccessEgressSize = validateNonNegative(cacheAccessEgressSize, "cacheAccessEgressSize");
     }
 
     private static <T> T validateNonNull(T value, String name) {
@@ -112,7 +143,8 @@ public class ServiceConfig {
     }
 
     public enum WalkCalculatorType {
-        BEE_LINE_DISTANCE
+        BEE_LINE_DISTANCE,
+        PEDESTRIAN_NETWORK
     }
 
     public enum CacheEvictionStrategy {
@@ -8,8 +8,11 @@ import org.naviqore.service.*;
 import org.naviqore.service.config.ConnectionQueryConfig;
 import org.naviqore.service.config.ServiceConfig;
 import org.naviqore.service.exception.*;
+import org.naviqore.service.gtfs.raptor.routing.AccessEgressCacheStatistics;
 import org.naviqore.service.gtfs.raptor.routing.RoutingQueryFacade;
 import org.naviqore.service.walk.WalkCalculator;
+import org.naviqore.utils.concurrent.BatchProcessor;
+import org.naviqore.utils.concurrent.TaskMetrics;
 import org.naviqore.utils.search.SearchIndex;
 import org.naviqore.utils.spatial.GeoCoordinate;
 import org.naviqore.utils.spatial.index.KDTree;
@@ -17,6 +20,8 @@ import org.naviqore.utils.spatial.index.KDTree;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 @Slf4j
 public class GtfsRaptorService implements PublicTransitService {
@@ -30,17 +35,31 @@ public class GtfsRaptorService implements PublicTransitService {
     private final GtfsStopScopeResolver resolver;
     private final RoutingQueryFacade routing;
 
+    /**
+     * Executor routing the queries of all batches, see {@link #getConnections(List)}. Owned by the creator of the
+     * service, which may share it between services.
+     */
+    private final Executor batchExecutor;
+
+    /**
+     * Wall time and allocated bytes of the initialization tasks of this service.
+     */
+    @Getter
+    private final List<TaskMetrics> startupMetrics;
+
     GtfsRaptorService(ServiceConfig serviceConfig, GtfsSchedule schedule,
                       KDTree<org.naviqore.gtfs.schedule.model.Stop> spatialStopIndex,
                       SearchIndex<org.naviqore.gtfs.schedule.model.Stop> stopSearchIndex, WalkCalculator walkCalculator,
-                      RaptorRouter raptorRouter) {
+                      RaptorRouter raptorRouter, List<TaskMetrics> startupMetrics, Executor batchExecutor) {
         this.schedule = schedule;
+        this.startupMetrics = startupMetrics;
         this.spatialStopIndex = spatialStopIndex;
         this.stopSearchIndex = stopSearchIndex;
 
         this.validity = new GtfsRaptorValidity(schedule);
         this.resolver = new GtfsStopScopeResolver(schedule, spatialStopIndex, serviceConfig.getWalkSearchRadius());
         this.routing = new RoutingQueryFacade(serviceConfig, schedule, spatialStopIndex, walkCalculator, raptorRouter);
+        this.batchExecutor = batchExecutor;
     }
 
     @Override
@@ -60,15 +79,13 @@ public class GtfsRaptorService implements PublicTransitService {
     }
 
     @Override
-    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy) {
-        log.info("Searching for stops matching '{}', with search type '{}' and sort strategy '{}'", like, searchType,
-                stopSortStrategy);
+    public List<Stop> getStops(String like, SearchType searchType, StopSortStrategy stopSortStrategy, int limit) {
+        log.info("Searching for stops matching '{}', with search type '{}', sort strategy '{}' and limit '{}'", like,
+                searchType, stopSortStrategy, limit);
 
-        return stopSearchIndex.search(like.toLowerCase(), TypeMapper.map(searchType))
-                .stream()
-                .sorted(stopSortStrategy.getComparator(like))
-                .map(TypeMapper::map)
-                .toList();
+        // the index is ordered by name and ranks the matches like the comparator of the sort strategy
+        return stopSearchIndex.search(like.toLowerCase(), TypeMapper.map(searchType),
+                TypeMapper.map(stopSortStrategy), limit).stream().map(TypeMapper::map).toList();
     }
 
     @Override
@@ -91,18 +108,17 @@ public class GtfsRaptorService implements PublicTransitService {
         log.info("Searching for nearest stops to location '({}, {})', within radius '{} m'",
                 location.getFirstComponent(), location.getSecondComponent(), radius);
 
-        List<org.naviqore.gtfs.schedule.model.Stop> stops = new ArrayList<>();
+        List<org.naviqore.gtfs.schedule.model.Stop> nearestStops = spatialStopIndex.rangeSearch(location, radius);
+        nearestStops.sort(Comparator.comparingDouble(stop -> stop.getCoordinate().distanceTo(location)));
 
-        for (org.naviqore.gtfs.schedule.model.Stop stop : spatialStopIndex.rangeSearch(location, radius)) {
+        // ordered set to avoid adding same parent stop multiple times, at the position of its nearest child
+        Set<org.naviqore.gtfs.schedule.model.Stop> stops = new LinkedHashSet<>();
+        for (org.naviqore.gtfs.schedule.model.Stop stop : nearestStops) {
             // if nearest stop is a child stop, return parent stop
             if (stop.getParent().isPresent() && !stop.getParent().get().equals(stop)) {
                 stop = stop.getParent().get();
             }
-            // avoid adding same parent stop multiple times
-            if (!stops.contains(stop)) {
-                stops.add(stop);
-            }
-
+            stops.add(stop);
         }
 
         return stops.stream().map(TypeMapper::map).toList();
@@ -168,6 +184,13 @@ public class GtfsRaptorService implements PublicTransitService {
                 schedule.hasTripBikeInformation(), true);
     }
 
+    /**
+     * Gets the hit and miss counters of the access and egress stop cache of coordinate queries.
+     */
+    public AccessEgressCacheStatistics getAccessEgressCacheStatistics() {
+        return routing.getAccessEgressCacheStatistics();
+    }
+
     @Override
     public List<Connection> getConnections(Stop source, Stop target, OffsetDateTime time, TimeType timeType,
                                            ConnectionQueryConfig config) throws ConnectionRoutingException {
@@ -206,6 +229,34 @@ public class GtfsRaptorService implements PublicTransitService {
         return routing.queryConnections(time, timeType, config, source, target);
     }
 
+    /**
+     * Routes the batch grouped by service date and query configuration on the batch executor of the service. The
+     * groups are routed concurrently, the first query of each group warms up the stop time cache of the router before
+     * the remaining queries of the group are routed in parallel. Routing errors are reported per query.
+     */
+    @Override
+    public List<ConnectionBatchResult> getConnections(List<ConnectionQuery> queries) {
+        log.info("Routing batch of {} connection queries", queries.size());
+
+        List<ConnectionBatchResult> results = BatchProcessor.process(queries,
+                query -> new BatchGroupKey(query.time().toLocalDate(), query.config()), this::getConnectionBatchResult,
+                batchExecutor);
+
+        for (int i = 0; i < results.size(); i++) {
+            ConnectionRoutingException error = results.get(i).error();
+            if (error != null) {
+                log.error("Routing query {} of batch failed: {}", i, error.getMessage(), error);
+            }
+        }
+
+        long partial = results.stream().filter(ConnectionBatchResult::partial).count();
+        if (partial > 0) {
+            log.warn("Routing of {} of {} batch queries was stopped early", partial, queries.size());
+        }
+
+        return results;
+    }
+
     @Override
     public Map<Stop, Connection> getIsolines(GeoCoordinate source, OffsetDateTime time, TimeType timeType,
                                              ConnectionQueryConfig config) throws ConnectionRoutingException {
@@ -223,4 +274,28 @@ public class GtfsRaptorService implements PublicTransitService {
         return routing.queryIsolines(time, timeType, config, source);
     }
 
+    @Override
+    public void streamIsolines(GeoCoordinate source, OffsetDateTime time, TimeType timeType,
+                               ConnectionQueryConfig config,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        log.info("Streaming isolines from location '({}, {})', time '{}', time type '{}'", source.getFirstComponent(),
+                source.getSecondComponent(), time, timeType);
+
+        routing.streamIsolines(time, timeType, config, source, consumer);
+    }
+
+    @Override
+    public void streamIsolines(Stop source, OffsetDateTime time, TimeType timeType, ConnectionQueryConfig config,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        log.info("Streaming isolines from stop '{}', time '{}', time type '{}'", source.getId(), time, timeType);
+
+        routing.streamIsolines(time, timeType, config, source, consumer);
+    }
+
+    /**
+     * Key to group batch queries sharing the same stop times.
+     */
+    private record BatchGroupKey(LocalDate date, ConnectionQueryConfig config) {
+    }
+
 }
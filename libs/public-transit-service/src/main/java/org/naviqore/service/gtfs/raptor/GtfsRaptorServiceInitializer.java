@@ -1,7 +1,8 @@
 package org.naviqore.service.gtfs.raptor;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.naviqore.gtfs.schedule.ServiceDateWindow;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.gtfs.schedule.model.Stop;
 import org.naviqore.raptor.router.RaptorConfig;
@@ -12,50 +13,137 @@ import org.naviqore.service.gtfs.raptor.convert.GtfsTripMaskProvider;
 import org.naviqore.service.gtfs.raptor.convert.TransferGenerator;
 import org.naviqore.service.gtfs.raptor.convert.WalkTransferGenerator;
 import org.naviqore.service.walk.BeeLineWalkCalculator;
+import org.naviqore.service.walk.PedestrianNetwork;
+import org.naviqore.service.walk.PedestrianNetworkWalkCalculator;
 import org.naviqore.service.walk.WalkCalculator;
 import org.naviqore.utils.cache.EvictionCache;
+import org.naviqore.utils.concurrent.TaskGraph;
+import org.naviqore.utils.concurrent.TaskMetrics;
 import org.naviqore.utils.search.SearchIndex;
 import org.naviqore.utils.search.SearchIndexBuilder;
+import org.naviqore.utils.spatial.GeoCoordinate;
 import org.naviqore.utils.spatial.index.KDTree;
 import org.naviqore.utils.spatial.index.KDTreeBuilder;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-
-@RequiredArgsConstructor
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Initializes the components of a {@link GtfsRaptorService} from a service configuration.
+ * <p>
+ * The components are built as a graph of tasks on a bounded thread pool: The stop search index, the spatial stop index
+ * and the walk calculator only depend on the schedule and are built concurrently, the RAPTOR router waits for the
+ * spatial index and the walk calculator to generate the walk transfers. The wall time and the allocated bytes of each
+ * task are logged and available as startup metrics of the service.
+ */
 @Slf4j
 public class GtfsRaptorServiceInitializer {
 
+    private static final String FOOTPATHS_EXTENSION = ".footpaths";
+
+    // the widest level of the task graph, the tasks themselves may use parallel streams on the common pool
+    private static final int MAX_PARALLELISM = 3;
+
     private final ServiceConfig config;
     private final GtfsSchedule schedule;
     private final WalkCalculator walkCalculator;
     private final SearchIndex<Stop> stopSearchIndex;
     private final KDTree<Stop> spatialStopIndex;
     private final RaptorRouter raptorRouter;
+    @Getter
+    private final List<TaskMetrics> startupMetrics;
 
     public GtfsRaptorServiceInitializer(ServiceConfig config) throws IOException, InterruptedException {
         log.debug("Initializing with config: {}", config);
         this.config = config;
-        this.schedule = config.getGtfsScheduleRepository().get();
-        this.walkCalculator = initializeWalkCalculator(config);
-        this.stopSearchIndex = createStopSearchIndex(schedule);
-        this.spatialStopIndex = createSpatialStopIndex(schedule);
-
-        // generate transfers if minimum transfer time is not negative; usually -1 to deactivate generators
-        List<TransferGenerator> transferGenerators = config.getTransferDurationBetweenStopsMinimum() >= 0 ? createTransferGenerators(
-                config, walkCalculator, spatialStopIndex) : Collections.emptyList();
-        this.raptorRouter = createRaptorRouter(config, schedule, transferGenerators);
+
+        TaskGraph graph = new TaskGraph(Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+        TaskGraph.Task<GtfsSchedule> scheduleTask = graph.add("schedule", () -> readSchedule(config));
+        TaskGraph.Task<WalkCalculator> walkCalculatorTask = graph.add("walk calculator",
+                () -> initializeWalkCalculator(config, scheduleTask.get()), scheduleTask);
+        TaskGraph.Task<SearchIndex<Stop>> stopSearchIndexTask = graph.add("stop search index",
+                () -> createStopSearchIndex(scheduleTask.get()), scheduleTask);
+        TaskGraph.Task<KDTree<Stop>> spatialStopIndexTask = graph.add("spatial stop index",
+                () -> createSpatialStopIndex(scheduleTask.get()), scheduleTask);
+        TaskGraph.Task<RaptorRouter> raptorRouterTask = graph.add("raptor router", () -> {
+            // generate transfers if minimum transfer time is not negative; usually -1 to deactivate generators
+            List<TransferGenerator> transferGenerators = config.getTransferDurationBetweenStopsMinimum() >= 0 ?
+                    createTransferGenerators(config, walkCalculatorTask.get(),
+                            spatialStopIndexTask.get()) : Collections.emptyList();
+            return createRaptorRouter(config, scheduleTask.get(), transferGenerators);
+        }, scheduleTask, walkCalculatorTask, spatialStopIndexTask);
+
+        this.startupMetrics = run(graph);
+        this.schedule = scheduleTask.get();
+        this.walkCalculator = walkCalculatorTask.get();
+        this.stopSearchIndex = stopSearchIndexTask.get();
+        this.spatialStopIndex = spatialStopIndexTask.get();
+        this.raptorRouter = raptorRouterTask.get();
+    }
+
+    private static List<TaskMetrics> run(TaskGraph graph) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        List<TaskMetrics> metrics;
+        try {
+            metrics = graph.run();
+        } catch (ExecutionException e) {
+            // rethrow the exception of the failed task, as if it was built on the calling thread
+            switch (e.getCause()) {
+                case IOException ioException -> throw ioException;
+                case InterruptedException interruptedException -> throw interruptedException;
+                case RuntimeException runtimeException -> throw runtimeException;
+                case Error error -> throw error;
+                default -> throw new IllegalStateException("Failed to initialize service", e.getCause());
+            }
+        }
+
+        log.info("Initialized service in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        return metrics;
     }
 
-    private static WalkCalculator initializeWalkCalculator(ServiceConfig config) {
+    private static GtfsSchedule readSchedule(ServiceConfig config) throws IOException, InterruptedException {
+        // load the complete schedule if no days ahead are configured, otherwise only the calendars active in the window
+        if (config.getGtfsStaticDaysAhead() < 0) {
+            return config.getGtfsScheduleRepository().get();
+        }
+
+        ServiceDateWindow window = ServiceDateWindow.around(LocalDate.now(), config.getGtfsStaticDaysPast(),
+                config.getGtfsStaticDaysAhead());
+        log.info("Restricting schedule to service dates from {} to {}", window.from(), window.to());
+        return config.getGtfsScheduleRepository().get(window);
+    }
+
+    private static WalkCalculator initializeWalkCalculator(ServiceConfig config,
+                                                          GtfsSchedule schedule) throws IOException {
         return switch (config.getWalkCalculatorType()) {
             case ServiceConfig.WalkCalculatorType.BEE_LINE_DISTANCE -> new BeeLineWalkCalculator(config.getWalkSpeed());
+            case ServiceConfig.WalkCalculatorType.PEDESTRIAN_NETWORK ->
+                    createPedestrianNetworkWalkCalculator(config, schedule);
         };
     }
 
+    private static WalkCalculator createPedestrianNetworkWalkCalculator(ServiceConfig config,
+                                                                        GtfsSchedule schedule) throws IOException {
+        Path networkFile = Path.of(config.getWalkNetworkFile());
+        PedestrianNetworkWalkCalculator walkCalculator = new PedestrianNetworkWalkCalculator(
+                PedestrianNetwork.read(networkFile), config.getWalkSpeed(), config.getWalkSearchRadius());
+
+        // persist the walking distances between the stops next to the network, to skip the computation on restarts
+        List<GeoCoordinate> stops = schedule.getStops().values().stream().map(Stop::getCoordinate).toList();
+        walkCalculator.precompute(stops, networkFile.resolveSibling(networkFile.getFileName() + FOOTPATHS_EXTENSION));
+
+        return walkCalculator;
+    }
+
     private static SearchIndex<Stop> createStopSearchIndex(GtfsSchedule schedule) {
-        SearchIndexBuilder<Stop> builder = SearchIndex.builder();
+        // ordered by name, which sorts alphabetically and breaks the ties of the relevance
+        SearchIndexBuilder<Stop> builder = SearchIndex.<Stop>builder().order(Comparator.comparing(Stop::getName));
 
         // only add parent stops and stops without a parent
         for (org.naviqore.gtfs.schedule.model.Stop stop : schedule.getStops().values()) {
@@ -88,12 +176,27 @@ public class GtfsRaptorServiceInitializer {
         RaptorConfig raptorConfig = new RaptorConfig(config.getRaptorDaysToScan(), config.getRaptorRange(),
                 config.getTransferDurationSameStopDefault(), config.getCacheServiceDaySize(), cacheStrategy,
                 tripMaskProvider);
+        raptorConfig.setLabelCacheSize(config.getCacheLabelSize());
 
         return new GtfsToRaptorConverter(raptorConfig, schedule, transferGenerators).run();
     }
 
+    /**
+     * Creates the service, which routes the queries of a batch one after another on the calling thread.
+     */
     public GtfsRaptorService get() {
-        return new GtfsRaptorService(config, schedule, spatialStopIndex, stopSearchIndex, walkCalculator, raptorRouter);
+        return get(Runnable::run);
+    }
+
+    /**
+     * Creates the service, which routes the queries of a batch concurrently on the given executor. The executor is not
+     * shut down by the service.
+     *
+     * @param batchExecutor the executor routing the queries of all batches, should be bounded.
+     */
+    public GtfsRaptorService get(Executor batchExecutor) {
+        return new GtfsRaptorService(config, schedule, spatialStopIndex, stopSearchIndex, walkCalculator, raptorRouter,
+                startupMetrics, batchExecutor);
     }
 
 }
@@ -3,6 +3,7 @@ package org.naviqore.service.gtfs.raptor;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.jspecify.annotations.Nullable;
+import org.naviqore.gtfs.schedule.model.Frequency;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.gtfs.schedule.type.*;
 import org.naviqore.raptor.QueryConfig;
@@ -36,13 +37,21 @@ public final class TypeMapper {
     }
 
     public static Trip map(org.naviqore.gtfs.schedule.model.Trip trip, LocalDate date) {
+        return map(trip, date, 0);
+    }
+
+    /**
+     * Maps a trip with its stop times shifted by the given seconds, which is a departure of a frequency if the trip is
+     * the template of a frequency.
+     */
+    private static Trip map(org.naviqore.gtfs.schedule.model.Trip trip, LocalDate date, int shift) {
         // create stop times
         ZoneId zoneId = trip.getRoute().getAgency().timezone();
         List<GtfsRaptorStopTime> stopTimes = trip.getStopTimes()
                 .stream()
                 .map(stopTime -> new GtfsRaptorStopTime(map(stopTime.stop()),
-                        stopTime.arrival().toOffsetDateTime(date, zoneId),
-                        stopTime.departure().toOffsetDateTime(date, zoneId)))
+                        shift(stopTime.arrival(), shift).toOffsetDateTime(date, zoneId),
+                        shift(stopTime.departure(), shift).toOffsetDateTime(date, zoneId)))
                 .toList();
 
         // initialize trip, needs a cast to stop times from stop time impl (list)
@@ -69,6 +78,14 @@ public final class TypeMapper {
             case ENDS_WITH -> SearchIndex.SearchStrategy.ENDS_WITH;
             case CONTAINS -> SearchIndex.SearchStrategy.CONTAINS;
             case EXACT -> SearchIndex.SearchStrategy.EXACT;
+            case FUZZY -> SearchIndex.SearchStrategy.FUZZY;
+        };
+    }
+
+    public static SearchIndex.Ranking map(StopSortStrategy stopSortStrategy) {
+        return switch (stopSortStrategy) {
+            case ALPHABETICAL -> SearchIndex.Ranking.INDEX_ORDER;
+            case RELEVANCE -> SearchIndex.Ranking.RELEVANCE;
         };
     }
 
@@ -106,9 +123,12 @@ public final class TypeMapper {
     }
 
     public static QueryConfig map(ConnectionQueryConfig config) {
-        return new QueryConfig(config.getMaximumWalkDuration(), config.getMinimumTransferDuration(),
+        QueryConfig queryConfig = new QueryConfig(config.getMaximumWalkDuration(), config.getMinimumTransferDuration(),
                 config.getMaximumTransfers(), Integer.MAX_VALUE, config.isWheelchairAccessible(),
                 config.isBikeAllowed(), map(config.getTravelModes()));
+        queryConfig.setCancellationToken(config.getCancellationToken());
+
+        return queryConfig;
     }
 
     public static org.naviqore.raptor.TimeType mapToRaptor(TimeType timeType) {
@@ -167,9 +187,11 @@ public final class TypeMapper {
     private static PublicTransitLeg createPublicTransitLeg(org.naviqore.raptor.Leg leg, GtfsSchedule schedule,
                                                            int distance) {
         org.naviqore.gtfs.schedule.model.Trip gtfsTrip = schedule.getTrips().get(leg.getTripId());
-        LocalDate serviceDay = getServiceDay(leg, gtfsTrip);
+        // legs on a departure of a frequency reference the template trip, which is shifted to the departure
+        int shift = gtfsTrip.getFrequencies().isEmpty() ? 0 : getFrequencyShift(leg, gtfsTrip);
+        LocalDate serviceDay = getServiceDay(leg, gtfsTrip, shift);
         int duration = (int) Duration.between(leg.getDepartureTime(), leg.getArrivalTime()).toSeconds();
-        Trip trip = map(gtfsTrip, serviceDay);
+        Trip trip = map(gtfsTrip, serviceDay, shift);
 
         assert gtfsTrip.getStopTimes().size() == trip.getStopTimes()
                 .size() : "GTFS trip and trip implementation in service must have the same number of stop times.";
@@ -180,7 +202,7 @@ public final class TypeMapper {
         for (int i = 0; i < gtfsTrip.getStopTimes().size(); i++) {
             var gtfsStopTime = gtfsTrip.getStopTimes().get(i);
             // if the fromStop id and the departure time matches, set the departure stop time
-            if (gtfsStopTime.stop().getId().equals(leg.getFromStopId()) && gtfsStopTime.departure()
+            if (gtfsStopTime.stop().getId().equals(leg.getFromStopId()) && shift(gtfsStopTime.departure(), shift)
                     .toLocalTime()
                     .equals(leg.getDepartureTime().toLocalTime())) {
                 departure = trip.getStopTimes().get(i);
@@ -188,7 +210,7 @@ public final class TypeMapper {
             }
 
             // if the toStop id and the arrival time matches, set the arrival stop time
-            if (gtfsStopTime.stop().getId().equals(leg.getToStopId()) && gtfsStopTime.arrival()
+            if (gtfsStopTime.stop().getId().equals(leg.getToStopId()) && shift(gtfsStopTime.arrival(), shift)
                     .toLocalTime()
                     .equals(leg.getArrivalTime().toLocalTime())) {
                 arrival = trip.getStopTimes().get(i);
@@ -202,17 +224,54 @@ public final class TypeMapper {
         return new GtfsRaptorPublicTransitLeg(distance, duration, trip, departure, arrival);
     }
 
-    private static LocalDate getServiceDay(org.naviqore.raptor.Leg leg, org.naviqore.gtfs.schedule.model.Trip trip) {
+    private static LocalDate getServiceDay(org.naviqore.raptor.Leg leg, org.naviqore.gtfs.schedule.model.Trip trip,
+                                           int shift) {
         String StopId = leg.getFromStopId();
         LocalTime departureTime = leg.getDepartureTime().toLocalTime();
 
         for (org.naviqore.gtfs.schedule.model.StopTime stopTime : trip.getStopTimes()) {
-            if (stopTime.stop().getId().equals(StopId) && stopTime.departure().toLocalTime().equals(departureTime)) {
-                int dayShift = stopTime.departure().getTotalSeconds() / SECONDS_IN_DAY;
+            ServiceDayTime departure = shift(stopTime.departure(), shift);
+            if (stopTime.stop().getId().equals(StopId) && departure.toLocalTime().equals(departureTime)) {
+                int dayShift = departure.getTotalSeconds() / SECONDS_IN_DAY;
                 return leg.getDepartureTime().toLocalDate().minusDays(dayShift);
             }
         }
 
         throw new IllegalStateException("Could not find service day for leg");
     }
+
+    /**
+     * Finds the shift of the template trip to the departure of a frequency, on which the leg departs. The departure is
+     * the template shifted to the time of day of the leg at its from stop, which is within a frequency and a multiple
+     * of its headway after the start time.
+     */
+    private static int getFrequencyShift(org.naviqore.raptor.Leg leg, org.naviqore.gtfs.schedule.model.Trip trip) {
+        int departureTime = leg.getDepartureTime().toLocalTime().toSecondOfDay();
+        int templateStart = trip.getStopTimes().getFirst().departure().getTotalSeconds();
+
+        for (org.naviqore.gtfs.schedule.model.StopTime stopTime : trip.getStopTimes()) {
+            if (!stopTime.stop().getId().equals(leg.getFromStopId())) {
+                continue;
+            }
+            int shift = Math.floorMod(departureTime - stopTime.departure().getTotalSeconds(), SECONDS_IN_DAY);
+            for (Frequency frequency : trip.getFrequencies()) {
+                int firstStart = frequency.startTime().getTotalSeconds();
+                int lastStart = frequency.getLastStartTime().getTotalSeconds();
+                // the shift is known modulo a day, the frequency may start on the previous or the next day
+                for (int days = -1; days <= 1; days++) {
+                    int start = templateStart + shift + days * SECONDS_IN_DAY;
+                    boolean onHeadway = (start - firstStart) % frequency.headwaySecs() == 0;
+                    if (start >= firstStart && start <= lastStart && onHeadway) {
+                        return shift + days * SECONDS_IN_DAY;
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException("Could not find departure of frequency for leg");
+    }
+
+    private static ServiceDayTime shift(ServiceDayTime time, int shift) {
+        return shift == 0 ? time : new ServiceDayTime(time.getTotalSeconds() + shift);
+    }
 }
@@ -18,6 +18,9 @@ import java.util.stream.Collectors;
  * stops are considered as RAPTOR transfers. In the RAPTOR model, transfers are treated exclusively as pedestrian paths
  * between stops, reflecting necessary walking connections. Thus, other types of GTFS transfers are omitted from the
  * mapping process to align with RAPTOR's conceptual model.
+ * <p>
+ * Trips with GTFS frequencies are added as templates of headway-based service and are not expanded into a trip per
+ * departure.
  *
  * @author munterfi
  */
@@ -31,6 +34,8 @@ public class GtfsToRaptorConverter {
     private final GtfsRoutePartitioner partitioner;
     private final RaptorRouterBuilder builder;
 
+    private int addedTransfers;
+
     public GtfsToRaptorConverter(RaptorConfig config, GtfsSchedule schedule) {
         this(config, schedule, List.of());
     }
@@ -60,10 +65,10 @@ public class GtfsToRaptorConverter {
     // add raptor route for each sub route of the gtfs routes
     private void addRoute(GtfsRoutePartitioner.SubRoute subRoute) {
 
-        // add stops of sub route that are not already added
+        // add stops of sub route that are not already added, the parent station groups the transfers to its stops
         for (Stop stop : subRoute.getStopsSequence()) {
             if (!addedStops.contains(stop)) {
-                builder.addStop(stop.getId());
+                builder.addStop(stop.getId(), stop.getParent().map(Stop::getId).orElse(stop.getId()));
                 addedStops.add(stop);
             }
         }
@@ -72,14 +77,20 @@ public class GtfsToRaptorConverter {
         builder.addRoute(subRoute.getId(), subRoute.getRoute().getAgency().timezone(),
                 subRoute.getStopsSequence().stream().map(Stop::getId).toList());
 
-        // add trips of sub route
+        // add trips of sub route, the stop times are streamed into primitive arrays without intermediate objects
         for (Trip trip : subRoute.getTrips()) {
-            builder.addTrip(trip.getId(), subRoute.getId());
             List<StopTime> stopTimes = trip.getStopTimes();
+            int[] times = new int[stopTimes.size() * 2];
             for (int i = 0; i < stopTimes.size(); i++) {
                 StopTime stopTime = stopTimes.get(i);
-                builder.addStopTime(subRoute.getId(), trip.getId(), i, stopTime.stop().getId(),
-                        stopTime.arrival().getTotalSeconds(), stopTime.departure().getTotalSeconds());
+                times[i * 2] = stopTime.arrival().getTotalSeconds();
+                times[i * 2 + 1] = stopTime.departure().getTotalSeconds();
+            }
+            builder.addTrip(trip.getId(), subRoute.getId(), times);
+
+            for (Frequency frequency : trip.getFrequencies()) {
+                builder.addFrequency(trip.getId(), subRoute.getId(), frequency.startTime().getTotalSeconds(),
+                        frequency.endTime().getTotalSeconds(), frequency.headwaySecs());
             }
         }
     }
@@ -108,8 +119,20 @@ public class GtfsToRaptorConverter {
      */
     private void processAllTransfers() {
         createAndAddTransfersFromTransferGenerators();
+        int generatedTransfers = addedTransfers;
         processStopAndParentChildTransfers();
+        int derivedTransfers = addedTransfers - generatedTransfers;
         addGtfsTransfersWithPrecedence();
+
+        // the builder keeps one transfer per pair of stops, its number is logged when building the router
+        log.info("Added {} transfers: {} generated, {} derived from parent and child stops, {} from GTFS",
+                addedTransfers, generatedTransfers, derivedTransfers,
+                addedTransfers - generatedTransfers - derivedTransfers);
+    }
+
+    private void addTransfer(Stop from, Stop to, int duration) {
+        builder.addTransfer(from.getId(), to.getId(), duration);
+        addedTransfers++;
     }
 
     /**
@@ -124,8 +147,7 @@ public class GtfsToRaptorConverter {
                     return list.stream();
                 }))
                 .flatMap(generator -> generator.generateTransfers(addedStops).stream())
-                .forEach(transfer -> builder.addTransfer(transfer.from().getId(), transfer.to().getId(),
-                        transfer.duration()));
+                .forEach(transfer -> addTransfer(transfer.from(), transfer.to(), transfer.duration()));
     }
 
     /**
@@ -177,7 +199,7 @@ public class GtfsToRaptorConverter {
     private void applyTransfersFromOtherStop(Stop consumerStop, Stop providerStop) {
         Collection<TransferGenerator.Transfer> transfers = expandTransfersFromStop(providerStop);
         for (TransferGenerator.Transfer transfer : transfers) {
-            builder.addTransfer(consumerStop.getId(), transfer.to().getId(), transfer.duration());
+            addTransfer(consumerStop, transfer.to(), transfer.duration());
         }
     }
 
@@ -195,7 +217,7 @@ public class GtfsToRaptorConverter {
                     // only add new transfers if the to stop also has departures, else the raptor router does not care
                     // about this stop and the builder will throw an exception.
                     if (addedStops.contains(toChildStop)) {
-                        builder.addTransfer(stop.getId(), toChildStop.getId(), stopTransfer.getMinTransferTime().get());
+                        addTransfer(stop, toChildStop, stopTransfer.getMinTransferTime().get());
                     }
                 }
             }
@@ -212,8 +234,7 @@ public class GtfsToRaptorConverter {
                 // this stop and the builder will throw an exception.
                 if (transfer.getTransferType() == TransferType.MINIMUM_TIME && transfer.getMinTransferTime()
                         .isPresent() && addedStops.contains(transfer.getToStop())) {
-                    builder.addTransfer(stop.getId(), transfer.getToStop().getId(),
-                            transfer.getMinTransferTime().get());
+                    addTransfer(stop, transfer.getToStop(), transfer.getMinTransferTime().get());
                 }
             }
         }
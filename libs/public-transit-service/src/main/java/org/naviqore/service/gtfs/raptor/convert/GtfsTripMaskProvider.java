@@ -169,10 +169,9 @@ public class GtfsTripMaskProvider implements RaptorTripMaskProvider {
 
         // get all active calendars form the gtfs for given date, serves as key for caching raptor instances
         private String getActiveServicesFromSchedule(LocalDate date) {
-            return schedule.getCalendars()
-                    .values()
+            return schedule.getServiceDayMatrix()
+                    .getActiveCalendars(date)
                     .stream()
-                    .filter(calendar -> calendar.isServiceAvailable(date))
                     .map(org.naviqore.gtfs.schedule.model.Calendar::getId)
                     .collect(Collectors.joining(","));
         }
@@ -4,11 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 import org.naviqore.gtfs.schedule.model.Stop;
 import org.naviqore.service.walk.WalkCalculator;
+import org.naviqore.utils.spatial.GeoCoordinate;
 import org.naviqore.utils.spatial.index.KDTree;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 /**
  * Implements a transfer generator that creates minimum time transfers between stops where the {@link GtfsSchedule} does
@@ -60,26 +59,34 @@ public class WalkTransferGenerator implements TransferGenerator {
     @Override
     public List<TransferGenerator.Transfer> generateTransfers(Collection<Stop> stops) {
         log.info("Generating transfers between {} stops", stops.size());
-        List<TransferGenerator.Transfer> transfers = stops.parallelStream().flatMap(fromStop -> {
-            List<Stop> nearbyStops = spatialStopIndex.rangeSearch(fromStop, searchRadius);
-            // since spatial index contains all stops of the schedule, we only consider stops with departures
-            return nearbyStops.stream()
-                    .filter(stops::contains)
-                    .filter(toStop -> !toStop.equals(fromStop))
-                    .map(toStop -> createTransfer(fromStop, toStop));
-        }).toList();
+        // since spatial index contains all stops of the schedule, we only join stops with departures
+        Set<Stop> stopsWithDepartures = new HashSet<>(stops);
+        Map<Stop, List<Stop>> nearbyStops = spatialStopIndex.rangeJoin(searchRadius, stopsWithDepartures::contains);
+        List<TransferGenerator.Transfer> transfers = nearbyStops.entrySet()
+                .parallelStream()
+                .flatMap(entry -> createTransfers(entry.getKey(), entry.getValue()).stream())
+                .toList();
 
         log.info("Generated {} transfers between {} stops", transfers.size(), stops.size());
         return new ArrayList<>(transfers);
     }
 
-    private TransferGenerator.Transfer createTransfer(Stop fromStop, Stop toStop) {
-        // calculate the walking time between the stops
-        WalkCalculator.Walk walk = walkCalculator.calculateWalk(fromStop.getCoordinate(), toStop.getCoordinate());
-        // get total transfer duration by adding access and egress time (twice) to the walk duration
-        // and taking the maximum value between this total and the minimum transfer time.
-        int transferDuration = Math.max(walk.duration() + 2 * accessEgressTime, minimumTransferTime);
+    private List<TransferGenerator.Transfer> createTransfers(Stop fromStop, List<Stop> toStops) {
+        // calculate the walking times from the stop to all nearby stops at once
+        GeoCoordinate[] targets = new GeoCoordinate[toStops.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = toStops.get(i).getCoordinate();
+        }
+        WalkCalculator.Walk[] walks = walkCalculator.calculateWalks(fromStop.getCoordinate(), targets);
 
-        return new TransferGenerator.Transfer(fromStop, toStop, transferDuration);
+        List<TransferGenerator.Transfer> transfers = new ArrayList<>(walks.length);
+        for (int i = 0; i < walks.length; i++) {
+            // get total transfer duration by adding access and egress time (twice) to the walk duration
+            // and taking the maximum value between this total and the minimum transfer time.
+            int transferDuration = Math.max(walks[i].duration() + 2 * accessEgressTime, minimumTransferTime);
+            transfers.add(new TransferGenerator.Transfer(fromStop, toStops.get(i), transferDuration));
+        }
+
+        return transfers;
     }
 }
@@ -0,0 +1,94 @@
+package org.naviqore.service.gtfs.raptor.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of the stops within walking distance of a coordinate and their walk durations, used for the access
+ * and egress of connection and isoline queries from or to coordinates. Repeated queries from the same location, e.g. a
+ * popular address or the iterations of a time window, skip the spatial search and the walk calculations.
+ * <p>
+ * Coordinates are snapped to cells of {@value #CELL_SIZE} degrees, about a meter, and the stops of a cell are searched
+ * from the center of the cell. The walk durations of two coordinates in the same cell may therefore differ from an
+ * uncached search by about a second, and stops at the border of the search radius may be included or not.
+ * <p>
+ * The stops are only valid for the schedule of the service owning the cache; swapping the schedule replaces the
+ * service and thereby the cache.
+ */
+@Slf4j
+class AccessEgressCache {
+
+    static final double CELL_SIZE = 1e-5;
+
+    private final int size;
+    private final Map<Key, Map<String, Integer>> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    AccessEgressCache(int size) {
+        this.size = size;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Map<String, Integer>> eldest) {
+                return size() > AccessEgressCache.this.size;
+            }
+        };
+    }
+
+    /**
+     * Snaps the location to the center of its cell.
+     */
+    static GeoCoordinate snap(GeoCoordinate location) {
+        return new GeoCoordinate(Math.clamp((Math.floor(location.latitude() / CELL_SIZE) + 0.5) * CELL_SIZE, -90, 90),
+                Math.clamp((Math.floor(location.longitude() / CELL_SIZE) + 0.5) * CELL_SIZE, -180, 180));
+    }
+
+    /**
+     * Gets the cached stops of the cell of the location or searches them from the center of the cell.
+     *
+     * @param location            the location of the access or egress.
+     * @param maximumWalkDuration the maximum walk duration of the query in seconds.
+     * @param search              the search of the stops with their walk durations from a location.
+     * @return the unmodifiable stops with their walk durations.
+     */
+    Map<String, Integer> computeIfAbsent(GeoCoordinate location, int maximumWalkDuration,
+                                         Function<GeoCoordinate, Map<String, Integer>> search) {
+        Key key = new Key((long) Math.floor(location.latitude() / CELL_SIZE),
+                (long) Math.floor(location.longitude() / CELL_SIZE), maximumWalkDuration);
+
+        Map<String, Integer> stops;
+        synchronized (cache) {
+            // access ordered map, get updates the order
+            stops = cache.get(key);
+        }
+        if (stops != null) {
+            hits.increment();
+            log.debug("Access and egress cache hit for cell {}", key);
+            return stops;
+        }
+
+        // search without holding the lock, concurrent misses of the same cell may search the stops twice
+        misses.increment();
+        stops = Map.copyOf(search.apply(snap(location)));
+        synchronized (cache) {
+            cache.putIfAbsent(key, stops);
+        }
+
+        return stops;
+    }
+
+    AccessEgressCacheStatistics getStatistics() {
+        synchronized (cache) {
+            return new AccessEgressCacheStatistics(hits.sum(), misses.sum(), cache.size(), size);
+        }
+    }
+
+    private record Key(long latitudeCell, long longitudeCell, int maximumWalkDuration) {
+    }
+
+}
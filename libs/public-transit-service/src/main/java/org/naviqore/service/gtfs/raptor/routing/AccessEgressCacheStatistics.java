@@ -0,0 +1,21 @@
+package org.naviqore.service.gtfs.raptor.routing;
+
+/**
+ * Snapshot of the hit and miss counters of the access and egress stop cache of a {@link RoutingQueryFacade}.
+ *
+ * @param hits     the number of coordinates whose stops were taken from the cache.
+ * @param misses   the number of coordinates whose stops had to be searched and walked to.
+ * @param entries  the current number of cached stop sets.
+ * @param capacity the maximum number of cached stop sets, 0 if the cache is disabled.
+ */
+public record AccessEgressCacheStatistics(long hits, long misses, int entries, int capacity) {
+
+    /**
+     * @return the share of coordinates whose stops were taken from the cache, 0 if no coordinate was looked up yet.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+}
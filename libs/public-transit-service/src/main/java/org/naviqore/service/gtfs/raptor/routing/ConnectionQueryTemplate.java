@@ -72,6 +72,7 @@ abstract class ConnectionQueryTemplate<S, T> {
         OffsetDateTime currentTime = time;
         OffsetDateTime windowLimit = computeWindowLimit();
 
+        // a cancelled query keeps the connections found so far
         do {
             List<Connection> results = executeRoutingAt(currentTime);
 
@@ -83,7 +84,7 @@ abstract class ConnectionQueryTemplate<S, T> {
             currentTime = advanceQueryTime(results);
             connections.addAll(results);
 
-        } while (isWithinTimeWindow(currentTime, windowLimit));
+        } while (isWithinTimeWindow(currentTime, windowLimit) && !queryConfig.getCancellationToken().shouldStop());
 
         return sortConnectionsBasedOnTimeType(connections);
     }
@@ -14,6 +14,7 @@ import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -79,13 +80,8 @@ abstract class IsolineQueryTemplate<T> {
         // convert to service connections and collect results in a list to avoid intermediate hashing overhead
         List<Map.Entry<Stop, Connection>> results = new ArrayList<>(isolines.size());
         for (Map.Entry<String, org.naviqore.raptor.Connection> entry : isolines.entrySet()) {
-            org.naviqore.raptor.Connection raptorConnection = entry.getValue();
             Stop stop = utils.getStopById(entry.getKey());
-
-            Connection serviceConnection = switch (timeType) {
-                case ARRIVAL -> postprocessArrivalConnection(source, raptorConnection);
-                case DEPARTURE -> postprocessDepartureConnection(source, raptorConnection);
-            };
+            Connection serviceConnection = postprocessConnection(entry.getValue());
 
             if (utils.isBelowMaximumTravelTime(serviceConnection, queryConfig)) {
                 results.add(Map.entry(stop, serviceConnection));
@@ -111,6 +107,49 @@ abstract class IsolineQueryTemplate<T> {
         return sortedResult;
     }
 
+    /**
+     * Streams the isolines to the consumer. Without a time window, the connection to each stop is passed as soon as the
+     * routing has settled the stop, which is before the routing has finished. With a time window, the shortest durations
+     * are only known after all iterations, therefore the sorted isolines are passed at the end.
+     *
+     * @param consumer receives each reachable stop and the connection to it, exactly once per stop
+     */
+    void stream(BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        if (queryConfig.getTimeWindowDuration() > 0) {
+            run().forEach(consumer);
+            return;
+        }
+
+        Map<String, OffsetDateTime> sourceStops = prepareSourceStops(source);
+
+        // no source stop is within walkable distance, and therefore no isolines are available
+        if (sourceStops.isEmpty()) {
+            return;
+        }
+
+        try {
+            utils.routeIsolines(sourceStops, timeType, queryConfig, allowSourceTransfers,
+                    (stopId, raptorConnection) -> {
+                        Connection serviceConnection = postprocessConnection(raptorConnection);
+                        if (utils.isBelowMaximumTravelTime(serviceConnection, queryConfig)) {
+                            consumer.accept(utils.getStopById(stopId), serviceConnection);
+                        }
+                    });
+        } catch (RaptorAlgorithm.InvalidStopException e) {
+            log.debug("{}: {}", e.getClass().getSimpleName(), e.getMessage());
+            handleInvalidStopException(e, source).forEach(consumer);
+        } catch (IllegalArgumentException e) {
+            throw new ConnectionRoutingException(e);
+        }
+    }
+
+    private Connection postprocessConnection(org.naviqore.raptor.Connection raptorConnection) {
+        return switch (timeType) {
+            case ARRIVAL -> postprocessArrivalConnection(source, raptorConnection);
+            case DEPARTURE -> postprocessDepartureConnection(source, raptorConnection);
+        };
+    }
+
     /**
      * Executes a single earliest-arrival (or latest-departure) isoline routing query.
      * <p>
@@ -229,6 +268,12 @@ abstract class IsolineQueryTemplate<T> {
         }
 
         while (currentTimeIsRelevant(currentTime, endTime)) {
+            // keep the isolines found so far if the query was cancelled
+            if (queryConfig.getCancellationToken().shouldStop()) {
+                log.debug("Isoline query cancelled at {}", currentTime);
+                break;
+            }
+
             Map<String, org.naviqore.raptor.Connection> results = runForEarliestArrivalTime(currentSourceStops);
             updateShortestTravelTimeIsolines(globalBest, results, costs, windowLimit);
 
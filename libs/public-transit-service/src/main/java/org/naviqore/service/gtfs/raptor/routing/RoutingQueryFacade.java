@@ -15,6 +15,7 @@ import org.naviqore.utils.spatial.index.KDTree;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * Facade to simplify the execution of different routing queries for connections (stop-to-stop, geo-to-geo, stop-to-geo
@@ -31,6 +32,14 @@ public class RoutingQueryFacade {
         this.utils = new RoutingQueryUtils(config, schedule, spatialStopIndex, walkCalculator, raptor);
     }
 
+    /**
+     * Gets the hit and miss counters of the access and egress stop cache (see
+     * {@link ServiceConfig#getCacheAccessEgressSize()}).
+     */
+    public AccessEgressCacheStatistics getAccessEgressCacheStatistics() {
+        return utils.getAccessEgressCacheStatistics();
+    }
+
     public List<Connection> queryConnections(OffsetDateTime time, TimeType timeType, ConnectionQueryConfig queryConfig,
                                              Stop source, Stop target) throws ConnectionRoutingException {
         return new ConnectionStopToStop(time, timeType, queryConfig, utils, source, target).run();
@@ -63,4 +72,15 @@ public class RoutingQueryFacade {
                                                GeoCoordinate source) throws ConnectionRoutingException {
         return new IsolineGeoSource(time, timeType, queryConfig, utils, source).run();
     }
+
+    public void streamIsolines(OffsetDateTime time, TimeType timeType, ConnectionQueryConfig queryConfig, Stop source,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        new IsolineStopSource(time, timeType, queryConfig, utils, source).stream(consumer);
+    }
+
+    public void streamIsolines(OffsetDateTime time, TimeType timeType, ConnectionQueryConfig queryConfig,
+                               GeoCoordinate source,
+                               BiConsumer<Stop, Connection> consumer) throws ConnectionRoutingException {
+        new IsolineGeoSource(time, timeType, queryConfig, utils, source).stream(consumer);
+    }
 }
@@ -1,6 +1,5 @@
 package org.naviqore.service.gtfs.raptor.routing;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
@@ -20,6 +19,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +29,6 @@ import java.util.stream.Collectors;
  * constructor. This class should be instantiated once per service configuration.
  */
 @Slf4j
-@RequiredArgsConstructor
 class RoutingQueryUtils {
 
     private final ServiceConfig serviceConfig;
@@ -37,6 +36,19 @@ class RoutingQueryUtils {
     private final KDTree<org.naviqore.gtfs.schedule.model.Stop> spatialStopIndex;
     private final WalkCalculator walkCalculator;
     private final RaptorAlgorithm raptor;
+    private final @Nullable AccessEgressCache accessEgressCache;
+
+    RoutingQueryUtils(ServiceConfig serviceConfig, GtfsSchedule schedule,
+                      KDTree<org.naviqore.gtfs.schedule.model.Stop> spatialStopIndex, WalkCalculator walkCalculator,
+                      RaptorAlgorithm raptor) {
+        this.serviceConfig = serviceConfig;
+        this.schedule = schedule;
+        this.spatialStopIndex = spatialStopIndex;
+        this.walkCalculator = walkCalculator;
+        this.raptor = raptor;
+        this.accessEgressCache = serviceConfig.getCacheAccessEgressSize() > 0 ? new AccessEgressCache(
+                serviceConfig.getCacheAccessEgressSize()) : null;
+    }
 
     private static QueryConfig prepareRaptorQueryConfig(ConnectionQueryConfig queryConfig, boolean allowSourceTransfer,
                                                         boolean allowTargetTransfer) {
@@ -68,6 +80,13 @@ class RoutingQueryUtils {
                 prepareRaptorQueryConfig(queryConfig, allowSourceTransfer, true));
     }
 
+    void routeIsolines(Map<String, OffsetDateTime> sourceStops, TimeType timeType, ConnectionQueryConfig queryConfig,
+                       boolean allowSourceTransfer, BiConsumer<String, org.naviqore.raptor.Connection> consumer) {
+        // allow target transfers does not work for isolines since no targets are defined
+        raptor.routeIsolines(sourceStops, TypeMapper.mapToRaptor(timeType),
+                prepareRaptorQueryConfig(queryConfig, allowSourceTransfer, true), consumer);
+    }
+
     Map<String, OffsetDateTime> getStopsWithWalkTimeFromLocation(GeoCoordinate location, OffsetDateTime startTime,
                                                                  TimeType timeType, ConnectionQueryConfig queryConfig) {
         Map<String, Integer> stopsWithWalkTime = getStopsWithWalkTimeFromLocation(location, queryConfig);
@@ -79,6 +98,24 @@ class RoutingQueryUtils {
     }
 
     Map<String, Integer> getStopsWithWalkTimeFromLocation(GeoCoordinate location, ConnectionQueryConfig queryConfig) {
+        int maximumWalkDuration = queryConfig.getMaximumWalkDuration();
+        if (accessEgressCache == null) {
+            return searchStopsWithWalkTime(location, maximumWalkDuration);
+        }
+
+        return accessEgressCache.computeIfAbsent(location, maximumWalkDuration,
+                center -> searchStopsWithWalkTime(center, maximumWalkDuration));
+    }
+
+    AccessEgressCacheStatistics getAccessEgressCacheStatistics() {
+        if (accessEgressCache == null) {
+            return new AccessEgressCacheStatistics(0, 0, 0, 0);
+        }
+
+        return accessEgressCache.getStatistics();
+    }
+
+    private Map<String, Integer> searchStopsWithWalkTime(GeoCoordinate location, int maximumWalkDuration) {
         List<org.naviqore.gtfs.schedule.model.Stop> nearestStops = new ArrayList<>(
                 spatialStopIndex.rangeSearch(location, serviceConfig.getWalkSearchRadius()));
 
@@ -86,12 +123,19 @@ class RoutingQueryUtils {
             nearestStops.add(spatialStopIndex.nearestNeighbor(location));
         }
 
+        GeoCoordinate[] targets = new GeoCoordinate[nearestStops.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = nearestStops.get(i).getCoordinate();
+        }
+        WalkCalculator.Walk[] walks = walkCalculator.calculateWalks(location, targets);
+
         Map<String, Integer> stopsWithWalkTime = new HashMap<>();
-        for (org.naviqore.gtfs.schedule.model.Stop stop : nearestStops) {
-            int walkDuration = walkCalculator.calculateWalk(location, stop.getCoordinate()).duration();
-            if (walkDuration <= queryConfig.getMaximumWalkDuration()) {
+        for (int i = 0; i < walks.length; i++) {
+            int walkDuration = walks[i].duration();
+            if (walkDuration <= maximumWalkDuration) {
                 // add access and egress time to the walk duration to account for the time between location and vehicle at stop
-                stopsWithWalkTime.put(stop.getId(), walkDuration + serviceConfig.getTransferDurationAccessEgress());
+                stopsWithWalkTime.put(nearestStops.get(i).getId(),
+                        walkDuration + serviceConfig.getTransferDurationAccessEgress());
             }
         }
 
@@ -1,5 +1,6 @@
 package org.naviqore.service.repo;
 
+import org.naviqore.gtfs.schedule.ServiceDateWindow;
 import org.naviqore.gtfs.schedule.model.GtfsSchedule;
 
 import java.io.IOException;
@@ -17,4 +18,18 @@ public interface GtfsScheduleRepository {
      */
     GtfsSchedule get() throws IOException, InterruptedException;
 
+    /**
+     * Retrieves the GTFS schedule data restricted to the service dates of the window. Calendars not active in the
+     * window are dropped together with their trips and stop times.
+     * <p>
+     * The default implementation retrieves the complete schedule, implementations that read the GTFS files should pass
+     * the window to the reader.
+     *
+     * @param serviceDateWindow the service dates to retain.
+     * @return a GtfsSchedule object containing the schedule data of the window.
+     */
+    default GtfsSchedule get(ServiceDateWindow serviceDateWindow) throws IOException, InterruptedException {
+        return get();
+    }
+
 }
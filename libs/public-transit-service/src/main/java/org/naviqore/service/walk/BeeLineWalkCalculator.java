@@ -5,6 +5,12 @@ import org.naviqore.utils.spatial.GeoCoordinate;
 /**
  * Approximates the walk duration between two points using a beeline distance factor to adjust the straight-line
  * distance.
+ * <p>
+ * The straight-line distance is the haversine distance as in {@link GeoCoordinate}, with the radians and the cosine of
+ * the latitude of the starting point computed once per batch of targets. For points less than
+ * {@value #EQUIRECTANGULAR_MAX_DEGREES} degrees apart, which covers all walking distances, the equirectangular
+ * approximation is used instead: it is the limit of the haversine formula for short distances and differs by less than
+ * a centimeter there, but needs no sine or arc sine.
  */
 public class BeeLineWalkCalculator implements WalkCalculator {
 
@@ -22,6 +28,9 @@ public class BeeLineWalkCalculator implements WalkCalculator {
      */
     public static final double BEELINE_DISTANCE_FACTOR = 1.3;
 
+    private static final double EARTH_RADIUS = 6371000;
+    private static final double EQUIRECTANGULAR_MAX_DEGREES = 0.1;
+
     private final double walkSpeed;
 
     /**
@@ -42,7 +51,51 @@ public class BeeLineWalkCalculator implements WalkCalculator {
             throw new IllegalArgumentException("The from and to coordinates cannot be null.");
         }
 
-        double beelineDistance = from.distanceTo(to);
+        double fromLatitude = Math.toRadians(from.latitude());
+        return createWalk(distance(from, fromLatitude, Math.cos(fromLatitude), to));
+    }
+
+    @Override
+    public Walk[] calculateWalks(GeoCoordinate from, GeoCoordinate[] targets) {
+        if (from == null || targets == null) {
+            throw new IllegalArgumentException("The from coordinate and the targets cannot be null.");
+        }
+
+        double fromLatitude = Math.toRadians(from.latitude());
+        double cosFromLatitude = Math.cos(fromLatitude);
+        Walk[] walks = new Walk[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null) {
+                throw new IllegalArgumentException("The target coordinates cannot be null.");
+            }
+            walks[i] = createWalk(distance(from, fromLatitude, cosFromLatitude, targets[i]));
+        }
+
+        return walks;
+    }
+
+    /**
+     * Calculates the beeline distance in meters, from the starting point with its latitude in radians and the cosine of
+     * it.
+     */
+    private static double distance(GeoCoordinate from, double fromLatitude, double cosFromLatitude, GeoCoordinate to) {
+        double toLatitude = Math.toRadians(to.latitude());
+        double dLat = toLatitude - fromLatitude;
+        double dLon = Math.toRadians(to.longitude() - from.longitude());
+        double cosLatitudes = cosFromLatitude * Math.cos(toLatitude);
+
+        if (Math.abs(to.latitude() - from.latitude()) < EQUIRECTANGULAR_MAX_DEGREES && Math.abs(
+                to.longitude() - from.longitude()) < EQUIRECTANGULAR_MAX_DEGREES) {
+            return EARTH_RADIUS * Math.sqrt(dLat * dLat + cosLatitudes * dLon * dLon);
+        }
+
+        double sinHalfLat = Math.sin(dLat / 2);
+        double sinHalfLon = Math.sin(dLon / 2);
+        double a = sinHalfLat * sinHalfLat + sinHalfLon * sinHalfLon * cosLatitudes;
+        return EARTH_RADIUS * 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private Walk createWalk(double beelineDistance) {
         double adjustedDistance = beelineDistance * BEELINE_DISTANCE_FACTOR;
         int duration = (int) Math.round(adjustedDistance / walkSpeed);
 
@@ -0,0 +1,169 @@
+package org.naviqore.service.walk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.utils.io.BinaryFiles;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed walking distances between the nodes of the stops in a {@link PedestrianNetwork}.
+ * <p>
+ * The table is computed with one bounded Dijkstra search per stop node, which run in parallel and keep only the
+ * distances to other stop nodes. Since this takes a while for large networks, the table is persisted as a binary file.
+ * The file is keyed by a SHA-256 hash of the network, the stop nodes and the maximum distance, so a file of another
+ * network or schedule is recomputed and replaced. Files that cannot be read or written are recomputed, the table is
+ * complete without its file.
+ */
+@Slf4j
+final class FootpathTable {
+
+    /**
+     * Version of the file format, must be increased whenever the written data changes.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x4E51_4650;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String key;
+    private final int[] stopNodes;
+    private final BitSet stopNodeSet;
+    private final PedestrianNetwork.Distances[] rows;
+
+    private FootpathTable(String key, int[] stopNodes, PedestrianNetwork.Distances[] rows) {
+        this.key = key;
+        this.stopNodes = stopNodes;
+        this.stopNodeSet = new BitSet();
+        for (int stopNode : stopNodes) {
+            stopNodeSet.set(stopNode);
+        }
+        this.rows = rows;
+    }
+
+    /**
+     * Reads the table from its file, or computes the table and writes its file.
+     *
+     * @param network     the pedestrian network.
+     * @param stopNodes   the nodes of the stops, in ascending order without duplicates.
+     * @param maxDistance the maximum walking distance in meters.
+     * @param file        the file of the table, or {@code null} to not persist the table.
+     * @return the table of the stop nodes.
+     */
+    static FootpathTable load(PedestrianNetwork network, int[] stopNodes, double maxDistance, @Nullable Path file) {
+        String key = getKey(network, stopNodes, maxDistance);
+        if (file != null && Files.isRegularFile(file)) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                FootpathTable table = read(inputStream);
+                if (table.key.equals(key)) {
+                    log.info("Read footpath table of {} stop nodes from {}", stopNodes.length, file);
+                    return table;
+                }
+                log.info("Recomputing footpath table {} of another network or schedule", file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Recomputing unreadable footpath table {}: {}", file, e.getMessage());
+            }
+        }
+
+        FootpathTable table = compute(network, stopNodes, maxDistance, key);
+        if (file != null) {
+            try {
+                table.write(file);
+            } catch (IOException e) {
+                log.warn("Could not write footpath table {}: {}", file, e.getMessage());
+            }
+        }
+
+        return table;
+    }
+
+    private static FootpathTable compute(PedestrianNetwork network, int[] stopNodes, double maxDistance, String key) {
+        log.info("Computing footpaths between {} stop nodes within {} m", stopNodes.length, maxDistance);
+        long startTime = System.nanoTime();
+        BitSet targets = new BitSet(network.size());
+        for (int stopNode : stopNodes) {
+            targets.set(stopNode);
+        }
+
+        // the searches are independent, each thread reuses the state of its searches
+        PedestrianNetwork.Distances[] rows = IntStream.range(0, stopNodes.length)
+                .parallel()
+                .mapToObj(i -> network.getDistances(stopNodes[i], maxDistance, targets))
+                .toArray(PedestrianNetwork.Distances[]::new);
+
+        log.info("Computed {} footpaths in {} ms", Arrays.stream(rows).mapToLong(row -> row.nodes().length).sum(),
+                (System.nanoTime() - startTime) / 1_000_000);
+        return new FootpathTable(key, stopNodes, rows);
+    }
+
+    private static String getKey(PedestrianNetwork network, int[] stopNodes, double maxDistance) {
+        return BinaryFiles.sha256(out -> {
+            out.writeInt(FORMAT_VERSION);
+            network.write(out);
+            out.writeInt(stopNodes.length);
+            for (int stopNode : stopNodes) {
+                out.writeInt(stopNode);
+            }
+            out.writeDouble(maxDistance);
+        });
+    }
+
+    private static FootpathTable read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+        BinaryFiles.readHeader(in, MAGIC, FORMAT_VERSION, "footpath table");
+
+        String key = in.readUTF();
+        int[] stopNodes = new int[in.readInt()];
+        PedestrianNetwork.Distances[] rows = new PedestrianNetwork.Distances[stopNodes.length];
+        for (int i = 0; i < stopNodes.length; i++) {
+            stopNodes[i] = in.readInt();
+            int[] nodes = new int[in.readInt()];
+            float[] distances = new float[nodes.length];
+            for (int j = 0; j < nodes.length; j++) {
+                nodes[j] = in.readInt();
+                distances[j] = in.readFloat();
+            }
+            rows[i] = new PedestrianNetwork.Distances(nodes, distances);
+        }
+
+        return new FootpathTable(key, stopNodes, rows);
+    }
+
+    private void write(Path file) throws IOException {
+        BinaryFiles.writeAtomically(file, out -> {
+            BinaryFiles.writeHeader(out, MAGIC, FORMAT_VERSION);
+            out.writeUTF(key);
+            out.writeInt(stopNodes.length);
+            for (int i = 0; i < stopNodes.length; i++) {
+                out.writeInt(stopNodes[i]);
+                out.writeInt(rows[i].nodes().length);
+                for (int j = 0; j < rows[i].nodes().length; j++) {
+                    out.writeInt(rows[i].nodes()[j]);
+                    out.writeFloat(rows[i].distances()[j]);
+                }
+            }
+        });
+        log.info("Wrote footpath table: {} ({} bytes)", file, Files.size(file));
+    }
+
+    /**
+     * Checks if the node is the node of a stop, then the table has its distances to all other stop nodes.
+     */
+    boolean isStopNode(int node) {
+        return stopNodeSet.get(node);
+    }
+
+    /**
+     * Gets the distances from a stop node to the other stop nodes, or {@code null} if the node is not a stop node.
+     */
+    PedestrianNetwork.@Nullable Distances get(int node) {
+        int index = Arrays.binarySearch(stopNodes, node);
+        return index < 0 ? null : rows[index];
+    }
+
+}
@@ -0,0 +1,338 @@
+package org.naviqore.service.walk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.utils.spatial.GeoCoordinate;
+import org.naviqore.utils.spatial.Location;
+import org.naviqore.utils.spatial.index.KDTree;
+import org.naviqore.utils.spatial.index.KDTreeBuilder;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Street network for pedestrians, read from a CSV file of walkable edges, for example extracted from OpenStreetMap.
+ * <p>
+ * Each record of the file is an edge between two nodes, with the columns {@code source}, {@code target},
+ * {@code source_lat}, {@code source_lon}, {@code target_lat}, {@code target_lon} and the optional {@code length} in
+ * meters. Other columns are ignored. The node ids can be any string, e.g. OSM node ids. Edges without a length get the
+ * beeline distance between their nodes. All edges are walkable in both directions.
+ * <p>
+ * The nodes are numbered in the order of their first appearance. Their edges are stored as adjacency arrays: the edges
+ * of a node are a range of the neighbor and length arrays, which start at the offset of the node.
+ */
+@Slf4j
+public final class PedestrianNetwork {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setIgnoreHeaderCase(true)
+            .setTrim(true)
+            .get();
+    private static final String SOURCE = "source";
+    private static final String TARGET = "target";
+    private static final String SOURCE_LATITUDE = "source_lat";
+    private static final String SOURCE_LONGITUDE = "source_lon";
+    private static final String TARGET_LATITUDE = "target_lat";
+    private static final String TARGET_LONGITUDE = "target_lon";
+    private static final String LENGTH = "length";
+    private static final List<String> REQUIRED_COLUMNS = List.of(SOURCE, TARGET, SOURCE_LATITUDE, SOURCE_LONGITUDE,
+            TARGET_LATITUDE, TARGET_LONGITUDE);
+
+    private final GeoCoordinate[] coordinates;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final float[] lengths;
+    private final KDTree<Node> spatialNodeIndex;
+    private final ThreadLocal<Search> searches;
+
+    PedestrianNetwork(GeoCoordinate[] coordinates, int[] sources, int[] targets, float[] edgeLengths) {
+        this.coordinates = coordinates;
+
+        // count the edges per node in both directions, then fill the adjacency arrays
+        offsets = new int[coordinates.length + 1];
+        for (int edge = 0; edge < sources.length; edge++) {
+            offsets[sources[edge] + 1]++;
+            offsets[targets[edge] + 1]++;
+        }
+        for (int node = 0; node < coordinates.length; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        neighbors = new int[offsets[coordinates.length]];
+        lengths = new float[neighbors.length];
+        int[] next = Arrays.copyOf(offsets, coordinates.length);
+        for (int edge = 0; edge < sources.length; edge++) {
+            int forward = next[sources[edge]]++;
+            neighbors[forward] = targets[edge];
+            lengths[forward] = edgeLengths[edge];
+            int backward = next[targets[edge]]++;
+            neighbors[backward] = sources[edge];
+            lengths[backward] = edgeLengths[edge];
+        }
+
+        List<Node> nodes = new ArrayList<>(coordinates.length);
+        for (int node = 0; node < coordinates.length; node++) {
+            nodes.add(new Node(node, coordinates[node]));
+        }
+        spatialNodeIndex = new KDTreeBuilder<Node>().addLocations(nodes).build();
+        searches = ThreadLocal.withInitial(() -> new Search(coordinates.length));
+    }
+
+    /**
+     * Reads the network from a CSV file of edges.
+     *
+     * @param file the CSV file.
+     * @return the network of the edges.
+     * @throws IOException if the file cannot be read, misses a required column or has no edges.
+     */
+    public static PedestrianNetwork read(Path file) throws IOException {
+        log.info("Reading pedestrian network from {}", file);
+        Map<String, Integer> nodeIds = new HashMap<>();
+        List<GeoCoordinate> coordinates = new ArrayList<>();
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        float[] lengths = new float[1024];
+        int numberOfEdges = 0;
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CSVParser csvParser = CSV_FORMAT.parse(reader)) {
+            for (String column : REQUIRED_COLUMNS) {
+                if (!csvParser.getHeaderMap().containsKey(column)) {
+                    throw new IOException("Pedestrian network file " + file + " is missing the column: " + column);
+                }
+            }
+            boolean hasLength = csvParser.getHeaderMap().containsKey(LENGTH);
+
+            for (CSVRecord record : csvParser) {
+                int source = getNode(record, SOURCE, SOURCE_LATITUDE, SOURCE_LONGITUDE, nodeIds, coordinates);
+                int target = getNode(record, TARGET, TARGET_LATITUDE, TARGET_LONGITUDE, nodeIds, coordinates);
+                if (source == target) {
+                    continue;
+                }
+
+                String length = hasLength ? record.get(LENGTH) : "";
+                if (numberOfEdges == sources.length) {
+                    sources = Arrays.copyOf(sources, 2 * numberOfEdges);
+                    targets = Arrays.copyOf(targets, 2 * numberOfEdges);
+                    lengths = Arrays.copyOf(lengths, 2 * numberOfEdges);
+                }
+                sources[numberOfEdges] = source;
+                targets[numberOfEdges] = target;
+                lengths[numberOfEdges] = length.isEmpty() ? (float) coordinates.get(source)
+                        .distanceTo(coordinates.get(target)) : Float.parseFloat(length);
+                // the search needs non-negative lengths
+                if (!(lengths[numberOfEdges++] >= 0)) {
+                    throw new IOException("Pedestrian network file " + file + " has an invalid length: " + length);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid pedestrian network file " + file + ": " + e.getMessage(), e);
+        }
+
+        if (numberOfEdges == 0) {
+            throw new IOException("Pedestrian network file " + file + " has no edges");
+        }
+
+        log.info("Read pedestrian network with {} nodes and {} edges", coordinates.size(), numberOfEdges);
+        return new PedestrianNetwork(coordinates.toArray(GeoCoordinate[]::new), Arrays.copyOf(sources, numberOfEdges),
+                Arrays.copyOf(targets, numberOfEdges), Arrays.copyOf(lengths, numberOfEdges));
+    }
+
+    private static int getNode(CSVRecord record, String idColumn, String latitudeColumn, String longitudeColumn,
+                               Map<String, Integer> nodeIds, List<GeoCoordinate> coordinates) {
+        return nodeIds.computeIfAbsent(record.get(idColumn), _ -> {
+            coordinates.add(new GeoCoordinate(Double.parseDouble(record.get(latitudeColumn)),
+                    Double.parseDouble(record.get(longitudeColumn))));
+            return coordinates.size() - 1;
+        });
+    }
+
+    /**
+     * Gets the number of nodes.
+     */
+    public int size() {
+        return coordinates.length;
+    }
+
+    GeoCoordinate getCoordinate(int node) {
+        return coordinates[node];
+    }
+
+    /**
+     * Writes the nodes and edges, to identify data derived from the network.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(coordinates.length);
+        for (GeoCoordinate coordinate : coordinates) {
+            out.writeDouble(coordinate.latitude());
+            out.writeDouble(coordinate.longitude());
+        }
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        for (int edge = 0; edge < neighbors.length; edge++) {
+            out.writeInt(neighbors[edge]);
+            out.writeFloat(lengths[edge]);
+        }
+    }
+
+    /**
+     * Gets the node closest to a coordinate.
+     */
+    int getNearestNode(GeoCoordinate coordinate) {
+        return spatialNodeIndex.nearestNeighbor(coordinate).index();
+    }
+
+    /**
+     * Computes the walking distances from a node to all nodes within the maximum distance, with a Dijkstra search that
+     * stops at the maximum distance.
+     *
+     * @param source      the node to start from.
+     * @param maxDistance the maximum distance in meters.
+     * @param targets     the nodes to keep the distances of, or {@code null} to keep all nodes.
+     * @return the distances of the reached nodes.
+     */
+    Distances getDistances(int source, double maxDistance, @Nullable BitSet targets) {
+        return searches.get().run(source, (float) maxDistance, targets);
+    }
+
+    /**
+     * Walking distances from a node, to the reached nodes in ascending order.
+     */
+    record Distances(int[] nodes, float[] distances) {
+
+        /**
+         * Gets the distance to a node, or {@link Float#POSITIVE_INFINITY} if it was not reached.
+         */
+        float get(int node) {
+            int index = Arrays.binarySearch(nodes, node);
+            return index < 0 ? Float.POSITIVE_INFINITY : distances[index];
+        }
+    }
+
+    private record Node(int index, GeoCoordinate coordinate) implements Location<GeoCoordinate> {
+
+        @Override
+        public GeoCoordinate getCoordinate() {
+            return coordinate;
+        }
+    }
+
+    /**
+     * State of a Dijkstra search, reused by the searches of a thread. The queue entries pack the distance of a node,
+     * whose bits sort like the non-negative floats, above the node, so the queue is a heap of longs. Entries of nodes
+     * reached again on a shorter path stay in the queue and are skipped.
+     */
+    private final class Search {
+
+        private final float[] distances;
+        private int[] reached = new int[16];
+        private int numberOfReached;
+        private long[] queue = new long[16];
+        private int queueSize;
+
+        private Search(int numberOfNodes) {
+            distances = new float[numberOfNodes];
+            Arrays.fill(distances, Float.POSITIVE_INFINITY);
+        }
+
+        private Distances run(int source, float maxDistance, @Nullable BitSet targets) {
+            reach(source, 0);
+            while (queueSize > 0) {
+                long entry = poll();
+                int node = (int) entry;
+                float distance = Float.intBitsToFloat((int) (entry >>> 32));
+                if (distance > distances[node]) {
+                    continue;
+                }
+
+                for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                    float neighborDistance = distance + lengths[edge];
+                    if (neighborDistance <= maxDistance && neighborDistance < distances[neighbors[edge]]) {
+                        reach(neighbors[edge], neighborDistance);
+                    }
+                }
+            }
+
+            // collect the distances of the reached nodes and reset them for the next search
+            Arrays.sort(reached, 0, numberOfReached);
+            int[] nodes = new int[numberOfReached];
+            float[] nodeDistances = new float[numberOfReached];
+            int size = 0;
+            for (int i = 0; i < numberOfReached; i++) {
+                int node = reached[i];
+                if (targets == null || targets.get(node)) {
+                    nodes[size] = node;
+                    nodeDistances[size++] = distances[node];
+                }
+                distances[node] = Float.POSITIVE_INFINITY;
+            }
+            numberOfReached = 0;
+
+            return new Distances(Arrays.copyOf(nodes, size), Arrays.copyOf(nodeDistances, size));
+        }
+
+        private void reach(int node, float distance) {
+            if (distances[node] == Float.POSITIVE_INFINITY) {
+                if (numberOfReached == reached.length) {
+                    reached = Arrays.copyOf(reached, 2 * numberOfReached);
+                }
+                reached[numberOfReached++] = node;
+            }
+            distances[node] = distance;
+            offer((long) Float.floatToIntBits(distance) << 32 | node);
+        }
+
+        private void offer(long entry) {
+            if (queueSize == queue.length) {
+                queue = Arrays.copyOf(queue, 2 * queueSize);
+            }
+            int index = queueSize++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (queue[parent] <= entry) {
+                    break;
+                }
+                queue[index] = queue[parent];
+                index = parent;
+            }
+            queue[index] = entry;
+        }
+
+        private long poll() {
+            long first = queue[0];
+            long last = queue[--queueSize];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= queueSize) {
+                    break;
+                }
+                if (child + 1 < queueSize && queue[child + 1] < queue[child]) {
+                    child++;
+                }
+                if (queue[child] >= last) {
+                    break;
+                }
+                queue[index] = queue[child];
+                index = child;
+            }
+            queue[index] = last;
+            return first;
+        }
+    }
+
+}
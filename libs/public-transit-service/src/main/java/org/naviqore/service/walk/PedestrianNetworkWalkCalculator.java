@@ -0,0 +1,130 @@
+package org.naviqore.service.walk;
+
+import org.jspecify.annotations.Nullable;
+import org.naviqore.utils.cache.EvictionCache;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Calculates walks on the paths of a {@link PedestrianNetwork} instead of the beeline.
+ * <p>
+ * Both points of a walk are snapped to their nearest node of the network. The walk is the beeline from the starting
+ * point to its node, the shortest path in the network and the beeline from the node of the target to the target. The
+ * distances between the nodes of the stops can be precomputed into a {@link FootpathTable}, see
+ * {@link #precompute(Collection, Path)}. Walks from other nodes, e.g. of addresses on the first and last mile, run a
+ * Dijkstra search bounded by the maximum distance, whose distances are cached per node.
+ * <p>
+ * Points farther than {@value #MAX_SNAP_DISTANCE} meters from the network and points not connected within the maximum
+ * distance fall back to the {@link BeeLineWalkCalculator}, since the network may be incomplete, e.g. lack the paths
+ * through buildings or on platforms.
+ */
+public class PedestrianNetworkWalkCalculator implements WalkCalculator {
+
+    /**
+     * Factor of the search radius up to which walking distances are searched in the network. Walks are only calculated
+     * between points within the beeline search radius, the factor allows detours, e.g. to a bridge.
+     */
+    public static final double MAX_DETOUR_FACTOR = 2;
+
+    private static final double MAX_SNAP_DISTANCE = 200;
+    private static final int CACHE_SIZE = 1024;
+
+    private final PedestrianNetwork network;
+    private final double walkSpeed;
+    private final double maxDistance;
+    private final BeeLineWalkCalculator beeLineWalkCalculator;
+    private final EvictionCache<Integer, PedestrianNetwork.Distances> cache;
+    private volatile @Nullable FootpathTable footpathTable;
+
+    /**
+     * Creates a new PedestrianNetworkWalkCalculator with the given network and walking speed.
+     *
+     * @param network      Pedestrian network to walk on.
+     * @param walkSpeed    Walking speed in meters per second (m/s).
+     * @param searchRadius Maximum beeline distance of walks in meters.
+     */
+    public PedestrianNetworkWalkCalculator(PedestrianNetwork network, double walkSpeed, int searchRadius) {
+        if (network == null) {
+            throw new IllegalArgumentException("Pedestrian network cannot be null.");
+        }
+        if (searchRadius < 0) {
+            throw new IllegalArgumentException("Search radius cannot be negative.");
+        }
+        this.beeLineWalkCalculator = new BeeLineWalkCalculator(walkSpeed);
+        this.network = network;
+        this.walkSpeed = walkSpeed;
+        this.maxDistance = searchRadius * MAX_DETOUR_FACTOR;
+        this.cache = new EvictionCache<>(CACHE_SIZE, EvictionCache.Strategy.LRU);
+    }
+
+    /**
+     * Precomputes the walking distances between the nodes of the stops, or reads them from the file of a previous
+     * computation with the same network and stops.
+     *
+     * @param stops     Coordinates of the stops.
+     * @param tableFile File to persist the distances in, or {@code null} to not persist them.
+     */
+    public void precompute(Collection<GeoCoordinate> stops, @Nullable Path tableFile) {
+        int[] stopNodes = stops.stream().mapToInt(network::getNearestNode).sorted().distinct().toArray();
+        footpathTable = FootpathTable.load(network, stopNodes, maxDistance, tableFile);
+    }
+
+    @Override
+    public Walk calculateWalk(GeoCoordinate from, GeoCoordinate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("The from and to coordinates cannot be null.");
+        }
+
+        return calculateWalks(from, new GeoCoordinate[]{to})[0];
+    }
+
+    @Override
+    public Walk[] calculateWalks(GeoCoordinate from, GeoCoordinate[] targets) {
+        if (from == null || targets == null) {
+            throw new IllegalArgumentException("The from coordinate and the targets cannot be null.");
+        }
+
+        int fromNode = network.getNearestNode(from);
+        double fromSnapDistance = from.distanceTo(network.getCoordinate(fromNode));
+        FootpathTable table = footpathTable;
+        PedestrianNetwork.Distances stopDistances = table == null ? null : table.get(fromNode);
+        PedestrianNetwork.Distances distances = null;
+
+        Walk[] walks = new Walk[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null) {
+                throw new IllegalArgumentException("The target coordinates cannot be null.");
+            }
+            int toNode = network.getNearestNode(targets[i]);
+            double toSnapDistance = targets[i].distanceTo(network.getCoordinate(toNode));
+            if (fromSnapDistance > MAX_SNAP_DISTANCE || toSnapDistance > MAX_SNAP_DISTANCE) {
+                walks[i] = beeLineWalkCalculator.calculateWalk(from, targets[i]);
+                continue;
+            }
+
+            // the precomputed distances only reach the other stop nodes
+            float networkDistance;
+            if (stopDistances != null && table.isStopNode(toNode)) {
+                networkDistance = stopDistances.get(toNode);
+            } else {
+                if (distances == null) {
+                    distances = cache.computeIfAbsent(fromNode,
+                            () -> network.getDistances(fromNode, maxDistance, null));
+                }
+                networkDistance = distances.get(toNode);
+            }
+
+            if (Float.isInfinite(networkDistance)) {
+                walks[i] = beeLineWalkCalculator.calculateWalk(from, targets[i]);
+            } else {
+                double distance = fromSnapDistance + networkDistance + toSnapDistance;
+                walks[i] = new Walk((int) Math.round(distance / walkSpeed), (int) Math.round(distance));
+            }
+        }
+
+        return walks;
+    }
+
+}
@@ -16,6 +16,23 @@ public interface WalkCalculator {
      */
     Walk calculateWalk(GeoCoordinate from, GeoCoordinate to);
 
+    /**
+     * Calculates the walk durations from one point to several targets. Implementations can override this to share the
+     * work depending only on the starting point.
+     *
+     * @param from    Starting point.
+     * @param targets Target points.
+     * @return Walk objects in the order of the targets.
+     */
+    default Walk[] calculateWalks(GeoCoordinate from, GeoCoordinate[] targets) {
+        Walk[] walks = new Walk[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            walks[i] = calculateWalk(from, targets[i]);
+        }
+
+        return walks;
+    }
+
     /**
      * Represents a walk between two points. Is only intended to be used in the {@link WalkCalculator}.
      *
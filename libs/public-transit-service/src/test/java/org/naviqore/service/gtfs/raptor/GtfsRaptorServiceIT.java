@@ -11,6 +11,7 @@ import org.naviqore.service.config.ConnectionQueryConfig;
 import org.naviqore.service.config.ServiceConfig;
 import org.naviqore.service.exception.*;
 import org.naviqore.service.repo.GtfsScheduleRepository;
+import org.naviqore.utils.concurrent.CancellationToken;
 import org.naviqore.utils.spatial.GeoCoordinate;
 
 import java.io.File;
@@ -20,6 +21,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -132,6 +134,14 @@ class GtfsRaptorServiceIT {
                     assertEquals("Furnace Creek Resort (Demo)", stops.getFirst().getName());
                 }
 
+                @Test
+                void shouldFindStopByNameWithTypos() {
+                    List<Stop> stops = service.getStops("furnase crek", SearchType.FUZZY, StopSortStrategy.RELEVANCE,
+                            10);
+                    assertFalse(stops.isEmpty(), "Expected to find stops similar to the name.");
+                    assertEquals("Furnace Creek Resort (Demo)", stops.getFirst().getName());
+                }
+
                 @Test
                 void shouldNotFindNonExistingStopByName() {
                     List<Stop> stops = service.getStops("NonExistingStop", SearchType.CONTAINS,
@@ -154,6 +164,23 @@ class GtfsRaptorServiceIT {
                             "Stops should be sorted by relevance (starts with, then length).");
                 }
 
+                @Test
+                void shouldReturnFirstSortedStopsWithinLimit() {
+                    String query = "a";
+                    List<String> alphabetical = service.getStops(query, SearchType.CONTAINS,
+                            StopSortStrategy.ALPHABETICAL, 3).stream().map(Stop::getName).toList();
+                    List<String> relevance = service.getStops(query, SearchType.CONTAINS, StopSortStrategy.RELEVANCE,
+                            3).stream().map(Stop::getName).toList();
+
+                    assertEquals(List.of("Amargosa Valley (Demo)", "Doing Ave / D Ave N (Demo)",
+                            "E Main St / S Irving St (Demo)"), alphabetical);
+                    assertEquals(service.getStops(query, SearchType.CONTAINS, StopSortStrategy.RELEVANCE)
+                            .stream()
+                            .map(Stop::getName)
+                            .limit(3)
+                            .toList(), relevance);
+                }
+
                 @Test
                 void shouldPlaceExactMatchFirstWithRelevanceSort() {
                     String query = "Bullfrog (Demo)";
@@ -179,6 +206,8 @@ class GtfsRaptorServiceIT {
                             Integer.MAX_VALUE);
                     assertFalse(stops.isEmpty(), "Expected to find nearest stops.");
                     assertTrue(stops.size() > 1, "Expected to find more than one stop.");
+                    assertEquals("Furnace Creek Resort (Demo)", stops.getFirst().getName(),
+                            "The nearest stop should be the first result.");
                 }
             }
 
@@ -320,6 +349,63 @@ class GtfsRaptorServiceIT {
                                 "Expected no connections to be found when source stop has no active trip on the date.");
                     }
                 }
+
+                @Nested
+                class Batch {
+
+                    @Test
+                    void shouldGetConnectionsInInputOrder() throws ConnectionRoutingException, StopNotFoundException {
+                        Stop source = service.getStopById("FUR_CREEK_RES");
+                        GeoCoordinate sourceCoordinate = new GeoCoordinate(36.425288, -117.133162);
+                        GeoCoordinate targetCoordinate = new GeoCoordinate(36.88108, -116.81797);
+                        List<ConnectionQuery> queries = List.of(
+                                ConnectionQuery.of(source, targetCoordinate, at(2008, 5, 15, 8, 0), TimeType.DEPARTURE,
+                                        config),
+                                ConnectionQuery.of(sourceCoordinate, targetCoordinate, at(2023, 5, 15, 8, 0),
+                                        TimeType.DEPARTURE, config),
+                                ConnectionQuery.of(sourceCoordinate, targetCoordinate, at(2008, 5, 15, 8, 0),
+                                        TimeType.DEPARTURE, config),
+                                ConnectionQuery.of(source, targetCoordinate, at(2008, 5, 15, 9, 0), TimeType.DEPARTURE,
+                                        config));
+
+                        List<ConnectionBatchResult> results = service.getConnections(queries);
+
+                        assertEquals(queries.size(), results.size());
+                        for (int i = 0; i < queries.size(); i++) {
+                            List<Connection> expected = service.getConnections(queries.get(i));
+                            assertEquals(expected.size(), results.get(i).connections().size(),
+                                    "Batch result should match query " + i);
+                            assertFalse(results.get(i).partial());
+                            assertNull(results.get(i).error());
+                        }
+                        assertTrue(results.get(1).connections().isEmpty(),
+                                "Expected no connections on inactive date.");
+                    }
+
+                    @Test
+                    void shouldFlagQueriesOfCancelledBatchAsPartial() throws StopNotFoundException {
+                        CancellationToken token = CancellationToken.create();
+                        token.cancel();
+                        ConnectionQueryConfig cancelledConfig = config.toBuilder().cancellationToken(token).build();
+                        Stop source = service.getStopById("FUR_CREEK_RES");
+                        GeoCoordinate targetCoordinate = new GeoCoordinate(36.88108, -116.81797);
+                        List<ConnectionQuery> queries = List.of(
+                                ConnectionQuery.of(source, targetCoordinate, at(2008, 5, 15, 8, 0), TimeType.DEPARTURE,
+                                        cancelledConfig),
+                                ConnectionQuery.of(source, targetCoordinate, at(2008, 5, 15, 9, 0), TimeType.DEPARTURE,
+                                        cancelledConfig));
+
+                        List<ConnectionBatchResult> results = service.getConnections(queries);
+
+                        assertEquals(queries.size(), results.size());
+                        for (ConnectionBatchResult result : results) {
+                            assertTrue(result.partial(), "Expected queries of cancelled batch to be partial.");
+                            assertTrue(result.connections().isEmpty());
+                            assertNull(result.error());
+                        }
+                        assertTrue(token.hasPartialResults());
+                    }
+                }
             }
 
             @Nested
@@ -378,6 +464,21 @@ class GtfsRaptorServiceIT {
                         assertTrue(connections.isEmpty(),
                                 "Expected no isolines to be found when no active trips exist on the date.");
                     }
+
+                    @Test
+                    void shouldStreamSameIsolines() throws ConnectionRoutingException {
+                        Map<Stop, Connection> expected = service.getIsolines(source, at(2008, 5, 15, 8, 0),
+                                TimeType.DEPARTURE, config);
+
+                        Map<Stop, Connection> streamed = new HashMap<>();
+                        service.streamIsolines(source, at(2008, 5, 15, 8, 0), TimeType.DEPARTURE, config,
+                                (stop, connection) -> assertNull(streamed.put(stop, connection),
+                                        "Expected each stop to be streamed once."));
+
+                        assertEquals(expected.keySet(), streamed.keySet());
+                        expected.forEach((stop, connection) -> assertEquals(connection.getArrivalTime(),
+                                streamed.get(stop).getArrivalTime()));
+                    }
                 }
             }
         }
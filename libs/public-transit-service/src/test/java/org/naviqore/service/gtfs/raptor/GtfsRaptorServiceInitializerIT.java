@@ -7,21 +7,25 @@ import org.naviqore.gtfs.schedule.GtfsScheduleDataset;
 import org.naviqore.gtfs.schedule.GtfsScheduleReader;
 import org.naviqore.service.config.ServiceConfig;
 import org.naviqore.service.repo.GtfsScheduleRepository;
+import org.naviqore.utils.concurrent.TaskMetrics;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class GtfsRaptorServiceInitializerIT {
 
+    private GtfsScheduleRepository repo;
     private GtfsRaptorServiceInitializer initializer;
 
     @BeforeEach
     void setUp(@TempDir Path tempDir) throws IOException, InterruptedException {
         File zipFile = GtfsScheduleDataset.SAMPLE_FEED_1.getZip(tempDir);
-        GtfsScheduleRepository repo = () -> new GtfsScheduleReader().read(zipFile.toString());
+        repo = () -> new GtfsScheduleReader().read(zipFile.toString());
         ServiceConfig config = ServiceConfig.builder().gtfsScheduleRepository(repo).build();
         initializer = new GtfsRaptorServiceInitializer(config);
     }
@@ -36,4 +40,36 @@ class GtfsRaptorServiceInitializerIT {
         assertFalse(service.hasBikeInformation());
     }
 
+    @Test
+    void shouldMeasureInitializationTasks() {
+        List<String> tasks = initializer.getStartupMetrics().stream().map(TaskMetrics::name).toList();
+
+        assertEquals(List.of("schedule", "walk calculator", "stop search index", "spatial stop index",
+                "raptor router"), tasks);
+        assertEquals(initializer.getStartupMetrics(), initializer.get().getStartupMetrics());
+        for (TaskMetrics task : initializer.getStartupMetrics()) {
+            assertFalse(task.wallTime().isNegative());
+        }
+    }
+
+    @Test
+    void shouldInitializeServiceWithPedestrianNetwork(@TempDir Path tempDir) throws IOException, InterruptedException {
+        // a path from the resort stop, the other stops are far from the network and walk the beeline
+        Path networkFile = tempDir.resolve("network.csv");
+        Files.writeString(networkFile, """
+                source,target,source_lat,source_lon,target_lat,target_lon
+                1,2,36.425288,-117.133162,36.426,-117.134
+                """);
+        ServiceConfig config = ServiceConfig.builder()
+                .gtfsScheduleRepository(repo)
+                .walkCalculatorType(ServiceConfig.WalkCalculatorType.PEDESTRIAN_NETWORK)
+                .walkNetworkFile(networkFile.toString())
+                .build();
+
+        GtfsRaptorService service = new GtfsRaptorServiceInitializer(config).get();
+
+        assertNotNull(service);
+        assertTrue(Files.isRegularFile(tempDir.resolve("network.csv.footpaths")));
+    }
+
 }
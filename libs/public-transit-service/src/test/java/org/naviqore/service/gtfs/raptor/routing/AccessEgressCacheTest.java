@@ -0,0 +1,107 @@
+package org.naviqore.service.gtfs.raptor.routing;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessEgressCacheTest {
+
+    private static final GeoCoordinate LOCATION = new GeoCoordinate(47.376902, 8.541702);
+    private static final int MAXIMUM_WALK_DURATION = 600;
+
+    private final List<GeoCoordinate> searches = new ArrayList<>();
+    private final Function<GeoCoordinate, Map<String, Integer>> search = location -> {
+        searches.add(location);
+        return new HashMap<>(Map.of("A", searches.size()));
+    };
+
+    @Nested
+    class Snap {
+
+        @Test
+        void shouldSnapToCenterOfCell() {
+            GeoCoordinate center = AccessEgressCache.snap(LOCATION);
+
+            assertEquals(47.376905, center.latitude(), 1e-9);
+            assertEquals(8.541705, center.longitude(), 1e-9);
+            assertTrue(LOCATION.distanceTo(center) < 1);
+            assertEquals(center, AccessEgressCache.snap(new GeoCoordinate(47.376908, 8.541708)));
+        }
+
+        @Test
+        void shouldStayWithinValidCoordinates() {
+            GeoCoordinate corner = AccessEgressCache.snap(new GeoCoordinate(90, 180));
+
+            assertEquals(90, corner.latitude());
+            assertEquals(180, corner.longitude());
+        }
+
+    }
+
+    @Nested
+    class ComputeIfAbsent {
+
+        @Test
+        void shouldSearchOncePerCell() {
+            AccessEgressCache cache = new AccessEgressCache(10);
+
+            Map<String, Integer> first = cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+            Map<String, Integer> second = cache.computeIfAbsent(new GeoCoordinate(47.376908, 8.541708),
+                    MAXIMUM_WALK_DURATION, search);
+
+            assertEquals(Map.of("A", 1), first);
+            assertSame(first, second);
+            assertEquals(List.of(AccessEgressCache.snap(LOCATION)), searches);
+            assertEquals(new AccessEgressCacheStatistics(1, 1, 1, 10), cache.getStatistics());
+            assertEquals(0.5, cache.getStatistics().hitRate());
+        }
+
+        @Test
+        void shouldSearchOtherCellsAndWalkDurations() {
+            AccessEgressCache cache = new AccessEgressCache(10);
+
+            cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION / 2, search);
+            cache.computeIfAbsent(new GeoCoordinate(47.376912, 8.541702), MAXIMUM_WALK_DURATION, search);
+
+            assertEquals(3, searches.size());
+            assertEquals(new AccessEgressCacheStatistics(0, 3, 3, 10), cache.getStatistics());
+        }
+
+        @Test
+        void shouldEvictLeastRecentlyUsedCell() {
+            AccessEgressCache cache = new AccessEgressCache(2);
+            GeoCoordinate other = new GeoCoordinate(47.0, 8.0);
+            GeoCoordinate third = new GeoCoordinate(46.0, 7.0);
+
+            cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(other, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(third, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+            cache.computeIfAbsent(other, MAXIMUM_WALK_DURATION, search);
+
+            assertEquals(4, searches.size());
+            assertEquals(new AccessEgressCacheStatistics(2, 4, 2, 2), cache.getStatistics());
+        }
+
+        @Test
+        void shouldReturnUnmodifiableStops() {
+            AccessEgressCache cache = new AccessEgressCache(10);
+
+            Map<String, Integer> stops = cache.computeIfAbsent(LOCATION, MAXIMUM_WALK_DURATION, search);
+
+            assertThrows(UnsupportedOperationException.class, () -> stops.put("B", 0));
+        }
+
+    }
+
+}
@@ -73,6 +73,9 @@ class RoutingQueryFacadeIT {
     private static final List<OffsetDateTime> ARRIVAL_TIMES_AT_TARGET_STOP = List.of(DATE_TIME.plusMinutes(5),
             DATE_TIME.plusHours(2).plusMinutes(2).plusSeconds(30), DATE_TIME.plusHours(4).plusMinutes(5));
     private GtfsSchedule schedule;
+    private KDTree<org.naviqore.gtfs.schedule.model.Stop> spatialStopIndex;
+    private WalkCalculator walkCalculator;
+    private RaptorAlgorithm raptor;
     private RoutingQueryFacade facade;
     private Stop sourceStop;
     private GeoCoordinate sourceCoordinate;
@@ -91,9 +94,9 @@ class RoutingQueryFacadeIT {
         schedule = builder.build();
 
         // setup walk transfer generator
-        KDTree<org.naviqore.gtfs.schedule.model.Stop> spatialStopIndex = new KDTreeBuilder<org.naviqore.gtfs.schedule.model.Stop>().addLocations(
+        spatialStopIndex = new KDTreeBuilder<org.naviqore.gtfs.schedule.model.Stop>().addLocations(
                 schedule.getStops().values()).build();
-        WalkCalculator walkCalculator = new BeeLineWalkCalculator(SERVICE_CONFIG.getWalkSpeed());
+        walkCalculator = new BeeLineWalkCalculator(SERVICE_CONFIG.getWalkSpeed());
         List<TransferGenerator> transferGenerators = List.of();
 
         // setup cache and trip mask provider
@@ -106,7 +109,7 @@ class RoutingQueryFacadeIT {
         RaptorConfig raptorConfig = new RaptorConfig(SERVICE_CONFIG.getRaptorDaysToScan(),
                 SERVICE_CONFIG.getRaptorRange(), SERVICE_CONFIG.getTransferDurationSameStopDefault(),
                 SERVICE_CONFIG.getCacheServiceDaySize(), cacheStrategy, tripMaskProvider);
-        RaptorAlgorithm raptor = new GtfsToRaptorConverter(raptorConfig, schedule, transferGenerators).run();
+        raptor = new GtfsToRaptorConverter(raptorConfig, schedule, transferGenerators).run();
 
         // assemble facade
         facade = new RoutingQueryFacade(SERVICE_CONFIG, schedule, spatialStopIndex, walkCalculator, raptor);
@@ -482,6 +485,39 @@ class RoutingQueryFacadeIT {
                     connectionAssert.assertConnection(connections.get(i));
                 }
             }
+
+            @Test
+            void departure_withAccessEgressCache() throws ConnectionRoutingException {
+                ServiceConfig config = ServiceConfig.builder()
+                        .gtfsScheduleRepository(new NoGtfsScheduleRepository())
+                        .walkDurationMinimum(WALK_DURATION_MINIMUM)
+                        .cacheAccessEgressSize(10)
+                        .build();
+                RoutingQueryFacade cachedFacade = new RoutingQueryFacade(config, schedule, spatialStopIndex,
+                        walkCalculator, raptor);
+                ConnectionQueryConfig queryConfig = getQueryConfigWithTimeWindow(Duration.ofHours(6));
+
+                List<org.naviqore.service.Connection> first = cachedFacade.queryConnections(STANDARD_DEPARTURE_TIME,
+                        TimeType.DEPARTURE, queryConfig, sourceCoordinate, targetCoordinate);
+                AccessEgressCacheStatistics statistics = cachedFacade.getAccessEgressCacheStatistics();
+                List<org.naviqore.service.Connection> second = cachedFacade.queryConnections(STANDARD_DEPARTURE_TIME,
+                        TimeType.DEPARTURE, queryConfig, sourceCoordinate, targetCoordinate);
+
+                // the iterations of the time window reuse the stops of the source and target cell
+                assertThat(statistics.misses()).isEqualTo(2);
+                assertThat(statistics.hits()).isPositive();
+                assertThat(cachedFacade.getAccessEgressCacheStatistics().misses()).isEqualTo(2);
+                assertThat(cachedFacade.getAccessEgressCacheStatistics().entries()).isEqualTo(2);
+                assertThat(facade.getAccessEgressCacheStatistics()).isEqualTo(
+                        new AccessEgressCacheStatistics(0, 0, 0, 0));
+
+                assertThat(first).hasSize(3);
+                assertThat(second).hasSize(3);
+                for (int i = 0; i < first.size(); i++) {
+                    getConnectionAsserts(i).assertConnection(first.get(i));
+                    getConnectionAsserts(i).assertConnection(second.get(i));
+                }
+            }
         }
 
         @Nested
@@ -82,4 +82,55 @@ public class BeeLineWalkCalculatorTest {
 
     }
 
+    @Nested
+    class CalculateWalks {
+
+        private static final double WALK_SPEED = 1.4;
+
+        private final BeeLineWalkCalculator calculator = new BeeLineWalkCalculator(WALK_SPEED);
+        private final GeoCoordinate from = new GeoCoordinate(47.37685009, 8.546391951);
+
+        @Test
+        void shouldReturnSameWalksAsCalculateWalk() {
+            // nearby targets use the equirectangular approximation, the far ones the haversine formula
+            GeoCoordinate[] targets = {new GeoCoordinate(47.37652769, 8.544352776), new GeoCoordinate(47.3, 8.6),
+                    new GeoCoordinate(46.9481, 7.4474), new GeoCoordinate(-33.8688, 151.2093), from};
+
+            WalkCalculator.Walk[] walks = calculator.calculateWalks(from, targets);
+
+            assertEquals(targets.length, walks.length);
+            for (int i = 0; i < targets.length; i++) {
+                assertEquals(calculator.calculateWalk(from, targets[i]), walks[i]);
+            }
+            assertEquals(new WalkCalculator.Walk(0, 0), walks[4]);
+        }
+
+        @Test
+        void shouldApproximateHaversineDistance() {
+            // targets up to the limit of the equirectangular approximation in each direction
+            for (double dLat = -0.099; dLat <= 0.1; dLat += 0.033) {
+                for (double dLon = -0.099; dLon <= 0.1; dLon += 0.033) {
+                    GeoCoordinate to = new GeoCoordinate(from.latitude() + dLat, from.longitude() + dLon);
+                    double expected = from.distanceTo(to) * BeeLineWalkCalculator.BEELINE_DISTANCE_FACTOR;
+
+                    assertEquals(expected, calculator.calculateWalks(from, new GeoCoordinate[]{to})[0].distance(), 1);
+                }
+            }
+        }
+
+        @Test
+        void withoutTargets_shouldReturnNoWalks() {
+            assertEquals(0, calculator.calculateWalks(from, new GeoCoordinate[0]).length);
+        }
+
+        @Test
+        void withNullCoordinate_shouldThrowException() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculateWalks(null, new GeoCoordinate[]{from}));
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculateWalks(from, new GeoCoordinate[]{null}));
+        }
+
+    }
+
 }
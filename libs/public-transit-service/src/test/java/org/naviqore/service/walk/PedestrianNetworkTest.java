@@ -0,0 +1,158 @@
+package org.naviqore.service.walk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PedestrianNetworkTest {
+
+    /**
+     * Two streets along both banks of a river, nodes N0 to N3 on the north bank and S0 to S3 on the south bank, about
+     * 76 meters apart. The only bridge connects N3 and S3, which are about 56 meters apart.
+     */
+    static final String RIVER_NETWORK = """
+            source,target,source_lat,source_lon,target_lat,target_lon,length,highway
+            N0,N1,47.0005,8.000,47.0005,8.001,,footway
+            N1,N2,47.0005,8.001,47.0005,8.002,,footway
+            N2,N3,47.0005,8.002,47.0005,8.003,,footway
+            N3,S3,47.0005,8.003,47.0000,8.003,,footway
+            S3,S2,47.0000,8.003,47.0000,8.002,,footway
+            S2,S1,47.0000,8.002,47.0000,8.001,,footway
+            S1,S0,47.0000,8.001,47.0000,8.000,100,steps
+            """;
+
+    static final GeoCoordinate N0 = new GeoCoordinate(47.0005, 8.000);
+    static final GeoCoordinate N3 = new GeoCoordinate(47.0005, 8.003);
+    static final GeoCoordinate S0 = new GeoCoordinate(47.0000, 8.000);
+    static final GeoCoordinate S3 = new GeoCoordinate(47.0000, 8.003);
+
+    static PedestrianNetwork read(Path directory, String csv) throws IOException {
+        Path file = directory.resolve("network.csv");
+        Files.writeString(file, csv);
+        return PedestrianNetwork.read(file);
+    }
+
+    @Nested
+    class Read {
+
+        @Test
+        void shouldReadNodesOfEdges(@TempDir Path tempDir) throws IOException {
+            PedestrianNetwork network = read(tempDir, RIVER_NETWORK);
+
+            assertEquals(8, network.size());
+            assertEquals(N0, network.getCoordinate(0));
+        }
+
+        @Test
+        void shouldReadWithoutLengthColumn(@TempDir Path tempDir) throws IOException {
+            PedestrianNetwork network = read(tempDir, """
+                    SOURCE,TARGET,SOURCE_LAT,SOURCE_LON,TARGET_LAT,TARGET_LON
+                    1,2,47.0005,8.000,47.0000,8.000
+                    """);
+
+            assertEquals(N0.distanceTo(S0), network.getDistances(0, 1000, null).get(1), 0.01);
+        }
+
+        @Test
+        void shouldThrowForMissingColumn(@TempDir Path tempDir) {
+            assertThrows(IOException.class, () -> read(tempDir, """
+                    source,target,source_lat,source_lon,target_lat
+                    N0,N1,47.0005,8.000,47.0005
+                    """));
+        }
+
+        @Test
+        void shouldThrowForNegativeLength(@TempDir Path tempDir) {
+            assertThrows(IOException.class, () -> read(tempDir, """
+                    source,target,source_lat,source_lon,target_lat,target_lon,length
+                    N0,N1,47.0005,8.000,47.0005,8.001,-1
+                    """));
+        }
+
+        @Test
+        void shouldThrowForInvalidCoordinate(@TempDir Path tempDir) {
+            assertThrows(IOException.class, () -> read(tempDir, """
+                    source,target,source_lat,source_lon,target_lat,target_lon
+                    N0,N1,north,8.000,47.0005,8.001
+                    """));
+        }
+
+        @Test
+        void shouldThrowForNetworkWithoutEdges(@TempDir Path tempDir) {
+            assertThrows(IOException.class, () -> read(tempDir, """
+                    source,target,source_lat,source_lon,target_lat,target_lon
+                    N0,N0,47.0005,8.000,47.0005,8.000
+                    """));
+        }
+
+    }
+
+    @Nested
+    class Distances {
+
+        private PedestrianNetwork network;
+        private int n0;
+        private int n3;
+        private int s0;
+        private int s3;
+
+        @BeforeEach
+        void setUp(@TempDir Path tempDir) throws IOException {
+            network = read(tempDir, RIVER_NETWORK);
+            n0 = network.getNearestNode(N0);
+            n3 = network.getNearestNode(N3);
+            s0 = network.getNearestNode(S0);
+            s3 = network.getNearestNode(S3);
+        }
+
+        @Test
+        void shouldFindNearestNode() {
+            assertEquals(n0, network.getNearestNode(new GeoCoordinate(47.0006, 7.9999)));
+            assertEquals(N3, network.getCoordinate(n3));
+        }
+
+        @Test
+        void shouldWalkOverBridge() {
+            PedestrianNetwork.Distances distances = network.getDistances(n0, 1000, null);
+
+            // the segments of a street are a third of the distance between its ends, S1 to S0 has a length of 100 m
+            double toS3 = N0.distanceTo(N3) + N3.distanceTo(S3);
+            assertEquals(0, distances.get(n0));
+            assertEquals(toS3, distances.get(s3), 0.01);
+            assertEquals(toS3 + 2 * S3.distanceTo(S0) / 3 + 100, distances.get(s0), 0.01);
+        }
+
+        @Test
+        void shouldStopAtMaximumDistance() {
+            PedestrianNetwork.Distances distances = network.getDistances(n0, 250, null);
+
+            assertEquals(4, distances.nodes().length);
+            assertEquals(Float.POSITIVE_INFINITY, distances.get(s3));
+        }
+
+        @Test
+        void shouldOnlyKeepTargets() {
+            BitSet targets = new BitSet();
+            targets.set(s0);
+            targets.set(s3);
+
+            PedestrianNetwork.Distances distances = network.getDistances(n0, 1000, targets);
+
+            assertEquals(2, distances.nodes().length);
+            assertEquals(Float.POSITIVE_INFINITY, distances.get(n3));
+            // the reused search state of the thread is reset
+            assertEquals(8, network.getDistances(s0, 1000, null).nodes().length);
+        }
+
+    }
+
+}
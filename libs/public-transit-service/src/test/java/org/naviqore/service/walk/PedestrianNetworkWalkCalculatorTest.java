@@ -0,0 +1,156 @@
+package org.naviqore.service.walk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.naviqore.utils.spatial.GeoCoordinate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.naviqore.service.walk.PedestrianNetworkTest.*;
+
+public class PedestrianNetworkWalkCalculatorTest {
+
+    private static final double WALK_SPEED = 1.4;
+    private static final int SEARCH_RADIUS = 500;
+
+    private PedestrianNetwork network;
+    private PedestrianNetworkWalkCalculator calculator;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        network = PedestrianNetworkTest.read(tempDir, RIVER_NETWORK);
+        calculator = new PedestrianNetworkWalkCalculator(network, WALK_SPEED, SEARCH_RADIUS);
+    }
+
+    @Nested
+    class Constructor {
+
+        @Test
+        void shouldCreateExceptionForInvalidArguments() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new PedestrianNetworkWalkCalculator(null, WALK_SPEED, SEARCH_RADIUS));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new PedestrianNetworkWalkCalculator(network, 0, SEARCH_RADIUS));
+            assertThrows(IllegalArgumentException.class, () -> new PedestrianNetworkWalkCalculator(network, 1, -1));
+        }
+
+    }
+
+    @Nested
+    class CalculateWalk {
+
+        @Test
+        void shouldWalkOverBridge() {
+            WalkCalculator.Walk walk = calculator.calculateWalk(N0, S0);
+
+            // across the river, the walk is much longer than the beeline
+            double distance = N0.distanceTo(N3) + N3.distanceTo(S3) + 2 * S3.distanceTo(S0) / 3 + 100;
+            assertEquals(Math.round(distance), walk.distance());
+            assertEquals(Math.round(distance / WALK_SPEED), walk.duration());
+            assertTrue(walk.distance() > 5 * new BeeLineWalkCalculator(WALK_SPEED).calculateWalk(N0, S0).distance());
+        }
+
+        @Test
+        void shouldAddBeelineToAndFromNetwork() {
+            GeoCoordinate from = new GeoCoordinate(47.0006, 8.000);
+            GeoCoordinate to = new GeoCoordinate(46.9999, 8.003);
+
+            WalkCalculator.Walk walk = calculator.calculateWalk(from, to);
+
+            double distance = from.distanceTo(N0) + N0.distanceTo(N3) + N3.distanceTo(S3) + S3.distanceTo(to);
+            assertEquals(Math.round(distance), walk.distance());
+        }
+
+        @Test
+        void shouldFallBackToBeelineFarFromNetwork() {
+            GeoCoordinate farAway = new GeoCoordinate(47.01, 8.0);
+
+            assertEquals(new BeeLineWalkCalculator(WALK_SPEED).calculateWalk(N0, farAway),
+                    calculator.calculateWalk(N0, farAway));
+        }
+
+        @Test
+        void shouldFallBackToBeelineBeyondMaximumDistance() {
+            // the detour over the bridge is longer than the maximum distance of twice the search radius
+            PedestrianNetworkWalkCalculator shortCalculator = new PedestrianNetworkWalkCalculator(network, WALK_SPEED,
+                    100);
+
+            assertEquals(new BeeLineWalkCalculator(WALK_SPEED).calculateWalk(N0, S0),
+                    shortCalculator.calculateWalk(N0, S0));
+        }
+
+        @Test
+        void withNullCoordinate_shouldThrowException() {
+            assertThrows(IllegalArgumentException.class, () -> calculator.calculateWalk(null, S0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculateWalks(N0, new GeoCoordinate[]{null}));
+        }
+
+    }
+
+    @Nested
+    class Precompute {
+
+        private final GeoCoordinate[] targets = {N0, N3, S0, S3, new GeoCoordinate(47.0001, 8.0014)};
+
+        @Test
+        void shouldReturnSameWalksAsWithoutTable(@TempDir Path tempDir) {
+            WalkCalculator.Walk[] expected = calculator.calculateWalks(N0, targets);
+
+            calculator.precompute(List.of(N0, S0, S3), tempDir.resolve("network.footpaths"));
+
+            // N3 and the last target are not stops, their distances are not in the table
+            assertArrayEquals(expected, calculator.calculateWalks(N0, targets));
+            for (GeoCoordinate target : targets) {
+                assertEquals(calculator.calculateWalk(target, S0), calculator.calculateWalks(target,
+                        new GeoCoordinate[]{S0})[0]);
+            }
+        }
+
+        @Test
+        void shouldReadPersistedTable(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("network.footpaths");
+            calculator.precompute(List.of(N0, S0, S3), file);
+            byte[] table = Files.readAllBytes(file);
+
+            PedestrianNetworkWalkCalculator other = new PedestrianNetworkWalkCalculator(network, WALK_SPEED,
+                    SEARCH_RADIUS);
+            other.precompute(List.of(S3, N0, S0), file);
+
+            assertArrayEquals(table, Files.readAllBytes(file));
+            assertArrayEquals(calculator.calculateWalks(S0, targets), other.calculateWalks(S0, targets));
+        }
+
+        @Test
+        void shouldRecomputeTableOfOtherStops(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("network.footpaths");
+            calculator.precompute(List.of(N0, S0), file);
+            byte[] table = Files.readAllBytes(file);
+
+            calculator.precompute(List.of(N0, S0, S3), file);
+
+            assertFalse(Arrays.equals(table, Files.readAllBytes(file)));
+        }
+
+        @Test
+        void shouldRecomputeUnreadableTable(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("network.footpaths");
+            Files.writeString(file, "invalid");
+
+            calculator.precompute(List.of(N0, S0), file);
+
+            assertEquals(Math.round(N0.distanceTo(N3) + N3.distanceTo(S3)),
+                    calculator.calculateWalk(N0, S3).distance());
+            assertNotEquals("invalid".length(), Files.size(file));
+        }
+
+    }
+
+}
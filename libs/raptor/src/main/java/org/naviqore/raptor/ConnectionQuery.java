@@ -0,0 +1,20 @@
+package org.naviqore.raptor;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * A single connection query of a batch routed by {@link RaptorAlgorithm#routeConnections(java.util.List)}.
+ * <p>
+ * The source stops carry the departure times in case of time type departure (earliest arrival) and the arrival times in
+ * case of time type arrival (latest departure). The target stops carry the walk durations to the final destination
+ * respectively from the origin.
+ *
+ * @param sourceStops map of stop ids and departure/arrival times depending on the time type
+ * @param targetStops map of stop ids and walk durations
+ * @param timeType    the type of time to route for (arrival or departure)
+ * @param config      the query configuration
+ */
+public record ConnectionQuery(Map<String, OffsetDateTime> sourceStops, Map<String, Integer> targetStops,
+                              TimeType timeType, QueryConfig config) {
+}
@@ -3,6 +3,7 @@ package org.naviqore.raptor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.naviqore.utils.concurrent.CancellationToken;
 
 import java.util.EnumSet;
 
@@ -33,6 +34,13 @@ public class QueryConfig {
     @Setter
     private boolean allowTargetTransfer = true;
 
+    /**
+     * Token to cancel the query, checked between rounds. A cancelled query returns the connections found so far and
+     * flags the token as having partial results.
+     */
+    @Setter
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+
     public QueryConfig(int maximumWalkDuration, int minimumTransferDuration, int maximumTransfers,
                        int maximumTravelDuration, boolean wheelchairAccessible, boolean bikeAccessible,
                        EnumSet<TravelMode> allowedTravelModes) {
@@ -3,6 +3,8 @@ package org.naviqore.raptor;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 public interface RaptorAlgorithm {
 
@@ -51,6 +53,44 @@ public interface RaptorAlgorithm {
     Map<String, Connection> routeIsolines(Map<String, OffsetDateTime> sourceStops, TimeType timeType,
                                           QueryConfig config);
 
+    /**
+     * Route isolines from source stops and stream the connections to the consumer. Implementations may pass the
+     * connection of a stop as soon as it is final, before the routing has finished; the default implementation routes all
+     * isolines first and passes them afterwards.
+     *
+     * @param sourceStops is a map of stop ids and departure/arrival times
+     * @param timeType    is the type of time to route for (arrival or departure)
+     * @param config      is the query configuration
+     * @param consumer    receives the stop id and the earliest arrival (timeType=departure) or latest departure
+     *                    (timeType=arrival) connection for each stop, exactly once per stop
+     * @throws InvalidStopException     if source stop is invalid
+     * @throws InvalidTimeException     if source time is invalid
+     * @throws IllegalArgumentException for other argument related errors
+     */
+    default void routeIsolines(Map<String, OffsetDateTime> sourceStops, TimeType timeType, QueryConfig config,
+                               BiConsumer<String, Connection> consumer) {
+        routeIsolines(sourceStops, timeType, config).forEach(consumer);
+    }
+
+    /**
+     * Routes a batch of connection queries. Depending on the time type of a query, it is routed as earliest arrival or
+     * latest departure query. Implementations may share setup work between queries and process them concurrently on
+     * the executor; the default implementation routes the queries one after another on the calling thread.
+     *
+     * @param queries  the connection queries to route
+     * @param executor the executor to route the queries on, which bounds the parallelism of the batch
+     * @return the pareto-optimal connections per query, in the order of the queries
+     * @throws InvalidStopException     if source or target stops of a query are invalid
+     * @throws InvalidTimeException     if source times of a query are invalid
+     * @throws IllegalArgumentException for other argument related errors
+     */
+    default List<List<Connection>> routeConnections(List<ConnectionQuery> queries, Executor executor) {
+        return queries.stream().map(query -> switch (query.timeType()) {
+            case DEPARTURE -> routeEarliestArrival(query.sourceStops(), query.targetStops(), query.config());
+            case ARRIVAL -> routeLatestDeparture(query.targetStops(), query.sourceStops(), query.config());
+        }).toList();
+    }
+
     class InvalidStopException extends IllegalArgumentException {
         public InvalidStopException(String message) {
             super(message);
@@ -0,0 +1,22 @@
+package org.naviqore.raptor.router;
+
+import org.naviqore.raptor.Connection;
+
+/**
+ * Receiver for connections produced by the index-based routing methods of the {@link RaptorRouter}. A sink can be
+ * reused across queries, which allows bulk callers to collect results into their own preallocated structures instead of
+ * creating a new list or map per query.
+ */
+@FunctionalInterface
+public interface ConnectionSink {
+
+    /**
+     * Accepts a reconstructed connection.
+     *
+     * @param stopIdx    the index of the stop the connection was found for (the target stop for earliest arrival and
+     *                   latest departure queries, the reached stop for isoline queries).
+     * @param connection the reconstructed connection.
+     */
+    void accept(int stopIdx, Connection connection);
+
+}
@@ -29,6 +29,20 @@ class DateTimeConverter {
         }
     }
 
+    /**
+     * Determines the reference datetime for epoch second source times, expressed in the given zone.
+     */
+    static OffsetDateTime getReference(long[] sourceEpochSeconds, TimeType timeType, ZoneId zoneId) {
+        long reference = sourceEpochSeconds[0];
+        for (long epochSecond : sourceEpochSeconds) {
+            // minimum departure time or maximum arrival time
+            reference = timeType == TimeType.DEPARTURE ? Math.min(reference, epochSecond) : Math.max(reference,
+                    epochSecond);
+        }
+
+        return Instant.ofEpochSecond(reference).atZone(zoneId).toOffsetDateTime();
+    }
+
     /**
      * Maps a collection of stop datetime objects to internal seconds relative to the reference date.
      */
@@ -48,6 +62,19 @@ class DateTimeConverter {
         return (int) (dateTime.toEpochSecond() - referenceDayStartEpoch);
     }
 
+    /**
+     * Converts epoch seconds to absolute seconds from UTC Midnight of the reference date.
+     */
+    static int[] toUtcSeconds(long[] epochSeconds, LocalDate referenceDate) {
+        long referenceDayStartEpoch = referenceDate.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        int[] utcSeconds = new int[epochSeconds.length];
+        for (int i = 0; i < epochSeconds.length; i++) {
+            utcSeconds[i] = (int) (epochSeconds[i] - referenceDayStartEpoch);
+        }
+
+        return utcSeconds;
+    }
+
     /**
      * Converts internal UTC seconds back to an OffsetDateTime using a specific ZoneId. This preserves the correct local
      * time and offset for a specific location or agency.
@@ -3,10 +3,6 @@ package org.naviqore.raptor.router;
 import lombok.extern.slf4j.Slf4j;
 import org.naviqore.raptor.TimeType;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
 import static org.naviqore.raptor.router.QueryState.NO_INDEX;
 
 @Slf4j
@@ -20,12 +16,14 @@ class FootpathRelaxer {
     private final TimeType timeType;
     private final boolean allowSourceTransfers;
     private final boolean allowTargetTransfers;
-    private final Set<Integer> targetStopIndices;
+    private final boolean[] targetStops;
+    private final boolean[] routeMarkedStops;
 
     private final QueryState queryState;
 
     /**
      * @param queryState              the query state with the best time per stop and label per stop and round.
+     * @param workspace               the workspace of the query, with no target stops set.
      * @param raptorData              the current raptor data structures.
      * @param minimumTransferDuration The minimum transfer duration time, since this is intended as rest period (e.g.
      *                                coffee break) it is added to the walk time.
@@ -37,9 +35,9 @@ class FootpathRelaxer {
      * @param targetStopIndices       array holding all indices of target stops, used to check if transfer target is
      *                                target stop in case allowTargetTransfers is false
      */
-    FootpathRelaxer(QueryState queryState, RaptorData raptorData, int minimumTransferDuration, int maximumWalkDuration,
-                    TimeType timeType, boolean allowSourceTransfers, boolean allowTargetTransfers,
-                    int[] targetStopIndices) {
+    FootpathRelaxer(QueryState queryState, QueryWorkspace workspace, RaptorData raptorData,
+                    int minimumTransferDuration, int maximumWalkDuration, TimeType timeType,
+                    boolean allowSourceTransfers, boolean allowTargetTransfers, int[] targetStopIndices) {
         // constant data structures
         this.transfers = raptorData.getStopContext().transfers();
         this.stops = raptorData.getStopContext().stops();
@@ -51,7 +49,11 @@ class FootpathRelaxer {
         this.queryState = queryState;
         this.allowSourceTransfers = allowSourceTransfers;
         this.allowTargetTransfers = allowTargetTransfers;
-        this.targetStopIndices = IntStream.of(targetStopIndices).boxed().collect(Collectors.toSet());
+        this.targetStops = workspace.targetStops;
+        this.routeMarkedStops = workspace.routeMarkedStops;
+        for (int targetStopIdx : targetStopIndices) {
+            targetStops[targetStopIdx] = true;
+        }
     }
 
     /**
@@ -70,7 +72,7 @@ class FootpathRelaxer {
     void relax(int round) {
         log.debug("Relaxing footpaths for round {}", round);
         // to prevent extending transfers from stops that were only reached by footpath in the same round
-        boolean[] routeMarkedStops = queryState.cloneMarkedStopsMaskNextRound();
+        queryState.copyMarkedStopsMaskNextRound(routeMarkedStops);
 
         for (int sourceStopIdx = 0; sourceStopIdx < routeMarkedStops.length; sourceStopIdx++) {
             if (!routeMarkedStops[sourceStopIdx]) {
@@ -125,14 +127,14 @@ class FootpathRelaxer {
 
         for (int i = sourceStop.transferIdx(); i < sourceStop.transferIdx() + sourceStop.numberOfTransfers(); i++) {
             Transfer transfer = transfers[i];
-            if (!allowTargetTransfers && targetStopIndices.contains(transfer.targetStopIdx())) {
-                continue;
+            // transfers of a stop are sorted by duration, all following transfers exceed the maximum walk duration too
+            if (maxWalkDuration < transfer.duration()) {
+                break;
             }
-            Stop targetStop = stops[transfer.targetStopIdx()];
-            int duration = transfer.duration();
-            if (maxWalkDuration < duration) {
+            if (!allowTargetTransfers && targetStops[transfer.targetStopIdx()]) {
                 continue;
             }
+            Stop targetStop = stops[transfer.targetStopIdx()];
 
             // calculate the target time for the transfer in the given time direction
             int targetTime = sourceTime + timeDirection * (transfer.duration() + minTransferDuration);
@@ -0,0 +1,163 @@
+package org.naviqore.raptor.router;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.raptor.QueryConfig;
+import org.naviqore.raptor.TimeType;
+import org.naviqore.raptor.TravelMode;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the best labels per round of one-to-all queries, keyed by the source stops, the source times and
+ * the parts of the query configuration that affect the labels. Queries from the same origin and time, e.g. a user
+ * switching between destinations, reuse the labels of the first run and only reconstruct the connections.
+ * <p>
+ * The labels are only valid for the schedule of the router owning the cache; swapping the schedule replaces the router
+ * and thereby the cache.
+ */
+@Slf4j
+class LabelCache {
+
+    private final int size;
+    private final Map<Key, List<QueryState.Label[]>> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    LabelCache(int size) {
+        this.size = size;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<QueryState.Label[]>> eldest) {
+                return size() > LabelCache.this.size;
+            }
+        };
+    }
+
+    /**
+     * Checks if a query with the given configuration produces labels that can be shared between targets. This is not
+     * the case if transfers to target stops are forbidden, since the forbidden footpaths depend on the targets.
+     */
+    static boolean isCacheable(QueryConfig config) {
+        return config.isAllowTargetTransfer();
+    }
+
+    /**
+     * Gets the cached labels of the one-to-all query or runs the query. Labels of queries stopped by their cancellation
+     * token are incomplete and therefore not cached.
+     */
+    List<QueryState.Label[]> computeIfAbsent(int[] sourceStopIndices, int[] sourceTimes, TimeType timeType,
+                                             OffsetDateTime referenceDateTime, QueryConfig config,
+                                             Supplier<List<QueryState.Label[]>> query) {
+        Key key = Key.of(sourceStopIndices, sourceTimes, timeType, referenceDateTime, config);
+
+        List<QueryState.Label[]> labels = get(key);
+        if (labels != null) {
+            hits.increment();
+            log.debug("Label cache hit for sources {}", key);
+            return labels;
+        }
+
+        // run the query without holding the lock, concurrent misses of the same key may compute the labels twice
+        misses.increment();
+        labels = query.get();
+        if (!config.getCancellationToken().isCancelled()) {
+            synchronized (cache) {
+                cache.putIfAbsent(key, labels);
+            }
+        }
+
+        return labels;
+    }
+
+    void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    LabelCacheStatistics getStatistics() {
+        synchronized (cache) {
+            return new LabelCacheStatistics(hits.sum(), misses.sum(), cache.size(), size);
+        }
+    }
+
+    private @Nullable List<QueryState.Label[]> get(Key key) {
+        synchronized (cache) {
+            // access ordered map, get updates the order
+            return cache.get(key);
+        }
+    }
+
+    /**
+     * Source stops are sorted by index, so that the order in which the sources are passed does not matter.
+     */
+    private record Key(int[] sourceStopIndices, int[] sourceTimes, TimeType timeType,
+                       OffsetDateTime referenceDateTime, int maximumWalkDuration, int minimumTransferDuration,
+                       int maximumTransfers, int maximumTravelDuration, boolean wheelchairAccessible,
+                       boolean bikeAccessible, Set<TravelMode> allowedTravelModes, boolean allowSourceTransfer) {
+
+        static Key of(int[] sourceStopIndices, int[] sourceTimes, TimeType timeType, OffsetDateTime referenceDateTime,
+                      QueryConfig config) {
+            Integer[] order = new Integer[sourceStopIndices.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> sourceStopIndices[i]));
+
+            int[] sortedStopIndices = new int[order.length];
+            int[] sortedTimes = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedStopIndices[i] = sourceStopIndices[order[i]];
+                sortedTimes[i] = sourceTimes[order[i]];
+            }
+
+            return new Key(sortedStopIndices, sortedTimes, timeType, referenceDateTime,
+                    config.getMaximumWalkDuration(), config.getMinimumTransferDuration(),
+                    config.getMaximumTransfers(), config.getMaximumTravelDuration(), config.isWheelchairAccessible(),
+                    config.isBikeAccessible(), EnumSet.copyOf(config.getAllowedTravelModes()),
+                    config.isAllowSourceTransfer());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return maximumWalkDuration == key.maximumWalkDuration &&
+                    minimumTransferDuration == key.minimumTransferDuration &&
+                    maximumTransfers == key.maximumTransfers &&
+                    maximumTravelDuration == key.maximumTravelDuration &&
+                    wheelchairAccessible == key.wheelchairAccessible &&
+                    bikeAccessible == key.bikeAccessible &&
+                    allowSourceTransfer == key.allowSourceTransfer &&
+                    timeType == key.timeType &&
+                    Arrays.equals(sourceStopIndices, key.sourceStopIndices) &&
+                    Arrays.equals(sourceTimes, key.sourceTimes) &&
+                    referenceDateTime.equals(key.referenceDateTime) &&
+                    allowedTravelModes.equals(key.allowedTravelModes);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(timeType, referenceDateTime, maximumWalkDuration, minimumTransferDuration,
+                    maximumTransfers, maximumTravelDuration, wheelchairAccessible, bikeAccessible, allowedTravelModes,
+                    allowSourceTransfer);
+            result = 31 * result + Arrays.hashCode(sourceStopIndices);
+            result = 31 * result + Arrays.hashCode(sourceTimes);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(sourceStopIndices) + " at " + Arrays.toString(sourceTimes);
+        }
+    }
+
+}
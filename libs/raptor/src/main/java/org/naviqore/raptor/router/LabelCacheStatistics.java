@@ -0,0 +1,21 @@
+package org.naviqore.raptor.router;
+
+/**
+ * Snapshot of the hit and miss counters of the one-to-all label cache of a {@link RaptorRouter}.
+ *
+ * @param hits     the number of queries answered from cached labels.
+ * @param misses   the number of cacheable queries which had to run the full routing.
+ * @param entries  the current number of cached label sets.
+ * @param capacity the maximum number of cached label sets, 0 if the cache is disabled.
+ */
+public record LabelCacheStatistics(long hits, long misses, int entries, int capacity) {
+
+    /**
+     * @return the share of cacheable queries answered from the cache, 0 if no query was looked up yet.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+}
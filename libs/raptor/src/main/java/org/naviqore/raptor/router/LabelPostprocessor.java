@@ -14,6 +14,9 @@ import static org.naviqore.raptor.router.QueryState.INFINITY;
 
 /**
  * Postprocessing of the RAPTOR algorithm results. Reconstructs connections from the labels per round.
+ * <p>
+ * A label on a departure of a frequency references the template trip, the departure is reconstructed from the time at
+ * which the label entered the template trip. The legs of such labels carry the id of the template trip.
  */
 class LabelPostprocessor {
 
@@ -51,87 +54,126 @@ class LabelPostprocessor {
      */
     Map<String, Connection> reconstructIsolines(List<QueryState.Label[]> bestLabelsPerRound) {
         Map<String, Connection> isolines = new HashMap<>();
+        reconstructIsolines(bestLabelsPerRound, (stopIdx, connection) -> isolines.put(stops[stopIdx].id(), connection));
+
+        return isolines;
+    }
+
+    /**
+     * Reconstructs isolines from the best labels per round and passes the best connection to reach each stop to the
+     * sink.
+     *
+     * @param bestLabelsPerRound the best labels per round.
+     * @param sink               the sink receiving the connections.
+     */
+    void reconstructIsolines(List<QueryState.Label[]> bestLabelsPerRound, ConnectionSink sink) {
         for (int i = 0; i < stops.length; i++) {
-            Stop stop = stops[i];
-            QueryState.Label bestLabelForStop = getBestLabelForStop(bestLabelsPerRound, i);
-            if (bestLabelForStop != null && bestLabelForStop.type() != QueryState.LabelType.INITIAL) {
-                Connection connection = reconstructConnectionFromLabel(bestLabelForStop);
-                isolines.put(stop.id(), connection);
-            }
+            reconstructIsoline(bestLabelsPerRound, i, sink);
         }
+    }
 
-        return isolines;
+    /**
+     * Reconstructs the isoline of a single stop and passes the best connection to reach the stop to the sink. Nothing is
+     * passed if the stop was not reached or is a source stop.
+     *
+     * @param bestLabelsPerRound the best labels per round.
+     * @param stopIdx            the index of the stop.
+     * @param sink               the sink receiving the connection.
+     */
+    void reconstructIsoline(List<QueryState.Label[]> bestLabelsPerRound, int stopIdx, ConnectionSink sink) {
+        QueryState.Label bestLabelForStop = getBestLabelForStop(bestLabelsPerRound, stopIdx);
+        if (bestLabelForStop != null && bestLabelForStop.type() != QueryState.LabelType.INITIAL) {
+            Connection connection = reconstructConnectionFromLabel(bestLabelForStop);
+            sink.accept(stopIdx, connection);
+        }
     }
 
     /**
      * Reconstructs pareto-optimal connections from the best labels per round.
      *
-     * @param bestLabelsPerRound the best labels per round.
-     * @param targetStops        map of target stop indices and walk durations to destination.
+     * @param bestLabelsPerRound    the best labels per round.
+     * @param targetStopIndices     the indices of the target stops.
+     * @param walkDurationsToTarget the walk durations from the target stops to the destination.
      * @return a list of pareto-optimal connections.
      */
     List<Connection> reconstructParetoOptimalSolutions(List<QueryState.Label[]> bestLabelsPerRound,
-                                                       Map<Integer, Integer> targetStops) {
+                                                       int[] targetStopIndices, int[] walkDurationsToTarget) {
         List<Connection> connections = new ArrayList<>();
+        reconstructParetoOptimalSolutions(bestLabelsPerRound, targetStopIndices, walkDurationsToTarget,
+                (_, connection) -> connections.add(connection));
+
+        return connections;
+    }
+
+    /**
+     * Reconstructs pareto-optimal connections from the best labels per round and passes them in order of increasing
+     * number of rounds to the sink.
+     *
+     * @param bestLabelsPerRound    the best labels per round.
+     * @param targetStopIndices     the indices of the target stops.
+     * @param walkDurationsToTarget the walk durations from the target stops to the destination.
+     * @param sink                  the sink receiving the connections.
+     */
+    void reconstructParetoOptimalSolutions(List<QueryState.Label[]> bestLabelsPerRound, int[] targetStopIndices,
+                                           int[] walkDurationsToTarget, ConnectionSink sink) {
         int bestTime = timeType == TimeType.DEPARTURE ? INFINITY : -INFINITY;
 
         // iterate over all rounds
         for (QueryState.Label[] labels : bestLabelsPerRound) {
-            QueryState.Label label = findBestLabelInRound(labels, targetStops, bestTime);
+            int targetIdx = findBestTargetInRound(labels, targetStopIndices, walkDurationsToTarget, bestTime);
 
-            if (label != null) {
+            if (targetIdx != QueryState.NO_INDEX) {
                 // update best time for Pareto filtering
-                int walkTime = targetStops.get(label.stopIdx());
+                QueryState.Label label = labels[targetStopIndices[targetIdx]];
+                int walkTime = walkDurationsToTarget[targetIdx];
                 bestTime = (timeType == TimeType.DEPARTURE) ? label.targetTime() + walkTime : label.targetTime() - walkTime;
 
                 Connection connection = reconstructConnectionFromLabel(label);
                 if (connection != null) {
-                    connections.add(connection);
+                    sink.accept(label.stopIdx(), connection);
                 }
             }
         }
-
-        return connections;
     }
 
     /**
-     * Identifies the best label for a set of target stops within a single round.
+     * Identifies the best target stop for a set of target stops within a single round.
      *
-     * @param labels          array of labels for the current round.
-     * @param targetStops     map of target stops and their walk durations.
-     * @param currentBestTime the current best time across all previous rounds.
-     * @return the best label for this round, or null if no improvement was found.
+     * @param labels                array of labels for the current round.
+     * @param targetStopIndices     the indices of the target stops.
+     * @param walkDurationsToTarget the walk durations from the target stops to the destination.
+     * @param currentBestTime       the current best time across all previous rounds.
+     * @return the position of the best target stop in the target arrays, or NO_INDEX if no improvement was found.
      */
-    private QueryState.@Nullable Label findBestLabelInRound(QueryState.Label[] labels,
-                                                            Map<Integer, Integer> targetStops, int currentBestTime) {
-        QueryState.Label bestLabel = null;
+    private int findBestTargetInRound(QueryState.Label[] labels, int[] targetStopIndices, int[] walkDurationsToTarget,
+                                      int currentBestTime) {
+        int bestTargetIdx = QueryState.NO_INDEX;
         int bestRoundTime = currentBestTime;
 
-        for (Map.Entry<Integer, Integer> entry : targetStops.entrySet()) {
-            int stopIdx = entry.getKey();
-            int walkTime = entry.getValue();
-            QueryState.Label label = labels[stopIdx];
+        for (int i = 0; i < targetStopIndices.length; i++) {
+            QueryState.Label label = labels[targetStopIndices[i]];
 
             if (label == null) {
                 continue;
             }
 
+            int walkTime = walkDurationsToTarget[i];
             if (timeType == TimeType.DEPARTURE) {
                 int arrivalTime = label.targetTime() + walkTime;
                 if (arrivalTime < bestRoundTime) {
-                    bestLabel = label;
+                    bestTargetIdx = i;
                     bestRoundTime = arrivalTime;
                 }
             } else {
                 int departureTime = label.targetTime() - walkTime;
                 if (departureTime > bestRoundTime) {
-                    bestLabel = label;
+                    bestTargetIdx = i;
                     bestRoundTime = departureTime;
                 }
             }
         }
 
-        return bestLabel;
+        return bestTargetIdx;
     }
 
     /**
@@ -367,8 +409,7 @@ class LabelPostprocessor {
             stopIdx = transferLabel.previous().stopIdx();
         }
 
-        StopTime stopTime = getTripStopTimeForStopInTrip(stopIdx, routeLabel.routeOrTransferIdx(),
-                routeLabel.tripOffset());
+        StopTime stopTime = getTripStopTimeForStopInTrip(stopIdx, routeLabel);
 
         // if stopTime is null, then the stop is not part of the trip of the route label, if stop time is not null, then
         // check if the temporal order of the stop time and the route label is correct (e.g. for time type departure the
@@ -476,6 +517,32 @@ class LabelPostprocessor {
         }
     }
 
+    /**
+     * Retrieve the stop time adjusted to UTC for a specific stop on the trip of a route label. If the label is on a
+     * departure of a frequency, the stop time of the template trip is shifted to the departure.
+     *
+     * @param stopIdx    the index of the stop.
+     * @param routeLabel the route label.
+     * @return the stop time adjusted to UTC, or null if stop not on trip.
+     */
+    private @Nullable StopTime getTripStopTimeForStopInTrip(int stopIdx, QueryState.Label routeLabel) {
+        int routeIdx = routeLabel.routeOrTransferIdx();
+        int tripOffset = routeLabel.tripOffset();
+        StopTime stopTime = getStopTimeForStopInTrip(stopIdx, routeIdx, tripOffset);
+        if (stopTime == null || tripOffset < routes[routeIdx].numberOfTrips()) {
+            return stopTime;
+        }
+
+        // the shift of the departure is the difference between the entry time and the template at the entry stop
+        assert routeLabel.previous() != null;
+        StopTime entryStopTime = getStopTimeForStopInTrip(routeLabel.previous().stopIdx(), routeIdx, tripOffset);
+        assert entryStopTime != null;
+        int entryTime = timeType == TimeType.DEPARTURE ? entryStopTime.departure() : entryStopTime.arrival();
+        int shift = routeLabel.sourceTime() - entryTime;
+
+        return new StopTime(stopTime.arrival() + shift, stopTime.departure() + shift);
+    }
+
     /**
      * Retrieve the stop time adjusted to UTC for a specific stop on a specific trip.
      *
@@ -484,7 +551,7 @@ class LabelPostprocessor {
      * @param tripOffset the offset of the trip on the route.
      * @return the stop time adjusted to UTC, or null if stop not on trip.
      */
-    private @Nullable StopTime getTripStopTimeForStopInTrip(int stopIdx, int routeIdx, int tripOffset) {
+    private @Nullable StopTime getStopTimeForStopInTrip(int stopIdx, int routeIdx, int tripOffset) {
         int firstStopTimeIdx = routes[routeIdx].firstStopTimeIdx();
         int numberOfStops = routes[routeIdx].numberOfStops();
 
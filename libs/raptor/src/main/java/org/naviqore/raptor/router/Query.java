@@ -1,6 +1,7 @@
 package org.naviqore.raptor.router;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
 import org.naviqore.raptor.QueryConfig;
 import org.naviqore.raptor.TimeType;
 
@@ -14,7 +15,7 @@ import static org.naviqore.raptor.router.QueryState.INFINITY;
 
 /**
  * The query represents a request to the RAPTOR router and coordinates the routing logic. Each request needs a new query
- * instance.
+ * instance, which borrows a {@link QueryWorkspace} of the router while it runs.
  */
 @Slf4j
 class Query {
@@ -26,17 +27,27 @@ class Query {
 
     private final QueryConfig config;
     private final TimeType timeType;
+    private final OffsetDateTime referenceDateTime;
+
+    private final RaptorData raptorData;
+    private final RaptorConfig raptorConfig;
 
     private final int[] targetStops;
     private final int cutoffTime;
-    private final QueryState queryState;
-    private final FootpathRelaxer footpathRelaxer;
-    private final RouteScanner routeScanner;
 
+    // set up when the query runs, on the workspace borrowed for the run
+    private QueryState queryState;
+    private FootpathRelaxer footpathRelaxer;
+    private RouteScanner routeScanner;
+
+    private final Stop[] stops;
     private final int numStops;
 
     private final int raptorRange;
 
+    private @Nullable SettledStopListener settledStopListener;
+    private boolean @Nullable [] settledStops;
+
     /**
      * @param raptorData            the current raptor data structures.
      * @param sourceStopIndices     the indices of the source stops.
@@ -66,19 +77,15 @@ class Query {
         this.walkDurationsToTarget = walkDurationsToTarget;
         this.config = config;
         this.timeType = timeType;
+        this.referenceDateTime = referenceDateTime;
+        this.raptorData = raptorData;
+        this.raptorConfig = raptorConfig;
         this.raptorRange = raptorConfig.getRaptorRange();
 
         targetStops = new int[targetStopIndices.length * 2];
         cutoffTime = determineCutoffTime();
-        numStops = raptorData.getStopContext().stops().length;
-        queryState = new QueryState(raptorData.getStopContext().stops().length, timeType);
-
-        // set up footpath relaxer and route scanner and inject stop labels and times
-        footpathRelaxer = new FootpathRelaxer(queryState, raptorData, config.getMinimumTransferDuration(),
-                config.getMaximumWalkDuration(), timeType, config.isAllowSourceTransfer(),
-                config.isAllowTargetTransfer(), targetStopIndices);
-        routeScanner = new RouteScanner(queryState, raptorData, config, timeType, referenceDateTime,
-                raptorConfig.getDaysToScan());
+        stops = raptorData.getStopContext().stops();
+        numStops = stops.length;
     }
 
     /**
@@ -98,20 +105,54 @@ class Query {
      * </ul>
      */
     List<QueryState.Label[]> run() {
+        return run(null);
+    }
 
-        // initially relax all source stops and add the newly improved stops by relaxation to the marked stops
-        initialize();
+    /**
+     * Runs the query (see {@link #run()}) and notifies the listener about each stop as soon as its best label can no
+     * longer improve. Without range raptor, stops are settled after each round; with range raptor, all stops are settled
+     * at the end of the query. Each reached stop is settled exactly once.
+     *
+     * @param settledStopListener the listener for settled stops, or null if no notification is needed.
+     */
+    List<QueryState.Label[]> run(@Nullable SettledStopListener settledStopListener) {
+        // the workspace is only borrowed while running, so that a query which never runs does not hold one
+        QueryWorkspace.Pool workspaces = raptorData.getQueryWorkspaces();
+        QueryWorkspace workspace = workspaces.acquire(timeType);
+        try {
+            queryState = new QueryState(workspace, timeType);
+
+            // set up footpath relaxer and route scanner and inject stop labels and times
+            footpathRelaxer = new FootpathRelaxer(queryState, workspace, raptorData,
+                    config.getMinimumTransferDuration(), config.getMaximumWalkDuration(), timeType,
+                    config.isAllowSourceTransfer(), config.isAllowTargetTransfer(), targetStopIndices);
+            routeScanner = new RouteScanner(queryState, workspace, raptorData, config, timeType, referenceDateTime,
+                    raptorConfig.getDaysToScan());
+
+            this.settledStopListener = settledStopListener;
+            this.settledStops = settledStopListener == null ? null : workspace.settledStops;
+
+            // initially relax all source stops and add the newly improved stops by relaxation to the marked stops
+            initialize();
+
+            footpathRelaxer.relaxInitial();
+            removeSuboptimalLabelsForRound(0);
+
+            // if range is 0 or smaller there is no range, and we don't need to rerun rounds with different offsets
+            if (raptorRange <= 0) {
+                doRounds();
+            } else {
+                doRangeRaptor();
+            }
 
-        footpathRelaxer.relaxInitial();
-        removeSuboptimalLabelsForRound(0);
+            // all remaining reached stops are final once the rounds are finished
+            settleStops(timeType == TimeType.DEPARTURE ? INFINITY : -INFINITY);
 
-        // if range is 0 or smaller there is no range, and we don't need to rerun rounds with different start offsets
-        if (raptorRange <= 0) {
-            doRounds();
-        } else {
-            doRangeRaptor();
+            return queryState.getBestLabelsPerRound();
+        } finally {
+            // the labels are not part of the workspace and stay valid
+            workspaces.release(workspace);
         }
-        return queryState.getBestLabelsPerRound();
     }
 
     void doRangeRaptor() {
@@ -129,6 +170,12 @@ class Query {
         List<Integer> rangeOffsets = getRangeOffsets(initialMarkedStops, routeScanner);
         // scan all range offsets in reverse order (earliest arrival / latest departure first)
         for (int offsetIdx = rangeOffsets.size() - 1; offsetIdx >= 0; offsetIdx--) {
+            // keep the labels of the already scanned range offsets if the query was cancelled
+            if (config.getCancellationToken().shouldStop()) {
+                log.debug("Query cancelled, skipping remaining {} range offsets", offsetIdx + 1);
+                break;
+            }
+
             queryState.resetRounds();
             int rangeOffset = rangeOffsets.get(offsetIdx);
             int timeFactor = timeType == TimeType.DEPARTURE ? 1 : -1;
@@ -159,6 +206,20 @@ class Query {
 
     }
 
+    /**
+     * Listener notified about stops whose best label is final.
+     */
+    @FunctionalInterface
+    interface SettledStopListener {
+
+        /**
+         * @param stopIdx            the index of the settled stop.
+         * @param bestLabelsPerRound the best labels per round found so far, including the final label of the stop.
+         */
+        void onSettled(int stopIdx, List<QueryState.Label[]> bestLabelsPerRound);
+
+    }
+
     /**
      * Method to perform the rounds of the routing algorithm (see {@link #run()}).
      */
@@ -166,6 +227,12 @@ class Query {
 
         // check if marked stops has any true values
         while (queryState.hasMarkedStops() && (queryState.getRound()) <= config.getMaximumTransfers()) {
+            // stop early and keep the labels found so far if the query was cancelled
+            if (config.getCancellationToken().shouldStop()) {
+                log.debug("Query cancelled after round {}", queryState.getRound());
+                break;
+            }
+
             // add label layer for new round
             queryState.addNewRound();
 
@@ -177,6 +244,60 @@ class Query {
 
             // prepare next round
             removeSuboptimalLabelsForRound(queryState.getRound());
+
+            // range raptor reruns the rounds with other offsets, therefore labels are only final after the last offset
+            if (raptorRange <= 0) {
+                settleStopsOfRound();
+            }
+        }
+    }
+
+    /**
+     * Settles all stops which cannot be improved in later rounds. Later rounds only board trips at the stops marked for
+     * the next round, therefore no later label can be earlier (departure) or later (arrival) than the best time of these
+     * stops.
+     */
+    private void settleStopsOfRound() {
+        if (settledStopListener == null) {
+            return;
+        }
+
+        int bound = timeType == TimeType.DEPARTURE ? INFINITY : -INFINITY;
+        for (int stopIdx = 0; stopIdx < numStops; stopIdx++) {
+            if (queryState.isMarkedNextRound(stopIdx)) {
+                int bestTime = queryState.getComparableBestTime(stopIdx);
+                bound = timeType == TimeType.DEPARTURE ? Math.min(bound, bestTime) : Math.max(bound, bestTime);
+            }
+        }
+
+        settleStops(bound);
+    }
+
+    /**
+     * Settles all reached stops whose best time cannot be improved by a label with a target time beyond the bound.
+     *
+     * @param bound the earliest (departure) or latest (arrival) target time of any label in later rounds.
+     */
+    private void settleStops(int bound) {
+        if (settledStopListener == null || settledStops == null) {
+            return;
+        }
+
+        int timeDirection = timeType == TimeType.DEPARTURE ? 1 : -1;
+        int unreachable = timeDirection * INFINITY;
+        for (int stopIdx = 0; stopIdx < numStops; stopIdx++) {
+            int bestTime = queryState.getComparableBestTime(stopIdx);
+            if (settledStops[stopIdx] || bestTime == unreachable) {
+                continue;
+            }
+
+            // comparable times of transfer labels are shifted by the same stop transfer time, which a later transfer
+            // label could also be shifted by
+            int latestImprovingTime = bestTime + timeDirection * stops[stopIdx].sameStopTransferTime();
+            if (latestImprovingTime * timeDirection <= bound * timeDirection) {
+                settledStops[stopIdx] = true;
+                settledStopListener.onSettled(stopIdx, queryState.getBestLabelsPerRound());
+            }
         }
     }
 
@@ -33,16 +33,17 @@ final class QueryState {
     @Getter
     private int round;
 
-    QueryState(int stopSize, TimeType timeType) {
-        this.stopSize = stopSize;
+    /**
+     * @param workspace the workspace of the query, with the best times set to their initial value and no marked stops.
+     * @param timeType  the time type (arrival or departure).
+     */
+    QueryState(QueryWorkspace workspace, TimeType timeType) {
+        this.stopSize = workspace.bestTimeForStops.length;
         this.timeType = timeType;
 
-        // set best times to initial value
-        bestTimeForStops = new int[stopSize];
-        Arrays.fill(bestTimeForStops, timeType == TimeType.DEPARTURE ? INFINITY : -INFINITY);
-
-        markedStopsMaskThisRound = new boolean[stopSize];
-        markedStopsMaskNextRound = new boolean[stopSize];
+        bestTimeForStops = workspace.bestTimeForStops;
+        markedStopsMaskThisRound = workspace.markedStopsMaskThisRound;
+        markedStopsMaskNextRound = workspace.markedStopsMaskNextRound;
 
         round = -1;
 
@@ -194,10 +195,10 @@ final class QueryState {
     }
 
     /**
-     * Creates a deep copy of the marked stops mask for the next round.
+     * Copies the marked stops mask for the next round into the target mask.
      */
-    boolean[] cloneMarkedStopsMaskNextRound() {
-        return markedStopsMaskNextRound.clone();
+    void copyMarkedStopsMaskNextRound(boolean[] target) {
+        System.arraycopy(markedStopsMaskNextRound, 0, target, 0, stopSize);
     }
 
     /**
@@ -0,0 +1,94 @@
+package org.naviqore.raptor.router;
+
+import org.naviqore.raptor.TimeType;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.naviqore.raptor.router.QueryState.INFINITY;
+
+/**
+ * Scratch arrays of a running query, sized by the stops and routes of the router. The arrays are only used while the
+ * query runs, so a workspace is reused by the next query instead of allocating the arrays for every query. The labels
+ * of a query are not part of the workspace, since they are returned as result and may be cached.
+ */
+final class QueryWorkspace {
+
+    final int[] bestTimeForStops;
+    final boolean[] markedStopsMaskThisRound;
+    final boolean[] markedStopsMaskNextRound;
+    final boolean[] routeMarkedStops;
+    final boolean[] targetStops;
+    final boolean[] settledStops;
+    final boolean[] routesToScanMask;
+
+    private QueryWorkspace(int numStops, int numRoutes) {
+        bestTimeForStops = new int[numStops];
+        markedStopsMaskThisRound = new boolean[numStops];
+        markedStopsMaskNextRound = new boolean[numStops];
+        routeMarkedStops = new boolean[numStops];
+        targetStops = new boolean[numStops];
+        settledStops = new boolean[numStops];
+        routesToScanMask = new boolean[numRoutes];
+    }
+
+    /**
+     * Resets the arrays, which are read before they are written, to the initial state of a query.
+     */
+    private void reset(TimeType timeType) {
+        Arrays.fill(bestTimeForStops, timeType == TimeType.DEPARTURE ? INFINITY : -INFINITY);
+        Arrays.fill(markedStopsMaskThisRound, false);
+        Arrays.fill(markedStopsMaskNextRound, false);
+        Arrays.fill(targetStops, false);
+        Arrays.fill(settledStops, false);
+    }
+
+    /**
+     * Pool of idle workspaces of a router. A workspace is borrowed by a query for the time it runs, so each thread
+     * routing concurrently uses its own workspace, while threads that rarely route, e.g. idle request threads, do not
+     * hold one. At most one workspace per processor is kept idle, further workspaces are left to the garbage collector.
+     */
+    static final class Pool {
+
+        private final int numStops;
+        private final int numRoutes;
+        private final BlockingQueue<QueryWorkspace> idle;
+
+        Pool(int numStops, int numRoutes) {
+            this(numStops, numRoutes, Runtime.getRuntime().availableProcessors());
+        }
+
+        Pool(int numStops, int numRoutes, int capacity) {
+            this.numStops = numStops;
+            this.numRoutes = numRoutes;
+            this.idle = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /**
+         * Borrows an idle workspace or creates a new one, reset for a query of the time type.
+         */
+        QueryWorkspace acquire(TimeType timeType) {
+            QueryWorkspace workspace = idle.poll();
+            if (workspace == null) {
+                workspace = new QueryWorkspace(numStops, numRoutes);
+            }
+            workspace.reset(timeType);
+            return workspace;
+        }
+
+        /**
+         * Returns a workspace of a finished query, the query must not access it afterward.
+         */
+        void release(QueryWorkspace workspace) {
+            // drops the workspace if enough workspaces are idle
+            idle.offer(workspace);
+        }
+
+        int getIdleCount() {
+            return idle.size();
+        }
+
+    }
+
+}
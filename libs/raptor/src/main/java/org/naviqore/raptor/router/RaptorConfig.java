@@ -29,6 +29,10 @@ public class RaptorConfig {
     @Setter
     private EvictionCache.Strategy stopTimeCacheStrategy = EvictionCache.Strategy.LRU;
 
+    private int labelCacheSize = 0; // disabled
+
+    private int transferCompactionTolerance = -1; // disabled
+
     public RaptorConfig(int daysToScan, int raptorRange, int defaultSameStopTransferDuration, int stopTimeCacheSize,
                         EvictionCache.Strategy stopTimeCacheStrategy, RaptorTripMaskProvider maskProvider) {
         setRaptorRange(raptorRange);
@@ -61,9 +65,37 @@ public class RaptorConfig {
         this.stopTimeCacheSize = stopTimeCacheSize;
     }
 
+    /**
+     * Sets the number of one-to-all label sets kept by the router to answer repeated queries from the same source stops
+     * and times. Each entry holds one label array per round over all stops, so the memory footprint grows with the
+     * network size. A connection query missing the cache runs the one-to-all query without pruning at its targets,
+     * which is slower than the query without the cache, so the cache only pays off if sources are frequently repeated.
+     * A size of 0 disables the cache.
+     */
+    public void setLabelCacheSize(int labelCacheSize) {
+        if (labelCacheSize < 0) {
+            throw new IllegalArgumentException("Label cache size must be greater than or equal to 0.");
+        }
+        this.labelCacheSize = labelCacheSize;
+    }
+
+    /**
+     * Sets the tolerance in seconds of the transfer compaction when building the router. A transfer from a stop is
+     * removed if the stop has another transfer to the same station, whose target stop serves all routes of the removed
+     * target stop and is reached at most the tolerance later. Walking still reaches the station and its routes, but no
+     * longer the removed target stop itself, so a connection may board a route at another stop and depart earlier. A
+     * negative tolerance disables the compaction.
+     */
+    public void setTransferCompactionTolerance(int transferCompactionTolerance) {
+        this.transferCompactionTolerance = transferCompactionTolerance;
+    }
+
     public RaptorConfig copy() {
-        return new RaptorConfig(daysToScan, raptorRange, defaultSameStopTransferDuration, stopTimeCacheSize,
-                stopTimeCacheStrategy, maskProvider);
+        RaptorConfig copy = new RaptorConfig(daysToScan, raptorRange, defaultSameStopTransferDuration,
+                stopTimeCacheSize, stopTimeCacheStrategy, maskProvider);
+        copy.setLabelCacheSize(labelCacheSize);
+        copy.setTransferCompactionTolerance(transferCompactionTolerance);
+        return copy;
     }
 
     /**
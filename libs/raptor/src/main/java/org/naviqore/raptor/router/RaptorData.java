@@ -13,4 +13,6 @@ interface RaptorData {
 
     StopTimeProvider getStopTimeProvider();
 
+    QueryWorkspace.Pool getQueryWorkspaces();
+
 }
@@ -3,15 +3,17 @@ package org.naviqore.raptor.router;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.naviqore.raptor.Connection;
-import org.naviqore.raptor.QueryConfig;
-import org.naviqore.raptor.RaptorAlgorithm;
-import org.naviqore.raptor.TimeType;
+import org.jspecify.annotations.Nullable;
+import org.naviqore.raptor.*;
+import org.naviqore.utils.concurrent.BatchProcessor;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 /**
  * RAPTOR algorithm implementation
@@ -19,6 +21,11 @@ import java.util.*;
 @Slf4j
 public class RaptorRouter implements RaptorAlgorithm, RaptorData {
 
+    /**
+     * Index returned by {@link #getStopIndex(String)} for stops that are not part of the router.
+     */
+    public static final int NO_STOP_INDEX = QueryState.NO_INDEX;
+
     @Getter
     private final Lookup lookup;
 
@@ -31,10 +38,15 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
     @Getter
     private final StopTimeProvider stopTimeProvider;
 
+    @Getter
+    private final QueryWorkspace.Pool queryWorkspaces;
+
     private final RaptorConfig config;
 
     private final InputValidator validator;
 
+    private final @Nullable LabelCache labelCache;
+
     RaptorRouter(Lookup lookup, StopContext stopContext, RouteTraversal routeTraversal, RaptorConfig config) {
         this.lookup = lookup;
         this.stopContext = stopContext;
@@ -45,6 +57,8 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
         this.stopTimeProvider = new StopTimeProvider(this, config.getMaskProvider(), config.getStopTimeCacheSize(),
                 config.getStopTimeCacheStrategy());
         validator = new InputValidator(lookup.stops());
+        queryWorkspaces = new QueryWorkspace.Pool(stopContext.stops().length, routeTraversal.routes().length);
+        labelCache = config.getLabelCacheSize() > 0 ? new LabelCache(config.getLabelCacheSize()) : null;
     }
 
     public static RaptorRouterBuilder builder(RaptorConfig config) {
@@ -55,6 +69,22 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
         stopTimeProvider.getStopTimesForDate(date, new QueryConfig());
     }
 
+    /**
+     * Gets the hit and miss counters of the one-to-all label cache (see {@link RaptorConfig#setLabelCacheSize(int)}).
+     */
+    public LabelCacheStatistics getLabelCacheStatistics() {
+        return labelCache == null ? new LabelCacheStatistics(0, 0, 0, 0) : labelCache.getStatistics();
+    }
+
+    /**
+     * Removes all cached one-to-all labels. The statistics counters are kept.
+     */
+    public void clearLabelCache() {
+        if (labelCache != null) {
+            labelCache.clear();
+        }
+    }
+
     @Override
     public List<Connection> routeEarliestArrival(Map<String, OffsetDateTime> departureStops,
                                                  Map<String, Integer> arrivalStops, QueryConfig config) {
@@ -82,6 +112,20 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
     @Override
     public Map<String, Connection> routeIsolines(Map<String, OffsetDateTime> sourceStops, TimeType timeType,
                                                  QueryConfig config) {
+        Map<String, Connection> isolines = new HashMap<>();
+        routeIsolines(sourceStops, timeType, config, isolines::put);
+
+        return isolines;
+    }
+
+    /**
+     * Streams the connection of each stop as soon as the stop is settled, i.e. its best label can no longer improve in
+     * later rounds. Stops reached with few transfers are therefore passed before the routing has finished. With range
+     * raptor, all connections are passed at the end of the query.
+     */
+    @Override
+    public void routeIsolines(Map<String, OffsetDateTime> sourceStops, TimeType timeType, QueryConfig config,
+                              BiConsumer<String, Connection> consumer) {
         InputValidator.checkNonNullOrEmptyStops(sourceStops, "Source");
         InputValidator.validateSourceStopTimes(sourceStops);
 
@@ -100,10 +144,62 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
 
         int[] sourceStopIndices = validatedSourceStopIdx.keySet().stream().mapToInt(Integer::intValue).toArray();
         int[] refStopTimes = validatedSourceStopIdx.values().stream().mapToInt(Integer::intValue).toArray();
-        List<QueryState.Label[]> bestLabelsPerRound = new Query(this, sourceStopIndices, new int[]{}, refStopTimes,
-                new int[]{}, config, timeType, referenceDateTime, this.config).run();
 
-        return new LabelPostprocessor(this, timeType, referenceDateTime).reconstructIsolines(bestLabelsPerRound);
+        LabelPostprocessor postprocessor = new LabelPostprocessor(this, timeType, referenceDateTime);
+        ConnectionSink sink = (stopIdx, connection) -> consumer.accept(stopContext.stops()[stopIdx].id(),
+                connection);
+        Query.SettledStopListener listener = (stopIdx, bestLabelsPerRound) -> postprocessor.reconstructIsoline(
+                bestLabelsPerRound, stopIdx, sink);
+
+        if (labelCache == null) {
+            new Query(this, sourceStopIndices, new int[]{}, refStopTimes, new int[]{}, config, timeType,
+                    referenceDateTime, this.config).run(listener);
+            return;
+        }
+
+        // stream while running the query on a cache miss, reconstruct all isolines at once on a cache hit
+        boolean[] streamed = {false};
+        List<QueryState.Label[]> bestLabelsPerRound = labelCache.computeIfAbsent(sourceStopIndices, refStopTimes,
+                timeType, referenceDateTime, config, () -> {
+                    streamed[0] = true;
+                    return new Query(this, sourceStopIndices, new int[]{}, refStopTimes, new int[]{}, config,
+                            timeType, referenceDateTime, this.config).run(listener);
+                });
+        if (!streamed[0]) {
+            postprocessor.reconstructIsolines(bestLabelsPerRound, sink);
+        }
+    }
+
+    /**
+     * Routes a batch of connection queries. Queries are grouped by their service date and the parts of the query
+     * configuration that affect the stop times of a day, so that the stop times are prepared once per group. The groups
+     * are processed concurrently on the given executor, the first query of a group before the remaining ones. The
+     * executor bounds the parallelism, and with it the number of query workspaces of the router.
+     */
+    @Override
+    public List<List<Connection>> routeConnections(List<ConnectionQuery> queries, Executor executor) {
+        log.debug("Routing batch of {} connection queries", queries.size());
+
+        return BatchProcessor.process(queries, RaptorRouter::getBatchGroupKey, query -> switch (query.timeType()) {
+            case DEPARTURE -> routeEarliestArrival(query.sourceStops(), query.targetStops(), query.config());
+            case ARRIVAL -> routeLatestDeparture(query.targetStops(), query.sourceStops(), query.config());
+        }, executor);
+    }
+
+    private static @Nullable BatchGroupKey getBatchGroupKey(ConnectionQuery query) {
+        Map<String, OffsetDateTime> sourceStops = query.sourceStops();
+        QueryConfig config = query.config();
+
+        // invalid queries are grouped together and will fail during validation of the query
+        if (sourceStops == null || sourceStops.isEmpty() || sourceStops.values()
+                .stream()
+                .anyMatch(Objects::isNull) || config == null || query.timeType() == null) {
+            return null;
+        }
+
+        LocalDate referenceDate = DateTimeConverter.getReference(sourceStops, query.timeType()).toLocalDate();
+        return new BatchGroupKey(referenceDate, config.isWheelchairAccessible(), config.isBikeAccessible(),
+                config.getAllowedTravelModes());
     }
 
     /**
@@ -136,11 +232,146 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
         int[] targetStopIndices = validatedTargetStops.keySet().stream().mapToInt(Integer::intValue).toArray();
         int[] walkDurationsToTarget = validatedTargetStops.values().stream().mapToInt(Integer::intValue).toArray();
 
-        List<QueryState.Label[]> bestLabelsPerRound = new Query(this, sourceStopIndices, targetStopIndices, sourceTimes,
-                walkDurationsToTarget, config, timeType, referenceDateTime, this.config).run();
+        List<QueryState.Label[]> bestLabelsPerRound = runQuery(sourceStopIndices, targetStopIndices, sourceTimes,
+                walkDurationsToTarget, config, timeType, referenceDateTime);
 
         return new LabelPostprocessor(this, timeType, referenceDateTime).reconstructParetoOptimalSolutions(
-                bestLabelsPerRound, validatedTargetStops);
+                bestLabelsPerRound, targetStopIndices, walkDurationsToTarget);
+    }
+
+    /**
+     * Resolves the internal index of a stop. The index can be used with the index-based routing methods and stays valid
+     * for the lifetime of this router instance.
+     *
+     * @param stopId the id of the stop.
+     * @return the index of the stop, or {@link #NO_STOP_INDEX} if the stop is not part of the router.
+     */
+    public int getStopIndex(String stopId) {
+        Integer stopIdx = lookup.stops().get(stopId);
+        return stopIdx == null ? NO_STOP_INDEX : stopIdx;
+    }
+
+    /**
+     * Resolves the id of a stop by its internal index.
+     *
+     * @param stopIdx the index of the stop.
+     * @return the id of the stop.
+     */
+    public String getStopId(int stopIdx) {
+        InputValidator.checkStopIndex(stopIdx, stopContext.stops().length);
+        return stopContext.stops()[stopIdx].id();
+    }
+
+    /**
+     * Index-based variant of {@link #routeEarliestArrival(Map, Map, QueryConfig)} for bulk callers. Stops are passed as
+     * pre-resolved indices (see {@link #getStopIndex(String)}) and times as epoch seconds, which avoids the map
+     * lookups, boxing and stream processing of the id-based method. Unlike the id-based method, unknown stops are not
+     * silently dropped, every index has to be valid.
+     *
+     * @param departureStopIndices   the indices of the departure stops.
+     * @param departureEpochSeconds  the departure times at the departure stops in epoch seconds.
+     * @param arrivalStopIndices     the indices of the arrival stops.
+     * @param walkDurationsToArrival the walk durations from the arrival stops to the destination in seconds.
+     * @param zoneId                 the zone used to determine the service date and the offset of walk-only legs.
+     * @param config                 the query configuration.
+     * @param sink                   the sink receiving the pareto-optimal connections.
+     */
+    public void routeEarliestArrival(int[] departureStopIndices, long[] departureEpochSeconds,
+                                     int[] arrivalStopIndices, int[] walkDurationsToArrival, ZoneId zoneId,
+                                     QueryConfig config, ConnectionSink sink) {
+        route(departureStopIndices, departureEpochSeconds, arrivalStopIndices, walkDurationsToArrival,
+                TimeType.DEPARTURE, zoneId, config, sink);
+    }
+
+    /**
+     * Index-based variant of {@link #routeLatestDeparture(Map, Map, QueryConfig)} for bulk callers. See
+     * {@link #routeEarliestArrival(int[], long[], int[], int[], ZoneId, QueryConfig, ConnectionSink)} for details.
+     *
+     * @param departureStopIndices       the indices of the departure stops.
+     * @param walkDurationsFromDeparture the walk durations from the origin to the departure stops in seconds.
+     * @param arrivalStopIndices         the indices of the arrival stops.
+     * @param arrivalEpochSeconds        the arrival times at the arrival stops in epoch seconds.
+     * @param zoneId                     the zone used to determine the service date and the offset of walk-only legs.
+     * @param config                     the query configuration.
+     * @param sink                       the sink receiving the pareto-optimal connections.
+     */
+    public void routeLatestDeparture(int[] departureStopIndices, int[] walkDurationsFromDeparture,
+                                     int[] arrivalStopIndices, long[] arrivalEpochSeconds, ZoneId zoneId,
+                                     QueryConfig config, ConnectionSink sink) {
+        route(arrivalStopIndices, arrivalEpochSeconds, departureStopIndices, walkDurationsFromDeparture,
+                TimeType.ARRIVAL, zoneId, config, sink);
+    }
+
+    /**
+     * Index-based variant of {@link #routeIsolines(Map, TimeType, QueryConfig)} for bulk callers. See
+     * {@link #routeEarliestArrival(int[], long[], int[], int[], ZoneId, QueryConfig, ConnectionSink)} for details.
+     *
+     * @param sourceStopIndices  the indices of the source stops.
+     * @param sourceEpochSeconds the departure/arrival times at the source stops in epoch seconds.
+     * @param timeType           the type of time to route for (arrival or departure).
+     * @param zoneId             the zone used to determine the service date and the offset of walk-only legs.
+     * @param config             the query configuration.
+     * @param sink               the sink receiving the best connection for each reachable stop.
+     */
+    public void routeIsolines(int[] sourceStopIndices, long[] sourceEpochSeconds, TimeType timeType, ZoneId zoneId,
+                              QueryConfig config, ConnectionSink sink) {
+        int numStops = stopContext.stops().length;
+        InputValidator.checkStopIndices(sourceStopIndices, numStops, "Source");
+        InputValidator.validateSourceEpochSeconds(sourceEpochSeconds, sourceStopIndices.length);
+
+        OffsetDateTime referenceDateTime = DateTimeConverter.getReference(sourceEpochSeconds, timeType, zoneId);
+        int[] sourceTimes = DateTimeConverter.toUtcSeconds(sourceEpochSeconds, referenceDateTime.toLocalDate());
+
+        List<QueryState.Label[]> bestLabelsPerRound = runQuery(sourceStopIndices, new int[]{}, sourceTimes,
+                new int[]{}, config, timeType, referenceDateTime);
+
+        new LabelPostprocessor(this, timeType, referenceDateTime).reconstructIsolines(bestLabelsPerRound, sink);
+    }
+
+    private void route(int[] sourceStopIndices, long[] sourceEpochSeconds, int[] targetStopIndices,
+                       int[] walkDurationsToTarget, TimeType timeType, ZoneId zoneId, QueryConfig config,
+                       ConnectionSink sink) {
+        int numStops = stopContext.stops().length;
+        InputValidator.checkStopIndices(sourceStopIndices, numStops, "Source");
+        InputValidator.checkStopIndices(targetStopIndices, numStops, "Target");
+        InputValidator.validateSourceEpochSeconds(sourceEpochSeconds, sourceStopIndices.length);
+        InputValidator.validateStopIndexPermutations(sourceStopIndices, targetStopIndices, walkDurationsToTarget);
+
+        OffsetDateTime referenceDateTime = DateTimeConverter.getReference(sourceEpochSeconds, timeType, zoneId);
+        int[] sourceTimes = DateTimeConverter.toUtcSeconds(sourceEpochSeconds, referenceDateTime.toLocalDate());
+
+        List<QueryState.Label[]> bestLabelsPerRound = runQuery(sourceStopIndices, targetStopIndices, sourceTimes,
+                walkDurationsToTarget, config, timeType, referenceDateTime);
+
+        new LabelPostprocessor(this, timeType, referenceDateTime).reconstructParetoOptimalSolutions(bestLabelsPerRound,
+                targetStopIndices, walkDurationsToTarget, sink);
+    }
+
+    /**
+     * Runs the query or, if the label cache is enabled, gets the labels of the one-to-all query from the same sources
+     * from the cache. The one-to-all labels contain the labels of any target, so connections can be reconstructed for
+     * every target from them. On a cache miss, the one-to-all query is not pruned by the best time at the targets and
+     * is therefore slower than the query without the cache.
+     */
+    private List<QueryState.Label[]> runQuery(int[] sourceStopIndices, int[] targetStopIndices, int[] sourceTimes,
+                                              int[] walkDurationsToTarget, QueryConfig config, TimeType timeType,
+                                              OffsetDateTime referenceDateTime) {
+        boolean cacheable = targetStopIndices.length == 0 || LabelCache.isCacheable(config);
+        if (labelCache == null || !cacheable) {
+            return new Query(this, sourceStopIndices, targetStopIndices, sourceTimes, walkDurationsToTarget, config,
+                    timeType, referenceDateTime, this.config).run();
+        }
+
+        return labelCache.computeIfAbsent(sourceStopIndices, sourceTimes, timeType, referenceDateTime, config,
+                () -> new Query(this, sourceStopIndices, new int[]{}, sourceTimes, new int[]{}, config, timeType,
+                        referenceDateTime, this.config).run());
+    }
+
+    /**
+     * Key to group batch queries sharing the same stop times.
+     */
+    private record BatchGroupKey(LocalDate date, boolean wheelchairAccessible, boolean bikeAccessible,
+                                 Set<TravelMode> travelModes) {
     }
 
     /**
@@ -186,6 +417,60 @@ public class RaptorRouter implements RaptorAlgorithm, RaptorData {
             }
         }
 
+        private static void checkStopIndex(int stopIdx, int numStops) {
+            if (stopIdx < 0 || stopIdx >= numStops) {
+                throw new InvalidStopException(String.format("Stop index %d is out of range.", stopIdx));
+            }
+        }
+
+        private static void checkStopIndices(int[] stopIndices, int numStops, String labelSource) {
+            if (stopIndices == null) {
+                throw new InvalidStopException(String.format("%s stops must not be null.", labelSource));
+            }
+            if (stopIndices.length == 0) {
+                throw new InvalidStopException(String.format("%s stops must not be empty.", labelSource));
+            }
+            for (int stopIdx : stopIndices) {
+                checkStopIndex(stopIdx, numStops);
+            }
+        }
+
+        private static void validateSourceEpochSeconds(long[] sourceEpochSeconds, int numSourceStops) {
+            if (sourceEpochSeconds == null || sourceEpochSeconds.length != numSourceStops) {
+                throw new InvalidTimeException("Source stops and source stop times must have the same size.");
+            }
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long epochSecond : sourceEpochSeconds) {
+                min = Math.min(min, epochSecond);
+                max = Math.max(max, epochSecond);
+            }
+            if (max - min > MAX_DIFFERENCE_IN_SOURCE_STOP_TIMES) {
+                throw new InvalidTimeException("Difference between source stop times must be less than 24 hours.");
+            }
+        }
+
+        private static void validateStopIndexPermutations(int[] sourceStopIndices, int[] targetStopIndices,
+                                                          int[] walkDurationsToTarget) {
+            if (walkDurationsToTarget == null || walkDurationsToTarget.length != targetStopIndices.length) {
+                throw new IllegalArgumentException(
+                        "Target stops and walk durations to target must have the same size.");
+            }
+            for (int duration : walkDurationsToTarget) {
+                validateWalkDurationToTarget(duration);
+            }
+
+            // ensure departure and arrival stops are not the same, arrays are small so a nested loop is sufficient
+            for (int sourceStopIdx : sourceStopIndices) {
+                for (int targetStopIdx : targetStopIndices) {
+                    if (sourceStopIdx == targetStopIdx) {
+                        throw new InvalidStopException("Source and target stop IDs must not be the same.");
+                    }
+                }
+            }
+        }
+
         private static void validateWalkDurationToTarget(int duration) {
             if (duration < MIN_WALK_DURATION_TO_TARGET) {
                 throw new IllegalArgumentException(
@@ -29,10 +29,12 @@ public class RaptorRouterBuilder {
     private final Map<String, Map<String, Transfer>> transfers = new HashMap<>();
     private final Map<String, Integer> sameStopTransfers = new HashMap<>();
     private final Map<String, Set<String>> stopRoutes = new HashMap<>();
+    private final Map<String, String> stopStations = new HashMap<>();
 
     int stopTimeSize = 0;
     int routeStopSize = 0;
     int transferSize = 0;
+    int frequencySize = 0;
 
     public RaptorRouterBuilder(RaptorConfig config) {
         this.config = config;
@@ -50,6 +52,17 @@ public class RaptorRouterBuilder {
         return this;
     }
 
+    /**
+     * Adds a stop of a station, e.g. a platform of a parent station. The station is only used to compact the transfers
+     * to its stops, see {@link RaptorConfig#setTransferCompactionTolerance(int)}.
+     */
+    public RaptorRouterBuilder addStop(String id, String stationId) {
+        addStop(id);
+        stopStations.put(id, stationId);
+
+        return this;
+    }
+
     public RaptorRouterBuilder addRoute(String id, ZoneId zoneId, List<String> stopIds) {
         if (routeBuilders.containsKey(id)) {
             throw new IllegalArgumentException("Route " + id + " already exists");
@@ -74,6 +87,37 @@ public class RaptorRouterBuilder {
         return this;
     }
 
+    /**
+     * Adds a trip with all its stop times at once, which avoids an object per stop time while building.
+     *
+     * @param tripId    the id of the trip.
+     * @param routeId   the id of the route, the trip serves all stops of the route.
+     * @param stopTimes alternating arrival and departure times in seconds for each stop of the route, the array is
+     *                  taken over by the builder and must not be modified afterward.
+     */
+    public RaptorRouterBuilder addTrip(String tripId, String routeId, int[] stopTimes) {
+        getRouteBuilder(routeId).addTrip(tripId, stopTimes);
+        stopTimeSize += stopTimes.length / 2;
+
+        return this;
+    }
+
+    /**
+     * Adds headway-based service, the trip is the template of the departures and is not scanned as a scheduled trip.
+     *
+     * @param tripId    the id of the template trip, which must have been added to the route.
+     * @param routeId   the id of the route of the template trip.
+     * @param startTime the departure time of the first trip from the first stop in seconds.
+     * @param endTime   the time at which the service ends in seconds, exclusive.
+     * @param headway   the time between two departures in seconds.
+     */
+    public RaptorRouterBuilder addFrequency(String tripId, String routeId, int startTime, int endTime, int headway) {
+        getRouteBuilder(routeId).addFrequency(tripId, startTime, endTime, headway);
+        frequencySize++;
+
+        return this;
+    }
+
     public RaptorRouterBuilder addStopTime(String routeId, String tripId, int position, String stopId, int arrival,
                                            int departure) {
         StopTime stopTime = new StopTime(arrival, departure);
@@ -111,8 +155,14 @@ public class RaptorRouterBuilder {
     }
 
     public RaptorRouter build() {
-        log.info("Initializing RAPTOR router with {} stops, {} routes, {} route stops, {} stop times, {} transfers",
-                stops.size(), routeBuilders.size(), routeStopSize, stopTimeSize, transferSize);
+        log.info(
+                "Initializing RAPTOR router with {} stops, {} routes, {} route stops, {} stop times, {} frequencies, " +
+                        "{} transfers", stops.size(), routeBuilders.size(), routeStopSize, stopTimeSize, frequencySize,
+                transferSize);
+
+        if (config.getTransferCompactionTolerance() >= 0) {
+            compactTransfers(config.getTransferCompactionTolerance());
+        }
 
         // build route containers and the raptor array-based data structures
         List<RouteBuilder.RouteContainer> routeContainers = buildAndSortRouteContainers();
@@ -123,8 +173,71 @@ public class RaptorRouterBuilder {
         return new RaptorRouter(lookup, stopContext, routeTraversal, config);
     }
 
+    /**
+     * Removes transfers of a stop which are dominated by another transfer of the stop to the same station: The target
+     * stop of the other transfer serves all routes of the dominated target stop and is reached at most the tolerance
+     * later. Transfers are derived for each stop of a station, so that the same footpath is often repeated to stops
+     * serving the same routes.
+     */
+    private void compactTransfers(int tolerance) {
+        int transfersBefore = transferSize;
+        String[] stopIds = new String[stops.size()];
+        stops.forEach((stopId, stopIdx) -> stopIds[stopIdx] = stopId);
+
+        for (Map<String, Transfer> stopTransfers : transfers.values()) {
+            // group the transfers of the source stop by the station of their target stop
+            Map<String, List<Transfer>> stationTransfers = new HashMap<>();
+            for (Transfer transfer : stopTransfers.values()) {
+                String targetStopId = stopIds[transfer.targetStopIdx()];
+                stationTransfers.computeIfAbsent(stopStations.getOrDefault(targetStopId, targetStopId),
+                        _ -> new ArrayList<>()).add(transfer);
+            }
+
+            Set<Transfer> dominated = new HashSet<>();
+            for (List<Transfer> candidates : stationTransfers.values()) {
+                if (candidates.size() < 2) {
+                    continue;
+                }
+
+                // target stops serving more routes first, so that a dominating transfer is kept before the transfers
+                // it dominates
+                candidates.sort(Comparator.comparingInt(
+                                (Transfer transfer) -> -stopRoutes.get(stopIds[transfer.targetStopIdx()]).size())
+                        .thenComparingInt(Transfer::duration)
+                        .thenComparingInt(Transfer::targetStopIdx));
+
+                List<Transfer> kept = new ArrayList<>();
+                for (Transfer candidate : candidates) {
+                    Set<String> candidateRoutes = stopRoutes.get(stopIds[candidate.targetStopIdx()]);
+                    if (kept.stream()
+                            .anyMatch(transfer -> transfer.duration() <= candidate.duration() + tolerance &&
+                                    stopRoutes.get(stopIds[transfer.targetStopIdx()]).containsAll(candidateRoutes))) {
+                        dominated.add(candidate);
+                    } else {
+                        kept.add(candidate);
+                    }
+                }
+            }
+
+            stopTransfers.values().removeIf(dominated::contains);
+            transferSize -= dominated.size();
+        }
+
+        log.info("Compacted transfers from {} to {} with a tolerance of {} seconds", transfersBefore, transferSize,
+                tolerance);
+    }
+
     private List<RouteBuilder.RouteContainer> buildAndSortRouteContainers() {
-        return routeBuilders.values().parallelStream().map(RouteBuilder::build).sorted().toList();
+        List<RouteBuilder.RouteContainer> routeContainers = routeBuilders.values()
+                .parallelStream()
+                .map(RouteBuilder::build)
+                .sorted()
+                .toList();
+
+        // the containers hold a copy of the stop times, release the stop times of the route builders
+        routeBuilders.clear();
+
+        return routeContainers;
     }
 
     private Lookup buildLookup(List<RouteBuilder.RouteContainer> routeContainers) {
@@ -136,7 +249,7 @@ public class RaptorRouterBuilder {
         for (int i = 0; i < routeContainers.size(); i++) {
             RouteBuilder.RouteContainer routeContainer = routeContainers.get(i);
             routes.put(routeContainer.id(), i);
-            routeTripIds.put(routeContainer.id(), routeContainer.trips().keySet().toArray(new String[0]));
+            routeTripIds.put(routeContainer.id(), routeContainer.tripIds());
         }
 
         return new Lookup(Map.copyOf(stops), Map.copyOf(routes), Map.copyOf(routeTripIds));
@@ -164,8 +277,13 @@ public class RaptorRouterBuilder {
             }
 
             // get the number of (optional) transfers
+            // sorted by duration, so that the footpath relaxation stops at the first transfer exceeding the maximum
+            // walk duration of the query
             Map<String, Transfer> currentTransfersMap = transfers.get(stopId);
-            Collection<Transfer> currentTransfers = currentTransfersMap == null ? Collections.emptyList() : currentTransfersMap.values();
+            List<Transfer> currentTransfers = currentTransfersMap == null ? List.of() : currentTransfersMap.values()
+                    .stream()
+                    .sorted(Comparator.comparingInt(Transfer::duration).thenComparingInt(Transfer::targetStopIdx))
+                    .toList();
             int numberOfTransfers = currentTransfers.size();
 
             int sameStopTransferTime = sameStopTransfers.getOrDefault(stopId,
@@ -197,6 +315,7 @@ public class RaptorRouterBuilder {
         Route[] routeArr = new Route[routeContainers.size()];
         RouteStop[] routeStopArr = new RouteStop[routeStopSize];
         int[] stopTimeArr = new int[2 + (stopTimeSize * 2) + (routeContainers.size() * 2)];
+        int[] frequencyArr = new int[frequencySize * RouteTraversal.FREQUENCY_SIZE];
 
         // iterate over routes and populate arrays
         int routeStopCnt = 0;
@@ -206,36 +325,38 @@ public class RaptorRouterBuilder {
         stopTimeArr[1] = RaptorTripMaskProvider.RouteTripMask.NO_TRIP;
 
         int stopTimeCnt = 2;
+        int frequencyCnt = 0;
         for (int routeIdx = 0; routeIdx < routeContainers.size(); routeIdx++) {
             RouteBuilder.RouteContainer routeContainer = routeContainers.get(routeIdx);
 
             // add route entry to route array
-            final int numberOfStops = routeContainer.stopSequence().size();
-            final int numberOfTrips = routeContainer.trips().size();
+            final int numberOfStops = routeContainer.stopSequence().length;
+            final int numberOfFrequencies = routeContainer.frequencies().length / RouteTraversal.FREQUENCY_SIZE;
             routeArr[routeIdx] = new Route(routeContainer.id(), routeContainer.zoneId(), routeStopCnt, numberOfStops,
-                    stopTimeCnt, numberOfTrips, routeContainer.trips().keySet().toArray(new String[0]));
+                    stopTimeCnt, routeContainer.numberOfTrips(), frequencyCnt / RouteTraversal.FREQUENCY_SIZE,
+                    numberOfFrequencies, routeContainer.tripIds());
 
             // will be route day min/max values
             stopTimeArr[stopTimeCnt++] = RaptorTripMaskProvider.RouteTripMask.NO_TRIP;
             stopTimeArr[stopTimeCnt++] = RaptorTripMaskProvider.RouteTripMask.NO_TRIP;
 
             // add stops to route stop array
-            Map<Integer, String> stopSequence = routeContainer.stopSequence();
-            for (int position = 0; position < numberOfStops; position++) {
-                int stopIdx = stops.get(stopSequence.get(position));
-                routeStopArr[routeStopCnt++] = new RouteStop(stopIdx, routeIdx);
+            for (String stopId : routeContainer.stopSequence()) {
+                routeStopArr[routeStopCnt++] = new RouteStop(stops.get(stopId), routeIdx);
             }
 
-            // add times to stop time array
-            for (StopTime[] stopTimes : routeContainer.trips().values()) {
-                for (StopTime stopTime : stopTimes) {
-                    stopTimeArr[stopTimeCnt++] = stopTime.arrival();
-                    stopTimeArr[stopTimeCnt++] = stopTime.departure();
-                }
-            }
+            // add times to stop time array, the container already has the same layout
+            int[] stopTimes = routeContainer.stopTimes();
+            System.arraycopy(stopTimes, 0, stopTimeArr, stopTimeCnt, stopTimes.length);
+            stopTimeCnt += stopTimes.length;
+
+            // add frequencies, the trip offsets are relative to the route
+            int[] frequencies = routeContainer.frequencies();
+            System.arraycopy(frequencies, 0, frequencyArr, frequencyCnt, frequencies.length);
+            frequencyCnt += frequencies.length;
         }
 
-        return new RouteTraversal(stopTimeArr, routeArr, routeStopArr);
+        return new RouteTraversal(stopTimeArr, routeArr, routeStopArr, frequencyArr);
     }
 
     private RouteBuilder getRouteBuilder(String routeId) {
@@ -2,6 +2,13 @@ package org.naviqore.raptor.router;
 
 import java.time.ZoneId;
 
+/**
+ * @param numberOfTrips       the number of scheduled trips, the trip ids contain the templates of the frequencies
+ *                            after the scheduled trips.
+ * @param firstFrequencyIdx   the index of the first frequency of the route in the frequencies of the
+ *                            {@link RouteTraversal}.
+ * @param numberOfFrequencies the number of frequencies of the route.
+ */
 record Route(String id, ZoneId zoneId, int firstRouteStopIdx, int numberOfStops, int firstStopTimeIdx,
-             int numberOfTrips, String[] tripIds) {
+             int numberOfTrips, int firstFrequencyIdx, int numberOfFrequencies, String[] tripIds) {
 }
@@ -15,81 +15,150 @@ import java.util.*;
  *     <li>Each stop time of a trip has a departure time that is temporally after the previous stop time's arrival time.</li>
  *     <li>In the final route container, all trips are sorted according to their departure time.</li>
  * </ul>
+ * The stop times of a trip are stored in a primitive array with alternating arrival and departure times per stop of the
+ * route, which is the layout of the stop times in the {@link RouteTraversal}.
+ * <p>
+ * Trips with frequencies are templates of headway-based service, they are not expanded into individual trips. In the
+ * route container, the templates are placed after the scheduled trips, so that scanning the scheduled trips skips them.
  */
 @Slf4j
 class RouteBuilder {
 
+    private static final int NOT_SET = Integer.MIN_VALUE;
+
     private final String routeId;
     private final ZoneId zoneId;
-    private final Map<Integer, String> stopSequence = new HashMap<>();
-    private final Map<String, StopTime[]> trips = new HashMap<>();
+    private final String[] stopSequence;
+    private final Map<String, Integer> tripIndices = new HashMap<>();
+    private final List<String> tripIds = new ArrayList<>();
+    private final List<int[]> tripStopTimes = new ArrayList<>();
+    private final List<Frequency> frequencies = new ArrayList<>();
 
     RouteBuilder(String routeId, ZoneId zoneId, List<String> stopIds) {
         this.routeId = routeId;
         this.zoneId = zoneId;
-        for (int i = 0; i < stopIds.size(); i++) {
-            stopSequence.put(i, stopIds.get(i));
-        }
+        this.stopSequence = stopIds.toArray(String[]::new);
     }
 
     void addTrip(String tripId) {
+        int[] stopTimes = new int[stopSequence.length * 2];
+        Arrays.fill(stopTimes, NOT_SET);
+        putTrip(tripId, stopTimes);
+    }
+
+    /**
+     * Adds a trip with all its stop times at once.
+     *
+     * @param tripId    the id of the trip.
+     * @param stopTimes alternating arrival and departure times for each stop of the route, the array is not copied.
+     */
+    void addTrip(String tripId, int[] stopTimes) {
+        if (stopTimes.length != stopSequence.length * 2) {
+            throw new IllegalArgumentException(
+                    "Stop times of trip " + tripId + " do not match the stops of route " + routeId + ".");
+        }
+
+        for (int position = 0; position < stopSequence.length; position++) {
+            if (stopTimes[position * 2] > stopTimes[position * 2 + 1]) {
+                throw new IllegalArgumentException("Arrival time must be before departure time.");
+            }
+            if (position > 0 && stopTimes[position * 2 - 1] > stopTimes[position * 2]) {
+                throw new IllegalArgumentException(
+                        "Departure time at previous stop is greater than arrival time at current stop.");
+            }
+        }
+
+        putTrip(tripId, stopTimes);
+    }
+
+    private void putTrip(String tripId, int[] stopTimes) {
         log.debug("Adding trip: id={} routeId={}", tripId, routeId);
-        if (trips.containsKey(tripId)) {
+        if (tripIndices.containsKey(tripId)) {
             throw new IllegalArgumentException("Trip " + tripId + " already exists.");
         }
-        trips.put(tripId, new StopTime[stopSequence.size()]);
+        tripIndices.put(tripId, tripIds.size());
+        tripIds.add(tripId);
+        tripStopTimes.add(stopTimes);
     }
 
     void addStopTime(String tripId, int position, String stopId, StopTime stopTime) {
         log.debug("Adding stop time: tripId={}, position={}, stopId={}, stopTime={}", tripId, position, stopId,
                 stopTime);
 
-        if (position < 0 || position >= stopSequence.size()) {
+        if (position < 0 || position >= stopSequence.length) {
             throw new IllegalArgumentException(
-                    "Position " + position + " is out of bounds [0, " + stopSequence.size() + ").");
+                    "Position " + position + " is out of bounds [0, " + stopSequence.length + ").");
         }
 
-        StopTime[] stopTimes = trips.get(tripId);
-        if (stopTimes == null) {
+        Integer tripIndex = tripIndices.get(tripId);
+        if (tripIndex == null) {
             throw new IllegalArgumentException("Trip " + tripId + " does not exist.");
         }
+        int[] stopTimes = tripStopTimes.get(tripIndex);
 
-        if (!stopSequence.get(position).equals(stopId)) {
-            throw new IllegalArgumentException("Stop " + stopId + " does not match stop " + stopSequence.get(
-                    position) + " at position " + position + ".");
+        if (!stopSequence[position].equals(stopId)) {
+            throw new IllegalArgumentException("Stop " + stopId + " does not match stop " + stopSequence[position] +
+                    " at position " + position + ".");
         }
 
-        if (stopTimes[position] != null) {
+        if (stopTimes[position * 2] != NOT_SET) {
             throw new IllegalArgumentException("Stop time for stop " + stopId + " already exists.");
         }
 
         if (position > 0) {
-            StopTime previousStopTime = stopTimes[position - 1];
-            if (previousStopTime != null && previousStopTime.departure() > stopTime.arrival()) {
+            int previousDeparture = stopTimes[position * 2 - 1];
+            if (previousDeparture != NOT_SET && previousDeparture > stopTime.arrival()) {
                 throw new IllegalArgumentException(
                         "Departure time at previous stop is greater than arrival time at current stop.");
             }
         }
 
-        if (position < stopTimes.length - 1) {
-            StopTime nextStopTime = stopTimes[position + 1];
-            if (nextStopTime != null && stopTime.departure() > nextStopTime.arrival()) {
+        if (position < stopSequence.length - 1) {
+            int nextArrival = stopTimes[position * 2 + 2];
+            if (nextArrival != NOT_SET && stopTime.departure() > nextArrival) {
                 throw new IllegalArgumentException(
                         "Departure time at current stop is greater than arrival time at next stop.");
             }
         }
 
-        stopTimes[position] = stopTime;
+        stopTimes[position * 2] = stopTime.arrival();
+        stopTimes[position * 2 + 1] = stopTime.departure();
+    }
+
+    /**
+     * Adds headway-based service to a trip, which becomes the template of the departures: The template departs from the
+     * first stop at the start time and then every headway until before the end time.
+     *
+     * @param tripId    the id of the template trip.
+     * @param startTime the departure time of the first trip from the first stop.
+     * @param endTime   the time at which the service ends, exclusive.
+     * @param headway   the time between two departures in seconds.
+     */
+    void addFrequency(String tripId, int startTime, int endTime, int headway) {
+        log.debug("Adding frequency: tripId={}, startTime={}, endTime={}, headway={}", tripId, startTime, endTime,
+                headway);
+
+        if (!tripIndices.containsKey(tripId)) {
+            throw new IllegalArgumentException("Trip " + tripId + " does not exist.");
+        }
+        if (headway <= 0) {
+            throw new IllegalArgumentException("Headway must be positive.");
+        }
+        if (startTime >= endTime) {
+            throw new IllegalArgumentException("Start time must be before end time.");
+        }
+
+        frequencies.add(new Frequency(tripId, startTime, endTime, headway));
     }
 
     private void validate() {
-        for (Map.Entry<String, StopTime[]> trip : trips.entrySet()) {
-            StopTime[] stopTimes = trip.getValue();
-            for (Map.Entry<Integer, String> stop : stopSequence.entrySet()) {
+        for (int tripIndex = 0; tripIndex < tripIds.size(); tripIndex++) {
+            int[] stopTimes = tripStopTimes.get(tripIndex);
+            for (int position = 0; position < stopSequence.length; position++) {
                 // ensure all stop times are set and therefore all trips must have the same stops
-                if (stopTimes[stop.getKey()] == null) {
+                if (stopTimes[position * 2] == NOT_SET) {
                     throw new IllegalStateException(
-                            "Stop time at stop " + stop.getKey() + " on trip " + trip.getKey() + " not set.");
+                            "Stop time at stop " + position + " on trip " + tripIds.get(tripIndex) + " not set.");
                 }
             }
         }
@@ -99,30 +168,87 @@ class RouteBuilder {
         log.debug("Validating and building route {}", routeId);
         validate();
 
-        // sort trips by the departure time of the first stop
-        List<Map.Entry<String, StopTime[]>> sortedEntries = new ArrayList<>(trips.entrySet());
-        sortedEntries.sort(Comparator.comparingInt(entry -> entry.getValue()[0].departure()));
+        // sort trips by the departure time of the first stop, the templates of frequencies after the scheduled trips
+        Set<String> templateTripIds = new HashSet<>();
+        for (Frequency frequency : frequencies) {
+            templateTripIds.add(frequency.tripId());
+        }
+        Integer[] order = new Integer[tripIds.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer, Boolean>comparing(
+                        tripIndex -> templateTripIds.contains(tripIds.get(tripIndex)))
+                .thenComparingInt(tripIndex -> tripStopTimes.get(tripIndex)[1]));
+
+        // copy the stop times of the sorted trips into one array
+        int tripSize = stopSequence.length * 2;
+        String[] sortedTripIds = new String[order.length];
+        int[] sortedStopTimes = new int[order.length * tripSize];
+        for (int i = 0; i < order.length; i++) {
+            sortedTripIds[i] = tripIds.get(order[i]);
+            System.arraycopy(tripStopTimes.get(order[i]), 0, sortedStopTimes, i * tripSize, tripSize);
+        }
 
-        // populate sortedTrips in the same order as sortedEntries, LinkedHashMap stores insertion order
-        LinkedHashMap<String, StopTime[]> sortedTrips = new LinkedHashMap<>(sortedEntries.size());
-        for (Map.Entry<String, StopTime[]> entry : sortedEntries) {
-            sortedTrips.put(entry.getKey(), entry.getValue());
+        return new RouteContainer(routeId, zoneId, stopSequence, sortedTripIds, sortedStopTimes,
+                order.length - templateTripIds.size(), buildFrequencies(sortedTripIds, sortedStopTimes));
+    }
+
+    /**
+     * Builds the frequencies as shifts of the template trips, in the layout of the frequencies in the
+     * {@link RouteTraversal}.
+     */
+    private int[] buildFrequencies(String[] sortedTripIds, int[] sortedStopTimes) {
+        Map<String, Integer> tripOffsets = new HashMap<>();
+        for (int tripOffset = 0; tripOffset < sortedTripIds.length; tripOffset++) {
+            tripOffsets.put(sortedTripIds[tripOffset], tripOffset);
+        }
+
+        List<Frequency> sortedFrequencies = new ArrayList<>(frequencies);
+        sortedFrequencies.sort(Comparator.comparingInt((Frequency frequency) -> tripOffsets.get(frequency.tripId()))
+                .thenComparingInt(Frequency::startTime));
+
+        int tripSize = stopSequence.length * 2;
+        int[] frequencyArr = new int[sortedFrequencies.size() * RouteTraversal.FREQUENCY_SIZE];
+        for (int i = 0; i < sortedFrequencies.size(); i++) {
+            Frequency frequency = sortedFrequencies.get(i);
+            int tripOffset = tripOffsets.get(frequency.tripId());
+            // departure of the template trip at the first stop
+            int templateDeparture = sortedStopTimes[tripOffset * tripSize + 1];
+            int lastStartTime = frequency.startTime() + (frequency.endTime() - 1 - frequency.startTime()) /
+                    frequency.headway() * frequency.headway();
+
+            int idx = i * RouteTraversal.FREQUENCY_SIZE;
+            frequencyArr[idx] = tripOffset;
+            frequencyArr[idx + 1] = frequency.startTime() - templateDeparture;
+            frequencyArr[idx + 2] = lastStartTime - templateDeparture;
+            frequencyArr[idx + 3] = frequency.headway();
         }
 
-        return new RouteContainer(routeId, zoneId, stopSequence, sortedTrips);
+        return frequencyArr;
     }
 
-    record RouteContainer(String id, ZoneId zoneId, Map<Integer, String> stopSequence,
-                          LinkedHashMap<String, StopTime[]> trips) implements Comparable<RouteContainer> {
+    /**
+     * A validated route with its trips sorted by departure.
+     *
+     * @param stopSequence  the stop ids of the route.
+     * @param tripIds       the trip ids sorted by departure, the scheduled trips before the templates of frequencies.
+     * @param stopTimes     alternating arrival and departure times for each stop of each trip, in the order of the
+     *                      trips.
+     * @param numberOfTrips the number of scheduled trips, the remaining trips are templates of frequencies.
+     * @param frequencies   the frequencies in the layout of the {@link RouteTraversal}.
+     */
+    record RouteContainer(String id, ZoneId zoneId, String[] stopSequence, String[] tripIds, int[] stopTimes,
+                          int numberOfTrips, int[] frequencies) implements Comparable<RouteContainer> {
 
         @Override
         public int compareTo(@NonNull RouteContainer o) {
-            StopTime thisFirstStopTime = this.trips.values().iterator().next()[0];
-            StopTime otherFirstStopTime = o.trips.values().iterator().next()[0];
-            return Integer.compare(thisFirstStopTime.departure(), otherFirstStopTime.departure());
+            // departure at the first stop of the first trip
+            return Integer.compare(this.stopTimes[1], o.stopTimes[1]);
         }
 
     }
-}
-
 
+    private record Frequency(String tripId, int startTime, int endTime, int headway) {
+    }
+}
@@ -27,6 +27,7 @@ class RouteScanner {
     private final int[] stopRoutes;
     private final Route[] routes;
     private final RouteStop[] routeStops;
+    private final int[] frequencies;
     private final QueryState queryState;
 
     private final int minTransferDuration;
@@ -41,26 +42,28 @@ class RouteScanner {
 
     /**
      * @param queryState        the query state with the best time per stop and label per stop and round.
+     * @param workspace         the workspace of the query.
      * @param raptorData        the current raptor data structures.
      * @param queryConfig       the query config.
      * @param timeType          the time type (arrival or departure).
      * @param referenceDateTime the reference date time for the query.
      * @param maxDaysToScan     the maximum number of days to scan.
      */
-    RouteScanner(QueryState queryState, RaptorData raptorData, QueryConfig queryConfig, TimeType timeType,
-                 OffsetDateTime referenceDateTime, int maxDaysToScan) {
+    RouteScanner(QueryState queryState, QueryWorkspace workspace, RaptorData raptorData, QueryConfig queryConfig,
+                 TimeType timeType, OffsetDateTime referenceDateTime, int maxDaysToScan) {
         // constant data structures
         this.stops = raptorData.getStopContext().stops();
         this.stopRoutes = raptorData.getStopContext().stopRoutes();
         this.routes = raptorData.getRouteTraversal().routes();
         this.routeStops = raptorData.getRouteTraversal().routeStops();
+        this.frequencies = raptorData.getRouteTraversal().frequencies();
 
         // note: will also change outside of scanner, due to footpath relaxation
         this.queryState = queryState;
 
         // constant configuration of scanner
         this.minTransferDuration = queryConfig.getMinimumTransferDuration();
-        this.routesToScanMask = new boolean[routes.length];
+        this.routesToScanMask = workspace.routesToScanMask;
         this.forward = timeType == TimeType.DEPARTURE;
         this.timeDirection = forward ? 1 : -1;
 
@@ -337,6 +340,9 @@ class RouteScanner {
      * Find the possible trip on the route for the given trip mask. This loops through all trips departing or arriving
      * from a given stop for a given route and returns details about the first or last trip that can be taken (departing
      * after or arriving before the time of the previous round at this stop and accounting for transfer constraints).
+     * <p>
+     * The departures of frequencies are not looped through, the first or last departure of each frequency is computed
+     * from its headway and competes with the scheduled trip of the same day.
      *
      * @param stopIdx    the index of the stop to find the possible trip from.
      * @param stop       the stop to find the possible trip from.
@@ -346,8 +352,6 @@ class RouteScanner {
      */
     private @Nullable ActiveTrip findPossibleTrip(int stopIdx, Stop stop, int stopOffset, Route route, int lastRound) {
         int firstStopTimeIdx = route.firstStopTimeIdx();
-        int numberOfStops = route.numberOfStops();
-        int numberOfTrips = route.numberOfTrips();
 
         QueryState.Label previousLabel = queryState.getLabel(lastRound, stopIdx);
 
@@ -371,22 +375,20 @@ class RouteScanner {
                 continue;
             }
 
-            for (int i = 0; i < numberOfTrips; i++) {
-                int tripOffset = forward ? i : numberOfTrips - 1 - i;
-                int stopTimeIndex = firstStopTimeIdx + 2 * (tripOffset * numberOfStops + stopOffset) + 2;
-                // the stopTimeIndex points to the arrival time of the stop and stopTimeIndex + 1 to the departure time
-                int relevantStopTime = currentDayStopTimes[forward ? stopTimeIndex + 1 : stopTimeIndex];
-
-                // trip is not active
-                if (relevantStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
-                    continue;
+            ActiveTrip activeTrip = findScheduledTrip(stopOffset, route, referenceTime, timeOffset,
+                    currentDayStopTimes, previousLabel);
+            for (int i = 0; i < route.numberOfFrequencies(); i++) {
+                ActiveTrip frequencyTrip = findFrequencyTrip(route.firstFrequencyIdx() + i, stopOffset, route,
+                        referenceTime, timeOffset, currentDayStopTimes, previousLabel);
+                if (frequencyTrip != null && (activeTrip == null ||
+                        timeDirection * frequencyTrip.entryTime < timeDirection * activeTrip.entryTime)) {
+                    activeTrip = frequencyTrip;
                 }
+            }
 
-                relevantStopTime += timeOffset;
-                if (forward ? relevantStopTime >= referenceTime : relevantStopTime <= referenceTime) {
-                    log.debug("Found active trip ({}) on route {}", i, route.id());
-                    return new ActiveTrip(tripOffset, relevantStopTime, timeOffset, previousLabel, currentDayStopTimes);
-                }
+            if (activeTrip != null) {
+                log.debug("Found active trip ({}) on route {}", activeTrip.tripOffset, route.id());
+                return activeTrip;
             }
         }
 
@@ -395,6 +397,77 @@ class RouteScanner {
         return null;
     }
 
+    /**
+     * Find the first or last scheduled trip of a day that can be taken from the stop.
+     */
+    private @Nullable ActiveTrip findScheduledTrip(int stopOffset, Route route, int referenceTime, int timeOffset,
+                                                   int[] currentDayStopTimes, QueryState.Label previousLabel) {
+        int firstStopTimeIdx = route.firstStopTimeIdx();
+        int numberOfStops = route.numberOfStops();
+        int numberOfTrips = route.numberOfTrips();
+
+        for (int i = 0; i < numberOfTrips; i++) {
+            int tripOffset = forward ? i : numberOfTrips - 1 - i;
+            int stopTimeIndex = firstStopTimeIdx + 2 * (tripOffset * numberOfStops + stopOffset) + 2;
+            // the stopTimeIndex points to the arrival time of the stop and stopTimeIndex + 1 to the departure time
+            int relevantStopTime = currentDayStopTimes[forward ? stopTimeIndex + 1 : stopTimeIndex];
+
+            // trip is not active
+            if (relevantStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
+                continue;
+            }
+
+            relevantStopTime += timeOffset;
+            if (forward ? relevantStopTime >= referenceTime : relevantStopTime <= referenceTime) {
+                return new ActiveTrip(tripOffset, relevantStopTime, timeOffset, previousLabel, currentDayStopTimes);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Find the first or last departure of a frequency of a day that can be taken from the stop. The departure is
+     * computed from the headway, the active trip then travels on the template trip shifted by the departure.
+     */
+    private @Nullable ActiveTrip findFrequencyTrip(int frequencyIdx, int stopOffset, Route route, int referenceTime,
+                                                   int timeOffset, int[] currentDayStopTimes,
+                                                   QueryState.Label previousLabel) {
+        int idx = frequencyIdx * RouteTraversal.FREQUENCY_SIZE;
+        int tripOffset = frequencies[idx];
+        int firstShift = frequencies[idx + 1];
+        int lastShift = frequencies[idx + 2];
+        int headway = frequencies[idx + 3];
+
+        int stopTimeIndex = route.firstStopTimeIdx() + 2 * (tripOffset * route.numberOfStops() + stopOffset) + 2;
+        int templateStopTime = currentDayStopTimes[forward ? stopTimeIndex + 1 : stopTimeIndex];
+
+        // template trip is not active
+        if (templateStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
+            return null;
+        }
+
+        // the first departure after or the last arrival before the reference time
+        int firstStopTime = templateStopTime + timeOffset + firstShift;
+        int shift;
+        if (forward) {
+            int departures = Math.max(0, Math.ceilDiv(referenceTime - firstStopTime, headway));
+            shift = firstShift + departures * headway;
+            if (shift > lastShift) {
+                return null;
+            }
+        } else {
+            int departures = Math.floorDiv(referenceTime - firstStopTime, headway);
+            if (departures < 0) {
+                return null;
+            }
+            shift = Math.min(firstShift + departures * headway, lastShift);
+        }
+
+        return new ActiveTrip(tripOffset, templateStopTime + timeOffset + shift, timeOffset + shift, previousLabel,
+                currentDayStopTimes);
+    }
+
     /**
      * Get the trip offsets for a stop in a given range.
      * <p>
@@ -509,11 +582,37 @@ class RouteScanner {
                     stopTimesInRange.add(stopTime);
                 }
             }
+
+            // departures of the frequencies in the range
+            for (int i = 0; i < route.numberOfFrequencies(); i++) {
+                int idx = (route.firstFrequencyIdx() + i) * RouteTraversal.FREQUENCY_SIZE;
+                int stopTimeIndex = firstStopTimeIdx + 2 * (frequencies[idx] * numberOfStops + stopOffset) + 2;
+                int templateStopTime = stopTimes[dayIndex][forward ? stopTimeIndex + 1 : stopTimeIndex];
+                if (templateStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
+                    continue;
+                }
+
+                int headway = frequencies[idx + 3];
+                int firstStopTime = templateStopTime + timeOffset + frequencies[idx + 1];
+                int lastStopTime = templateStopTime + timeOffset + frequencies[idx + 2];
+                int stopTime = firstStopTime + Math.max(0, Math.ceilDiv(minValue - firstStopTime, headway)) * headway;
+                for (; stopTime <= Math.min(lastStopTime, maxValue); stopTime += headway) {
+                    stopTimesInRange.add(stopTime);
+                }
+            }
+        }
+
+        // the trip offsets are derived from the ordered stop times
+        if (route.numberOfFrequencies() > 0) {
+            stopTimesInRange.sort(null);
         }
 
         return stopTimesInRange;
     }
 
+    /**
+     * @param dayTimeOffset the offset added to the stop times of the day, includes the shift of a frequency departure.
+     */
     private record ActiveTrip(int tripOffset, int entryTime, int dayTimeOffset, QueryState.Label previousLabel,
                               int[] stopTimes) {
     }
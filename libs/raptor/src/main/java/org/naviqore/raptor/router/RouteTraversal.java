@@ -2,10 +2,19 @@ package org.naviqore.raptor.router;
 
 /**
  * Memory optimized itinerant data structure for efficient route traversal
+ * <p>
+ * Headway-based service is not expanded into trips, each frequency is stored as {@link #FREQUENCY_SIZE} values: the
+ * offset of the template trip in the route, the shift of the first and of the last departure relative to the stop
+ * times of the template, and the headway in seconds. The departures are the template shifted by the first shift plus
+ * multiples of the headway, up to the last shift.
  *
- * @param stopTimes  stop times
- * @param routes     routes
- * @param routeStops route stops
+ * @param stopTimes   stop times
+ * @param routes      routes
+ * @param routeStops  route stops
+ * @param frequencies frequencies of the routes
  */
-record RouteTraversal(int[] stopTimes, Route[] routes, RouteStop[] routeStops) {
+record RouteTraversal(int[] stopTimes, Route[] routes, RouteStop[] routeStops, int[] frequencies) {
+
+    static final int FREQUENCY_SIZE = 4;
+
 }
@@ -48,6 +48,8 @@ class StopTimeProvider {
      *     <li>1: latest route stop time od day (in seconds relative to service date)</li>
      *     <li>n: each trip of the route stored as a sequence of 2 x number of stops on trip, in following logic:
      *     stop 1: arrival time, stop 1: departure time, stop 2 arrival time, stop 2 departure time, ...
+     *     The templates of frequencies follow the scheduled trips, the earliest and latest route stop times include
+     *     the first and last departure of the active frequencies.
      *
      * @param date the date for which the stop times should be created (or retrieved from cache)
      * @return the stop times for the given date.
@@ -104,6 +106,8 @@ class StopTimeProvider {
 
             int tripOffset = 0;
             for (boolean tripActive : booleanMask) {
+                // the templates of frequencies are copied, but their times are not the times of any departure
+                boolean scheduledTrip = tripOffset < route.numberOfTrips();
                 for (int stopOffset = 0; stopOffset < numStops; stopOffset++) {
                     int arrivalIndex = stopTimeIndex + (tripOffset * numStops * 2) + stopOffset * 2 + 2;
                     int departureIndex = arrivalIndex + 1;
@@ -111,6 +115,9 @@ class StopTimeProvider {
                     if (tripActive) {
                         newStopTimesArray[arrivalIndex] = utcOffset + originalStopTimesArray[arrivalIndex];
                         newStopTimesArray[departureIndex] = utcOffset + originalStopTimesArray[departureIndex];
+                        if (!scheduledTrip) {
+                            continue;
+                        }
                         if (earliestRouteStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
                             earliestRouteStopTime = utcOffset + originalStopTimesArray[arrivalIndex];
                         }
@@ -124,6 +131,25 @@ class StopTimeProvider {
                 tripOffset++;
             }
 
+            // extend the earliest and latest stop times by the first and last departure of active frequencies
+            int[] frequencies = data.getRouteTraversal().frequencies();
+            for (int i = 0; i < route.numberOfFrequencies(); i++) {
+                int frequencyIdx = (route.firstFrequencyIdx() + i) * RouteTraversal.FREQUENCY_SIZE;
+                int templateIdx = stopTimeIndex + frequencies[frequencyIdx] * numStops * 2 + 2;
+                if (newStopTimesArray[templateIdx] == RaptorTripMaskProvider.RouteTripMask.NO_TRIP) {
+                    continue;
+                }
+
+                int firstArrival = newStopTimesArray[templateIdx] + frequencies[frequencyIdx + 1];
+                int lastDeparture = newStopTimesArray[templateIdx + numStops * 2 - 1] + frequencies[frequencyIdx + 2];
+                if (earliestRouteStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP || firstArrival < earliestRouteStopTime) {
+                    earliestRouteStopTime = firstArrival;
+                }
+                if (latestRouteStopTime == RaptorTripMaskProvider.RouteTripMask.NO_TRIP || lastDeparture > latestRouteStopTime) {
+                    latestRouteStopTime = lastDeparture;
+                }
+            }
+
             // set the earliest and latest stop times for the route
             newStopTimesArray[stopTimeIndex] = earliestRouteStopTime;
             newStopTimesArray[stopTimeIndex + 1] = latestRouteStopTime;
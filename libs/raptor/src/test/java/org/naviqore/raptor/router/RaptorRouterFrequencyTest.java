@@ -0,0 +1,144 @@
+package org.naviqore.raptor.router;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.naviqore.raptor.Connection;
+import org.naviqore.raptor.Leg;
+import org.naviqore.raptor.RaptorAlgorithm;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Test class for the RaptorRouter with headway-based trips. The same schedule is built once with a trip per departure
+ * and once with a template trip and a frequency per route, both must result in the same connections.
+ */
+@ExtendWith(RaptorRouterTestExtension.class)
+class RaptorRouterFrequencyTest {
+
+    private static final String STOP_A = "A";
+    private static final String STOP_Q = "Q";
+
+    private static final OffsetDateTime START_OF_DAY = RaptorRouterTestBuilder.DEFAULT_REFERENCE_DATE.atStartOfDay(
+            RaptorRouterTestBuilder.DEFAULT_ZONE_ID).toOffsetDateTime();
+    private static final OffsetDateTime EIGHT_AM = START_OF_DAY.plusHours(8);
+    private static final OffsetDateTime NINE_AM = START_OF_DAY.plusHours(9);
+
+    /**
+     * Describes the legs of connections without their trip ids, which differ between both schedules.
+     */
+    private static List<String> describe(List<Connection> connections) {
+        return connections.stream().map(RaptorRouterFrequencyTest::describe).toList();
+    }
+
+    private static String describe(Connection connection) {
+        return connection.getLegs()
+                .stream()
+                .map(leg -> String.join("|", leg.getType().name(), leg.getRouteId(), leg.getFromStopId(),
+                        leg.getToStopId(), leg.getDepartureTime().toString(), leg.getArrivalTime().toString()))
+                .toList()
+                .toString();
+    }
+
+    private static Map<String, String> describe(Map<String, Connection> isoLines) {
+        Map<String, String> descriptions = new TreeMap<>();
+        isoLines.forEach((stopId, connection) -> descriptions.put(stopId, describe(connection)));
+        return descriptions;
+    }
+
+    @Test
+    void routeEarliestArrivalLikeScheduledTrips(RaptorRouterTestBuilder builder) {
+        RaptorAlgorithm scheduled = builder.buildWithDefaults();
+        RaptorAlgorithm frequency = new RaptorRouterTestBuilder().withFrequencies().buildWithDefaults();
+
+        // at and between departures of the routes
+        for (OffsetDateTime departureTime : List.of(EIGHT_AM, EIGHT_AM.plusMinutes(7))) {
+            List<Connection> expected = RaptorRouterTestHelpers.routeEarliestArrival(scheduled, STOP_A, STOP_Q,
+                    departureTime);
+            List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(frequency, STOP_A, STOP_Q,
+                    departureTime);
+
+            assertFalse(connections.isEmpty());
+            assertEquals(describe(expected), describe(connections));
+            RaptorRouterTestHelpers.checkIfConnectionsAreParetoOptimal(connections);
+        }
+    }
+
+    @Test
+    void routeLatestDepartureLikeScheduledTrips(RaptorRouterTestBuilder builder) {
+        RaptorAlgorithm scheduled = builder.buildWithDefaults();
+        RaptorAlgorithm frequency = new RaptorRouterTestBuilder().withFrequencies().buildWithDefaults();
+
+        for (OffsetDateTime arrivalTime : List.of(NINE_AM, NINE_AM.plusMinutes(7))) {
+            List<Connection> expected = RaptorRouterTestHelpers.routeLatestDeparture(scheduled, STOP_A, STOP_Q,
+                    arrivalTime);
+            List<Connection> connections = RaptorRouterTestHelpers.routeLatestDeparture(frequency, STOP_A, STOP_Q,
+                    arrivalTime);
+
+            assertFalse(connections.isEmpty());
+            assertEquals(describe(expected), describe(connections));
+        }
+    }
+
+    @Test
+    void createIsoLinesLikeScheduledTrips(RaptorRouterTestBuilder builder) {
+        RaptorAlgorithm scheduled = builder.buildWithDefaults();
+        RaptorAlgorithm frequency = new RaptorRouterTestBuilder().withFrequencies().buildWithDefaults();
+
+        Map<String, Connection> expected = RaptorRouterTestHelpers.getIsoLines(scheduled, Map.of(STOP_A, EIGHT_AM));
+        Map<String, Connection> isoLines = RaptorRouterTestHelpers.getIsoLines(frequency, Map.of(STOP_A, EIGHT_AM));
+
+        assertEquals(describe(expected), describe(isoLines));
+    }
+
+    @Test
+    void routeWithRangeRaptorLikeScheduledTrips(RaptorRouterTestBuilder builder) {
+        RaptorAlgorithm scheduled = builder.withAddRoute1_AG().withAddRoute2_HL().withRaptorRange(1800).build();
+        RaptorAlgorithm frequency = new RaptorRouterTestBuilder().withFrequencies()
+                .withAddRoute1_AG()
+                .withAddRoute2_HL()
+                .withRaptorRange(1800)
+                .build();
+
+        List<Connection> expected = RaptorRouterTestHelpers.routeEarliestArrival(scheduled, STOP_A, "I", EIGHT_AM);
+        List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(frequency, STOP_A, "I", EIGHT_AM);
+
+        assertEquals(describe(expected), describe(connections));
+    }
+
+    @Test
+    void routeWithDeparturesOfPreviousDayLikeScheduledTrips(RaptorRouterTestBuilder builder) {
+        // the service day ends at 01:00 of the next day, so a query after midnight takes trips of the previous day
+        RaptorAlgorithm scheduled = builder.withMaxDaysToScan(3).buildWithDefaults();
+        RaptorAlgorithm frequency = new RaptorRouterTestBuilder().withFrequencies()
+                .withMaxDaysToScan(3)
+                .buildWithDefaults();
+        OffsetDateTime departureTime = START_OF_DAY.plusMinutes(20);
+
+        List<Connection> expected = RaptorRouterTestHelpers.routeEarliestArrival(scheduled, STOP_A, STOP_Q,
+                departureTime);
+        List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(frequency, STOP_A, STOP_Q,
+                departureTime);
+
+        assertFalse(connections.isEmpty());
+        assertEquals(describe(expected), describe(connections));
+    }
+
+    @Test
+    void referenceTemplateTripInRouteLegs(RaptorRouterTestBuilder builder) {
+        RaptorAlgorithm raptor = builder.withFrequencies().buildWithDefaults();
+
+        List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, "G", NINE_AM);
+
+        assertEquals(1, connections.size());
+        Leg leg = connections.getFirst().getRouteLegs().getFirst();
+        assertEquals("R1-F-0", leg.getTripId());
+        assertEquals(NINE_AM, leg.getDepartureTime());
+    }
+
+}
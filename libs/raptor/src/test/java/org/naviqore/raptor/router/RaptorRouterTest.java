@@ -1,18 +1,28 @@
 package org.naviqore.raptor.router;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.naviqore.raptor.Connection;
+import org.naviqore.raptor.ConnectionQuery;
 import org.naviqore.raptor.Leg;
 import org.naviqore.raptor.QueryConfig;
 import org.naviqore.raptor.RaptorAlgorithm;
+import org.naviqore.raptor.TimeType;
+import org.naviqore.utils.concurrent.BatchProcessor;
+import org.naviqore.utils.concurrent.CancellationToken;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -784,6 +794,36 @@ class RaptorRouterTest {
             assertTrue(timeDiff >= 75, "Time between trips should be at least 75 minutes");
         }
 
+        @Test
+        void notFlagPartialResultsWithoutCancellation(RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm raptor = builder.buildWithDefaults();
+            QueryConfig queryConfig = new QueryConfig();
+            CancellationToken token = CancellationToken.create();
+            queryConfig.setCancellationToken(token);
+
+            List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q,
+                    EIGHT_AM, queryConfig);
+
+            assertEquals(2, connections.size());
+            assertFalse(token.hasPartialResults());
+        }
+
+        @Test
+        void stopCancelledQueryAndFlagPartialResults(RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm raptor = builder.buildWithDefaults();
+            QueryConfig queryConfig = new QueryConfig();
+            CancellationToken token = CancellationToken.create();
+            token.cancel();
+            queryConfig.setCancellationToken(token);
+
+            // no route is scanned, since the query is cancelled before the first round
+            List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q,
+                    EIGHT_AM, queryConfig);
+
+            assertTrue(connections.isEmpty());
+            assertTrue(token.hasPartialResults());
+        }
+
     }
 
     @Nested
@@ -864,6 +904,335 @@ class RaptorRouterTest {
                 }
             }
         }
+
+        @Test
+        void streamIsoLinesOncePerStopWithFinalConnections(RaptorRouterTestBuilder builder) {
+            assertStreamedIsoLinesMatchReconstructedIsoLines((RaptorRouter) builder.buildWithDefaults());
+        }
+
+        @Test
+        void streamIsoLinesWithRangeRaptor(RaptorRouterTestBuilder builder) {
+            assertStreamedIsoLinesMatchReconstructedIsoLines(
+                    (RaptorRouter) builder.withAddRoute1_AG().withAddRoute2_HL().withRaptorRange(900).build());
+        }
+
+        private void assertStreamedIsoLinesMatchReconstructedIsoLines(RaptorRouter raptor) {
+            for (TimeType timeType : TimeType.values()) {
+                // reconstructs the isolines after all rounds have finished
+                Map<String, Connection> expected = new HashMap<>();
+                raptor.routeIsolines(new int[]{raptor.getStopIndex(STOP_A)}, new long[]{EIGHT_AM.toEpochSecond()},
+                        timeType, RaptorRouterTestBuilder.DEFAULT_ZONE_ID, new QueryConfig(),
+                        (stopIdx, connection) -> expected.put(raptor.getStopId(stopIdx), connection));
+
+                List<String> streamedStops = new ArrayList<>();
+                Map<String, Connection> streamed = new HashMap<>();
+                raptor.routeIsolines(Map.of(STOP_A, EIGHT_AM), timeType, new QueryConfig(), (stopId, connection) -> {
+                    streamedStops.add(stopId);
+                    streamed.put(stopId, connection);
+                });
+
+                assertEquals(streamed.size(), streamedStops.size(), "Each stop should be streamed exactly once");
+                assertEquals(expected.keySet(), streamed.keySet());
+                for (Map.Entry<String, Connection> entry : expected.entrySet()) {
+                    Connection connection = streamed.get(entry.getKey());
+                    assertEquals(entry.getValue().getDepartureTime(), connection.getDepartureTime());
+                    assertEquals(entry.getValue().getArrivalTime(), connection.getArrivalTime());
+                    assertEquals(entry.getValue().getNumberOfTotalTransfers(),
+                            connection.getNumberOfTotalTransfers());
+                }
+            }
+        }
+    }
+
+    @Nested
+    class IndexBasedRouting {
+
+        private RaptorRouter raptor;
+
+        @BeforeEach
+        void setUp(RaptorRouterTestBuilder builder) {
+            raptor = (RaptorRouter) builder.buildWithDefaults();
+        }
+
+        @Test
+        void resolveStopIndices() {
+            int stopIdx = raptor.getStopIndex(STOP_A);
+
+            assertNotEquals(RaptorRouter.NO_STOP_INDEX, stopIdx);
+            assertEquals(STOP_A, raptor.getStopId(stopIdx));
+            assertEquals(RaptorRouter.NO_STOP_INDEX, raptor.getStopIndex("NonExistentStop"));
+            assertThrows(RaptorAlgorithm.InvalidStopException.class, () -> raptor.getStopId(-1));
+        }
+
+        @Test
+        void routeEarliestArrivalLikeIdBasedMethod() {
+            List<Connection> expected = RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q,
+                    EIGHT_AM);
+
+            List<Connection> connections = new ArrayList<>();
+            raptor.routeEarliestArrival(new int[]{raptor.getStopIndex(STOP_A)}, new long[]{EIGHT_AM.toEpochSecond()},
+                    new int[]{raptor.getStopIndex(STOP_Q)}, new int[]{0}, RaptorRouterTestBuilder.DEFAULT_ZONE_ID,
+                    new QueryConfig(), (_, connection) -> connections.add(connection));
+
+            assertConnectionsMatch(expected, connections);
+        }
+
+        @Test
+        void routeLatestDepartureLikeIdBasedMethod() {
+            List<Connection> expected = RaptorRouterTestHelpers.routeLatestDeparture(raptor, STOP_A, STOP_Q, NINE_AM);
+
+            List<Connection> connections = new ArrayList<>();
+            raptor.routeLatestDeparture(new int[]{raptor.getStopIndex(STOP_A)}, new int[]{0},
+                    new int[]{raptor.getStopIndex(STOP_Q)}, new long[]{NINE_AM.toEpochSecond()},
+                    RaptorRouterTestBuilder.DEFAULT_ZONE_ID, new QueryConfig(),
+                    (_, connection) -> connections.add(connection));
+
+            assertConnectionsMatch(expected, connections);
+        }
+
+        @Test
+        void routeIsolinesLikeIdBasedMethod() {
+            Map<String, Connection> expected = RaptorRouterTestHelpers.getIsoLines(raptor, Map.of(STOP_A, EIGHT_AM));
+
+            Map<String, Connection> isoLines = new HashMap<>();
+            raptor.routeIsolines(new int[]{raptor.getStopIndex(STOP_A)}, new long[]{EIGHT_AM.toEpochSecond()},
+                    TimeType.DEPARTURE, RaptorRouterTestBuilder.DEFAULT_ZONE_ID, new QueryConfig(),
+                    (stopIdx, connection) -> isoLines.put(raptor.getStopId(stopIdx), connection));
+
+            assertEquals(expected.keySet(), isoLines.keySet());
+            for (Map.Entry<String, Connection> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().getArrivalTime(), isoLines.get(entry.getKey()).getArrivalTime());
+            }
+        }
+
+        @Test
+        void throwErrorForInvalidInput() {
+            int stopA = raptor.getStopIndex(STOP_A);
+            int stopQ = raptor.getStopIndex(STOP_Q);
+            long eightAm = EIGHT_AM.toEpochSecond();
+            QueryConfig config = new QueryConfig();
+            ConnectionSink sink = (_, _) -> {
+            };
+
+            assertThrows(RaptorAlgorithm.InvalidStopException.class,
+                    () -> raptor.routeEarliestArrival(new int[]{-1}, new long[]{eightAm}, new int[]{stopQ},
+                            new int[]{0}, RaptorRouterTestBuilder.DEFAULT_ZONE_ID, config, sink));
+            assertThrows(RaptorAlgorithm.InvalidStopException.class,
+                    () -> raptor.routeEarliestArrival(new int[]{stopA}, new long[]{eightAm}, new int[]{stopA},
+                            new int[]{0}, RaptorRouterTestBuilder.DEFAULT_ZONE_ID, config, sink));
+            assertThrows(RaptorAlgorithm.InvalidTimeException.class,
+                    () -> raptor.routeEarliestArrival(new int[]{stopA}, new long[]{}, new int[]{stopQ}, new int[]{0},
+                            RaptorRouterTestBuilder.DEFAULT_ZONE_ID, config, sink));
+            assertThrows(IllegalArgumentException.class,
+                    () -> raptor.routeEarliestArrival(new int[]{stopA}, new long[]{eightAm}, new int[]{stopQ},
+                            new int[]{-1}, RaptorRouterTestBuilder.DEFAULT_ZONE_ID, config, sink));
+        }
+
+        private static void assertConnectionsMatch(List<Connection> expected, List<Connection> actual) {
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDepartureTime(), actual.get(i).getDepartureTime());
+                assertEquals(expected.get(i).getArrivalTime(), actual.get(i).getArrivalTime());
+                assertEquals(expected.get(i).getLegs().size(), actual.get(i).getLegs().size());
+            }
+        }
+
+    }
+
+    @Nested
+    class BatchRouting {
+
+        private ExecutorService executor;
+
+        @BeforeEach
+        void setUp() {
+            executor = BatchProcessor.newExecutor(Runtime.getRuntime().availableProcessors(), 64, "batch-routing-");
+        }
+
+        @AfterEach
+        void tearDown() {
+            executor.shutdown();
+        }
+
+        @Test
+        void routeConnectionsInInputOrder(RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm raptor = builder.buildWithDefaults();
+            QueryConfig config = new QueryConfig();
+
+            List<ConnectionQuery> queries = List.of(
+                    new ConnectionQuery(Map.of(STOP_A, EIGHT_AM), Map.of(STOP_Q, 0), TimeType.DEPARTURE, config),
+                    new ConnectionQuery(Map.of(STOP_Q, NINE_AM), Map.of(STOP_A, 0), TimeType.ARRIVAL, config),
+                    new ConnectionQuery(Map.of(STOP_A, FIVE_AM), Map.of(STOP_B, 0), TimeType.DEPARTURE, config),
+                    new ConnectionQuery(Map.of(STOP_A, NINE_AM.plusDays(1)), Map.of(STOP_Q, 0), TimeType.DEPARTURE,
+                            config));
+
+            List<List<Connection>> results = raptor.routeConnections(queries, executor);
+
+            assertEquals(queries.size(), results.size());
+            for (int i = 0; i < queries.size(); i++) {
+                ConnectionQuery query = queries.get(i);
+                List<Connection> expected = query.timeType() == TimeType.DEPARTURE ? raptor.routeEarliestArrival(
+                        query.sourceStops(), query.targetStops(), config) : raptor.routeLatestDeparture(
+                        query.targetStops(), query.sourceStops(), config);
+
+                assertEquals(expected.size(), results.get(i).size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.get(j).getDepartureTime(), results.get(i).get(j).getDepartureTime());
+                    assertEquals(expected.get(j).getArrivalTime(), results.get(i).get(j).getArrivalTime());
+                }
+            }
+        }
+
+        @Test
+        void throwErrorForInvalidQueryInBatch(RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm raptor = builder.buildWithDefaults();
+            QueryConfig config = new QueryConfig();
+
+            List<ConnectionQuery> queries = List.of(
+                    new ConnectionQuery(Map.of(STOP_A, EIGHT_AM), Map.of(STOP_Q, 0), TimeType.DEPARTURE, config),
+                    new ConnectionQuery(Map.of(), Map.of(STOP_Q, 0), TimeType.DEPARTURE, config));
+
+            assertThrows(RaptorAlgorithm.InvalidStopException.class, () -> raptor.routeConnections(queries, executor));
+        }
+
+        @Test
+        void reuseQueryWorkspacesOfFinishedQueries(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.buildWithDefaults();
+            QueryConfig config = new QueryConfig();
+            List<ConnectionQuery> queries = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                queries.add(new ConnectionQuery(Map.of(STOP_A, EIGHT_AM), Map.of(STOP_Q, 0), TimeType.DEPARTURE,
+                        config));
+                queries.add(new ConnectionQuery(Map.of(STOP_Q, NINE_AM), Map.of(STOP_A, 0), TimeType.ARRIVAL,
+                        config));
+            }
+
+            List<List<Connection>> results = raptor.routeConnections(queries, executor);
+
+            // the queries of the batch reused the workspaces of each other, which are reset for every query
+            int idleWorkspaces = raptor.getQueryWorkspaces().getIdleCount();
+            assertTrue(idleWorkspaces >= 1 && idleWorkspaces <= Runtime.getRuntime().availableProcessors());
+            for (int i = 2; i < results.size(); i++) {
+                List<Connection> expected = results.get(i % 2);
+                assertEquals(expected.size(), results.get(i).size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.get(j).getDepartureTime(), results.get(i).get(j).getDepartureTime());
+                    assertEquals(expected.get(j).getArrivalTime(), results.get(i).get(j).getArrivalTime());
+                }
+            }
+
+            raptor.routeEarliestArrival(Map.of(STOP_A, EIGHT_AM), Map.of(STOP_Q, 0), config);
+            assertEquals(idleWorkspaces, raptor.getQueryWorkspaces().getIdleCount());
+        }
+
+        @Test
+        void borrowQueryWorkspaceOnlyWhileQueryRuns(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.buildWithDefaults();
+            QueryConfig config = new QueryConfig();
+            raptor.routeEarliestArrival(Map.of(STOP_A, EIGHT_AM), Map.of(STOP_Q, 0), config);
+            int idleWorkspaces = raptor.getQueryWorkspaces().getIdleCount();
+
+            // a query which is set up but never run, e.g. because a later validation fails, holds no workspace
+            new Query(raptor, new int[]{0}, new int[]{}, new int[]{8 * 3600}, new int[]{}, config, TimeType.DEPARTURE,
+                    EIGHT_AM, new RaptorConfig());
+
+            assertEquals(idleWorkspaces, raptor.getQueryWorkspaces().getIdleCount());
+        }
+
+    }
+
+    @Nested
+    class LabelCaching {
+
+        private static final List<String> TARGET_STOPS = List.of(STOP_B, STOP_G, STOP_K, STOP_Q, STOP_S);
+
+        @ParameterizedTest
+        @ValueSource(ints = {-1, 900})
+        void routeSameConnectionsFromCachedLabels(int raptorRange, RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm uncached = builder.withRaptorRange(raptorRange).buildWithDefaults();
+            RaptorRouter cached = (RaptorRouter) builder.withLabelCacheSize(2).build();
+
+            for (String targetStop : TARGET_STOPS) {
+                assertConnectionsMatch(RaptorRouterTestHelpers.routeEarliestArrival(uncached, STOP_A, targetStop,
+                        EIGHT_AM), RaptorRouterTestHelpers.routeEarliestArrival(cached, STOP_A, targetStop, EIGHT_AM));
+                assertConnectionsMatch(RaptorRouterTestHelpers.routeLatestDeparture(uncached, targetStop, STOP_A,
+                        NINE_AM), RaptorRouterTestHelpers.routeLatestDeparture(cached, targetStop, STOP_A, NINE_AM));
+            }
+
+            LabelCacheStatistics statistics = cached.getLabelCacheStatistics();
+            assertEquals(2, statistics.misses());
+            assertEquals(2L * TARGET_STOPS.size() - 2, statistics.hits());
+            assertEquals(2, statistics.entries());
+        }
+
+        @Test
+        void reuseLabelsOfIsolines(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.withLabelCacheSize(2).buildWithDefaults();
+
+            Map<String, Connection> isoLines = RaptorRouterTestHelpers.getIsoLines(raptor, Map.of(STOP_A, EIGHT_AM));
+            List<Connection> connections = RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q,
+                    EIGHT_AM);
+            Map<String, Connection> cachedIsoLines = RaptorRouterTestHelpers.getIsoLines(raptor,
+                    Map.of(STOP_A, EIGHT_AM));
+
+            assertEquals(isoLines.get(STOP_Q).getArrivalTime(), connections.getLast().getArrivalTime());
+            assertEquals(isoLines.keySet(), cachedIsoLines.keySet());
+            assertEquals(1, raptor.getLabelCacheStatistics().misses());
+            assertEquals(2, raptor.getLabelCacheStatistics().hits());
+        }
+
+        @Test
+        void missForDifferentSourceTimeOrConfiguration(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.withLabelCacheSize(1).buildWithDefaults();
+            QueryConfig config = new QueryConfig();
+            config.setMaximumTransfers(0);
+
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q, EIGHT_AM);
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q, EIGHT_AM.plusMinutes(1));
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q, EIGHT_AM.plusMinutes(1), config);
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_B, EIGHT_AM.plusMinutes(1), config);
+
+            LabelCacheStatistics statistics = raptor.getLabelCacheStatistics();
+            assertEquals(3, statistics.misses());
+            assertEquals(1, statistics.hits());
+            assertEquals(0.25, statistics.hitRate());
+            assertEquals(1, statistics.entries());
+
+            raptor.clearLabelCache();
+            assertEquals(0, raptor.getLabelCacheStatistics().entries());
+        }
+
+        @Test
+        void notCacheCancelledQueries(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.withLabelCacheSize(1).buildWithDefaults();
+            CancellationToken token = CancellationToken.create();
+            token.cancel();
+            QueryConfig config = new QueryConfig();
+            config.setCancellationToken(token);
+
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q, EIGHT_AM, config);
+
+            assertEquals(0, raptor.getLabelCacheStatistics().entries());
+        }
+
+        @Test
+        void disableCacheByDefault(RaptorRouterTestBuilder builder) {
+            RaptorRouter raptor = (RaptorRouter) builder.buildWithDefaults();
+
+            RaptorRouterTestHelpers.routeEarliestArrival(raptor, STOP_A, STOP_Q, EIGHT_AM);
+
+            assertEquals(new LabelCacheStatistics(0, 0, 0, 0), raptor.getLabelCacheStatistics());
+        }
+
+        private static void assertConnectionsMatch(List<Connection> expected, List<Connection> actual) {
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDepartureTime(), actual.get(i).getDepartureTime());
+                assertEquals(expected.get(i).getArrivalTime(), actual.get(i).getArrivalTime());
+                assertEquals(expected.get(i).getLegs().size(), actual.get(i).getLegs().size());
+            }
+        }
+
     }
 
     @Nested
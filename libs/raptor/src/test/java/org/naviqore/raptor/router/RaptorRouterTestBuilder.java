@@ -7,10 +7,7 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Test builder to set up a RaptorRouter instance for testing purposes.
@@ -57,12 +54,16 @@ public class RaptorRouterTestBuilder {
 
     private final List<Route> routes = new ArrayList<>();
     private final List<Transfer> transfers = new ArrayList<>();
+    private final Map<String, String> stopStations = new HashMap<>();
 
     private int serviceDayStartHour = 5;
     private int serviceDayEndHour = 25;
     private int daysToScan = 1;
     private int raptorRange = -1;
     private int defaultSameStopTransferTime = 120;
+    private int labelCacheSize = 0;
+    private int transferCompactionTolerance = -1;
+    private boolean frequencies = false;
     private LocalDate referenceDate = DEFAULT_REFERENCE_DATE;
 
     private RaptorTripMaskProvider tripMaskProvider = new RaptorConfig.NoMaskProvider();
@@ -170,6 +171,31 @@ public class RaptorRouterTestBuilder {
         return this;
     }
 
+    public RaptorRouterTestBuilder withLabelCacheSize(int labelCacheSize) {
+        this.labelCacheSize = labelCacheSize;
+        return this;
+    }
+
+    public RaptorRouterTestBuilder withStation(String stationId, String... stopIds) {
+        for (String stopId : stopIds) {
+            stopStations.put(stopId, stationId);
+        }
+        return this;
+    }
+
+    public RaptorRouterTestBuilder withTransferCompactionTolerance(int tolerance) {
+        this.transferCompactionTolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Adds the trips of each route as one template trip with a frequency instead of a trip per departure.
+     */
+    public RaptorRouterTestBuilder withFrequencies() {
+        this.frequencies = true;
+        return this;
+    }
+
     public RaptorRouterTestBuilder withTripMaskProvider(RaptorTripMaskProvider provider) {
         this.tripMaskProvider = provider;
         return this;
@@ -182,6 +208,8 @@ public class RaptorRouterTestBuilder {
         config.setMaskProvider(tripMaskProvider);
         config.setStopTimeCacheSize(daysToScan);
         config.setRaptorRange(raptorRange);
+        config.setLabelCacheSize(labelCacheSize);
+        config.setTransferCompactionTolerance(transferCompactionTolerance);
 
         RaptorRouterBuilder builder = new RaptorRouterBuilder(config);
         Set<String> addedStops = new HashSet<>();
@@ -194,7 +222,7 @@ public class RaptorRouterTestBuilder {
             // add stops
             for (String stop : route.stops) {
                 if (!addedStops.contains(stop)) {
-                    builder.addStop(stop);
+                    builder.addStop(stop, stopStations.getOrDefault(stop, stop));
                     addedStops.add(stop);
                 }
             }
@@ -234,6 +262,16 @@ public class RaptorRouterTestBuilder {
                     departureTimestamp = arrivalTimestamp + route.dwellTimeAtSTop * 60;
                 }
                 currentTime = currentTime.plusMinutes(route.headWayTime);
+
+                if (frequencies) {
+                    // the first trip is the template of all departures until the end of the service day
+                    int startTime = (int) Duration.between(serviceDayAnchor, currentTime).toSeconds() -
+                            route.headWayTime * 60;
+                    int endTime = (int) Duration.between(serviceDayAnchor, dayEnd).toSeconds();
+                    builder.addFrequency(tripIdF, routeIdF, startTime, endTime, route.headWayTime * 60);
+                    builder.addFrequency(tripIdR, routeIdR, startTime, endTime, route.headWayTime * 60);
+                    break;
+                }
             }
         }
 
@@ -169,4 +169,106 @@ public class RaptorRouterTransferBehaviorTest {
 
     }
 
+    @Nested
+    class MaximumWalkDuration {
+
+        @Test
+        void connectBetweenStops_withLongerTransferBeforeShorterTransfer(RaptorRouterTestBuilder builder) {
+            // the transfers of a stop are relaxed by ascending duration until the maximum walk duration is exceeded,
+            // the short transfer to "G" is relaxed before the long transfer to "B", although it was added after it
+            builder.withAddRoute1_AG(0, 15, 10, 0);
+            builder.withAddTransfer("A", "B", 30);
+            builder.withAddTransfer("A", "G", 5);
+            builder.withMaxDaysToScan(1);
+            builder.withServiceDayRange(DAY_START_HOUR, DAY_END_HOUR);
+            RaptorAlgorithm router = builder.build();
+            QueryConfig config = new QueryConfig();
+            config.setMaximumWalkDuration(10 * 60);
+
+            // walking from "A" to "G" arrives at 08:06 AM, the route only arrives at 09:00 AM
+            List<Connection> connections = TransferBehaviorHelpers.routeBetweenStops(router, "A", "G", config);
+
+            assertEquals(1, connections.size());
+            Leg leg = connections.getFirst().getLegs().getFirst();
+            assertEquals(Leg.Type.WALK_TRANSFER, leg.getType());
+            assertEquals("G", leg.getToStopId());
+        }
+
+    }
+
+    @Nested
+    class TransferCompaction {
+
+        private static int countTransfers(RaptorAlgorithm router) {
+            return ((RaptorRouter) router).getStopContext().transfers().length;
+        }
+
+        private static RaptorAlgorithm prepareRouter(RaptorRouterTestBuilder builder, int tolerance) {
+            // stop "X" is only reached by walking, it has transfers to the stops "C" and "D" of the same station,
+            // which are both served by route 1
+            builder.withAddRoute1_AG(0, 15, 10, 0);
+            builder.withStation("CD", "C", "D");
+            builder.withAddTransfer("X", "C", 5);
+            builder.withAddTransfer("X", "D", 6);
+            builder.withTransferCompactionTolerance(tolerance);
+            builder.withMaxDaysToScan(1);
+            builder.withServiceDayRange(DAY_START_HOUR, DAY_END_HOUR);
+            return builder.build();
+        }
+
+        @Test
+        void connectBetweenStops_withAndWithoutCompaction(RaptorRouterTestBuilder builder) {
+            RaptorAlgorithm router = prepareRouter(new RaptorRouterTestBuilder(), -1);
+            RaptorAlgorithm compactedRouter = prepareRouter(builder, 0);
+
+            // the transfer from "X" to "D" is dominated by the shorter transfer to "C", which serves the same routes
+            assertEquals(4, countTransfers(router));
+            assertEquals(3, countTransfers(compactedRouter));
+
+            // both board the trip passing "C" at 08:20 AM and "D" at 08:30 AM, the compacted router boards it at "C"
+            Connection connection = TransferBehaviorHelpers.routeBetweenStops(router, "X", "G", new QueryConfig())
+                    .getFirst();
+            Connection compactedConnection = TransferBehaviorHelpers.routeBetweenStops(compactedRouter, "X", "G",
+                    new QueryConfig()).getFirst();
+
+            assertEquals(connection.getArrivalTime(), compactedConnection.getArrivalTime());
+            assertEquals("D", connection.getLegs().getFirst().getToStopId());
+            assertEquals("C", compactedConnection.getLegs().getFirst().getToStopId());
+        }
+
+        @Test
+        void compactTransfers_withLongerTransferToStopServingMoreRoutes(RaptorRouterTestBuilder builder) {
+            // "B" is served by route 1 and 2, "I" only by route 2, the transfer to "B" is one minute longer
+            builder.withAddRoute1_AG().withAddRoute2_HL();
+            builder.withStation("BI", "B", "I");
+            builder.withAddTransfer("X", "B", 6);
+            builder.withAddTransfer("X", "I", 5);
+
+            assertEquals(4, countTransfers(builder.withTransferCompactionTolerance(59).build()));
+            assertEquals(3, countTransfers(builder.withTransferCompactionTolerance(60).build()));
+        }
+
+        @Test
+        void compactTransfers_withStopsServingOtherRoutes(RaptorRouterTestBuilder builder) {
+            // "C" is only served by route 1 and "I" only by route 2, none of the transfers is dominated
+            builder.withAddRoute1_AG().withAddRoute2_HL();
+            builder.withStation("CI", "C", "I");
+            builder.withAddTransfer("X", "C", 5);
+            builder.withAddTransfer("X", "I", 5);
+
+            assertEquals(4, countTransfers(builder.withTransferCompactionTolerance(3600).build()));
+        }
+
+        @Test
+        void compactTransfers_withStopsOfOtherStations(RaptorRouterTestBuilder builder) {
+            // "C" and "D" serve the same routes, but are not part of the same station
+            builder.withAddRoute1_AG();
+            builder.withAddTransfer("X", "C", 5);
+            builder.withAddTransfer("X", "D", 6);
+
+            assertEquals(4, countTransfers(builder.withTransferCompactionTolerance(3600).build()));
+        }
+
+    }
+
 }
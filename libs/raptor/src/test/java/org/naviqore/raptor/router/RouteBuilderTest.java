@@ -137,6 +137,89 @@ class RouteBuilderTest {
         }
     }
 
+    @Nested
+    class AddTripWithStopTimes {
+
+        private static final List<String> STOP_IDS = List.of(STOP_1, STOP_2, STOP_3);
+
+        @BeforeEach
+        void setUp() {
+            builder = new RouteBuilder(ROUTE_1, ZONE_ID, STOP_IDS);
+        }
+
+        @Test
+        void shouldAddTripWithStopTimes() {
+            builder.addTrip("trip2", new int[]{300, 400, 500, 600, 700, 800});
+            builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400, 500, 600});
+
+            RouteBuilder.RouteContainer container = builder.build();
+
+            assertArrayEquals(new String[]{TRIP_1, "trip2"}, container.tripIds());
+            assertArrayEquals(new int[]{100, 200, 300, 400, 500, 600, 300, 400, 500, 600, 700, 800},
+                    container.stopTimes());
+        }
+
+        @Test
+        void shouldPlaceTemplatesOfFrequenciesAfterScheduledTrips() {
+            builder.addTrip("template", new int[]{0, 60, 300, 360, 600, 660});
+            builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400, 500, 600});
+            builder.addFrequency("template", 3600, 7200, 600);
+            builder.addFrequency("template", 7200, 7500, 300);
+
+            RouteBuilder.RouteContainer container = builder.build();
+
+            assertArrayEquals(new String[]{TRIP_1, "template"}, container.tripIds());
+            assertEquals(1, container.numberOfTrips());
+            // template offset, first and last shift relative to the departure of the template, headway
+            assertArrayEquals(new int[]{1, 3540, 6540, 600, 1, 7140, 7140, 300}, container.frequencies());
+        }
+
+        @Test
+        void shouldNotAddFrequencyOfNonExistentTrip() {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addFrequency(TRIP_1, 3600, 7200, 600));
+            assertEquals("Trip trip1 does not exist.", exception.getMessage());
+        }
+
+        @Test
+        void shouldNotAddFrequencyWithoutHeadway() {
+            builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400, 500, 600});
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addFrequency(TRIP_1, 3600, 7200, 0));
+            assertEquals("Headway must be positive.", exception.getMessage());
+        }
+
+        @Test
+        void shouldNotAddTripWithWrongNumberOfStopTimes() {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400}));
+            assertEquals("Stop times of trip trip1 do not match the stops of route route1.", exception.getMessage());
+        }
+
+        @Test
+        void shouldNotAddTripWithArrivalAfterDeparture() {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addTrip(TRIP_1, new int[]{100, 200, 300, 250, 500, 600}));
+            assertEquals("Arrival time must be before departure time.", exception.getMessage());
+        }
+
+        @Test
+        void shouldNotAddTripWithOverlapOnPreviousStop() {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addTrip(TRIP_1, new int[]{100, 200, 150, 250, 500, 600}));
+            assertEquals("Departure time at previous stop is greater than arrival time at current stop.",
+                    exception.getMessage());
+        }
+
+        @Test
+        void shouldNotAddDuplicateTrip() {
+            builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400, 500, 600});
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> builder.addTrip(TRIP_1, new int[]{100, 200, 300, 400, 500, 600}));
+            assertEquals("Trip trip1 already exists.", exception.getMessage());
+        }
+    }
+
     @Nested
     class CircularRoute {
 
@@ -0,0 +1,132 @@
+package org.naviqore.utils.concurrent;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Processes a batch of items grouped by a key on an executor, typically a bounded thread pool shared by all batches.
+ * <p>
+ * All groups are submitted to the executor at once and processed concurrently. Within a group, the first item is
+ * processed before the remaining items of the group, to warm up group specific state (e.g. cached data for a service
+ * day), then the remaining items are processed concurrently. The calling thread only waits for the batch to finish.
+ * Results are returned in the order of the input items.
+ * <p>
+ * If processing an item fails, the outstanding items of the batch are skipped and the exception of the failed item is
+ * rethrown once the items already running have finished. Processors that must not fail the whole batch should catch
+ * their exceptions and return them as part of the result instead.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BatchProcessor {
+
+    /**
+     * Creates a bounded executor to process batches, typically shared by all batches of an application. The executor
+     * has a fixed number of daemon threads and a bounded queue. If the queue is full, the thread submitting an item
+     * processes it itself, which throttles the submission of further items. Items submitted after the executor is shut
+     * down are processed by the submitting thread as well, so that batches still running complete instead of failing.
+     *
+     * @param threads          the number of threads, which bounds the parallelism of all batches.
+     * @param queueCapacity    the number of items waiting for a thread before the submitting threads process them.
+     * @param threadNamePrefix the prefix of the thread names, followed by the number of the thread.
+     * @return the executor, the owner has to shut it down.
+     */
+    public static ExecutorService newExecutor(int threads, int queueCapacity, String threadNamePrefix) {
+        ThreadFactory threadFactory = Thread.ofPlatform().name(threadNamePrefix, 0).daemon().factory();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, _) -> task.run());
+    }
+
+    /**
+     * Processes all items and returns the results in input order.
+     *
+     * @param items     the items to process.
+     * @param groupKey  function to determine the group of an item, null keys are allowed.
+     * @param processor function to process a single item, must be thread-safe.
+     * @param executor  the executor processing the items, its threads bound the parallelism of the batch.
+     * @param <T>       the type of the items.
+     * @param <K>       the type of the group keys.
+     * @param <R>       the type of the results.
+     * @return the results in the order of the items.
+     */
+    public static <T, K, R> List<R> process(List<T> items, Function<? super T, ? extends K> groupKey,
+                                            Function<? super T, ? extends R> processor, Executor executor) {
+        // group item indices by key, keeping the encounter order of the groups
+        Map<K, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            groups.computeIfAbsent(groupKey.apply(items.get(i)), _ -> new ArrayList<>()).add(i);
+        }
+
+        log.debug("Processing batch of {} items in {} groups", items.size(), groups.size());
+
+        Object[] results = new Object[items.size()];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        IntConsumer processItem = idx -> {
+            // skip the outstanding items once an item failed, the batch fails anyway
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                results[idx] = processor.apply(items.get(idx));
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+        };
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>(items.size());
+        for (List<Integer> group : groups.values()) {
+            // the first item warms up shared state of the group, the remaining items wait for it
+            int first = group.getFirst();
+            CompletableFuture<Void> warmUp = CompletableFuture.runAsync(() -> processItem.accept(first), executor);
+            tasks.add(warmUp);
+
+            for (int i = 1; i < group.size(); i++) {
+                int idx = group.get(i);
+                tasks.add(warmUp.thenRunAsync(() -> processItem.accept(idx), executor));
+            }
+        }
+
+        join(tasks, failure);
+
+        @SuppressWarnings("unchecked") List<R> resultList = (List<R>) Arrays.asList(results);
+        return resultList;
+    }
+
+    private static void join(List<CompletableFuture<?>> tasks, AtomicReference<Throwable> failure) {
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            // rethrow the original exception of the first failed item, also if it failed the warm-up of a group
+            Throwable cause = failure.get() != null ? failure.get() : e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.naviqore.utils.concurrent;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Token for cooperative cancellation of long-running computations.
+ * <p>
+ * A token is cancelled either explicitly via {@link #cancel()} or implicitly when its deadline has passed. Computations
+ * poll the token at safe points between units of work (e.g. rounds or time window segments) by calling
+ * {@link #shouldStop()}. If the computation stops early, the token records that the results of the computation are
+ * partial, which allows the caller to flag the best-effort results accordingly.
+ * <p>
+ * This class is thread-safe; a single token can be shared by all computations of a request. To tell which of these
+ * computations stopped early, give each of them a {@link #child()} of the request token.
+ */
+public final class CancellationToken {
+
+    /**
+     * Token that is never cancelled. Use it as the default if no cancellation is needed.
+     */
+    public static final CancellationToken NONE = new CancellationToken(null, false, 0);
+
+    private final @Nullable CancellationToken parent;
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+
+    private volatile boolean cancelled;
+    private volatile boolean partialResults;
+
+    private CancellationToken(@Nullable CancellationToken parent, boolean hasDeadline, long deadlineNanos) {
+        this.parent = parent;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a token without deadline, which is only cancelled explicitly.
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(null, false, 0);
+    }
+
+    /**
+     * Creates a token which is cancelled after the given timeout has elapsed.
+     *
+     * @param timeout the timeout, must be positive.
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive.");
+        }
+        return new CancellationToken(null, true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Creates a child token, which is cancelled together with this token but records its own partial results. If a
+     * computation polling the child stops early, the partial results are recorded on this token as well. The child of
+     * the none token is the none token.
+     */
+    public CancellationToken child() {
+        if (this == NONE) {
+            return NONE;
+        }
+        return new CancellationToken(this, false, 0);
+    }
+
+    /**
+     * Cancels the token. Computations polling this token stop at their next safe point.
+     */
+    public void cancel() {
+        if (this == NONE) {
+            throw new UnsupportedOperationException("The none token cannot be cancelled.");
+        }
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the token or its parent was cancelled or the deadline has passed.
+     */
+    public boolean isCancelled() {
+        if (cancelled) {
+            return true;
+        }
+        if ((hasDeadline && System.nanoTime() - deadlineNanos >= 0) || (parent != null && parent.isCancelled())) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the computation polling this token should stop. If so, the token records that the results of the
+     * computation are partial.
+     *
+     * @return true if the computation should stop.
+     */
+    public boolean shouldStop() {
+        if (isCancelled()) {
+            partialResults = true;
+            if (parent != null) {
+                parent.partialResults = true;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if at least one computation stopped early because of this token.
+     */
+    public boolean hasPartialResults() {
+        return partialResults;
+    }
+
+}
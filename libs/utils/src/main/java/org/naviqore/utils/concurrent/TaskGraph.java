@@ -0,0 +1,190 @@
+package org.naviqore.utils.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs named tasks on a bounded thread pool, each as soon as the tasks it depends on are done.
+ * <p>
+ * Tasks are added with the tasks they depend on, which must have been added before. Therefore, the tasks always form a
+ * directed acyclic graph. Tasks read the results of their dependencies with {@link Task#get()}. The wall time and the
+ * allocated bytes of each task are measured and returned by {@link #run()}.
+ * <p>
+ * If a task fails, the tasks depending on it are not run, and {@link #run()} throws the exception of the first failed
+ * task after all running tasks are done.
+ */
+@Slf4j
+public class TaskGraph {
+
+    private static final long NOT_MEASURED = -1;
+
+    private final int parallelism;
+    private final List<Task<?>> tasks = new ArrayList<>();
+    private boolean ran;
+
+    /**
+     * @param parallelism the maximum number of tasks running at the same time.
+     */
+    public TaskGraph(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        // allocations are only measured by the extension of the HotSpot JVM
+        if (bean instanceof com.sun.management.ThreadMXBean allocationBean &&
+                allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return allocationBean.getCurrentThreadAllocatedBytes();
+        }
+
+        return NOT_MEASURED;
+    }
+
+    /**
+     * Adds a task to the graph.
+     *
+     * @param name         the name of the task, used for logging and in the metrics.
+     * @param action       the action of the task, may read the results of its dependencies.
+     * @param dependencies the tasks which must be done before this task runs.
+     * @param <T>          the type of the result.
+     * @return the task, to read its result or to depend on it.
+     */
+    public <T> Task<T> add(String name, Action<T> action, Task<?>... dependencies) {
+        if (ran) {
+            throw new IllegalStateException("Task graph has already run.");
+        }
+        for (Task<?> dependency : dependencies) {
+            if (!tasks.contains(dependency)) {
+                throw new IllegalArgumentException("Dependency " + dependency.name + " of " + name + " is not added.");
+            }
+        }
+
+        Task<T> task = new Task<>(name, action, List.of(dependencies));
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Runs all tasks of the graph, can only be called once.
+     *
+     * @return the metrics of the tasks in the order they were added.
+     * @throws ExecutionException   if a task failed, with the exception of the first failed task as cause.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the tasks.
+     */
+    public List<TaskMetrics> run() throws ExecutionException, InterruptedException {
+        if (ran) {
+            throw new IllegalStateException("Task graph has already run.");
+        }
+        ran = true;
+        log.debug("Running {} tasks with parallelism {}", tasks.size(), parallelism);
+
+        int numThreads = Math.max(1, Math.min(parallelism, tasks.size()));
+        try (ExecutorService executor = Executors.newFixedThreadPool(numThreads)) {
+            for (Task<?> task : tasks) {
+                task.schedule(executor);
+            }
+
+            for (Task<?> task : tasks) {
+                task.await();
+            }
+        }
+
+        return tasks.stream().map(task -> task.metrics).toList();
+    }
+
+    /**
+     * Action of a task, which may throw checked exceptions.
+     *
+     * @param <T> the type of the result.
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * A task of the graph.
+     *
+     * @param <T> the type of the result.
+     */
+    public static final class Task<T> {
+
+        private final String name;
+        private final Action<T> action;
+        private final List<Task<?>> dependencies;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile TaskMetrics metrics;
+
+        private Task(String name, Action<T> action, List<Task<?>> dependencies) {
+            this.name = name;
+            this.action = action;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Gets the result of the task, only available to depending tasks and after the graph has run.
+         */
+        public T get() {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                throw new IllegalStateException("Task " + name + " is not done.");
+            }
+
+            return future.join();
+        }
+
+        private void schedule(Executor executor) {
+            CompletableFuture.allOf(dependencies.stream().map(task -> task.future).toArray(CompletableFuture[]::new))
+                    .whenCompleteAsync((_, failure) -> {
+                        if (failure != null) {
+                            future.completeExceptionally(failure);
+                            return;
+                        }
+                        try {
+                            future.complete(measure());
+                        } catch (Throwable e) {
+                            future.completeExceptionally(e);
+                        }
+                    }, executor);
+        }
+
+        private T measure() throws Exception {
+            long startBytes = getAllocatedBytes();
+            long startTime = System.nanoTime();
+
+            T result = action.run();
+
+            Duration wallTime = Duration.ofNanos(System.nanoTime() - startTime);
+            long endBytes = getAllocatedBytes();
+            metrics = new TaskMetrics(name, wallTime,
+                    startBytes == NOT_MEASURED ? NOT_MEASURED : endBytes - startBytes);
+            log.info("Task {} done in {} ms, allocated {} MB on its thread", name, wallTime.toMillis(),
+                    metrics.allocatedBytes() >= 0 ? String.valueOf(metrics.allocatedBytes() / (1024 * 1024)) : "n/a");
+
+            return result;
+        }
+
+        private void await() throws ExecutionException, InterruptedException {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // unwrap the failure of a dependency, to report the exception of the failed task itself
+                Throwable cause = e.getCause();
+                while (cause instanceof CompletionException && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                throw new ExecutionException(cause);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.naviqore.utils.concurrent;
+
+import java.time.Duration;
+
+/**
+ * Measurements of a task run by a {@link TaskGraph}.
+ *
+ * @param name           the name of the task.
+ * @param wallTime       the time from the start to the end of the task, without waiting for its dependencies.
+ * @param allocatedBytes the bytes allocated on the thread running the task, -1 if the JVM does not measure them.
+ *                       Allocations of other threads started by the task, e.g. parallel streams, are not included.
+ */
+public record TaskMetrics(String name, Duration wallTime, long allocatedBytes) {
+}
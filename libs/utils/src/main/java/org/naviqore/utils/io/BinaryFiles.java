@@ -0,0 +1,131 @@
+package org.naviqore.utils.io;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Helpers for versioned binary files, which are derived from other data and keyed by a content hash, e.g. caches of
+ * parsed or precomputed data.
+ * <p>
+ * A file starts with a magic number and a format version, so that files of another kind or version are rejected and
+ * recomputed. Files are written atomically, so that readers never see an incomplete file.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BinaryFiles {
+
+    private static final String TMP_EXTENSION = ".tmp";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Hashes the content of a file.
+     *
+     * @return the SHA-256 hash as lowercase hex string.
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = createDigest();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (inputStream.read(buffer) != -1) {
+                // the digest is updated while reading
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the data written by the content, without writing it anywhere.
+     *
+     * @return the SHA-256 hash as lowercase hex string.
+     * @throws UncheckedIOException if the content fails to write.
+     */
+    public static String sha256(Content content) {
+        MessageDigest digest = createDigest();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest),
+                        BUFFER_SIZE))) {
+            content.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes the header of a file, read back with {@link #readHeader(DataInput, int, int, String)}.
+     */
+    public static void writeHeader(DataOutput out, int magic, int version) throws IOException {
+        out.writeInt(magic);
+        out.writeInt(version);
+    }
+
+    /**
+     * Reads and checks the header of a file.
+     *
+     * @param description the kind of file, used in the exception messages.
+     * @throws IOException if the file has another magic number or format version.
+     */
+    public static void readHeader(DataInput in, int magic, int version, String description) throws IOException {
+        if (in.readInt() != magic) {
+            throw new IOException("Not a " + description);
+        }
+        int fileVersion = in.readInt();
+        if (fileVersion != version) {
+            throw new IOException("Unsupported " + description + " version " + fileVersion + ", expected " + version);
+        }
+    }
+
+    /**
+     * Writes a file atomically: The content is written to a temporary file in the same directory, which then replaces
+     * the file. Missing directories are created.
+     * <p>
+     * The name of the temporary file starts with the name of the file and ends with {@value #TMP_EXTENSION}, it is
+     * deleted if writing fails.
+     */
+    public static void writeAtomically(Path file, Content content) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), TMP_EXTENSION);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+                content.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} ({} bytes)", file, Files.size(file));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Content of a binary file.
+     */
+    @FunctionalInterface
+    public interface Content {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+}
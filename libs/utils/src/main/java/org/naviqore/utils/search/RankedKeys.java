@@ -0,0 +1,176 @@
+package org.naviqore.utils.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Collects the best ranked keys of a search, identified by their position in the order of the index.
+ * <p>
+ * The rank of a key is packed into a long, so that comparing ranks is comparing longs: The score bucket of the match
+ * (the number of edits of a fuzzy match, then exact, prefix or other) in the highest bits, the key length in the middle
+ * and the position of the key in the lowest bits. With {@link SearchIndex.Ranking#INDEX_ORDER} the rank is only the
+ * position. The best keys are kept in a bounded max-heap, whose root is the worst of them and is replaced by any better
+ * key, so a search with many matches costs {@code O(matches * log(limit))} instead of sorting all matches.
+ */
+final class RankedKeys {
+
+    private static final int BUCKET_SHIFT = 56;
+    private static final int LENGTH_SHIFT = 32;
+    private static final int MAX_LENGTH = (1 << (BUCKET_SHIFT - LENGTH_SHIFT)) - 1;
+    private static final long KEY_MASK = 0xFFFFFFFFL;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int OTHER = 2;
+    private static final int NUMBER_OF_BUCKETS = 3;
+
+    private final SearchIndex.Ranking ranking;
+    private final BitSet added;
+    private final long[] heap;
+    private int size;
+
+    RankedKeys(SearchIndex.Ranking ranking, int limit, int numberOfKeys) {
+        this.ranking = ranking;
+        added = new BitSet(numberOfKeys);
+        heap = new long[Math.min(limit, numberOfKeys)];
+    }
+
+    /**
+     * Checks if the key has already been added, since a key can match a query at several positions.
+     */
+    boolean contains(int key) {
+        return added.get(key);
+    }
+
+    /**
+     * Adds a matching key, it is only kept if it is among the best ranked keys.
+     *
+     * @param key       the position of the key in the order of the index.
+     * @param keyLength the length of the key.
+     * @param isPrefix  whether the key starts with the query.
+     * @param isExact   whether the key equals the query.
+     */
+    void add(int key, int keyLength, boolean isPrefix, boolean isExact) {
+        add(key, keyLength, isPrefix, isExact, 0);
+    }
+
+    /**
+     * Adds a key matching with edits, keys with fewer edits are ranked first.
+     *
+     * @param key       the position of the key in the order of the index.
+     * @param keyLength the length of the key.
+     * @param isPrefix  whether the key starts with the query.
+     * @param isExact   whether the key equals the query.
+     * @param edits     the number of edits of the match.
+     */
+    void add(int key, int keyLength, boolean isPrefix, boolean isExact, int edits) {
+        added.set(key);
+        if (heap.length == 0) {
+            return;
+        }
+
+        long rank = rank(key, keyLength, isPrefix, isExact, edits);
+        if (size < heap.length) {
+            heap[size] = rank;
+            siftUp(size++);
+        } else if (rank < heap[0]) {
+            heap[0] = rank;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Checks if a key matching with at least the number of edits would be ranked worse than all kept keys. Then no such
+     * key can be kept anymore, since the heap is full.
+     */
+    boolean isWorseThanAll(int minEdits) {
+        if (ranking == SearchIndex.Ranking.INDEX_ORDER || size < heap.length) {
+            return false;
+        }
+
+        return heap.length == 0 || heap[0] >>> BUCKET_SHIFT < (long) minEdits * NUMBER_OF_BUCKETS;
+    }
+
+    /**
+     * Checks if a key matching with at least the number of edits would be ranked worse than all kept keys, before its
+     * edits are computed. A key matching with edits does not start with the query, so its rank is only bounded by the
+     * edits if there are none.
+     */
+    boolean isWorseThanAll(int key, int keyLength, int minEdits) {
+        return isWorseThanAll(key, keyLength, minEdits == 0, minEdits == 0, minEdits);
+    }
+
+    /**
+     * Checks if a key would be ranked worse than all kept keys, even if it is an exact or prefix match as far as
+     * possible.
+     *
+     * @param key        the position of the key in the order of the index.
+     * @param keyLength  the length of the key.
+     * @param canBePrefix whether the key can start with the query.
+     * @param canBeExact  whether the key can equal the query.
+     * @param minEdits   the lower bound of the edits of the match.
+     */
+    boolean isWorseThanAll(int key, int keyLength, boolean canBePrefix, boolean canBeExact, int minEdits) {
+        if (size < heap.length) {
+            return false;
+        }
+
+        return heap.length == 0 || rank(key, keyLength, canBePrefix, canBeExact, minEdits) > heap[0];
+    }
+
+    /**
+     * Gets the kept keys, best ranked first.
+     */
+    int[] getKeys() {
+        long[] ranks = Arrays.copyOf(heap, size);
+        Arrays.sort(ranks);
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (int) (ranks[i] & KEY_MASK);
+        }
+
+        return keys;
+    }
+
+    private long rank(int key, int keyLength, boolean isPrefix, boolean isExact, int edits) {
+        if (ranking == SearchIndex.Ranking.INDEX_ORDER) {
+            return key;
+        }
+
+        long bucket = (long) edits * NUMBER_OF_BUCKETS + (isExact ? EXACT : isPrefix ? PREFIX : OTHER);
+        return bucket << BUCKET_SHIFT | (long) Math.min(keyLength, MAX_LENGTH) << LENGTH_SHIFT | key;
+    }
+
+    private void siftUp(int index) {
+        long rank = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= rank) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = rank;
+    }
+
+    private void siftDown(int index) {
+        long rank = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= rank) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = rank;
+    }
+
+}
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -11,7 +12,8 @@ import java.util.stream.Collectors;
 /**
  * SearchIndex class for indexing strings and their associated objects.
  * <p>
- * Supports different search strategies on strings, such as STARTS_WITH, ENDS_WITH, CONTAINS, and EXACT.
+ * Supports different search strategies on strings, such as STARTS_WITH, ENDS_WITH, CONTAINS, and EXACT, and the typo
+ * tolerant FUZZY search.
  *
  * @param <T> the type of objects to be indexed.
  */
@@ -19,7 +21,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SearchIndex<T> {
 
-    private final Trie<Entry<T>> suffixTrie;
+    private final Backend<T> backend;
+    private final TrigramIndex<T> trigramIndex;
 
     public static <T> SearchIndexBuilder<T> builder() {
         return new SearchIndexBuilder<>();
@@ -39,34 +42,129 @@ public class SearchIndex<T> {
             return Set.of();
         }
 
-        List<Entry<T>> results = suffixTrie.startsWith(query);
+        return getBackend(strategy).search(query, strategy);
+    }
 
-        return switch (strategy) {
-            case EXACT -> results.stream()
-                    .filter(entry -> entry.key().equals(query))
-                    .map(Entry::value)
-                    .collect(Collectors.toSet());
-            case STARTS_WITH -> results.stream()
-                    .filter(entry -> entry.key().startsWith(query))
-                    .map(Entry::value)
-                    .collect(Collectors.toSet());
-            case ENDS_WITH -> results.stream()
-                    .filter(entry -> entry.key().endsWith(query))
-                    .map(Entry::value)
-                    .collect(Collectors.toSet());
-            case CONTAINS -> results.stream().map(Entry::value).collect(Collectors.toSet());
-        };
+    /**
+     * Searches for the best ranked values matching the query and the search strategy.
+     * <p>
+     * Only the best ranked matches are kept while searching, so a short query matching many keys does not sort all of
+     * them.
+     *
+     * @param query    the string query to search for.
+     * @param strategy the search strategy to use.
+     * @param ranking  the ranking of the matches.
+     * @param limit    the maximum number of values to return, must be positive.
+     * @return the best ranked values associated with the query, best first, or an empty list if none is found.
+     */
+    public List<T> search(String query, SearchStrategy strategy, Ranking ranking, int limit) {
+        log.debug("Searching for query: '{}' with strategy: {}, ranking: {} and limit: {}", query, strategy, ranking,
+                limit);
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        if (query == null || query.isEmpty()) {
+            return List.of();
+        }
 
+        return getBackend(strategy).search(query, strategy, ranking, limit);
+    }
+
+    private Backend<T> getBackend(SearchStrategy strategy) {
+        return strategy == SearchStrategy.FUZZY ? trigramIndex : backend;
     }
 
     public enum SearchStrategy {
         STARTS_WITH,
         ENDS_WITH,
         CONTAINS,
-        EXACT
+        EXACT,
+        /**
+         * Matches keys containing the query with a few typos, ignoring case and diacritics, see {@link TrigramIndex}.
+         */
+        FUZZY
+    }
+
+    /**
+     * Rankings of the matches of a search.
+     */
+    public enum Ranking {
+        /**
+         * Ranks the matches in the order of the index, see {@link SearchIndexBuilder#order(java.util.Comparator)}.
+         */
+        INDEX_ORDER,
+        /**
+         * Ranks keys equal to the query first, then keys starting with the query, then all other matches. Ties are
+         * ranked by key length (shorter first), then in the order of the index.
+         */
+        RELEVANCE
+    }
+
+    /**
+     * The data structures a search index can be built on.
+     */
+    public enum IndexType {
+        /**
+         * A sorted array of all suffixes of the keys, see {@link SuffixArray}.
+         */
+        SUFFIX_ARRAY,
+        /**
+         * A compressed trie of all suffixes of the keys, see {@link CompressedTrie}.
+         */
+        SUFFIX_TRIE
+    }
+
+    /**
+     * Data structure of the index, finding the values for a non-empty query. The keys are stored in the order of the
+     * index. The {@link SearchStrategy#FUZZY} search is always done by the {@link TrigramIndex}.
+     */
+    interface Backend<U> {
+        Set<U> search(String query, SearchStrategy strategy);
+
+        List<U> search(String query, SearchStrategy strategy, Ranking ranking, int limit);
     }
 
     record Entry<U>(String key, U value) {
     }
 
+    /**
+     * Backend on a trie containing all suffixes of the keys, mapped to the positions of their entries.
+     */
+    record SuffixTrie<U>(Trie<Integer> suffixTrie, List<Entry<U>> entries) implements Backend<U> {
+
+        @Override
+        public Set<U> search(String query, SearchStrategy strategy) {
+            return suffixTrie.startsWith(query)
+                    .stream()
+                    .map(entries::get)
+                    .filter(entry -> matches(entry.key(), query, strategy))
+                    .map(Entry::value)
+                    .collect(Collectors.toSet());
+        }
+
+        @Override
+        public List<U> search(String query, SearchStrategy strategy, Ranking ranking, int limit) {
+            RankedKeys rankedKeys = new RankedKeys(ranking, limit, entries.size());
+            for (int key : suffixTrie.startsWith(query)) {
+                String keyString = entries.get(key).key();
+                if (!rankedKeys.contains(key) && matches(keyString, query, strategy)) {
+                    rankedKeys.add(key, keyString.length(), keyString.startsWith(query), keyString.equals(query));
+                }
+            }
+
+            return Arrays.stream(rankedKeys.getKeys()).mapToObj(key -> entries.get(key).value()).toList();
+        }
+
+        private static boolean matches(String key, String query, SearchStrategy strategy) {
+            return switch (strategy) {
+                case EXACT -> key.equals(query);
+                case STARTS_WITH -> key.startsWith(query);
+                case ENDS_WITH -> key.endsWith(query);
+                case CONTAINS -> true;
+                case FUZZY -> throw new IllegalArgumentException("Suffix trie does not support fuzzy search.");
+            };
+        }
+    }
+
 }
@@ -1,6 +1,11 @@
 package org.naviqore.utils.search;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Builder class for creating a SearchIndex with key-value pairs.
@@ -10,13 +15,45 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SearchIndexBuilder<T> {
 
-    private final CompressedTrie<SearchIndex.Entry<T>> suffixTrie = new CompressedTrie<>();
-    private int count;
+    private final List<SearchIndex.Entry<T>> entries = new ArrayList<>();
+    private SearchIndex.IndexType indexType = SearchIndex.IndexType.SUFFIX_ARRAY;
+    private @Nullable Comparator<? super T> order;
+
+    /**
+     * Sets the data structure of the index, defaults to {@link SearchIndex.IndexType#SUFFIX_ARRAY}.
+     *
+     * @param indexType the type of the index.
+     * @return the builder instance.
+     */
+    public SearchIndexBuilder<T> indexType(SearchIndex.IndexType indexType) {
+        if (indexType == null) {
+            throw new IllegalArgumentException("Index type cannot be null.");
+        }
+        this.indexType = indexType;
+
+        return this;
+    }
+
+    /**
+     * Sets the order of the index, which ranks the matches of {@link SearchIndex.Ranking#INDEX_ORDER} and breaks the
+     * ties of {@link SearchIndex.Ranking#RELEVANCE}. Defaults to the insertion order.
+     *
+     * @param order the comparator of the values, equal values keep their insertion order.
+     * @return the builder instance.
+     */
+    public SearchIndexBuilder<T> order(Comparator<? super T> order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null.");
+        }
+        this.order = order;
+
+        return this;
+    }
 
     /**
      * Adds a key-value pair to the builder.
      *
-     * @param key   the string key to be indexed.
+     * @param key   the string key to be indexed, must not contain the null character.
      * @param value the value associated with the key.
      * @return the builder instance.
      */
@@ -24,28 +61,66 @@ public class SearchIndexBuilder<T> {
         if (key == null || key.isEmpty()) {
             throw new IllegalArgumentException("Key cannot be null or empty.");
         }
+        if (key.indexOf(SuffixArray.TERMINATOR) >= 0) {
+            throw new IllegalArgumentException("Key cannot contain the null character.");
+        }
 
         log.debug("Adding search key: {}", key);
-        SearchIndex.Entry<T> entry = new SearchIndex.Entry<>(key, value);
-        for (int i = key.length() - 1; i >= 0; i--) {
-            suffixTrie.insert(key.substring(i), entry);
-        }
-        count++;
+        entries.add(new SearchIndex.Entry<>(key, value));
 
         return this;
     }
 
     /**
-     * Builds the SearchIndex by compressing the underlying Trie.
+     * Builds the SearchIndex on the data structure of the index type and a trigram index for fuzzy searches.
      *
-     * @return the built and compressed SearchIndex.
+     * @return the built SearchIndex.
      */
     public SearchIndex<T> build() {
-        log.info("Building search index for {} entries (compressed suffix trie, keys: {} nodes: {})", count,
+        // stable sort, the backends store the keys in the order of the index
+        List<SearchIndex.Entry<T>> entries = new ArrayList<>(this.entries);
+        if (order != null) {
+            entries.sort(Comparator.comparing(SearchIndex.Entry::value, order));
+        }
+
+        SearchIndex.Backend<T> backend = switch (indexType) {
+            case SUFFIX_ARRAY -> buildSuffixArray(entries);
+            case SUFFIX_TRIE -> buildSuffixTrie(entries);
+        };
+
+        return new SearchIndex<>(backend, buildTrigramIndex(entries));
+    }
+
+    private static <T> SuffixArray<T> buildSuffixArray(List<SearchIndex.Entry<T>> entries) {
+        SuffixArray<T> suffixArray = new SuffixArray<>(entries);
+        log.info("Building search index for {} entries (suffix array, suffixes: {})", entries.size(),
+                suffixArray.size());
+
+        return suffixArray;
+    }
+
+    private static <T> SearchIndex.SuffixTrie<T> buildSuffixTrie(List<SearchIndex.Entry<T>> entries) {
+        CompressedTrie<Integer> suffixTrie = new CompressedTrie<>();
+        for (int position = 0; position < entries.size(); position++) {
+            // box once, all suffixes of the key share the position
+            Integer value = position;
+            String key = entries.get(position).key();
+            for (int i = key.length() - 1; i >= 0; i--) {
+                suffixTrie.insert(key.substring(i), value);
+            }
+        }
+        log.info("Building search index for {} entries (compressed suffix trie, keys: {} nodes: {})", entries.size(),
                 suffixTrie.size(), suffixTrie.getNodes().size());
         suffixTrie.trimToSize();
 
-        return new SearchIndex<>(suffixTrie);
+        return new SearchIndex.SuffixTrie<>(suffixTrie, entries);
+    }
+
+    private static <T> TrigramIndex<T> buildTrigramIndex(List<SearchIndex.Entry<T>> entries) {
+        TrigramIndex<T> trigramIndex = new TrigramIndex<>(entries);
+        log.info("Building fuzzy search index for {} entries (trigrams: {})", entries.size(), trigramIndex.size());
+
+        return trigramIndex;
     }
 
 }
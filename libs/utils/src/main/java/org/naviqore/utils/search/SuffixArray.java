@@ -0,0 +1,227 @@
+package org.naviqore.utils.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * A static suffix array over the keys of a search index.
+ * <p>
+ * All keys are concatenated into one char array, each terminated by the null character. The suffix array holds the
+ * start positions of all suffixes of the keys in lexicographic order and the LCP array the length of the longest common
+ * prefix of each suffix with its predecessor. All suffixes starting with a query are adjacent in the suffix array: The
+ * first one is found by a binary search, the others follow as long as their common prefix with the predecessor covers
+ * the query. Whether a match is at the start or the end of its key decides the search strategies other than CONTAINS.
+ * Ranked searches collect the matching keys into {@link RankedKeys}, the position of a key is its rank in the index
+ * order, since the keys are stored in that order.
+ * <p>
+ * The index needs 10 bytes per character of the keys (the char, its suffix position and its LCP), instead of the nodes,
+ * maps and lists per character of a suffix trie.
+ *
+ * @param <T> the type of objects to be indexed.
+ */
+final class SuffixArray<T> implements SearchIndex.Backend<T> {
+
+    static final char TERMINATOR = '\0';
+
+    private final char[] text;
+    private final int[] keyStarts;
+    private final Object[] values;
+    private final int[] suffixes;
+    private final int[] lcp;
+
+    SuffixArray(List<SearchIndex.Entry<T>> entries) {
+        keyStarts = new int[entries.size()];
+        values = new Object[entries.size()];
+        int length = 0;
+        for (int key = 0; key < entries.size(); key++) {
+            keyStarts[key] = length;
+            values[key] = entries.get(key).value();
+            length += entries.get(key).key().length() + 1;
+        }
+
+        text = new char[length];
+        suffixes = new int[length - entries.size()];
+        int suffix = 0;
+        for (int key = 0; key < entries.size(); key++) {
+            String keyString = entries.get(key).key();
+            keyString.getChars(0, keyString.length(), text, keyStarts[key]);
+            text[keyStarts[key] + keyString.length()] = TERMINATOR;
+            for (int position = 0; position < keyString.length(); position++) {
+                suffixes[suffix++] = keyStarts[key] + position;
+            }
+        }
+
+        sort(0, suffixes.length, 0);
+        lcp = new int[suffixes.length];
+        for (int i = 1; i < suffixes.length; i++) {
+            lcp[i] = getCommonPrefixLength(suffixes[i - 1], suffixes[i]);
+        }
+    }
+
+    /**
+     * Gets the number of characters of all keys, which is the number of suffixes in the index.
+     */
+    int size() {
+        return suffixes.length;
+    }
+
+    @Override
+    public Set<T> search(String query, SearchIndex.SearchStrategy strategy) {
+        Set<T> results = new HashSet<>();
+        forEachMatch(query, strategy, key -> results.add(getValue(key)));
+
+        return results;
+    }
+
+    @Override
+    public List<T> search(String query, SearchIndex.SearchStrategy strategy, SearchIndex.Ranking ranking, int limit) {
+        RankedKeys rankedKeys = new RankedKeys(ranking, limit, keyStarts.length);
+        forEachMatch(query, strategy, key -> {
+            if (!rankedKeys.contains(key)) {
+                int keyStart = keyStarts[key];
+                boolean isPrefix = compare(keyStart, query) == 0;
+                rankedKeys.add(key, getKeyLength(key), isPrefix,
+                        isPrefix && text[keyStart + query.length()] == TERMINATOR);
+            }
+        });
+
+        List<T> results = new ArrayList<>();
+        for (int key : rankedKeys.getKeys()) {
+            results.add(getValue(key));
+        }
+
+        return results;
+    }
+
+    /**
+     * Reports the key of each suffix matching the query and the strategy, a key can be reported more than once.
+     */
+    private void forEachMatch(String query, SearchIndex.SearchStrategy strategy, IntConsumer consumer) {
+        // the terminator would match across the end of a key
+        if (query.indexOf(TERMINATOR) >= 0) {
+            return;
+        }
+
+        int first = findFirstSuffix(query);
+        if (first == suffixes.length || compare(suffixes[first], query) != 0) {
+            return;
+        }
+
+        for (int i = first; i == first || (i < suffixes.length && lcp[i] >= query.length()); i++) {
+            int position = suffixes[i];
+            int key = getKey(position);
+            boolean isKeyStart = position == keyStarts[key];
+            boolean isKeyEnd = text[position + query.length()] == TERMINATOR;
+            boolean matches = switch (strategy) {
+                case STARTS_WITH -> isKeyStart;
+                case ENDS_WITH -> isKeyEnd;
+                case CONTAINS -> true;
+                case EXACT -> isKeyStart && isKeyEnd;
+                case FUZZY -> throw new IllegalArgumentException("Suffix array does not support fuzzy search.");
+            };
+            if (matches) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Binary search for the index of the first suffix that is not smaller than the query.
+     */
+    private int findFirstSuffix(String query) {
+        int low = 0;
+        int high = suffixes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(suffixes[mid], query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Compares the suffix at a position with the query, a suffix starting with the query is equal to it.
+     */
+    private int compare(int position, String query) {
+        for (int i = 0; i < query.length(); i++) {
+            // the terminator is smaller than any character of the query
+            char c = text[position + i];
+            char q = query.charAt(i);
+            if (c != q) {
+                return c < q ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+
+    private int getCommonPrefixLength(int position1, int position2) {
+        int length = 0;
+        while (text[position1 + length] == text[position2 + length] && text[position1 + length] != TERMINATOR) {
+            length++;
+        }
+
+        return length;
+    }
+
+    private int getKey(int position) {
+        int key = Arrays.binarySearch(keyStarts, position);
+        return key >= 0 ? key : -key - 2;
+    }
+
+    private int getKeyLength(int key) {
+        int keyEnd = key + 1 < keyStarts.length ? keyStarts[key + 1] : text.length;
+        return keyEnd - keyStarts[key] - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int key) {
+        return (T) values[key];
+    }
+
+    /**
+     * Sorts the suffixes in the range by the characters from the depth on with a multikey quicksort, which only
+     * compares the character at the depth instead of whole suffixes.
+     */
+    private void sort(int from, int to, int depth) {
+        while (to - from > 1) {
+            // three-way partition by the character of the middle suffix
+            char pivot = text[suffixes[(from + to) >>> 1] + depth];
+            int less = from;
+            int greater = to - 1;
+            int i = from;
+            while (i <= greater) {
+                char c = text[suffixes[i] + depth];
+                if (c < pivot) {
+                    swap(less++, i++);
+                } else if (c > pivot) {
+                    swap(i, greater--);
+                } else {
+                    i++;
+                }
+            }
+
+            sort(from, less, depth);
+            // suffixes ending at the depth are equal, all others continue with the next character
+            if (pivot != TERMINATOR) {
+                sort(less, greater + 1, depth + 1);
+            }
+            from = greater + 1;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int suffix = suffixes[i];
+        suffixes[i] = suffixes[j];
+        suffixes[j] = suffix;
+    }
+
+}
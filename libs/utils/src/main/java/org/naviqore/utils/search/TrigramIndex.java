@@ -0,0 +1,481 @@
+package org.naviqore.utils.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * A trigram index over the normalized keys of a search index, for the typo tolerant
+ * {@link SearchIndex.SearchStrategy#FUZZY} search.
+ * <p>
+ * The keys are normalized once when building: decomposed, stripped of combining marks (umlauts and accents) and lower
+ * cased. For each trigram of the normalized keys, the index holds a posting list with the positions of the keys
+ * containing it. The trigrams are packed into longs and sorted, the posting lists are concatenated into one int array,
+ * so a lookup is a binary search without any boxing.
+ * <p>
+ * A key matches if it contains a substring within the maximum number of edits of the normalized query (see
+ * {@link #getMaxEdits(int)}). Since one edit changes at most three trigrams, a matching key shares at least
+ * {@code t - 3 * edits} of the {@code t} distinct trigrams of the query. Only keys sharing that many trigrams, but at
+ * least one, are candidates, whose edit distance is then verified. Requiring one common trigram misses keys where every
+ * trigram of a short query is changed, which is accepted to avoid checking every key. Queries shorter than a trigram
+ * allow no edits and are matched by scanning the normalized keys.
+ * <p>
+ * Ranked searches verify the candidates in descending order of shared trigrams. A candidate sharing {@code s} trigrams
+ * needs at least {@code ceil((t - s) / 3)} edits, so the verification stops as soon as that bound is above the edits of
+ * all kept matches, which skips the many candidates sharing only a frequent trigram with a short query.
+ *
+ * @param <T> the type of objects to be indexed.
+ */
+final class TrigramIndex<T> implements SearchIndex.Backend<T> {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int LETTERS = 26;
+    private static final int DIGITS = 10;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final String[] keys;
+    private final char[] text;
+    private final int[] keyStarts;
+    private final long[] signatures;
+    private final int[] keysByLength;
+    private final Object[] values;
+    private final long[] grams;
+    private final int[] offsets;
+    private final int[] postings;
+
+    TrigramIndex(List<SearchIndex.Entry<T>> entries) {
+        keys = new String[entries.size()];
+        values = new Object[entries.size()];
+        long[][] keyGrams = new long[entries.size()][];
+        int numberOfPostings = 0;
+        for (int key = 0; key < entries.size(); key++) {
+            keys[key] = normalize(entries.get(key).key());
+            values[key] = entries.get(key).value();
+            keyGrams[key] = getDistinctGrams(keys[key]);
+            numberOfPostings += keyGrams[key].length;
+        }
+
+        keyStarts = new int[keys.length + 1];
+        for (int key = 0; key < keys.length; key++) {
+            keyStarts[key + 1] = keyStarts[key] + keys[key].length();
+        }
+        text = new char[keyStarts[keys.length]];
+        signatures = new long[keys.length];
+        for (int key = 0; key < keys.length; key++) {
+            keys[key].getChars(0, keys[key].length(), text, keyStarts[key]);
+            signatures[key] = getSignature(keys[key]);
+        }
+
+        keysByLength = IntStream.range(0, keys.length)
+                .boxed()
+                .sorted(Comparator.comparingInt(key -> keys[key].length()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        long[] allGrams = new long[numberOfPostings];
+        int index = 0;
+        for (long[] distinctGrams : keyGrams) {
+            System.arraycopy(distinctGrams, 0, allGrams, index, distinctGrams.length);
+            index += distinctGrams.length;
+        }
+        grams = Arrays.stream(allGrams).sorted().distinct().toArray();
+
+        // count the keys per trigram, then fill the posting lists in ascending order of the keys
+        offsets = new int[grams.length + 1];
+        for (long[] distinctGrams : keyGrams) {
+            for (long gram : distinctGrams) {
+                offsets[Arrays.binarySearch(grams, gram) + 1]++;
+            }
+        }
+        for (int i = 0; i < grams.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        postings = new int[numberOfPostings];
+        int[] next = Arrays.copyOf(offsets, grams.length);
+        for (int key = 0; key < keyGrams.length; key++) {
+            for (long gram : keyGrams[key]) {
+                postings[next[Arrays.binarySearch(grams, gram)]++] = key;
+            }
+        }
+    }
+
+    /**
+     * Normalizes a key or query: Decomposes it, removes the combining marks and converts it to lower case.
+     */
+    static String normalize(String string) {
+        String decomposed = Normalizer.normalize(string, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the maximum number of edits (insertions, deletions or substitutions) for a normalized query: none up to two
+     * characters, one up to five characters and two for longer queries.
+     */
+    static int getMaxEdits(int queryLength) {
+        if (queryLength <= 2) {
+            return 0;
+        }
+
+        return queryLength <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Gets the number of distinct trigrams in the index.
+     */
+    int size() {
+        return grams.length;
+    }
+
+    @Override
+    public Set<T> search(String query, SearchIndex.SearchStrategy strategy) {
+        checkStrategy(strategy);
+        String normalizedQuery = normalize(query);
+        int maxEdits = getMaxEdits(normalizedQuery.length());
+
+        ApproximateMatcher matcher = new ApproximateMatcher(normalizedQuery);
+        Set<T> results = new HashSet<>();
+        long querySignature = getSignature(normalizedQuery);
+        for (int key : getCandidates(normalizedQuery, maxEdits).keys()) {
+            if (getMinEdits(querySignature, key) <= maxEdits && matcher.getEdits(text, keyStarts[key],
+                    keyStarts[key + 1], maxEdits) <= maxEdits) {
+                results.add(getValue(key));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Ranks the matches by the number of edits first, then as the {@link SearchIndex.Ranking} on the normalized keys.
+     * The ranking {@link SearchIndex.Ranking#INDEX_ORDER} ignores the number of edits.
+     */
+    @Override
+    public List<T> search(String query, SearchIndex.SearchStrategy strategy, SearchIndex.Ranking ranking, int limit) {
+        checkStrategy(strategy);
+        String normalizedQuery = normalize(query);
+
+        RankedKeys rankedKeys = new RankedKeys(ranking, limit, keys.length);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        } else if (normalizedQuery.length() < GRAM_LENGTH) {
+            rankShortQueryMatches(normalizedQuery, ranking, rankedKeys);
+        } else {
+            rankCandidates(normalizedQuery, rankedKeys);
+        }
+
+        List<T> results = new ArrayList<>();
+        for (int key : rankedKeys.getKeys()) {
+            results.add(getValue(key));
+        }
+
+        return results;
+    }
+
+    private void rankCandidates(String query, RankedKeys rankedKeys) {
+        int maxEdits = getMaxEdits(query.length());
+        ApproximateMatcher matcher = new ApproximateMatcher(query);
+        long querySignature = getSignature(query);
+        Candidates candidates = getCandidates(query, maxEdits);
+        for (int i = 0; i < candidates.keys().length; i++) {
+            // candidates sharing fewer trigrams need more edits, stop when they cannot be ranked among the best
+            int minEdits = candidates.getMinEdits(i);
+            if (rankedKeys.isWorseThanAll(minEdits)) {
+                break;
+            }
+
+            // skip the verification if the bounds of the edits exclude the candidate
+            int key = candidates.keys()[i];
+            int keyLength = keyStarts[key + 1] - keyStarts[key];
+            minEdits = Math.max(minEdits, getMinEdits(querySignature, key));
+            if (minEdits > maxEdits || rankedKeys.isWorseThanAll(key, keyLength, minEdits)) {
+                continue;
+            }
+
+            int edits = matcher.getEdits(text, keyStarts[key], keyStarts[key + 1], maxEdits);
+            if (edits <= maxEdits) {
+                boolean isPrefix = keys[key].startsWith(query);
+                rankedKeys.add(key, keyLength, isPrefix, isPrefix && keyLength == query.length(), edits);
+            }
+        }
+    }
+
+    /**
+     * Ranks the keys containing a query shorter than a trigram, which allows no edits. The keys are scanned in the
+     * order of the ranking, by position or by length, which puts the exact matches first. The scan stops at the first
+     * key that cannot be ranked among the best even if it starts with the query, since no following key can either.
+     */
+    private void rankShortQueryMatches(String query, SearchIndex.Ranking ranking, RankedKeys rankedKeys) {
+        for (int i = 0; i < keys.length; i++) {
+            int key = ranking == SearchIndex.Ranking.INDEX_ORDER ? i : keysByLength[i];
+            String normalizedKey = keys[key];
+            boolean canBeExact = normalizedKey.length() == query.length();
+            if (rankedKeys.isWorseThanAll(key, normalizedKey.length(), true, canBeExact, 0)) {
+                break;
+            }
+
+            // only a prefix match can still be ranked among the best if other matches cannot
+            boolean isPrefix = normalizedKey.startsWith(query);
+            if (isPrefix || (!rankedKeys.isWorseThanAll(key, normalizedKey.length(), false, false, 0)
+                    && normalizedKey.contains(query))) {
+                rankedKeys.add(key, normalizedKey.length(), isPrefix, isPrefix && canBeExact);
+            }
+        }
+    }
+
+    /**
+     * Gets the keys passing the trigram filter, ordered by the number of shared trigrams (most first).
+     */
+    private Candidates getCandidates(String query, int maxEdits) {
+        if (query.length() < GRAM_LENGTH) {
+            return new Candidates(IntStream.range(0, keys.length)
+                    .filter(key -> !query.isEmpty() && keys[key].contains(query))
+                    .toArray(), new int[0], 0);
+        }
+
+        long[] queryGrams = getDistinctGrams(query);
+        int minSharedGrams = Math.max(1, queryGrams.length - GRAM_LENGTH * maxEdits);
+
+        // count the shared trigrams of each key, a key is a candidate when its count reaches the minimum
+        int[] sharedGrams = new int[keys.length];
+        int[] candidates = new int[16];
+        int numberOfCandidates = 0;
+        for (long gram : queryGrams) {
+            int index = Arrays.binarySearch(grams, gram);
+            if (index < 0) {
+                continue;
+            }
+            for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                int key = postings[i];
+                if (++sharedGrams[key] == minSharedGrams) {
+                    if (numberOfCandidates == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, 2 * numberOfCandidates);
+                    }
+                    candidates[numberOfCandidates++] = key;
+                }
+            }
+        }
+
+        // counting sort by the number of shared trigrams, descending and stable to keep the keys in ascending order
+        int[] starts = new int[queryGrams.length + 2];
+        for (int i = 0; i < numberOfCandidates; i++) {
+            starts[queryGrams.length - sharedGrams[candidates[i]] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] sortedCandidates = new int[numberOfCandidates];
+        int[] sortedSharedGrams = new int[numberOfCandidates];
+        for (int i = 0; i < numberOfCandidates; i++) {
+            int shared = sharedGrams[candidates[i]];
+            int position = starts[queryGrams.length - shared]++;
+            sortedCandidates[position] = candidates[i];
+            sortedSharedGrams[position] = shared;
+        }
+
+        return new Candidates(sortedCandidates, sortedSharedGrams, queryGrams.length);
+    }
+
+    /**
+     * Computes the smallest edit distance between the query and any substring of the key. Distances above the maximum
+     * edits are returned as {@code maxEdits + 1}.
+     */
+    static int getEdits(String query, String key, int maxEdits) {
+        return new ApproximateMatcher(query).getEdits(key, maxEdits);
+    }
+
+    /**
+     * Gets the lower bound of the edits from the characters of the query missing in the key, since each distinct
+     * missing character needs at least one edit.
+     */
+    private int getMinEdits(long querySignature, int key) {
+        return Long.bitCount(querySignature & ~signatures[key]);
+    }
+
+    /**
+     * Gets the set of characters of a string as bits: one bit per letter and digit, the other characters share the
+     * remaining bits.
+     */
+    private static long getSignature(String string) {
+        long signature = 0L;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                signature |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                signature |= 1L << (LETTERS + c - '0');
+            } else {
+                signature |= 1L << (LETTERS + DIGITS + c % (Long.SIZE - LETTERS - DIGITS));
+            }
+        }
+
+        return signature;
+    }
+
+    private static long[] getDistinctGrams(String string) {
+        if (string.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+
+        long[] grams = new long[string.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) string.charAt(i) << 32 | (long) string.charAt(i + 1) << 16 | string.charAt(i + 2);
+        }
+
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+
+    /**
+     * Candidate keys of a query with their numbers of shared trigrams. Queries shorter than a trigram have no shared
+     * trigrams, all their candidates match without edits.
+     */
+    private record Candidates(int[] keys, int[] sharedGrams, int queryGrams) {
+
+        /**
+         * Gets the lower bound of the edits of a candidate, since one edit changes at most three trigrams.
+         */
+        int getMinEdits(int index) {
+            if (sharedGrams.length == 0) {
+                return 0;
+            }
+
+            return (queryGrams - sharedGrams[index] + GRAM_LENGTH - 1) / GRAM_LENGTH;
+        }
+    }
+
+    /**
+     * Computes the smallest edit distance between a query and any substring of a key, which is the dynamic programming
+     * of Sellers: a column per character of the key, whose first row is zero since a match can start anywhere. Queries
+     * of up to 64 characters use the bit-parallel algorithm of Myers instead, which encodes the vertical differences of
+     * a column in two longs and computes the next column in a few operations, without a loop over the query.
+     */
+    static final class ApproximateMatcher {
+
+        private static final int ASCII_SIZE = 128;
+
+        private final String query;
+        private final long[] asciiMasks = new long[ASCII_SIZE];
+
+        ApproximateMatcher(String query) {
+            this.query = query;
+            if (query.length() <= Long.SIZE) {
+                for (int i = 0; i < query.length(); i++) {
+                    char c = query.charAt(i);
+                    if (c < ASCII_SIZE) {
+                        asciiMasks[c] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        int getEdits(String key, int maxEdits) {
+            return getEdits(key.toCharArray(), 0, key.length(), maxEdits);
+        }
+
+        /**
+         * Gets the edits of the key stored in the range of the text.
+         */
+        int getEdits(char[] text, int from, int to, int maxEdits) {
+            int edits = query.length() <= Long.SIZE ? getEditsBitParallel(text, from,
+                    to) : getEditsByDynamicProgramming(text, from, to);
+            return Math.min(edits, maxEdits + 1);
+        }
+
+        int getEditsBitParallel(String key) {
+            return getEditsBitParallel(key.toCharArray(), 0, key.length());
+        }
+
+        int getEditsByDynamicProgramming(String key) {
+            return getEditsByDynamicProgramming(key.toCharArray(), 0, key.length());
+        }
+
+        private int getEditsBitParallel(char[] text, int from, int to) {
+            int m = query.length();
+            if (m == 0) {
+                return 0;
+            }
+
+            int lastRow = m - 1;
+            long positive = -1L;
+            long negative = 0L;
+            int score = m;
+            int best = m;
+            for (int j = from; j < to; j++) {
+                char c = text[j];
+                long equal = c < ASCII_SIZE ? asciiMasks[c] : getMask(c);
+                long vertical = equal | negative;
+                long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+                long horizontalPositive = negative | ~(horizontal | positive);
+                long horizontalNegative = positive & horizontal;
+                // the score is the distance in the last row, it changes by the horizontal difference there
+                score += (int) ((horizontalPositive >>> lastRow) & 1L) - (int) ((horizontalNegative >>> lastRow) & 1L);
+                best = Math.min(best, score);
+                // the first row stays zero, so no difference is shifted in
+                horizontalPositive <<= 1;
+                horizontalNegative <<= 1;
+                positive = horizontalNegative | ~(vertical | horizontalPositive);
+                negative = horizontalPositive & vertical;
+            }
+
+            return best;
+        }
+
+        private int getEditsByDynamicProgramming(char[] text, int from, int to) {
+            int m = query.length();
+            // distances of query prefixes to substrings ending at the current key position
+            int[] previous = new int[m + 1];
+            int[] current = new int[m + 1];
+            for (int i = 0; i <= m; i++) {
+                previous[i] = i;
+            }
+
+            int best = previous[m];
+            for (int j = from; j < to; j++) {
+                char c = text[j];
+                current[0] = 0;
+                for (int i = 1; i <= m; i++) {
+                    int substitution = previous[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+                    current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                }
+                best = Math.min(best, current[m]);
+                int[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+
+            return best;
+        }
+
+        /**
+         * Gets the bit mask of the query positions with a character outside of ASCII.
+         */
+        private long getMask(char c) {
+            long mask = 0L;
+            for (int i = 0; i < query.length(); i++) {
+                if (query.charAt(i) == c) {
+                    mask |= 1L << i;
+                }
+            }
+
+            return mask;
+        }
+    }
+
+    private static void checkStrategy(SearchIndex.SearchStrategy strategy) {
+        if (strategy != SearchIndex.SearchStrategy.FUZZY) {
+            throw new IllegalArgumentException("Trigram index only supports fuzzy search.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int key) {
+        return (T) values[key];
+    }
+
+}
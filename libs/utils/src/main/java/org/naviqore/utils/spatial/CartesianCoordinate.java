@@ -47,6 +47,12 @@ public class CartesianCoordinate implements Coordinate {
         return Math.sqrt(Math.pow(this.x - x, 2) + Math.pow(this.y - y, 2));
     }
 
+    @Override
+    public double axisDistanceTo(double x, double y, Axis axis) {
+        validateCoordinate(x, y);
+        return Math.abs(axis == Axis.FIRST ? this.x - x : this.y - y);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
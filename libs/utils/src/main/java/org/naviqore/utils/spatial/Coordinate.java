@@ -33,6 +33,15 @@ public interface Coordinate {
      */
     double distanceTo(double firstComponent, double secondComponent);
 
+    /**
+     * Calculates a lower bound of the distance from a point specified by its components to any coordinate on the other
+     * side of this coordinate along the given axis, i.e. separated from the point by the component of this coordinate.
+     * <p>
+     * Spatial indices use the bound to skip partitions that cannot contain coordinates within a search distance, so it
+     * must be in the same unit as {@link #distanceTo(double, double)}.
+     */
+    double axisDistanceTo(double firstComponent, double secondComponent, Axis axis);
+
     /**
      * Gets the coordinate component based on the specified {@code Axis}.
      */
@@ -23,6 +23,27 @@ public record GeoCoordinate(double latitude, double longitude) implements Coordi
         }
     }
 
+    /**
+     * Calculates the distance from a point to a meridian, i.e. to the half of the great circle between the poles.
+     *
+     * @param latitude            the latitude of the point in degrees.
+     * @param longitudeDifference the longitude difference between the point and the meridian in degrees.
+     * @return The distance in meters.
+     */
+    private static double distanceToMeridian(double latitude, double longitudeDifference) {
+        double dLon = Math.toRadians(Math.abs(longitudeDifference) % 360);
+        if (dLon > Math.PI) {
+            dLon = 2 * Math.PI - dLon;
+        }
+        if (dLon >= Math.PI / 2) {
+            // the meridian is behind the point, its closest point is the pole on the side of the point
+            return EARTH_RADIUS * (Math.PI / 2 - Math.toRadians(Math.abs(latitude)));
+        }
+
+        // cross-track distance to the great circle of the meridian
+        return EARTH_RADIUS * Math.asin(Math.sin(dLon) * Math.cos(Math.toRadians(latitude)));
+    }
+
     private void isOfSameType(Coordinate other) {
         if (other == null) {
             throw new IllegalArgumentException("Other coordinate must not be null");
@@ -73,6 +94,26 @@ public record GeoCoordinate(double latitude, double longitude) implements Coordi
         return EARTH_RADIUS * c;
     }
 
+    /**
+     * Calculates a lower bound of the distance to all coordinates on the other side of the parallel or meridian of this
+     * coordinate using spherical geometry.
+     * <p>
+     * The shortest path to the other side of a parallel follows the meridian of the point. The other side of a
+     * meridian is bounded by the meridian and the antimeridian, so the shortest path crosses the closer of both.
+     *
+     * @return The distance in meters.
+     */
+    @Override
+    public double axisDistanceTo(double firstComponent, double secondComponent, Axis axis) {
+        validateCoordinate(firstComponent, secondComponent);
+        if (axis == Axis.FIRST) {
+            return EARTH_RADIUS * Math.toRadians(Math.abs(firstComponent - latitude));
+        }
+
+        return Math.min(distanceToMeridian(firstComponent, secondComponent - longitude),
+                distanceToMeridian(firstComponent, secondComponent - 180));
+    }
+
     @Override
     public int compareTo(GeoCoordinate other) {
         double epsilon = 1e-5;
@@ -1,75 +1,81 @@
 package org.naviqore.utils.spatial.index;
 
-import lombok.AccessLevel;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import org.naviqore.utils.spatial.Coordinate;
 import org.naviqore.utils.spatial.Location;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
- * A k-dimensional tree (k-d tree) for fast, efficient proximity searches. This implementation only supports
+ * A static k-dimensional tree (k-d tree) for fast, efficient proximity searches. This implementation only supports
  * 2-dimensional spatial data.
+ * <p>
+ * The tree is stored implicitly in an array: The root of the subtree over the index range {@code [from, to)} is the
+ * median at {@code (from + to) / 2}, the left subtree covers {@code [from, median)} and the right subtree
+ * {@code (median, to)}. The {@link KDTreeBuilder} arranges the locations in this order, so that the tree is balanced.
+ * <p>
+ * Searches traverse the tree iteratively and prune subtrees with the metric lower bound of
+ * {@link Coordinate#axisDistanceTo(double, double, Coordinate.Axis)}, so that the radius is compared in the unit of the
+ * coordinates (e.g. meters for geographic coordinates).
  *
  * @param <T> The type of location stored in the tree.
  */
-@NoArgsConstructor(access = AccessLevel.PACKAGE)
 public class KDTree<T extends Location<?>> {
 
     private static final int K_DIMENSIONS = 2;
-    Node<T> root;
+    private static final int STACK_ENTRY_SIZE = 3;
 
-    static Coordinate.Axis getAxis(int depth) {
-        return depth % K_DIMENSIONS == 0 ? Coordinate.Axis.FIRST : Coordinate.Axis.SECOND;
-    }
+    private final Object[] locations;
+    private final Coordinate[] coordinates;
+    private final int height;
 
-    private static <T extends Location<?>> Node<T> getNextNodeBasedOnAxisDirection(Node<T> node,
-                                                                                   InternalCoordinate coordinate,
-                                                                                   Coordinate.Axis axis) {
-        Coordinate nodeCoordinate = node.location.getCoordinate();
-
-        return coordinate.getComponent(axis) < nodeCoordinate.getComponent(axis) ? node.left : node.right;
+    /**
+     * @param locations the locations in the order of the implicit tree.
+     */
+    KDTree(List<T> locations) {
+        this.locations = locations.toArray();
+        this.coordinates = locations.stream().map(Location::getCoordinate).toArray(Coordinate[]::new);
+        this.height = Integer.SIZE - Integer.numberOfLeadingZeros(this.locations.length);
     }
 
-    private static <T extends Location<?>> boolean isDistanceGreaterThanCoordinateDifference(Node<T> node,
-                                                                                             InternalCoordinate coordinate,
-                                                                                             Coordinate.Axis axis) {
-        Coordinate nodeCoordinate = node.location.getCoordinate();
-
-        double distance = nodeCoordinate.distanceTo(coordinate.firstComponent(), coordinate.secondComponent());
-        double coordinateDifference = Math.abs(coordinate.getComponent(axis) - nodeCoordinate.getComponent(axis));
-
-        return distance > coordinateDifference;
+    static Coordinate.Axis getAxis(int depth) {
+        return depth % K_DIMENSIONS == 0 ? Coordinate.Axis.FIRST : Coordinate.Axis.SECOND;
     }
 
-    void insert(T location) {
-        if (location == null) {
-            throw new IllegalArgumentException("Location cannot be null");
-        }
-        int startDepth = 0;
-        root = insert(root, location, startDepth);
+    private static double getComponent(double firstComponent, double secondComponent, Coordinate.Axis axis) {
+        return axis == Coordinate.Axis.FIRST ? firstComponent : secondComponent;
     }
 
-    private Node<T> insert(Node<T> node, T location, int depth) {
-        if (node == null) {
-            return new Node<>(location);
+    /**
+     * Pushes the subtree over the index range to the stack of a traversal, if it is not empty.
+     *
+     * @return the new size of the stack.
+     */
+    private static int push(int[] stack, int size, int from, int to, int depth) {
+        if (from >= to) {
+            return size;
         }
-        // draw axis alternately between first and second component of the coordinates for each depth level of the tree
-        // (i.e. for depth 0, 2, 4, ... compare first (x, lat) component, for depth 1, 3, 5, ... compare second (y,
-        // lon) component)
-        Coordinate.Axis axis = getAxis(depth);
+        stack[size] = from;
+        stack[size + 1] = to;
+        stack[size + 2] = depth;
+        return size + STACK_ENTRY_SIZE;
+    }
 
-        if ((location.getCoordinate().getComponent(axis)) < node.location.getCoordinate().getComponent(axis)) {
-            // build KDTree left side
-            node.left = insert(node.left, location, depth + 1);
-        } else {
-            // build KDTree right side
-            node.right = insert(node.right, location, depth + 1);
-        }
+    /**
+     * @return The number of locations in the tree.
+     */
+    public int size() {
+        return locations.length;
+    }
 
-        return node;
+    @SuppressWarnings("unchecked")
+    T getLocation(int index) {
+        return (T) locations[index];
     }
 
     /**
@@ -106,43 +112,78 @@ public class KDTree<T extends Location<?>> {
      * @return The nearest neighbor to the coordinate specified by firstComponent and secondComponent.
      */
     public T nearestNeighbor(double firstComponent, double secondComponent) {
-        if (root == null) {
-            throw new IllegalStateException("Tree is empty");
-        }
-        return nearestNeighbor(root, new InternalCoordinate(firstComponent, secondComponent), 0).location;
+        return nearestNeighbors(firstComponent, secondComponent, 1).getFirst();
     }
 
-    private Node<T> nearestNeighbor(Node<T> node, InternalCoordinate coordinate, int depth) {
-        if (node == null) {
-            return null;
-        }
-
-        Coordinate.Axis axis = getAxis(depth);
-        Node<T> next = getNextNodeBasedOnAxisDirection(node, coordinate, axis);
-        // get the other side (node) of the tree
-        Node<T> other = next == node.left ? node.right : node.left;
-        Node<T> best = getNodeWithClosestDistance(node, nearestNeighbor(next, coordinate, depth + 1), coordinate);
-
-        if (isDistanceGreaterThanCoordinateDifference(node, coordinate, axis)) {
-            best = getNodeWithClosestDistance(best, nearestNeighbor(other, coordinate, depth + 1), coordinate);
+    /**
+     * Finds the k nearest neighbors to a given coordinate.
+     *
+     * @param coordinate The coordinate to find the nearest neighbors for.
+     * @param k          The maximum number of neighbors to find.
+     * @return The nearest neighbors ordered by ascending distance to the coordinate.
+     */
+    public List<T> nearestNeighbors(Coordinate coordinate, int k) {
+        if (coordinate == null) {
+            throw new IllegalArgumentException("Coordinate cannot be null");
         }
-
-        return best;
+        return nearestNeighbors(coordinate.getFirstComponent(), coordinate.getSecondComponent(), k);
     }
 
-    private Node<T> getNodeWithClosestDistance(Node<T> node1, Node<T> node2, InternalCoordinate coordinate) {
-        if (node1 == null) {
-            return node2;
+    /**
+     * Finds the k nearest neighbors to a coordinate specified by its components.
+     *
+     * @param firstComponent  The first component of the coordinate.
+     * @param secondComponent The second component of the coordinate.
+     * @param k               The maximum number of neighbors to find.
+     * @return The nearest neighbors ordered by ascending distance to the coordinate.
+     */
+    public List<T> nearestNeighbors(double firstComponent, double secondComponent, int k) {
+        if (locations.length == 0) {
+            throw new IllegalStateException("Tree is empty");
         }
-        if (node2 == null) {
-            return node1;
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of neighbors must be positive");
+        }
+
+        Neighbors neighbors = new Neighbors(Math.min(k, locations.length));
+        int[] stack = new int[STACK_ENTRY_SIZE * (height + 1)];
+        double[] bounds = new double[height + 1];
+        int size = push(stack, 0, 0, locations.length, 0);
+
+        while (size > 0) {
+            size -= STACK_ENTRY_SIZE;
+            int from = stack[size];
+            int to = stack[size + 1];
+            int depth = stack[size + 2];
+            double bound = bounds[size / STACK_ENTRY_SIZE];
+            if (neighbors.isFull() && bound >= neighbors.getMaxDistance()) {
+                continue;
+            }
+
+            // descend to the leaf on the side of the coordinate, remember the other sides with their lower bound
+            while (from < to) {
+                int median = (from + to) >>> 1;
+                Coordinate coordinate = coordinates[median];
+                neighbors.offer(median, coordinate.distanceTo(firstComponent, secondComponent));
+
+                Coordinate.Axis axis = getAxis(depth);
+                double axisBound = Math.max(bound, coordinate.axisDistanceTo(firstComponent, secondComponent, axis));
+                boolean left = getComponent(firstComponent, secondComponent, axis) < coordinate.getComponent(axis);
+                if (!neighbors.isFull() || axisBound < neighbors.getMaxDistance()) {
+                    bounds[size / STACK_ENTRY_SIZE] = axisBound;
+                    size = left ? push(stack, size, median + 1, to, depth + 1) : push(stack, size, from, median,
+                            depth + 1);
+                }
+                if (left) {
+                    to = median;
+                } else {
+                    from = median + 1;
+                }
+                depth++;
+            }
         }
 
-        double dist1 = node1.location.getCoordinate()
-                .distanceTo(coordinate.firstComponent(), coordinate.secondComponent());
-        double dist2 = node2.location.getCoordinate()
-                .distanceTo(coordinate.firstComponent(), coordinate.secondComponent());
-        return dist1 < dist2 ? node1 : node2;
+        return neighbors.toList();
     }
 
     /**
@@ -183,65 +224,176 @@ public class KDTree<T extends Location<?>> {
      * @return A list of all locations within the radius of the specified center coordinate.
      */
     public ArrayList<T> rangeSearch(double firstComponent, double secondComponent, double radius) {
-        if (root == null) {
+        if (locations.length == 0) {
             throw new IllegalStateException("Tree is empty");
         }
         if (radius <= 0) {
             throw new IllegalArgumentException("Radius cannot be negative or zero");
         }
+
         ArrayList<T> result = new ArrayList<>();
-        rangeSearch(root, new InternalCoordinate(firstComponent, secondComponent), radius, 0, result);
+        rangeSearch(firstComponent, secondComponent, radius, index -> result.add(getLocation(index)));
+
         return result;
     }
 
-    private void rangeSearch(Node<T> node, InternalCoordinate coordinate, double radius, int depth,
-                             ArrayList<T> result) {
-        if (node == null) {
-            return;
+    /**
+     * Finds all pairs of locations within a certain radius of each other in a single parallel pass over the tree.
+     * <p>
+     * Every location accepted by the filter is searched as center in parallel, in the order of the tree, so that
+     * consecutive searches of a thread visit the same subtrees. Since the distance is symmetric, each pair is contained
+     * in both directions.
+     *
+     * @param radius The radius within which to search.
+     * @param filter The filter for the locations to join, other locations are neither centers nor neighbors.
+     * @return The neighbors within the radius of each accepted location, without the location itself.
+     */
+    public Map<T, List<T>> rangeJoin(double radius, Predicate<? super T> filter) {
+        if (locations.length == 0) {
+            throw new IllegalStateException("Tree is empty");
         }
-
-        double distance = node.location.getCoordinate()
-                .distanceTo(coordinate.firstComponent(), coordinate.secondComponent());
-
-        // Check if the current node is within the range
-        if (distance <= radius) {
-            result.add(node.location);
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius cannot be negative or zero");
         }
 
-        Coordinate.Axis axis = getAxis(depth);
-
-        double centerCoordinateOfInterest = coordinate.getComponent(axis);
-        double nodeCoordinateOfInterest = node.location.getCoordinate().getComponent(axis);
-
-        // Recursively search left subtree if necessary
-        if (centerCoordinateOfInterest - radius < nodeCoordinateOfInterest) {
-            rangeSearch(node.left, coordinate, radius, depth + 1, result);
+        boolean[] accepted = new boolean[locations.length];
+        for (int index = 0; index < locations.length; index++) {
+            accepted[index] = filter.test(getLocation(index));
         }
 
-        // Recursively search right subtree if necessary
-        if (centerCoordinateOfInterest + radius >= nodeCoordinateOfInterest) {
-            rangeSearch(node.right, coordinate, radius, depth + 1, result);
+        List<List<T>> neighbors = IntStream.range(0, locations.length).parallel().mapToObj(center -> {
+            if (!accepted[center]) {
+                return null;
+            }
+            List<T> result = new ArrayList<>();
+            Coordinate coordinate = coordinates[center];
+            rangeSearch(coordinate.getFirstComponent(), coordinate.getSecondComponent(), radius, index -> {
+                if (index != center && accepted[index]) {
+                    result.add(getLocation(index));
+                }
+            });
+            return result;
+        }).toList();
+
+        Map<T, List<T>> join = new LinkedHashMap<>();
+        for (int index = 0; index < locations.length; index++) {
+            if (accepted[index]) {
+                join.put(getLocation(index), neighbors.get(index));
+            }
         }
+
+        return join;
     }
 
-    /**
-     * Tree-internal node.
-     */
-    @Getter
-    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
-    static class Node<U> {
-        private final U location;
-        private Node<U> left;
-        private Node<U> right;
+    private void rangeSearch(double firstComponent, double secondComponent, double radius, IntConsumer consumer) {
+        int[] stack = new int[STACK_ENTRY_SIZE * (height + 1)];
+        int size = push(stack, 0, 0, locations.length, 0);
+
+        while (size > 0) {
+            size -= STACK_ENTRY_SIZE;
+            int from = stack[size];
+            int to = stack[size + 1];
+            int depth = stack[size + 2];
+
+            while (from < to) {
+                int median = (from + to) >>> 1;
+                Coordinate coordinate = coordinates[median];
+                if (coordinate.distanceTo(firstComponent, secondComponent) <= radius) {
+                    consumer.accept(median);
+                }
+
+                // only search the other side of the axis if it can contain locations within the radius
+                Coordinate.Axis axis = getAxis(depth);
+                boolean left = getComponent(firstComponent, secondComponent, axis) < coordinate.getComponent(axis);
+                if (coordinate.axisDistanceTo(firstComponent, secondComponent, axis) <= radius) {
+                    size = left ? push(stack, size, median + 1, to, depth + 1) : push(stack, size, from, median,
+                            depth + 1);
+                }
+                if (left) {
+                    to = median;
+                } else {
+                    from = median + 1;
+                }
+                depth++;
+            }
+        }
     }
 
     /**
-     * Tree-internal 2D coordinate.
+     * Bounded max-heap of the nearest neighbors found so far, the root is the farthest neighbor.
      */
-    private record InternalCoordinate(double firstComponent, double secondComponent) {
+    private final class Neighbors {
+
+        private final int[] indices;
+        private final double[] distances;
+        private int size;
+
+        private Neighbors(int capacity) {
+            indices = new int[capacity];
+            distances = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return size == indices.length;
+        }
+
+        private double getMaxDistance() {
+            return distances[0];
+        }
+
+        private void offer(int index, double distance) {
+            if (!isFull()) {
+                siftUp(size++, index, distance);
+            } else if (distance < distances[0]) {
+                // replace the farthest neighbor
+                siftDown(index, distance);
+            }
+        }
+
+        private void siftUp(int position, int index, double distance) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (distances[parent] >= distance) {
+                    break;
+                }
+                indices[position] = indices[parent];
+                distances[position] = distances[parent];
+                position = parent;
+            }
+            indices[position] = index;
+            distances[position] = distance;
+        }
+
+        private void siftDown(int index, double distance) {
+            int position = 0;
+            int child;
+            while ((child = 2 * position + 1) < size) {
+                if (child + 1 < size && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= distance) {
+                    break;
+                }
+                indices[position] = indices[child];
+                distances[position] = distances[child];
+                position = child;
+            }
+            indices[position] = index;
+            distances[position] = distance;
+        }
 
-        private double getComponent(Coordinate.Axis axis) {
-            return axis == Coordinate.Axis.FIRST ? firstComponent : secondComponent;
+        @SuppressWarnings("unchecked")
+        private List<T> toList() {
+            // remove the farthest neighbor until the heap is empty, filling the result from the back
+            Object[] result = new Object[size];
+            while (size > 0) {
+                result[size - 1] = locations[indices[0]];
+                if (--size > 0) {
+                    siftDown(indices[size], distances[size]);
+                }
+            }
+
+            return (List<T>) (List<?>) List.of(result);
         }
     }
 }
@@ -8,6 +8,7 @@ import org.naviqore.utils.spatial.Location;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.naviqore.utils.spatial.index.KDTree.getAxis;
@@ -16,7 +17,11 @@ import static org.naviqore.utils.spatial.index.KDTree.getAxis;
 @Slf4j
 public class KDTreeBuilder<T extends Location<?>> {
 
-    private ArrayList<T> locations = new ArrayList<>();
+    private final ArrayList<T> locations = new ArrayList<>();
+
+    private static <T extends Location<?>> Comparator<T> compareByAxis(Coordinate.Axis axis) {
+        return Comparator.comparingDouble(location -> location.getCoordinate().getComponent(axis));
+    }
 
     public KDTreeBuilder<T> addLocation(T location) {
         if (location == null) {
@@ -39,40 +44,35 @@ public class KDTreeBuilder<T extends Location<?>> {
     }
 
     public KDTree<T> build() {
-        if (locations == null || locations.isEmpty()) {
+        if (locations.isEmpty()) {
             throw new IllegalArgumentException("locations must not be null or empty");
         }
         log.info("Building spatial index for {} locations", locations.size());
-        KDTree<T> tree = new KDTree<>();
-        // sort locations to get a balanced tree
-        locations = new ArrayList<>(balanceSortLocations(locations, 0));
-        locations.forEach(tree::insert);
 
-        return tree;
+        return new KDTree<>(balanceSortLocations(locations));
     }
 
-    List<T> balanceSortLocations(Collection<T> locations, int depth) {
-        if (locations.size() <= 1) {
-            return new ArrayList<>(locations.stream().toList());
-        }
-
-        Coordinate.Axis axis = getAxis(depth);
+    /**
+     * Arranges the locations in the order of the implicit tree, with the median of each index range on the axis of its
+     * depth in the middle of the range, the smaller locations before and the larger locations after it.
+     */
+    List<T> balanceSortLocations(Collection<T> locations) {
+        List<T> balancedLocations = new ArrayList<>(locations);
+        balanceSortLocations(balancedLocations, 0, balancedLocations.size(), 0);
 
-        // sort all locations by the axis
-        List<T> sortedLocations = locations.stream().sorted((l1, l2) -> {
-            double c1 = l1.getCoordinate().getComponent(axis);
-            double c2 = l2.getCoordinate().getComponent(axis);
-            return Double.compare(c1, c2);
-        }).toList();
+        return balancedLocations;
+    }
 
-        int medianIndex = sortedLocations.size() / 2;
+    private void balanceSortLocations(List<T> locations, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
 
-        ArrayList<T> balancedList = new ArrayList<>();
-        balancedList.add(sortedLocations.get(medianIndex));
-        balancedList.addAll(balanceSortLocations(sortedLocations.subList(0, medianIndex), depth + 1));
-        balancedList.addAll(
-                balanceSortLocations(sortedLocations.subList(medianIndex + 1, sortedLocations.size()), depth + 1));
+        // sort the range by the axis, the median is the root of the subtree over the range
+        locations.subList(from, to).sort(compareByAxis(getAxis(depth)));
+        int median = (from + to) >>> 1;
 
-        return balancedList;
+        balanceSortLocations(locations, from, median, depth + 1);
+        balanceSortLocations(locations, median + 1, to, depth + 1);
     }
 }
@@ -0,0 +1,175 @@
+package org.naviqore.utils.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchProcessorTest {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PARALLELISM = 4;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldReturnResultsInInputOrder() {
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+
+        List<Integer> results = BatchProcessor.process(items, i -> i % 7, i -> i * 2, executor);
+
+        assertThat(results).containsExactlyElementsOf(items.stream().map(i -> i * 2).toList());
+    }
+
+    @Test
+    void shouldProcessFirstItemOfEachGroupBeforeRemainingItems() {
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+        Map<Integer, Boolean> warmedUpGroups = new ConcurrentHashMap<>();
+
+        List<Boolean> results = BatchProcessor.process(items, i -> i % 3, i -> {
+            boolean warmedUp = warmedUpGroups.containsKey(i % 3);
+            warmedUpGroups.put(i % 3, true);
+            return warmedUp;
+        }, executor);
+
+        // only the first item of each group is processed without warmed up group state
+        assertThat(results.stream().filter(warmedUp -> !warmedUp).count()).isEqualTo(3);
+        assertThat(results.subList(0, 3)).containsOnly(false);
+    }
+
+    @Test
+    void shouldSupportNullGroupKeys() {
+        List<String> items = List.of("a", "b", "c");
+
+        List<String> results = BatchProcessor.process(items, _ -> null, String::toUpperCase, executor);
+
+        assertThat(results).containsExactly("A", "B", "C");
+    }
+
+    @Test
+    void shouldHandleEmptyBatch() {
+        assertThat(BatchProcessor.process(List.of(), Function.identity(), Function.identity(), executor)).isEmpty();
+    }
+
+    @Test
+    void shouldRethrowExceptionOfFailedItem() {
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+
+        assertThatThrownBy(() -> BatchProcessor.process(items, _ -> 0, i -> {
+            if (i == BATCH_SIZE / 2) {
+                throw new IllegalStateException("failed item");
+            }
+            return i;
+        }, executor)).isInstanceOf(IllegalStateException.class).hasMessage("failed item");
+    }
+
+    @Test
+    void shouldProcessGroupsConcurrently() {
+        // the single items of both groups wait for each other, which only finishes if they run at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+
+        List<Boolean> results = BatchProcessor.process(List.of(1, 2), Function.identity(), _ -> {
+            latch.countDown();
+            try {
+                return latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+
+        assertThat(results).containsExactly(true, true);
+    }
+
+    @Test
+    void shouldRethrowExceptionOfFailedFirstItemOfGroup() {
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+
+        assertThatThrownBy(() -> BatchProcessor.process(items, i -> i % 2, i -> {
+            if (i == 1) {
+                throw new IllegalStateException("failed warm-up");
+            }
+            return i;
+        }, executor)).isInstanceOf(IllegalStateException.class).hasMessage("failed warm-up");
+    }
+
+    @Test
+    void shouldSkipOutstandingItemsAfterFailedItem() {
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+        AtomicInteger processed = new AtomicInteger();
+
+        // a single thread processes the groups in input order, so all items after the failed first item are outstanding
+        try (ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor()) {
+            assertThatThrownBy(() -> BatchProcessor.process(items, Function.identity(), i -> {
+                processed.incrementAndGet();
+                if (i == 0) {
+                    throw new IllegalStateException("failed item");
+                }
+                return i;
+            }, singleThreadExecutor)).isInstanceOf(IllegalStateException.class).hasMessage("failed item");
+        }
+
+        assertThat(processed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldProcessItemOnSubmittingThreadIfQueueOfExecutorIsFull() throws InterruptedException {
+        ExecutorService boundedExecutor = BatchProcessor.newExecutor(1, 1, "batch-test-");
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            // occupy the single thread and the single queue slot
+            boundedExecutor.execute(() -> {
+                try {
+                    blocked.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            boundedExecutor.execute(() -> {
+            });
+
+            Thread[] processingThread = new Thread[1];
+            boundedExecutor.execute(() -> processingThread[0] = Thread.currentThread());
+
+            assertThat(processingThread[0]).isSameAs(Thread.currentThread());
+        } finally {
+            blocked.countDown();
+            boundedExecutor.shutdown();
+            assertThat(boundedExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldCompleteBatchOnSubmittingThreadIfExecutorIsShutDown() {
+        ExecutorService boundedExecutor = BatchProcessor.newExecutor(PARALLELISM, BATCH_SIZE, "batch-test-");
+        boundedExecutor.shutdown();
+        List<Integer> items = IntStream.range(0, BATCH_SIZE).boxed().toList();
+
+        List<Integer> results = BatchProcessor.process(items, i -> i % 7, i -> i * 2, boundedExecutor);
+
+        assertThat(results).containsExactlyElementsOf(items.stream().map(i -> i * 2).toList());
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.naviqore.utils.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellationTokenTest {
+
+    @Test
+    void shouldNotStopUncancelledToken() {
+        CancellationToken token = CancellationToken.create();
+
+        assertThat(token.isCancelled()).isFalse();
+        assertThat(token.shouldStop()).isFalse();
+        assertThat(token.hasPartialResults()).isFalse();
+    }
+
+    @Test
+    void shouldStopCancelledTokenAndFlagPartialResults() {
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+
+        assertThat(token.isCancelled()).isTrue();
+        assertThat(token.hasPartialResults()).isFalse();
+        assertThat(token.shouldStop()).isTrue();
+        assertThat(token.hasPartialResults()).isTrue();
+    }
+
+    @Test
+    void shouldCancelTokenAfterTimeout() throws InterruptedException {
+        CancellationToken token = CancellationToken.withTimeout(Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        assertThat(token.isCancelled()).isTrue();
+    }
+
+    @Test
+    void shouldNotCancelTokenBeforeTimeout() {
+        CancellationToken token = CancellationToken.withTimeout(Duration.ofHours(1));
+
+        assertThat(token.isCancelled()).isFalse();
+    }
+
+    @Test
+    void shouldThrowForInvalidTimeout() {
+        assertThatThrownBy(() -> CancellationToken.withTimeout(Duration.ZERO)).isInstanceOf(
+                IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldNotAllowCancellingNoneToken() {
+        assertThatThrownBy(CancellationToken.NONE::cancel).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(CancellationToken.NONE.isCancelled()).isFalse();
+    }
+
+    @Test
+    void shouldCancelChildTogetherWithParent() {
+        CancellationToken parent = CancellationToken.create();
+        CancellationToken child = parent.child();
+
+        assertThat(child.isCancelled()).isFalse();
+        parent.cancel();
+        assertThat(child.isCancelled()).isTrue();
+    }
+
+    @Test
+    void shouldFlagPartialResultsOfChildOnParentOnly() {
+        CancellationToken parent = CancellationToken.create();
+        CancellationToken stopped = parent.child();
+        CancellationToken finished = parent.child();
+        parent.cancel();
+
+        assertThat(stopped.shouldStop()).isTrue();
+        assertThat(stopped.hasPartialResults()).isTrue();
+        assertThat(finished.hasPartialResults()).isFalse();
+        assertThat(parent.hasPartialResults()).isTrue();
+    }
+
+    @Test
+    void shouldNotCancelParentWithChild() {
+        CancellationToken parent = CancellationToken.create();
+        CancellationToken child = parent.child();
+        child.cancel();
+
+        assertThat(child.isCancelled()).isTrue();
+        assertThat(parent.isCancelled()).isFalse();
+    }
+
+    @Test
+    void shouldReturnNoneTokenAsChildOfNoneToken() {
+        assertThat(CancellationToken.NONE.child()).isSameAs(CancellationToken.NONE);
+    }
+
+}
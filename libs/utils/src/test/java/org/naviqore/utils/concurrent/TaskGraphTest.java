@@ -0,0 +1,106 @@
+package org.naviqore.utils.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskGraphTest {
+
+    private static final int PARALLELISM = 4;
+
+    @Test
+    void shouldPassResultsToDependingTasks() throws Exception {
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+        TaskGraph.Task<Integer> base = graph.add("base", () -> 2);
+        TaskGraph.Task<Integer> square = graph.add("square", () -> base.get() * base.get(), base);
+        TaskGraph.Task<Integer> sum = graph.add("sum", () -> base.get() + square.get(), base, square);
+
+        graph.run();
+
+        assertThat(sum.get()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldRunIndependentTasksConcurrently() throws Exception {
+        // both tasks wait for each other, which only finishes if they run at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+        graph.add("first", () -> {
+            latch.countDown();
+            return latch.await(10, TimeUnit.SECONDS);
+        });
+        TaskGraph.Task<Boolean> second = graph.add("second", () -> {
+            latch.countDown();
+            return latch.await(10, TimeUnit.SECONDS);
+        });
+
+        graph.run();
+
+        assertThat(second.get()).isTrue();
+    }
+
+    @Test
+    void shouldMeasureTasksInOrderOfAdding() throws Exception {
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+        TaskGraph.Task<long[]> allocate = graph.add("allocate", () -> new long[1 << 20]);
+        graph.add("sleep", () -> {
+            Thread.sleep(20);
+            return allocate.get().length;
+        }, allocate);
+
+        List<TaskMetrics> metrics = graph.run();
+
+        assertThat(metrics).extracting(TaskMetrics::name).containsExactly("allocate", "sleep");
+        assertThat(metrics.get(0).allocatedBytes()).isGreaterThanOrEqualTo(8L << 20);
+        assertThat(metrics.get(1).wallTime().toMillis()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void shouldRethrowExceptionOfFailedTaskAndSkipDependingTasks() {
+        AtomicBoolean dependingTaskRan = new AtomicBoolean();
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+        TaskGraph.Task<Integer> failing = graph.add("failing", () -> {
+            throw new IOException("broken");
+        });
+        graph.add("depending", () -> dependingTaskRan.getAndSet(true), failing);
+
+        assertThatThrownBy(graph::run).isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(IOException.class)
+                .hasMessage("broken");
+        assertThat(dependingTaskRan).isFalse();
+        assertThatThrownBy(failing::get).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRejectDependencyOfOtherGraph() {
+        TaskGraph.Task<Integer> other = new TaskGraph(PARALLELISM).add("other", () -> 1);
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+
+        assertThatThrownBy(() -> graph.add("task", () -> 2, other)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRunOnlyOnce() throws Exception {
+        TaskGraph graph = new TaskGraph(PARALLELISM);
+        graph.add("task", () -> 1);
+
+        graph.run();
+
+        assertThatThrownBy(graph::run).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRejectInvalidParallelism() {
+        assertThatThrownBy(() -> new TaskGraph(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
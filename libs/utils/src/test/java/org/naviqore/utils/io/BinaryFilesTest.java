@@ -0,0 +1,129 @@
+package org.naviqore.utils.io;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryFilesTest {
+
+    private static final int MAGIC = 0x4E51_5445;
+    private static final int VERSION = 3;
+    // SHA-256 of "abc"
+    private static final String ABC_SHA_256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    private static DataInputStream readBytes(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] header(int magic, int version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryFiles.writeHeader(new DataOutputStream(bytes), magic, version);
+        return bytes.toByteArray();
+    }
+
+    @Nested
+    class Sha256 {
+
+        @Test
+        void shouldHashFileContent(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("file.txt");
+            Files.writeString(file, "abc");
+
+            assertThat(BinaryFiles.sha256(file)).isEqualTo(ABC_SHA_256);
+        }
+
+        @Test
+        void shouldHashWrittenContent() {
+            assertThat(BinaryFiles.sha256(out -> out.write("abc".getBytes(StandardCharsets.UTF_8)))).isEqualTo(
+                    ABC_SHA_256);
+        }
+
+        @Test
+        void shouldRethrowFailureOfContent() {
+            assertThatThrownBy(() -> BinaryFiles.sha256(_ -> {
+                throw new IOException("broken");
+            })).isInstanceOf(UncheckedIOException.class).hasMessageContaining("broken");
+        }
+
+    }
+
+    @Nested
+    class Header {
+
+        @Test
+        void shouldReadWrittenHeader() throws IOException {
+            DataInputStream in = readBytes(header(MAGIC, VERSION));
+
+            BinaryFiles.readHeader(in, MAGIC, VERSION, "test file");
+
+            assertThat(in.available()).isZero();
+        }
+
+        @Test
+        void shouldRejectOtherMagic() throws IOException {
+            byte[] header = header(MAGIC + 1, VERSION);
+
+            assertThatThrownBy(() -> BinaryFiles.readHeader(readBytes(header), MAGIC, VERSION, "test file"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Not a test file");
+        }
+
+        @Test
+        void shouldRejectOtherVersion() throws IOException {
+            byte[] header = header(MAGIC, VERSION - 1);
+
+            assertThatThrownBy(() -> BinaryFiles.readHeader(readBytes(header), MAGIC, VERSION, "test file"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Unsupported test file version 2, expected 3");
+        }
+
+    }
+
+    @Nested
+    class WriteAtomically {
+
+        @Test
+        void shouldCreateDirectoriesAndReplaceFile(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("a/b/file.bin");
+
+            BinaryFiles.writeAtomically(file, out -> out.writeInt(1));
+            BinaryFiles.writeAtomically(file, out -> out.writeInt(2));
+
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                assertThat(in.readInt()).isEqualTo(2);
+            }
+            try (Stream<Path> files = Files.list(file.getParent())) {
+                assertThat(files).containsExactly(file);
+            }
+        }
+
+        @Test
+        void shouldKeepPreviousFileAndRemoveTemporaryFileOnFailure(@TempDir Path tempDir) throws IOException {
+            Path file = tempDir.resolve("file.bin");
+            BinaryFiles.writeAtomically(file, out -> out.writeInt(1));
+
+            assertThatThrownBy(() -> BinaryFiles.writeAtomically(file, out -> {
+                out.writeInt(2);
+                throw new IOException("broken");
+            })).isInstanceOf(IOException.class).hasMessage("broken");
+
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                assertThat(in.readInt()).isEqualTo(1);
+            }
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertThat(files).containsExactly(file);
+            }
+        }
+
+    }
+
+}
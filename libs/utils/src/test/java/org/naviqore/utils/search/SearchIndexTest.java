@@ -52,6 +52,12 @@ class SearchIndexTest {
                     IllegalArgumentException.class).hasMessage("Key cannot be null or empty.");
         }
 
+        @Test
+        void shouldThrowWhenKeyContainsNullCharacter() {
+            assertThatThrownBy(() -> builder.add("A\0B", SearchCase.SERIES_1)).isInstanceOf(
+                    IllegalArgumentException.class).hasMessage("Key cannot contain the null character.");
+        }
+
         @Test
         void shouldThrowWhenKeyIsEmpty() {
             assertThatThrownBy(() -> builder.add("", SearchCase.SERIES_1)).isInstanceOf(IllegalArgumentException.class)
@@ -295,4 +301,82 @@ class SearchIndexTest {
             }
         }
     }
+
+    @Nested
+    class FuzzySearch {
+
+        @Test
+        void shouldFindKeysWithTypos() {
+            SearchIndex<SearchCase> index = builder.build();
+            Set<SearchCase> result = index.search("duplikate", SearchIndex.SearchStrategy.FUZZY);
+            assertThat(result).containsExactlyInAnyOrder(SearchCase.DUPLICATE_1, SearchCase.DUPLICATE_2);
+        }
+
+        @Test
+        void shouldFindKeysWithTyposOnSuffixTrie() {
+            SearchIndex<SearchCase> index = builder.indexType(SearchIndex.IndexType.SUFFIX_TRIE).build();
+            Set<SearchCase> result = index.search("left-paded", SearchIndex.SearchStrategy.FUZZY);
+            assertThat(result).containsExactly(SearchCase.LEFT_PADDED);
+        }
+    }
+
+    @Nested
+    class RankedSearch {
+
+        private SearchIndex<String> index;
+
+        @BeforeEach
+        void setUp() {
+            index = SearchIndex.<String>builder()
+                    .add("bern wankdorf", "Bern Wankdorf")
+                    .add("bern", "Bern")
+                    .add("bümpliz bern", "Bümpliz Bern")
+                    .add("bernina", "Bernina")
+                    .add("zürich hb", "Zürich HB")
+                    .add("aarberg", "Aarberg")
+                    .order(String::compareTo)
+                    .build();
+        }
+
+        @Test
+        void shouldRankByRelevance() {
+            List<String> result = index.search("bern", SearchIndex.SearchStrategy.CONTAINS,
+                    SearchIndex.Ranking.RELEVANCE, 10);
+            assertThat(result).containsExactly("Bern", "Bernina", "Bern Wankdorf", "Bümpliz Bern");
+        }
+
+        @Test
+        void shouldRankInIndexOrder() {
+            List<String> result = index.search("er", SearchIndex.SearchStrategy.CONTAINS,
+                    SearchIndex.Ranking.INDEX_ORDER, 10);
+            assertThat(result).containsExactly("Aarberg", "Bern", "Bern Wankdorf", "Bernina", "Bümpliz Bern");
+        }
+
+        @Test
+        void shouldKeepBestRankedWithinLimit() {
+            List<String> result = index.search("b", SearchIndex.SearchStrategy.CONTAINS,
+                    SearchIndex.Ranking.RELEVANCE, 2);
+            assertThat(result).containsExactly("Bern", "Bernina");
+        }
+
+        @Test
+        void shouldApplySearchStrategy() {
+            List<String> result = index.search("bern", SearchIndex.SearchStrategy.ENDS_WITH,
+                    SearchIndex.Ranking.RELEVANCE, 10);
+            assertThat(result).containsExactly("Bern", "Bümpliz Bern");
+        }
+
+        @Test
+        void shouldNotFindEmptyKey() {
+            assertThat(index.search("", SearchIndex.SearchStrategy.CONTAINS, SearchIndex.Ranking.RELEVANCE,
+                    10)).isEmpty();
+        }
+
+        @Test
+        void shouldThrowWhenLimitIsNotPositive() {
+            assertThatThrownBy(() -> index.search("bern", SearchIndex.SearchStrategy.CONTAINS,
+                    SearchIndex.Ranking.RELEVANCE, 0)).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Limit must be positive.");
+        }
+    }
 }
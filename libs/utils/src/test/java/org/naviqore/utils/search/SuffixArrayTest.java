@@ -0,0 +1,116 @@
+package org.naviqore.utils.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuffixArrayTest {
+
+    private static final List<String> KEYS = List.of("zürich hb", "zürich stadelhofen", "zürich oerlikon", "bern",
+            "bern wankdorf", "basel sbb", "st. gallen", "st. gallen st. fiden", "aaa", "aaab", "baaa", "a", "bern");
+
+    private static SuffixArray<Integer> build(List<String> keys) {
+        List<SearchIndex.Entry<Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            entries.add(new SearchIndex.Entry<>(keys.get(i), i));
+        }
+        return new SuffixArray<>(entries);
+    }
+
+    private static SearchIndex<Integer> buildTrie(List<String> keys) {
+        SearchIndexBuilder<Integer> builder = SearchIndex.<Integer>builder()
+                .indexType(SearchIndex.IndexType.SUFFIX_TRIE);
+        for (int i = 0; i < keys.size(); i++) {
+            builder.add(keys.get(i), i);
+        }
+        return builder.build();
+    }
+
+    private static List<String> createRandomKeys(Random random) {
+        // small alphabet to get many repeated substrings
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                key.append("ab c".charAt(random.nextInt(4)));
+            }
+            keys.add(key.toString());
+        }
+        return keys;
+    }
+
+    @Test
+    void shouldContainSuffixOfEveryCharacter() {
+        SuffixArray<Integer> suffixArray = build(KEYS);
+        assertThat(suffixArray.size()).isEqualTo(KEYS.stream().mapToInt(String::length).sum());
+    }
+
+    @Test
+    void shouldFindMatchesAcrossKeys() {
+        SuffixArray<Integer> suffixArray = build(KEYS);
+
+        assertThat(suffixArray.search("bern", SearchIndex.SearchStrategy.EXACT)).containsExactlyInAnyOrder(3, 12);
+        assertThat(suffixArray.search("st.", SearchIndex.SearchStrategy.CONTAINS)).containsExactlyInAnyOrder(6, 7);
+        assertThat(suffixArray.search("aa", SearchIndex.SearchStrategy.STARTS_WITH)).containsExactlyInAnyOrder(8, 9);
+        assertThat(suffixArray.search("aa", SearchIndex.SearchStrategy.ENDS_WITH)).containsExactlyInAnyOrder(8, 10);
+        assertThat(suffixArray.search("ürich", SearchIndex.SearchStrategy.STARTS_WITH)).isEmpty();
+    }
+
+    @Test
+    void shouldNotMatchAcrossEndOfKey() {
+        SuffixArray<Integer> suffixArray = build(KEYS);
+
+        assertThat(suffixArray.search("hbz", SearchIndex.SearchStrategy.CONTAINS)).isEmpty();
+        assertThat(suffixArray.search("hb\0zürich", SearchIndex.SearchStrategy.CONTAINS)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SearchIndex.SearchStrategy.class, names = "FUZZY", mode = EnumSource.Mode.EXCLUDE)
+    void shouldFindSameValuesAsSuffixTrie(SearchIndex.SearchStrategy strategy) {
+        Random random = new Random(42);
+        List<String> keys = createRandomKeys(random);
+        SuffixArray<Integer> suffixArray = build(keys);
+        SearchIndex<Integer> suffixTrie = buildTrie(keys);
+
+        for (int i = 0; i < 500; i++) {
+            // substrings of keys and random strings, which may or may not occur
+            String key = keys.get(random.nextInt(keys.size()));
+            int start = random.nextInt(key.length());
+            String query = random.nextBoolean() ? key.substring(start, start + 1 + random.nextInt(
+                    key.length() - start)) : createRandomKeys(random).getFirst();
+
+            assertThat(suffixArray.search(query, strategy)).as("Search for '%s'", query)
+                    .isEqualTo(suffixTrie.search(query, strategy));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SearchIndex.Ranking.class)
+    void shouldRankSameValuesAsSuffixTrie(SearchIndex.Ranking ranking) {
+        Random random = new Random(42);
+        List<String> keys = createRandomKeys(random);
+        SuffixArray<Integer> suffixArray = build(keys);
+        SearchIndex<Integer> suffixTrie = buildTrie(keys);
+
+        for (int i = 0; i < 500; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            int start = random.nextInt(key.length());
+            String query = key.substring(start, start + 1 + random.nextInt(Math.min(3, key.length() - start)));
+            // all strategies except FUZZY, which neither backend supports
+            SearchIndex.SearchStrategy strategy = SearchIndex.SearchStrategy.values()[random.nextInt(
+                    SearchIndex.SearchStrategy.FUZZY.ordinal())];
+            int limit = 1 + random.nextInt(20);
+
+            assertThat(suffixArray.search(query, strategy, ranking, limit)).as("Search for '%s'", query)
+                    .isEqualTo(suffixTrie.search(query, strategy, ranking, limit));
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package org.naviqore.utils.search;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrigramIndexTest {
+
+    private static final List<String> KEYS = List.of("zürich hb", "zürich oerlikon", "zug", "bern", "bern wankdorf",
+            "genève cornavin", "st. gallen", "biel/bienne", "münchenbuchsee", "bankdorf");
+
+    private static TrigramIndex<String> build(List<String> keys) {
+        List<SearchIndex.Entry<String>> entries = new ArrayList<>();
+        for (String key : keys) {
+            entries.add(new SearchIndex.Entry<>(key, key));
+        }
+        return new TrigramIndex<>(entries);
+    }
+
+    private static Set<String> search(TrigramIndex<String> index, String query) {
+        return index.search(query, SearchIndex.SearchStrategy.FUZZY);
+    }
+
+    @Nested
+    class Normalize {
+
+        @ParameterizedTest
+        @CsvSource({"Zürich HB, zurich hb", "Genève, geneve", "ÅÇÉÎÕ, aceio", "bern, bern"})
+        void shouldRemoveDiacriticsAndCase(String string, String expected) {
+            assertThat(TrigramIndex.normalize(string)).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    class Edits {
+
+        @ParameterizedTest
+        @CsvSource({"zurich, zurich hb, 0", "zuerich, zurich hb, 1", "zurihc, zurich hb, 1",
+                "oerlikon, zurich oerlikon, 0", "orlikn, zurich oerlikon, 2", "bern, basel, 3"})
+        void shouldFindSmallestEditDistanceToAnySubstring(String query, String key, int expected) {
+            assertThat(TrigramIndex.getEdits(query, key, 2)).isEqualTo(expected);
+        }
+
+        @Test
+        void shouldComputeSameEditsBitParallelAsByDynamicProgramming() {
+            Random random = new Random(42);
+            for (int i = 0; i < 1000; i++) {
+                // long queries exceed the 64 bits of the bit-parallel algorithm
+                String query = createRandomString(random, 1 + random.nextInt(70));
+                String key = createRandomString(random, random.nextInt(30));
+                TrigramIndex.ApproximateMatcher matcher = new TrigramIndex.ApproximateMatcher(query);
+
+                int expected = matcher.getEditsByDynamicProgramming(key);
+                assertThat(matcher.getEdits(key, Integer.MAX_VALUE - 1)).as("Edits of '%s' in '%s'", query, key)
+                        .isEqualTo(expected);
+                if (query.length() <= Long.SIZE) {
+                    assertThat(matcher.getEditsBitParallel(key)).isEqualTo(expected);
+                }
+            }
+        }
+
+        private static String createRandomString(Random random, int length) {
+            // includes a character outside of ASCII
+            StringBuilder string = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                string.append("abcß".charAt(random.nextInt(4)));
+            }
+            return string.toString();
+        }
+
+        @ParameterizedTest
+        @CsvSource({"1, 0", "2, 0", "3, 1", "5, 1", "6, 2", "20, 2"})
+        void shouldAllowMoreEditsForLongerQueries(int queryLength, int expected) {
+            assertThat(TrigramIndex.getMaxEdits(queryLength)).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    class Search {
+
+        private final TrigramIndex<String> index = build(KEYS);
+
+        @Test
+        void shouldIgnoreDiacriticsAndCase() {
+            assertThat(search(index, "ZURICH")).containsExactlyInAnyOrder("zürich hb", "zürich oerlikon");
+            assertThat(search(index, "geneve")).containsExactly("genève cornavin");
+        }
+
+        @Test
+        void shouldTolerateTypos() {
+            assertThat(search(index, "zuerich")).containsExactlyInAnyOrder("zürich hb", "zürich oerlikon");
+            assertThat(search(index, "wankdrof")).containsExactly("bern wankdorf");
+            assertThat(search(index, "munchenbuchse")).containsExactly("münchenbuchsee");
+        }
+
+        @Test
+        void shouldMatchShortQueriesWithoutEdits() {
+            assertThat(search(index, "zu")).containsExactlyInAnyOrder("zürich hb", "zürich oerlikon", "zug");
+            assertThat(search(index, "zx")).isEmpty();
+        }
+
+        @Test
+        void shouldNotMatchDissimilarQuery() {
+            assertThat(search(index, "lausanne")).isEmpty();
+        }
+
+        @Test
+        void shouldRankByEditsThenRelevance() {
+            List<String> result = index.search("wankdorf", SearchIndex.SearchStrategy.FUZZY,
+                    SearchIndex.Ranking.RELEVANCE, 10);
+            // the shorter key with one edit is ranked after the exact substring
+            assertThat(result).containsExactly("bern wankdorf", "bankdorf");
+        }
+
+        @Test
+        void shouldLimitRankedResults() {
+            assertThat(index.search("zurich", SearchIndex.SearchStrategy.FUZZY, SearchIndex.Ranking.RELEVANCE,
+                    1)).containsExactly("zürich hb");
+        }
+
+        @Test
+        void shouldThrowForOtherStrategies() {
+            assertThatThrownBy(() -> index.search("bern", SearchIndex.SearchStrategy.CONTAINS)).isInstanceOf(
+                    IllegalArgumentException.class).hasMessage("Trigram index only supports fuzzy search.");
+        }
+
+        @Test
+        void shouldFindSameValuesAsScanningAllKeys() {
+            // long queries share enough trigrams with every match, so the trigram filter does not miss any key
+            Random random = new Random(42);
+            String alphabet = "abcdefghij";
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                StringBuilder key = new StringBuilder();
+                for (int j = 0; j < 20; j++) {
+                    key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                keys.add(key.toString());
+            }
+            TrigramIndex<String> randomIndex = build(keys);
+
+            for (int i = 0; i < 200; i++) {
+                String key = keys.get(random.nextInt(keys.size()));
+                int start = random.nextInt(8);
+                StringBuilder query = new StringBuilder(key.substring(start, start + 12));
+                query.setCharAt(random.nextInt(query.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+                query.deleteCharAt(random.nextInt(query.length()));
+
+                Set<String> expected = new HashSet<>();
+                for (String candidate : keys) {
+                    if (TrigramIndex.getEdits(query.toString(), candidate, 2) <= 2) {
+                        expected.add(candidate);
+                    }
+                }
+                assertThat(search(randomIndex, query.toString())).as("Search for '%s'", query).isEqualTo(expected)
+                        .contains(key);
+            }
+        }
+    }
+
+}
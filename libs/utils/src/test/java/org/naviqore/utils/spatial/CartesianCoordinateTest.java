@@ -85,4 +85,23 @@ public class CartesianCoordinateTest {
 
     }
 
+    @Nested
+    class AxisDistanceTo {
+
+        @Test
+        void axisDistanceTo() {
+            CartesianCoordinate coordinate = new CartesianCoordinate(1, 2);
+            assertEquals(3, coordinate.axisDistanceTo(4, -2, Coordinate.Axis.FIRST), TOLERANCE);
+            assertEquals(4, coordinate.axisDistanceTo(4, -2, Coordinate.Axis.SECOND), TOLERANCE);
+        }
+
+        @Test
+        void axisDistanceTo_withNaN() {
+            CartesianCoordinate coordinate = new CartesianCoordinate(0, 0);
+            assertThrows(IllegalArgumentException.class,
+                    () -> coordinate.axisDistanceTo(Double.NaN, 0, Coordinate.Axis.FIRST));
+        }
+
+    }
+
 }
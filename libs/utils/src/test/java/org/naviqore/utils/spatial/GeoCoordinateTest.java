@@ -6,10 +6,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Random;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class GeoCoordinateTest {
 
@@ -100,6 +100,43 @@ public class GeoCoordinateTest {
 
     }
 
+    @Nested
+    class AxisDistanceTo {
+
+        static Stream<Arguments> axisDistanceToProvider() {
+            return Stream.of(Arguments.of(new GeoCoordinate(10, 0), 0, 0, Coordinate.Axis.FIRST, 1_111_950),
+                    Arguments.of(new GeoCoordinate(-10, 50), 0, 0, Coordinate.Axis.FIRST, 1_111_950),
+                    Arguments.of(new GeoCoordinate(0, 10), 0, 0, Coordinate.Axis.SECOND, 1_111_950),
+                    // meridians converge towards the poles
+                    Arguments.of(new GeoCoordinate(0, 10), 60, 0, Coordinate.Axis.SECOND, 553_854),
+                    // the antimeridian is closer than the meridian
+                    Arguments.of(new GeoCoordinate(0, -100), 0, 170, Coordinate.Axis.SECOND, 1_111_950),
+                    // both meridians are behind the point, the shortest path leads over the pole
+                    Arguments.of(new GeoCoordinate(0, 120), 60, 0, Coordinate.Axis.SECOND, 3_335_850));
+        }
+
+        @ParameterizedTest(name = "distance from: ({1}, {2}) to {0} on {3}")
+        @MethodSource("axisDistanceToProvider")
+        void axisDistanceTo(GeoCoordinate coordinate, double latitude, double longitude, Coordinate.Axis axis,
+                            double expected) {
+            assertEquals(expected, coordinate.axisDistanceTo(latitude, longitude, axis), expected * TOLERANCE);
+        }
+
+        @Test
+        void shouldNotExceedDistance() {
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                GeoCoordinate c1 = new GeoCoordinate(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+                GeoCoordinate c2 = new GeoCoordinate(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+                for (Coordinate.Axis axis : Coordinate.Axis.values()) {
+                    assertTrue(c2.axisDistanceTo(c1.latitude(), c1.longitude(), axis) <= c1.distanceTo(c2) + 1e-6,
+                            String.format("axis distance from %s to %s on %s", c1, c2, axis));
+                }
+            }
+        }
+
+    }
+
     @Nested
     class CompareTo {
 
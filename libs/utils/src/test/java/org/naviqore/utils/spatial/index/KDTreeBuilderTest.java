@@ -18,9 +18,9 @@ public class KDTreeBuilderTest {
         builder = new KDTreeBuilder<>();
     }
 
-    private void assertLocationMatchesExpectedCoordinate(double x, double y, KDTree.Node<TestFacility> node) {
-        Assertions.assertEquals(x, node.getLocation().getCoordinate().getFirstComponent());
-        Assertions.assertEquals(y, node.getLocation().getCoordinate().getSecondComponent());
+    private void assertLocationMatchesExpectedCoordinate(double x, double y, TestFacility location) {
+        Assertions.assertEquals(x, location.getCoordinate().getFirstComponent());
+        Assertions.assertEquals(y, location.getCoordinate().getSecondComponent());
     }
 
     private ArrayList<TestFacility> getTestLocations() {
@@ -47,14 +47,16 @@ public class KDTreeBuilderTest {
             //      (2, 7)             (7,2)
             //    (4, 5)  (1, 8)   (8, 1)  (6, 3)
             // (3, 6)
-            assertLocationMatchesExpectedCoordinate(5, 4, tree.root);
-            assertLocationMatchesExpectedCoordinate(2, 7, tree.root.getLeft());
-            assertLocationMatchesExpectedCoordinate(7, 2, tree.root.getRight());
-            assertLocationMatchesExpectedCoordinate(4, 5, tree.root.getLeft().getLeft());
-            assertLocationMatchesExpectedCoordinate(3, 6, tree.root.getLeft().getLeft().getLeft());
-            assertLocationMatchesExpectedCoordinate(1, 8, tree.root.getLeft().getRight());
-            assertLocationMatchesExpectedCoordinate(8, 1, tree.root.getRight().getLeft());
-            assertLocationMatchesExpectedCoordinate(6, 3, tree.root.getRight().getRight());
+            // and be stored in order with the root of each index range in its middle
+            Assertions.assertEquals(8, tree.size());
+            assertLocationMatchesExpectedCoordinate(3, 6, tree.getLocation(0));
+            assertLocationMatchesExpectedCoordinate(4, 5, tree.getLocation(1));
+            assertLocationMatchesExpectedCoordinate(2, 7, tree.getLocation(2));
+            assertLocationMatchesExpectedCoordinate(1, 8, tree.getLocation(3));
+            assertLocationMatchesExpectedCoordinate(5, 4, tree.getLocation(4));
+            assertLocationMatchesExpectedCoordinate(8, 1, tree.getLocation(5));
+            assertLocationMatchesExpectedCoordinate(7, 2, tree.getLocation(6));
+            assertLocationMatchesExpectedCoordinate(6, 3, tree.getLocation(7));
         }
 
         @Test
@@ -62,9 +64,8 @@ public class KDTreeBuilderTest {
             builder.addLocation(new TestFacility("5,4", new CartesianCoordinate(5, 4)));
             KDTree<TestFacility> tree = builder.build();
 
-            assertLocationMatchesExpectedCoordinate(5, 4, tree.root);
-            Assertions.assertNull(tree.root.getLeft());
-            Assertions.assertNull(tree.root.getRight());
+            Assertions.assertEquals(1, tree.size());
+            assertLocationMatchesExpectedCoordinate(5, 4, tree.getLocation(0));
         }
 
         @Test
@@ -93,20 +94,20 @@ public class KDTreeBuilderTest {
         @Test
         public void balanceSortLocations() {
             List<TestFacility> locations = getTestLocations();
-            List<TestFacility> balancedLocations = builder.balanceSortLocations(locations, 0);
+            List<TestFacility> balancedLocations = builder.balanceSortLocations(locations);
 
             // make sure the locations are sorted correctly
             List<CartesianCoordinate> expectedSortOrder = new ArrayList<>();
-            // first root
-            expectedSortOrder.add(new CartesianCoordinate(5, 4));
-            // left tree (all to the left and filling up rights going back up)
-            expectedSortOrder.add(new CartesianCoordinate(2, 7));
-            expectedSortOrder.add(new CartesianCoordinate(4, 5));
+            // left tree (the root of each subtree in the middle of its range)
             expectedSortOrder.add(new CartesianCoordinate(3, 6));
+            expectedSortOrder.add(new CartesianCoordinate(4, 5));
+            expectedSortOrder.add(new CartesianCoordinate(2, 7));
             expectedSortOrder.add(new CartesianCoordinate(1, 8));
-            // right tree (first lefts then rights)
-            expectedSortOrder.add(new CartesianCoordinate(7, 2));
+            // root
+            expectedSortOrder.add(new CartesianCoordinate(5, 4));
+            // right tree
             expectedSortOrder.add(new CartesianCoordinate(8, 1));
+            expectedSortOrder.add(new CartesianCoordinate(7, 2));
             expectedSortOrder.add(new CartesianCoordinate(6, 3));
 
             for (int i = 0; i < locations.size(); i++) {
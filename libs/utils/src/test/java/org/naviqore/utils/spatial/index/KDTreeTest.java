@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.naviqore.utils.spatial.CartesianCoordinate;
+import org.naviqore.utils.spatial.GeoCoordinate;
+import org.naviqore.utils.spatial.Location;
 
+import java.util.*;
 import java.util.stream.Stream;
 
 class KDTreeTest {
@@ -25,65 +28,30 @@ class KDTreeTest {
 
     private KDTree<TestFacility> buildTestKDTree() {
         // create some locations with near and far distances
-        KDTree<TestFacility> kdTree = new KDTree<>();
-        kdTree.insert(munich);
-        kdTree.insert(berlin);
-        kdTree.insert(frankfurt);
-        kdTree.insert(zurich);
-        kdTree.insert(militarkantine);
-        kdTree.insert(sportsFacilityKreuzbleiche);
-        return kdTree;
+        return new KDTreeBuilder<TestFacility>().addLocations(
+                List.of(munich, berlin, frankfurt, zurich, militarkantine, sportsFacilityKreuzbleiche)).build();
     }
 
-    @Nested
-    class Insert {
-        @Test
-        void insert() {
-            KDTree<TestFacility> kdTree = new KDTree<>();
-            // confirm that the tree is empty
-            Assertions.assertNull(kdTree.root);
-
-            // insert a location, will be root
-            kdTree.insert(berlin);
-            Assertions.assertEquals(berlin, kdTree.root.getLocation());
-            Assertions.assertNull(kdTree.root.getLeft());
-            Assertions.assertNull(kdTree.root.getRight());
-
-            // insert a location with a smaller latitude coordinate (should go left)
-            kdTree.insert(augsburg);
-            Assertions.assertEquals(berlin, kdTree.root.getLocation());
-            Assertions.assertEquals(augsburg, kdTree.root.getLeft().getLocation());
-            Assertions.assertNull(kdTree.root.getRight());
-            Assertions.assertNull(kdTree.root.getLeft().getLeft());
-            Assertions.assertNull(kdTree.root.getLeft().getRight());
-
-            // insert a location with a smaller latitude than berlin and augsburg (but larger longitude than augsburg)
-            // --> should go left and then right
-            kdTree.insert(munich);
-            Assertions.assertEquals(berlin, kdTree.root.getLocation());
-            Assertions.assertEquals(augsburg, kdTree.root.getLeft().getLocation());
-            Assertions.assertEquals(munich, kdTree.root.getLeft().getRight().getLocation());
-            Assertions.assertNull(kdTree.root.getRight());
-            Assertions.assertNull(kdTree.root.getLeft().getLeft());
-            Assertions.assertNull(kdTree.root.getLeft().getRight().getLeft());
-            Assertions.assertNull(kdTree.root.getLeft().getRight().getRight());
-            // insert a location where latitude is greater than root (should go right)
-            kdTree.insert(vilnius);
-            Assertions.assertEquals(berlin, kdTree.root.getLocation());
-            Assertions.assertEquals(augsburg, kdTree.root.getLeft().getLocation());
-            Assertions.assertEquals(munich, kdTree.root.getLeft().getRight().getLocation());
-            Assertions.assertEquals(vilnius, kdTree.root.getRight().getLocation());
-            Assertions.assertNull(kdTree.root.getLeft().getLeft());
-            Assertions.assertNull(kdTree.root.getLeft().getRight().getLeft());
-            Assertions.assertNull(kdTree.root.getLeft().getRight().getRight());
-            Assertions.assertNull(kdTree.root.getRight().getLeft());
-            Assertions.assertNull(kdTree.root.getRight().getRight());
-        }
-
-        @Test
-        void insert_withNull() {
-            KDTree<TestFacility> kdTree = new KDTree<>();
-            Assertions.assertThrows(IllegalArgumentException.class, () -> kdTree.insert(null));
+    private static List<Stop> createRandomStops() {
+        // stops around Zurich, at most about 30 km apart
+        Random random = new Random(42);
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            stops.add(new Stop("stop" + i,
+                    new GeoCoordinate(47.2 + random.nextDouble() * 0.3, 8.3 + random.nextDouble() * 0.4)));
+        }
+        return stops;
+    }
+
+    private static List<Stop> bruteForceSearch(List<Stop> stops, GeoCoordinate center, double radius) {
+        return stops.stream().filter(stop -> stop.coordinate().distanceTo(center) <= radius).toList();
+    }
+
+    private record Stop(String id, GeoCoordinate coordinate) implements Location<GeoCoordinate> {
+
+        @Override
+        public GeoCoordinate getCoordinate() {
+            return coordinate;
         }
     }
 
@@ -109,11 +77,47 @@ class KDTreeTest {
 
         @Test
         void nearestNeighbour_withEmptyTree() {
-            KDTree<TestFacility> kdTree = new KDTree<>();
+            KDTree<TestFacility> kdTree = new KDTree<>(List.of());
             Assertions.assertThrows(IllegalStateException.class, () -> kdTree.nearestNeighbor(munich));
         }
     }
 
+    @Nested
+    class NearestNeighbours {
+        @Test
+        void nearestNeighbours() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+            Assertions.assertEquals(List.of(sportsFacilityKreuzbleiche, militarkantine, zurich),
+                    kdTree.nearestNeighbors(parkingKreuzbleiche.getCoordinate(), 3));
+        }
+
+        @Test
+        void nearestNeighbours_withMoreNeighboursThanLocations() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+            Assertions.assertEquals(6, kdTree.nearestNeighbors(parkingKreuzbleiche.getCoordinate(), 10).size());
+        }
+
+        @Test
+        void nearestNeighbours_withGeoCoordinates() {
+            List<Stop> stops = createRandomStops();
+            KDTree<Stop> kdTree = new KDTreeBuilder<Stop>().addLocations(stops).build();
+            GeoCoordinate center = new GeoCoordinate(47.37, 8.54);
+
+            List<Stop> expected = stops.stream()
+                    .sorted(Comparator.comparingDouble(stop -> stop.coordinate().distanceTo(center)))
+                    .limit(25)
+                    .toList();
+            Assertions.assertEquals(expected, kdTree.nearestNeighbors(center, 25));
+        }
+
+        @Test
+        void nearestNeighbours_withZeroNeighbours() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> kdTree.nearestNeighbors(parkingKreuzbleiche.getCoordinate(), 0));
+        }
+    }
+
     @Nested
     class RangeSearch {
         @Test
@@ -133,6 +137,21 @@ class KDTreeTest {
             Assertions.assertEquals(3, kdTree.rangeSearch(parkingKreuzbleiche, 1).size());
         }
 
+        @Test
+        void rangeSearch_withGeoCoordinates() {
+            // the radius is in meters, the tree must prune with distances in meters and not in degrees
+            List<Stop> stops = createRandomStops();
+            KDTree<Stop> kdTree = new KDTreeBuilder<Stop>().addLocations(stops).build();
+
+            for (Stop center : stops.subList(0, 100)) {
+                for (double radius : new double[]{100, 500, 2000, 10_000}) {
+                    List<Stop> expected = bruteForceSearch(stops, center.coordinate(), radius);
+                    Assertions.assertEquals(new HashSet<>(expected),
+                            new HashSet<>(kdTree.rangeSearch(center, radius)));
+                }
+            }
+        }
+
         @Test
         void rangeSearch_withCoordinateArgument() {
             KDTree<TestFacility> kdTree = buildTestKDTree();
@@ -170,9 +189,56 @@ class KDTreeTest {
 
         @Test
         void rangeSearch_withEmptyTree() {
-            KDTree<TestFacility> kdTree = new KDTree<>();
+            KDTree<TestFacility> kdTree = new KDTree<>(List.of());
             Assertions.assertThrows(IllegalStateException.class, () -> kdTree.rangeSearch(munich, 500));
         }
     }
 
+    @Nested
+    class RangeJoin {
+        @Test
+        void rangeJoin() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+
+            Map<TestFacility, List<TestFacility>> join = kdTree.rangeJoin(0.01, facility -> true);
+
+            Assertions.assertEquals(6, join.size());
+            Assertions.assertEquals(List.of(sportsFacilityKreuzbleiche), join.get(militarkantine));
+            Assertions.assertEquals(List.of(militarkantine), join.get(sportsFacilityKreuzbleiche));
+            Assertions.assertEquals(List.of(), join.get(zurich));
+        }
+
+        @Test
+        void rangeJoin_withFilter() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+
+            Map<TestFacility, List<TestFacility>> join = kdTree.rangeJoin(1,
+                    facility -> facility != sportsFacilityKreuzbleiche);
+
+            Assertions.assertEquals(5, join.size());
+            Assertions.assertEquals(List.of(zurich), join.get(militarkantine));
+        }
+
+        @Test
+        void rangeJoin_withGeoCoordinates() {
+            List<Stop> stops = createRandomStops();
+            KDTree<Stop> kdTree = new KDTreeBuilder<Stop>().addLocations(stops).build();
+
+            Map<Stop, List<Stop>> join = kdTree.rangeJoin(500, stop -> true);
+
+            Assertions.assertEquals(stops.size(), join.size());
+            for (Stop stop : stops) {
+                Set<Stop> expected = new HashSet<>(bruteForceSearch(stops, stop.coordinate(), 500));
+                expected.remove(stop);
+                Assertions.assertEquals(expected, new HashSet<>(join.get(stop)));
+            }
+        }
+
+        @Test
+        void rangeJoin_withZeroDistance() {
+            KDTree<TestFacility> kdTree = buildTestKDTree();
+            Assertions.assertThrows(IllegalArgumentException.class, () -> kdTree.rangeJoin(0, facility -> true));
+        }
+    }
+
 }
\ No newline at end of file